@@ -0,0 +1,86 @@
+package com.benefitj.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnowflakeIdWorker 的多线程吞吐：无锁实现 vs 原来的 synchronized 实现
+ * <p>
+ * 运行: gradle :core:jmh -PjmhInclude=SnowflakeIdWorkerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdWorkerBenchmark {
+
+  @Param({"synchronized", "wait", "borrow", "lease"})
+  String type;
+
+  LegacyWorker legacy;
+  SnowflakeIdWorker worker;
+
+  @Setup
+  public void setup() {
+    switch (type) {
+      case "synchronized":
+        legacy = new LegacyWorker();
+        break;
+      case "borrow":
+        worker = new SnowflakeIdWorker(0, 1).setRollbackPolicy(SnowflakeIdWorker.RollbackPolicy.BORROW);
+        break;
+      case "lease":
+        worker = new SnowflakeIdWorker(0, 2).setLeaseSize(256);
+        break;
+      default:
+        worker = new SnowflakeIdWorker(0, 0);
+    }
+  }
+
+  @Benchmark
+  public long nextId() {
+    return legacy != null ? legacy.nextId() : worker.nextId();
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options opts = new OptionsBuilder()
+        .include(SnowflakeIdWorkerBenchmark.class.getName())
+        .threads(Runtime.getRuntime().availableProcessors() * 2)
+        .build();
+    new Runner(opts).run();
+  }
+
+  /**
+   * 原来的实现
+   */
+  static class LegacyWorker {
+    private long sequence = 0L;
+    private long lastTimestamp = -1L;
+
+    synchronized long nextId() {
+      long timestamp = System.currentTimeMillis();
+      if (timestamp < lastTimestamp) {
+        throw new IllegalArgumentException("Clock moved backwards");
+      }
+      if (lastTimestamp == timestamp) {
+        sequence = (sequence + 1) & 4095;
+        if (sequence == 0) {
+          while (timestamp <= lastTimestamp) {
+            timestamp = System.currentTimeMillis();
+          }
+        }
+      } else {
+        sequence = 0L;
+      }
+      lastTimestamp = timestamp;
+      return ((timestamp - 1420041600000L) << 22) | sequence;
+    }
+  }
+
+}
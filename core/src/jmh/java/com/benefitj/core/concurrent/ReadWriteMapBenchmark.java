@@ -0,0 +1,93 @@
+package com.benefitj.core.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReadWriteMap 的读吞吐：1/4/16 个读线程，只读(read) 和 一个写线程并发(mixed)
+ * <p>
+ * Impl、NonReentrant 的读取加读锁，CopyOnWrite 的读取不加锁(写入复制整个Map)，
+ * ConcurrentHashMap 作为基准；mixed 同时报告写线程的吞吐，写入的代价也要一起比较
+ * <p>
+ * 运行: gradle :core:jmh -PjmhMain=com.benefitj.core.concurrent.ReadWriteMapBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadWriteMapBenchmark {
+
+  @Param({"Impl", "NonReentrant", "CopyOnWrite", "ConcurrentHashMap"})
+  String type;
+
+  @Param({"1024"})
+  int size;
+
+  Map<Integer, Integer> map;
+
+  @Setup
+  public void setup() {
+    switch (type) {
+      case "CopyOnWrite":
+        map = new ReadWriteMap.CopyOnWrite<>();
+        break;
+      case "NonReentrant":
+        map = new ReadWriteMap.NonReentrant<>();
+        break;
+      case "ConcurrentHashMap":
+        map = new ConcurrentHashMap<>();
+        break;
+      default:
+        map = new ReadWriteMap.Impl<>();
+    }
+    for (int i = 0; i < size; i++) {
+      map.put(i, i);
+    }
+  }
+
+  @Benchmark
+  public Integer read() {
+    return map.get(ThreadLocalRandom.current().nextInt(size));
+  }
+
+  @Benchmark
+  @Group("mixed")
+  public Integer mixedRead() {
+    return map.get(ThreadLocalRandom.current().nextInt(size));
+  }
+
+  @Benchmark
+  @Group("mixed")
+  public void mixedWrite(Blackhole bh) {
+    int key = ThreadLocalRandom.current().nextInt(size);
+    bh.consume(map.put(key, key));
+    // 写入很少
+    Blackhole.consumeCPU(1000);
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (int readers : new int[]{1, 4, 16}) {
+      Options read = new OptionsBuilder()
+          .include(ReadWriteMapBenchmark.class.getName() + ".read$")
+          .threads(readers)
+          .build();
+      new Runner(read).run();
+      Options mixed = new OptionsBuilder()
+          .include(ReadWriteMapBenchmark.class.getName() + ".mixed")
+          .threadGroups(readers, 1)
+          .build();
+      new Runner(mixed).run();
+    }
+  }
+
+}
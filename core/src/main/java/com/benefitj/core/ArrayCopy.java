@@ -7,9 +7,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.function.Function;
 
 /**
@@ -196,9 +196,29 @@ public interface ArrayCopy<T> {
     return new SimpleBufCopy<>(double[]::new, false, 0.0);
   }
 
+  /**
+   * 线程本地缓存的数组，每个线程最多缓存 {@link #MAX_CACHED_ARRAYS} 个不同长度的数组，
+   * 超过 {@link #MAX_CACHED_SIZE} 的数组不缓存；需要长期持有或复用较大的缓冲时，
+   * 使用 {@link com.benefitj.core.pool.ByteArrayPool}
+   */
   class SimpleBufCopy<T> implements ArrayCopy<T> {
 
-    private ThreadLocal<Map<Integer, T>> bytesCache = ThreadLocal.withInitial(WeakHashMap::new);
+    /**
+     * 每个线程最多缓存的数组数量
+     */
+    public static final int MAX_CACHED_ARRAYS = 16;
+    /**
+     * 最大缓存的数组长度
+     */
+    public static final int MAX_CACHED_SIZE = 64 << 10;
+
+    private final ThreadLocal<Map<Integer, T>> bytesCache = ThreadLocal.withInitial(() ->
+        new LinkedHashMap<Integer, T>(MAX_CACHED_ARRAYS, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+            return size() > MAX_CACHED_ARRAYS;
+          }
+        });
     private Function<Integer, T> creator;
 
     private boolean fill;
@@ -220,13 +240,29 @@ public interface ArrayCopy<T> {
      */
     @Override
     public T getCache(int size, boolean local) {
-      T buf = local ? bytesCache.get().computeIfAbsent(size, getCreator()) : getCreator().apply(size);
+      T buf;
+      if (local && size <= MAX_CACHED_SIZE) {
+        Map<Integer, T> cache = bytesCache.get();
+        buf = cache.get(size);
+        if (buf == null) {
+          cache.put(size, buf = getCreator().apply(size));
+        }
+      } else {
+        buf = getCreator().apply(size);
+      }
       if (isFill()) {
-        Utils.arrayFor(buf, (i, v) -> Array.set(buf, i, getFillValue()), false);
+        fill(buf, getFillValue());
       }
       return buf;
     }
 
+    /**
+     * 清空当前线程缓存的数组
+     */
+    public void clearCache() {
+      bytesCache.remove();
+    }
+
     public Function<Integer, T> getCreator() {
       return creator;
     }
@@ -252,6 +288,38 @@ public interface ArrayCopy<T> {
     }
   }
 
+  /**
+   * 填充数组
+   *
+   * @param array 数组
+   * @param value 填充的值
+   */
+  static void fill(Object array, Object value) {
+    if (array instanceof byte[]) {
+      Arrays.fill((byte[]) array, ((Number) value).byteValue());
+    } else if (array instanceof short[]) {
+      Arrays.fill((short[]) array, ((Number) value).shortValue());
+    } else if (array instanceof int[]) {
+      Arrays.fill((int[]) array, ((Number) value).intValue());
+    } else if (array instanceof long[]) {
+      Arrays.fill((long[]) array, ((Number) value).longValue());
+    } else if (array instanceof float[]) {
+      Arrays.fill((float[]) array, ((Number) value).floatValue());
+    } else if (array instanceof double[]) {
+      Arrays.fill((double[]) array, ((Number) value).doubleValue());
+    } else if (array instanceof char[]) {
+      Arrays.fill((char[]) array, (Character) value);
+    } else if (array instanceof boolean[]) {
+      Arrays.fill((boolean[]) array, (Boolean) value);
+    } else if (array instanceof Object[]) {
+      Arrays.fill((Object[]) array, value);
+    } else {
+      for (int i = 0, len = Array.getLength(array); i < len; i++) {
+        Array.set(array, i, value);
+      }
+    }
+  }
+
   static int len(Object src) {
     return Array.getLength(src);
   }
@@ -1,7 +1,13 @@
 package com.benefitj.core;
 
-import java.util.Map;
+import com.benefitj.core.functions.WrappedMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -212,4 +218,318 @@ public interface AttributeMap {
     return wrap(new ConcurrentHashMap<>());
   }
 
+  /**
+   * 创建可监听变化的属性集合
+   *
+   * @param map 属性
+   * @return 返回属性集合
+   */
+  static Observable observable(Map<String, Object> map) {
+    return new Observable(map);
+  }
+
+  /**
+   * 属性变化的监听
+   */
+  interface Observer {
+
+    /**
+     * 属性被修改
+     *
+     * @param key      键
+     * @param oldValue 旧的值，新增时为 NULL
+     * @param newValue 新的值，移除时为 NULL
+     */
+    void onAttrChanged(String key, Object oldValue, Object newValue);
+
+  }
+
+  /**
+   * 可监听变化的属性集合，通过键、值和Entry的视图修改时同样会通知；
+   * 监听抛出的异常会被记录，不影响其他监听和调用方(此时属性已经修改)
+   */
+  class Observable implements WrappedMap<String, Object> {
+
+    static final Logger log = LoggerFactory.getLogger(Observable.class);
+
+    private final Map<String, Object> map;
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    public Observable(Map<String, Object> map) {
+      this.map = map;
+    }
+
+    @Override
+    public Map<String, Object> map() {
+      return map;
+    }
+
+    public void addObserver(Observer observer) {
+      observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+      observers.remove(observer);
+    }
+
+    protected void fire(String key, Object oldValue, Object newValue) {
+      if (!Objects.equals(oldValue, newValue)) {
+        for (Observer observer : observers) {
+          try {
+            observer.onAttrChanged(key, oldValue, newValue);
+          } catch (RuntimeException e) {
+            log.warn("属性监听异常, key: {}, old: {}, new: {}", key, oldValue, newValue, e);
+          }
+        }
+      }
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Object old = map.put(key, value);
+      fire(key, old, value);
+      return old;
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+      Object old = map.putIfAbsent(key, value);
+      if (old == null) fire(key, null, value);
+      return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+      m.forEach(this::put);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      Object old = map.remove(key);
+      if (old != null) fire((String) key, old, null);
+      return old;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+      boolean removed = map.remove(key, value);
+      if (removed) fire((String) key, value, null);
+      return removed;
+    }
+
+    @Override
+    public void clear() {
+      for (String key : new ArrayList<>(map.keySet())) {
+        remove(key);
+      }
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+      boolean replaced = map.replace(key, oldValue, newValue);
+      if (replaced) fire(key, oldValue, newValue);
+      return replaced;
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+      Object old = map.replace(key, value);
+      if (old != null) fire(key, old, value);
+      return old;
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+      for (String key : new ArrayList<>(map.keySet())) {
+        computeIfPresent(key, function);
+      }
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+      Object old = map.get(key);
+      if (old != null) return old;
+      Object value = map.computeIfAbsent(key, mappingFunction);
+      fire(key, null, value);
+      return value;
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+      Object old = map.get(key);
+      Object value = map.computeIfPresent(key, remappingFunction);
+      fire(key, old, value);
+      return value;
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+      Object old = map.get(key);
+      Object value = map.compute(key, remappingFunction);
+      fire(key, old, value);
+      return value;
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+      Object old = map.get(key);
+      Object newValue = map.merge(key, value, remappingFunction);
+      fire(key, old, newValue);
+      return newValue;
+    }
+
+    @Override
+    public Set<String> keySet() {
+      return new AbstractSet<String>() {
+        @Override
+        public Iterator<String> iterator() {
+          return new ViewIterator<>(Entry::getKey);
+        }
+
+        @Override
+        public int size() {
+          return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+          return Observable.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+          Observable.this.clear();
+        }
+      };
+    }
+
+    @Override
+    public Collection<Object> values() {
+      return new AbstractCollection<Object>() {
+        @Override
+        public Iterator<Object> iterator() {
+          return new ViewIterator<>(Entry::getValue);
+        }
+
+        @Override
+        public int size() {
+          return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return map.containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+          Observable.this.clear();
+        }
+      };
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new ViewIterator<>(ObservableEntry::new);
+        }
+
+        @Override
+        public int size() {
+          return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          if (!(o instanceof Entry)) {
+            return false;
+          }
+          Object value = map.get(((Entry<?, ?>) o).getKey());
+          return value != null && value.equals(((Entry<?, ?>) o).getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+          return o instanceof Entry && Observable.this.remove(((Entry<?, ?>) o).getKey(), ((Entry<?, ?>) o).getValue());
+        }
+
+        @Override
+        public void clear() {
+          Observable.this.clear();
+        }
+      };
+    }
+
+    /**
+     * 视图的迭代器，移除时通知监听
+     */
+    final class ViewIterator<E> implements Iterator<E> {
+
+      final Iterator<Entry<String, Object>> it = map.entrySet().iterator();
+      final Function<Entry<String, Object>, E> mapper;
+      Entry<String, Object> last;
+
+      ViewIterator(Function<Entry<String, Object>, E> mapper) {
+        this.mapper = mapper;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public E next() {
+        return mapper.apply(last = it.next());
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        Observable.this.remove(last.getKey(), last.getValue());
+        last = null;
+      }
+    }
+
+    /**
+     * 修改值时通知监听
+     */
+    final class ObservableEntry extends AbstractMap.SimpleEntry<String, Object> {
+
+      ObservableEntry(Entry<String, Object> entry) {
+        super(entry);
+      }
+
+      @Override
+      public Object setValue(Object value) {
+        super.setValue(value);
+        return Observable.this.put(getKey(), value);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o == this || map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return map.toString();
+    }
+  }
+
 }
@@ -1,7 +1,14 @@
 package com.benefitj.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * 二进制工具类
@@ -37,9 +44,6 @@ public class BinaryHelper {
       "1000", "1001", "1010", "1011", "1100", "1101", "1110", "1111"
   };
 
-  private static final char[] HEX_CHARS =
-      new char[]{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
-
 
   private static byte[][] MASKS = new byte[][]{
       {0b00000001, 0b00000010, 0b00000100, 0b00001000, 0b00010000, 0b00100000, 0b01000000, (byte) 0b10000000},
@@ -52,6 +56,50 @@ public class BinaryHelper {
       {(byte) 0b11111111}
   };
 
+  /**
+   * 按字节查表编码，每个字节对应两个字符
+   */
+  private static final char[] HEX_TABLE_UPPER = hexTable(HEX_UPPER_CASE);
+  private static final char[] HEX_TABLE_LOWER = hexTable(HEX_LOWER_CASE);
+  /**
+   * 字符解码表，非16进制字符为 -1
+   */
+  private static final byte[] HEX_DECODE = new byte[128];
+
+  static {
+    Arrays.fill(HEX_DECODE, (byte) -1);
+    for (int i = 0; i < 16; i++) {
+      HEX_DECODE[HEX_UPPER_CASE.charAt(i)] = (byte) i;
+      HEX_DECODE[HEX_LOWER_CASE.charAt(i)] = (byte) i;
+    }
+  }
+
+  private static char[] hexTable(String hex) {
+    char[] table = new char[512];
+    for (int i = 0; i < 256; i++) {
+      table[i << 1] = hex.charAt(i >>> 4);
+      table[(i << 1) + 1] = hex.charAt(i & 0x0F);
+    }
+    return table;
+  }
+
+  /**
+   * 基于字节数组/ByteBuffer的视图，按偏移量直接读写基本类型，不产生临时数组
+   */
+  private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final VarHandle BUF_SHORT_BE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle BUF_SHORT_LE = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle BUF_INT_BE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle BUF_INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle BUF_LONG_BE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle BUF_LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
   /**
    * 缓冲
    */
@@ -376,6 +424,10 @@ public class BinaryHelper {
    * @return 返回一个整数
    */
   public short bytesToShort(byte[] bytes, int offset, int len, ByteOrder order, boolean signed) {
+    if (len == 2) {
+      // 完整位宽，有符号和无符号的位模式一致
+      return readShort(bytes, offset, order);
+    }
     // 大端字节顺序：高位在前，低位在后
     // 小端字节顺序：低位在前，高位在后
     short value = 0;
@@ -405,7 +457,7 @@ public class BinaryHelper {
       } else {
         for (int i = len - 1; i >= 0; i--) {
           value <<= 8;
-          value |= bytes[i] & 0xFF;
+          value |= bytes[offset + i] & 0xFF;
         }
       }
     }
@@ -479,6 +531,10 @@ public class BinaryHelper {
    * @return 返回整数值
    */
   public int bytesToInt(byte[] bytes, int offset, int len, ByteOrder order, boolean signed) {
+    if (len == 4) {
+      // 完整位宽，有符号和无符号的位模式一致
+      return readInt(bytes, offset, order);
+    }
     // 大端字节顺序：高位在前，低位在后
     // 小端字节顺序：低位在前，高位在后
     int value = 0;
@@ -508,7 +564,7 @@ public class BinaryHelper {
       } else {
         for (int i = len - 1; i >= 0; i--) {
           value <<= 8;
-          value |= bytes[i] & 0xFF;
+          value |= bytes[offset + i] & 0xFF;
         }
       }
     }
@@ -582,6 +638,10 @@ public class BinaryHelper {
    * @return 返回长整数值
    */
   public long bytesToLong(byte[] bytes, int offset, int len, ByteOrder order, boolean signed) {
+    if (len == 8) {
+      // 完整位宽，有符号和无符号的位模式一致
+      return readLong(bytes, offset, order);
+    }
     // 大端字节顺序：高位在前，低位在后
     // 小端字节顺序：低位在前，高位在后
     long value = 0;
@@ -611,7 +671,7 @@ public class BinaryHelper {
       } else {
         for (int i = len - 1; i >= 0; i--) {
           value <<= 8;
-          value |= bytes[i] & 0xFF;
+          value |= bytes[offset + i] & 0xFF;
         }
       }
     }
@@ -628,6 +688,335 @@ public class BinaryHelper {
     return bytesToHex(longToBytes(value));
   }
 
+  // ~ 基于偏移量的读写，直接操作调用方的缓冲，不创建临时数组
+
+  /**
+   * 写入短整数
+   *
+   * @param dst 目标数组
+   * @param off 偏移量
+   * @param v   数值
+   * @return 返回目标数组
+   */
+  public byte[] writeShort(byte[] dst, int off, short v) {
+    return writeShort(dst, off, v, order);
+  }
+
+  /**
+   * 写入短整数
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeShort(byte[] dst, int off, short v, ByteOrder order) {
+    (isLittle(order) ? SHORT_LE : SHORT_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 写入整数
+   *
+   * @param dst 目标数组
+   * @param off 偏移量
+   * @param v   数值
+   * @return 返回目标数组
+   */
+  public byte[] writeInt(byte[] dst, int off, int v) {
+    return writeInt(dst, off, v, order);
+  }
+
+  /**
+   * 写入整数
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeInt(byte[] dst, int off, int v, ByteOrder order) {
+    (isLittle(order) ? INT_LE : INT_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 写入长整数
+   *
+   * @param dst 目标数组
+   * @param off 偏移量
+   * @param v   数值
+   * @return 返回目标数组
+   */
+  public byte[] writeLong(byte[] dst, int off, long v) {
+    return writeLong(dst, off, v, order);
+  }
+
+  /**
+   * 写入长整数
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeLong(byte[] dst, int off, long v, ByteOrder order) {
+    (isLittle(order) ? LONG_LE : LONG_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 写入单精度浮点数
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeFloat(byte[] dst, int off, float v, ByteOrder order) {
+    return writeInt(dst, off, Float.floatToRawIntBits(v), order);
+  }
+
+  /**
+   * 写入双精度浮点数
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeDouble(byte[] dst, int off, double v, ByteOrder order) {
+    return writeLong(dst, off, Double.doubleToRawLongBits(v), order);
+  }
+
+  /**
+   * 读取短整数
+   *
+   * @param src 原数组
+   * @param off 偏移量
+   * @return 返回读取的值
+   */
+  public short readShort(byte[] src, int off) {
+    return readShort(src, off, order);
+  }
+
+  /**
+   * 读取短整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public short readShort(byte[] src, int off, ByteOrder order) {
+    return (short) (isLittle(order) ? SHORT_LE : SHORT_BE).get(src, off);
+  }
+
+  /**
+   * 读取无符号短整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值(0 ~ 65535)
+   */
+  public int readUnsignedShort(byte[] src, int off, ByteOrder order) {
+    return readShort(src, off, order) & 0xFFFF;
+  }
+
+  /**
+   * 读取整数
+   *
+   * @param src 原数组
+   * @param off 偏移量
+   * @return 返回读取的值
+   */
+  public int readInt(byte[] src, int off) {
+    return readInt(src, off, order);
+  }
+
+  /**
+   * 读取整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public int readInt(byte[] src, int off, ByteOrder order) {
+    return (int) (isLittle(order) ? INT_LE : INT_BE).get(src, off);
+  }
+
+  /**
+   * 读取无符号整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值(0 ~ 4294967295)
+   */
+  public long readUnsignedInt(byte[] src, int off, ByteOrder order) {
+    return readInt(src, off, order) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * 读取长整数
+   *
+   * @param src 原数组
+   * @param off 偏移量
+   * @return 返回读取的值
+   */
+  public long readLong(byte[] src, int off) {
+    return readLong(src, off, order);
+  }
+
+  /**
+   * 读取长整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public long readLong(byte[] src, int off, ByteOrder order) {
+    return (long) (isLittle(order) ? LONG_LE : LONG_BE).get(src, off);
+  }
+
+  /**
+   * 读取单精度浮点数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public float readFloat(byte[] src, int off, ByteOrder order) {
+    return Float.intBitsToFloat(readInt(src, off, order));
+  }
+
+  /**
+   * 读取双精度浮点数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public double readDouble(byte[] src, int off, ByteOrder order) {
+    return Double.longBitsToDouble(readLong(src, off, order));
+  }
+
+  /**
+   * 写入短整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param dst   目标缓冲
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标缓冲
+   */
+  public ByteBuffer writeShort(ByteBuffer dst, int off, short v, ByteOrder order) {
+    (isLittle(order) ? BUF_SHORT_LE : BUF_SHORT_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 写入整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param dst   目标缓冲
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标缓冲
+   */
+  public ByteBuffer writeInt(ByteBuffer dst, int off, int v, ByteOrder order) {
+    (isLittle(order) ? BUF_INT_LE : BUF_INT_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 写入长整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param dst   目标缓冲
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标缓冲
+   */
+  public ByteBuffer writeLong(ByteBuffer dst, int off, long v, ByteOrder order) {
+    (isLittle(order) ? BUF_LONG_LE : BUF_LONG_BE).set(dst, off, v);
+    return dst;
+  }
+
+  /**
+   * 读取短整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param src   原缓冲
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public short readShort(ByteBuffer src, int off, ByteOrder order) {
+    return (short) (isLittle(order) ? BUF_SHORT_LE : BUF_SHORT_BE).get(src, off);
+  }
+
+  /**
+   * 读取无符号短整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param src   原缓冲
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值(0 ~ 65535)
+   */
+  public int readUnsignedShort(ByteBuffer src, int off, ByteOrder order) {
+    return readShort(src, off, order) & 0xFFFF;
+  }
+
+  /**
+   * 读取整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param src   原缓冲
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public int readInt(ByteBuffer src, int off, ByteOrder order) {
+    return (int) (isLittle(order) ? BUF_INT_LE : BUF_INT_BE).get(src, off);
+  }
+
+  /**
+   * 读取无符号整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param src   原缓冲
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值(0 ~ 4294967295)
+   */
+  public long readUnsignedInt(ByteBuffer src, int off, ByteOrder order) {
+    return readInt(src, off, order) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * 读取长整数，使用绝对位置，不改变缓冲的position和自身的字节序
+   *
+   * @param src   原缓冲
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public long readLong(ByteBuffer src, int off, ByteOrder order) {
+    return (long) (isLittle(order) ? BUF_LONG_LE : BUF_LONG_BE).get(src, off);
+  }
+
+  private static boolean isLittle(ByteOrder order) {
+    return order == ByteOrder.LITTLE_ENDIAN;
+  }
+
 
   /**
    * 整形转换成16进制
@@ -774,6 +1163,14 @@ public class BinaryHelper {
    * @return 返回16进制字符串或空
    */
   public String bytesToHex(byte[] bin, boolean lowerCase, final String fill, int length) {
+    if (fill == null) {
+      if (isEmpty(bin)) {
+        return "";
+      }
+      char[] chars = new char[bin.length << 1];
+      encodeHex(bin, 0, bin.length, chars, 0, lowerCase);
+      return new String(chars);
+    }
     String hex = lowerCase ? HEX_LOWER_CASE : HEX_UPPER_CASE;
     final int split = Math.max(length, 1);
     return bytesToHex(bin, (sb, b, index) -> {
@@ -853,6 +1250,129 @@ public class BinaryHelper {
     sb.append(hex.charAt(b & 0x0F));
   }
 
+  /**
+   * 16进制编码到字符数组
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param dst       目标字符数组，至少需要 len * 2 的空间
+   * @param dstOff    目标开始的位置
+   * @param lowerCase 是否为小写字母
+   * @return 返回写入的字符数
+   */
+  public int encodeHex(byte[] src, int srcOff, int len, char[] dst, int dstOff, boolean lowerCase) {
+    Objects.checkFromIndexSize(srcOff, len, src.length);
+    Objects.checkFromIndexSize(dstOff, len << 1, dst.length);
+    char[] table = lowerCase ? HEX_TABLE_LOWER : HEX_TABLE_UPPER;
+    for (int i = 0, j = dstOff; i < len; i++, j += 2) {
+      int index = (src[srcOff + i] & 0xFF) << 1;
+      dst[j] = table[index];
+      dst[j + 1] = table[index + 1];
+    }
+    return len << 1;
+  }
+
+  /**
+   * 16进制编码到字节数组(ASCII)
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param dst       目标字节数组，至少需要 len * 2 的空间
+   * @param dstOff    目标开始的位置
+   * @param lowerCase 是否为小写字母
+   * @return 返回写入的字节数
+   */
+  public int encodeHex(byte[] src, int srcOff, int len, byte[] dst, int dstOff, boolean lowerCase) {
+    Objects.checkFromIndexSize(srcOff, len, src.length);
+    Objects.checkFromIndexSize(dstOff, len << 1, dst.length);
+    char[] table = lowerCase ? HEX_TABLE_LOWER : HEX_TABLE_UPPER;
+    for (int i = 0, j = dstOff; i < len; i++, j += 2) {
+      int index = (src[srcOff + i] & 0xFF) << 1;
+      dst[j] = (byte) table[index];
+      dst[j + 1] = (byte) table[index + 1];
+    }
+    return len << 1;
+  }
+
+  /**
+   * 16进制编码并追加到Appendable中(StringBuilder、Writer等)，不产生临时字符串
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param out       输出
+   * @param lowerCase 是否为小写字母
+   * @return 返回输出
+   */
+  public <A extends Appendable> A encodeHex(byte[] src, int srcOff, int len, A out, boolean lowerCase) {
+    Objects.checkFromIndexSize(srcOff, len, src.length);
+    char[] table = lowerCase ? HEX_TABLE_LOWER : HEX_TABLE_UPPER;
+    try {
+      for (int i = 0; i < len; i++) {
+        int index = (src[srcOff + i] & 0xFF) << 1;
+        out.append(table[index]).append(table[index + 1]);
+      }
+      return out;
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
+  /**
+   * 16进制编码并写入到输出流中
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param out       输出流
+   * @param lowerCase 是否为小写字母
+   * @throws IOException 写入出现的异常
+   */
+  public void encodeHex(byte[] src, int srcOff, int len, OutputStream out, boolean lowerCase) throws IOException {
+    Objects.checkFromIndexSize(srcOff, len, src.length);
+    // 分段编码，每次最多写入1KB
+    byte[] buf = getCache(Math.min(len, 512) << 1, true);
+    int step = buf.length >> 1;
+    for (int i = 0; i < len; i += step) {
+      int size = Math.min(step, len - i);
+      out.write(buf, 0, encodeHex(src, srcOff + i, size, buf, 0, lowerCase));
+    }
+  }
+
+  /**
+   * 16进制解码到调用方的字节数组
+   *
+   * @param hex    16进制字符
+   * @param off    字符开始的位置
+   * @param len    字符的长度，必须为偶数
+   * @param dst    目标字节数组，至少需要 len / 2 的空间
+   * @param dstOff 目标开始的位置
+   * @return 返回写入的字节数
+   * @throws IllegalArgumentException 长度为奇数或包含非16进制字符
+   */
+  public int decodeHex(CharSequence hex, int off, int len, byte[] dst, int dstOff) {
+    if ((len & 0x01) != 0) {
+      throw new IllegalArgumentException("16进制字符的长度必须为偶数: " + len);
+    }
+    Objects.checkFromIndexSize(off, len, hex.length());
+    Objects.checkFromIndexSize(dstOff, len >> 1, dst.length);
+    for (int i = 0, j = dstOff; i < len; i += 2, j++) {
+      int high = hexNibble(hex.charAt(off + i));
+      int low = hexNibble(hex.charAt(off + i + 1));
+      if ((high | low) < 0) {
+        throw new IllegalArgumentException("非法的16进制字符, 位置: " + (off + (high < 0 ? i : i + 1)));
+      }
+      dst[j] = (byte) (high << 4 | low);
+    }
+    return len >> 1;
+  }
+
+  private static int hexNibble(char c) {
+    return c < 128 ? HEX_DECODE[c] : -1;
+  }
+
   /**
    * 16进制字符串转换成字节数组
    *
@@ -873,31 +1393,15 @@ public class BinaryHelper {
   public byte[] hexToBytes(String hex, byte[] defaultValue) {
     if (isNotEmpty(hex)) {
       int length = hex.length() / 2;
-      char[] ch = hex.toUpperCase().toCharArray();
       byte[] bin = getCache(length);
-
-      char high;
-      char low;
       for (int i = 0; i < length; ++i) {
-        high = ch[i * 2];
-        low = ch[i * 2 + 1];
-        bin[i] = (byte) (charToByte(high) << 4 | charToByte(low));
+        bin[i] = (byte) (hexNibble(hex.charAt(i * 2)) << 4 | hexNibble(hex.charAt(i * 2 + 1)));
       }
       return bin;
     }
     return defaultValue;
   }
 
-  private byte charToByte(char c) {
-    for (int i = 0; i < HEX_CHARS.length; i++) {
-      if (HEX_CHARS[i] == c) {
-        return (byte) i;
-      }
-    }
-    return -1;
-    // return (byte) "0123456789ABCDEF".indexOf(c);
-  }
-
   /**
    * 16进制字符串转换成整数值
    *
@@ -1002,7 +1506,7 @@ public class BinaryHelper {
    * @return 返回找到的位置，如果未找到返回-1
    */
   public int indexOf(byte[] src, byte[] find) {
-    return indexOf(src, 0, Math.max(src.length - find.length, 1), find);
+    return indexOf(src, 0, src.length - find.length + 1, find);
   }
 
   /**
@@ -1015,23 +1519,35 @@ public class BinaryHelper {
    * @return 返回找到的位置，如果未找到返回-1
    */
   public int indexOf(byte[] src, int start, int len, byte[] find) {
-    for (int i = 0; i < len; i++) {
-      if (src[start + i] == find[0]) {
-        int index = start + i;
-        for (int j = 0; j < find.length - 1; j++) {
-          if (src[start + i + j] != find[j]) {
-            index = -1;
-            break;
-          }
-        }
-        if (index >= 0) {
-          return index;
-        }
+    if (find.length == 0 || len <= 0) {
+      return -1;
+    }
+    // 匹配需要完整落在数组内
+    int to = Math.min(start + len - 1 + find.length, src.length);
+    for (int i = start, end = to - find.length; i <= end; i++) {
+      if (src[i] == find[0] && isEquals(find, 1, src, i + 1, find.length - 1)) {
+        return i;
       }
     }
     return -1;
   }
 
+  /**
+   * 查找匹配的字节数组的开始位置
+   *
+   * @param src     原数据
+   * @param start   开始的位置
+   * @param len     查找的长度
+   * @param pattern 预编译的查找器
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(byte[] src, int start, int len, BytePattern pattern) {
+    if (pattern.length() == 0 || len <= 0) {
+      return -1;
+    }
+    return pattern.indexOf(src, start, Math.min(start + len - 1 + pattern.length(), src.length));
+  }
+
   /**
    * 解析整数数组
    *
@@ -1044,10 +1560,7 @@ public class BinaryHelper {
    */
   public short[] parseShortArray(byte[] data, int start, int len, int size, boolean signed) {
     short[] array = new short[len / size];
-    for (int i = 0; i < array.length; i++) {
-      array[i] = bytesToShort(copy.copy(data, start + i * size, size, true), signed);
-    }
-    return array;
+    return decodeInto(array, 0, data, start, array.length, size, order, signed);
   }
 
   /**
@@ -1062,10 +1575,7 @@ public class BinaryHelper {
    */
   public int[] parseIntArray(byte[] data, int start, int len, int size, boolean signed) {
     int[] array = new int[len / size];
-    for (int i = 0; i < array.length; i++) {
-      array[i] = bytesToInt(copy.copy(data, start + i * size, size, true), signed);
-    }
-    return array;
+    return decodeInto(array, 0, data, start, array.length, size, order, signed);
   }
 
   /**
@@ -1080,10 +1590,248 @@ public class BinaryHelper {
    */
   public long[] parseLongArray(byte[] data, int start, int len, int size, boolean signed) {
     long[] array = new long[len / size];
-    for (int i = 0; i < array.length; i++) {
-      array[i] = bytesToLong(copy.copy(data, start + i * size, size, true), signed);
+    return decodeInto(array, 0, data, start, array.length, size, order, signed);
+  }
+
+  /**
+   * 批量解码到调用方的数组，整帧一次解析，不产生临时对象
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public short[] decodeInto(short[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    checkBulkRange(dst.length, dstOff, src.length, srcOff, count, bytesPerSample);
+    switch (bytesPerSample) {
+      case 1:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = (short) (signed ? src[srcOff + i] : src[srcOff + i] & 0xFF);
+        }
+        break;
+      case 2:
+        ByteBuffer.wrap(src, srcOff, count << 1).order(order).asShortBuffer().get(dst, dstOff, count);
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = bytesToShort(src, srcOff + i * bytesPerSample, bytesPerSample, order, signed);
+        }
     }
-    return array;
+    return dst;
+  }
+
+  /**
+   * 批量解码到调用方的数组，整帧一次解析，不产生临时对象
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public int[] decodeInto(int[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    checkBulkRange(dst.length, dstOff, src.length, srcOff, count, bytesPerSample);
+    switch (bytesPerSample) {
+      case 1:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = signed ? src[srcOff + i] : src[srcOff + i] & 0xFF;
+        }
+        break;
+      case 2:
+        for (int i = 0, j = srcOff; i < count; i++, j += 2) {
+          short v = readShort(src, j, order);
+          dst[dstOff + i] = signed ? v : v & 0xFFFF;
+        }
+        break;
+      case 3:
+        for (int i = 0, j = srcOff; i < count; i++, j += 3) {
+          int v = read24(src, j, order);
+          // 有符号时，将第24位扩展到高8位
+          dst[dstOff + i] = signed ? (v << 8) >> 8 : v;
+        }
+        break;
+      case 4:
+        ByteBuffer.wrap(src, srcOff, count << 2).order(order).asIntBuffer().get(dst, dstOff, count);
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = bytesToInt(src, srcOff + i * bytesPerSample, bytesPerSample, order, signed);
+        }
+    }
+    return dst;
+  }
+
+  /**
+   * 批量解码到调用方的数组，整帧一次解析，不产生临时对象
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public long[] decodeInto(long[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    checkBulkRange(dst.length, dstOff, src.length, srcOff, count, bytesPerSample);
+    switch (bytesPerSample) {
+      case 1:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = signed ? src[srcOff + i] : src[srcOff + i] & 0xFF;
+        }
+        break;
+      case 2:
+        for (int i = 0, j = srcOff; i < count; i++, j += 2) {
+          short v = readShort(src, j, order);
+          dst[dstOff + i] = signed ? v : v & 0xFFFF;
+        }
+        break;
+      case 3:
+        for (int i = 0, j = srcOff; i < count; i++, j += 3) {
+          int v = read24(src, j, order);
+          dst[dstOff + i] = signed ? (v << 8) >> 8 : v;
+        }
+        break;
+      case 4:
+        for (int i = 0, j = srcOff; i < count; i++, j += 4) {
+          int v = readInt(src, j, order);
+          dst[dstOff + i] = signed ? v : v & 0xFFFFFFFFL;
+        }
+        break;
+      case 8:
+        ByteBuffer.wrap(src, srcOff, count << 3).order(order).asLongBuffer().get(dst, dstOff, count);
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          dst[dstOff + i] = bytesToLong(src, srcOff + i * bytesPerSample, bytesPerSample, order, signed);
+        }
+    }
+    return dst;
+  }
+
+  /**
+   * 批量编码到调用方的字节数组，超出字节数的高位被截断
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public byte[] encodeInto(byte[] dst, int dstOff, short[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    checkBulkRange(src.length, srcOff, dst.length, dstOff, count, bytesPerSample);
+    if (bytesPerSample == 2) {
+      ByteBuffer.wrap(dst, dstOff, count << 1).order(order).asShortBuffer().put(src, srcOff, count);
+    } else {
+      for (int i = 0, j = dstOff; i < count; i++, j += bytesPerSample) {
+        writeBits(dst, j, src[srcOff + i], bytesPerSample, order);
+      }
+    }
+    return dst;
+  }
+
+  /**
+   * 批量编码到调用方的字节数组，超出字节数的高位被截断
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public byte[] encodeInto(byte[] dst, int dstOff, int[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    checkBulkRange(src.length, srcOff, dst.length, dstOff, count, bytesPerSample);
+    switch (bytesPerSample) {
+      case 2:
+        for (int i = 0, j = dstOff; i < count; i++, j += 2) {
+          writeShort(dst, j, (short) src[srcOff + i], order);
+        }
+        break;
+      case 4:
+        ByteBuffer.wrap(dst, dstOff, count << 2).order(order).asIntBuffer().put(src, srcOff, count);
+        break;
+      default:
+        for (int i = 0, j = dstOff; i < count; i++, j += bytesPerSample) {
+          writeBits(dst, j, src[srcOff + i], bytesPerSample, order);
+        }
+    }
+    return dst;
+  }
+
+  /**
+   * 批量编码到调用方的字节数组，超出字节数的高位被截断
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public byte[] encodeInto(byte[] dst, int dstOff, long[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    checkBulkRange(src.length, srcOff, dst.length, dstOff, count, bytesPerSample);
+    switch (bytesPerSample) {
+      case 4:
+        for (int i = 0, j = dstOff; i < count; i++, j += 4) {
+          writeInt(dst, j, (int) src[srcOff + i], order);
+        }
+        break;
+      case 8:
+        ByteBuffer.wrap(dst, dstOff, count << 3).order(order).asLongBuffer().put(src, srcOff, count);
+        break;
+      default:
+        for (int i = 0, j = dstOff; i < count; i++, j += bytesPerSample) {
+          writeBits(dst, j, src[srcOff + i], bytesPerSample, order);
+        }
+    }
+    return dst;
+  }
+
+  private static int read24(byte[] src, int off, ByteOrder order) {
+    return isLittle(order)
+        ? (src[off] & 0xFF) | (src[off + 1] & 0xFF) << 8 | (src[off + 2] & 0xFF) << 16
+        : (src[off] & 0xFF) << 16 | (src[off + 1] & 0xFF) << 8 | (src[off + 2] & 0xFF);
+  }
+
+  private static void writeBits(byte[] dst, int off, long v, int size, ByteOrder order) {
+    // 大端字节顺序：高位在前，低位在后
+    // 小端字节顺序：低位在前，高位在后
+    if (isLittle(order)) {
+      for (int i = 0; i < size; i++) {
+        dst[off + i] = (byte) (v >> (i * 8));
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        dst[off + i] = (byte) (v >> ((size - 1 - i) * 8));
+      }
+    }
+  }
+
+  private static void checkBulkRange(int arrayLength, int arrayOff, int bytesLength, int bytesOff, int count, int bytesPerSample) {
+    if (bytesPerSample <= 0) {
+      throw new IllegalArgumentException("bytesPerSample必须大于0: " + bytesPerSample);
+    }
+    Objects.checkFromIndexSize(arrayOff, count, arrayLength);
+    Objects.checkFromIndexSize(bytesOff, count * bytesPerSample, bytesLength);
   }
 
   /**
@@ -1108,9 +1856,23 @@ public class BinaryHelper {
    */
   public byte[] arrayToBytes(Object array, int start, int len, int bitSize) {
     if (array == null) throw new IllegalArgumentException("数组不能为null");
-    if (array.getClass().isArray()) throw new IllegalArgumentException("传入的参数不是数组: " + array.getClass());
+    if (!array.getClass().isArray()) throw new IllegalArgumentException("传入的参数不是数组: " + array.getClass());
     if (Array.getLength(array) <= 0) return EMPTY_BYTES;
 
+    //基本类型的整数数组，直接批量编码
+    if (array instanceof short[]) {
+      int byteCount = Math.max(1, bitSize / 8);
+      return encodeInto(getCache(len * byteCount), 0, (short[]) array, start, len, byteCount, getOrder());
+    }
+    if (array instanceof int[]) {
+      int byteCount = Math.max(1, bitSize / 8);
+      return encodeInto(getCache(len * byteCount), 0, (int[]) array, start, len, byteCount, getOrder());
+    }
+    if (array instanceof long[]) {
+      int byteCount = Math.max(1, bitSize / 8);
+      return encodeInto(getCache(len * byteCount), 0, (long[]) array, start, len, byteCount, getOrder());
+    }
+
     NumberType type = NumberType.of((Number) Array.get(array, 0));
     if (type == null) throw new IllegalArgumentException("不支持的数组类型: " + array.getClass());
     //心电波形数据 1~50
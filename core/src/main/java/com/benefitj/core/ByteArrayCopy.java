@@ -1,5 +1,8 @@
 package com.benefitj.core;
 
+import com.benefitj.core.pool.ByteArrayPool;
+import com.benefitj.core.pool.PooledBytes;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
@@ -16,6 +19,17 @@ public interface ByteArrayCopy extends ArrayCopy<byte[]> {
   }
 
 
+  /**
+   * 从全局的字节数组池获取缓冲，使用完成后需要调用 {@link PooledBytes#release()} 归还，
+   * 与 {@link #getCache(int, boolean)} 不同，缓冲的数组长度可能大于 size
+   *
+   * @param size 大小
+   * @return 返回缓冲
+   */
+  default PooledBytes acquire(int size) {
+    return ByteArrayPool.get().acquire(size);
+  }
+
   /**
    * 拼接字节数组
    *
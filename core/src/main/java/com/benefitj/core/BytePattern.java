@@ -0,0 +1,187 @@
+package com.benefitj.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 预编译的字节查找器(Boyer–Moore–Horspool)，用于在数据中查找包头等标志，
+ * 编译后线程安全，可以重复使用
+ *
+ * <pre>
+ *   BytePattern head = BytePattern.compile(new byte[]{0x55, (byte) 0xAA});
+ *   int index = head.indexOf(data, 0, data.length);
+ * </pre>
+ */
+public final class BytePattern {
+
+  /**
+   * 编译查找的字节
+   *
+   * @param pattern 查找的字节
+   * @return 返回查找器
+   */
+  public static BytePattern compile(byte[] pattern) {
+    if (pattern == null || pattern.length == 0) {
+      throw new IllegalArgumentException("查找的字节不能为空");
+    }
+    return new BytePattern(pattern.clone());
+  }
+
+  private final byte[] pattern;
+  /**
+   * 坏字符跳转表
+   */
+  private final int[] shift = new int[256];
+
+  private BytePattern(byte[] pattern) {
+    this.pattern = pattern;
+    int last = pattern.length - 1;
+    Arrays.fill(shift, pattern.length);
+    for (int i = 0; i < last; i++) {
+      shift[pattern[i] & 0xFF] = last - i;
+    }
+  }
+
+  /**
+   * 查找的字节长度
+   */
+  public int length() {
+    return pattern.length;
+  }
+
+  /**
+   * 查找的字节(拷贝)
+   */
+  public byte[] getPattern() {
+    return pattern.clone();
+  }
+
+  /**
+   * 查找匹配的开始位置
+   *
+   * @param src 数据
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(byte[] src) {
+    return indexOf(src, 0, src.length);
+  }
+
+  /**
+   * 查找匹配的开始位置
+   *
+   * @param src  数据
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(byte[] src, int from, int to) {
+    Objects.checkFromToIndex(from, to, src.length);
+    final byte[] p = this.pattern;
+    final int last = p.length - 1;
+    if (last == 0) {
+      for (int i = from; i < to; i++) {
+        if (src[i] == p[0]) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    final byte tail = p[last];
+    for (int i = from, end = to - p.length; i <= end; ) {
+      byte b = src[i + last];
+      if (b == tail && matchesBefore(src, i, last)) {
+        return i;
+      }
+      i += shift[b & 0xFF];
+    }
+    return -1;
+  }
+
+  private boolean matchesBefore(byte[] src, int off, int last) {
+    for (int j = last - 1; j >= 0; j--) {
+      if (src[off + j] != pattern[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * 查找匹配的开始位置，使用绝对位置，不改变缓冲的position
+   *
+   * @param buf  缓冲
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(ByteBuffer buf, int from, int to) {
+    if (buf.hasArray()) {
+      int offset = buf.arrayOffset();
+      Objects.checkFromToIndex(from, to, buf.limit());
+      int index = indexOf(buf.array(), offset + from, offset + to);
+      return index >= 0 ? index - offset : -1;
+    }
+    return indexOf(buf::get, from, to);
+  }
+
+  /**
+   * 查找匹配的开始位置
+   *
+   * @param src  数据源，如 Netty 的 ByteBuf::getByte
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(ByteSource src, int from, int to) {
+    final byte[] p = this.pattern;
+    final int last = p.length - 1;
+    for (int i = from, end = to - p.length; i <= end; ) {
+      byte b = src.getByte(i + last);
+      if (b == p[last]) {
+        int j = last - 1;
+        while (j >= 0 && src.getByte(i + j) == p[j]) {
+          j--;
+        }
+        if (j < 0) {
+          return i;
+        }
+      }
+      i += shift[b & 0xFF];
+    }
+    return -1;
+  }
+
+  /**
+   * 判断指定位置是否匹配
+   *
+   * @param src 数据
+   * @param off 开始的位置
+   * @return 返回是否匹配
+   */
+  public boolean matches(byte[] src, int off) {
+    return off >= 0
+        && src.length - off >= pattern.length
+        && Arrays.equals(src, off, off + pattern.length, pattern, 0, pattern.length);
+  }
+
+  @Override
+  public String toString() {
+    return "BytePattern(" + HexUtils.bytesToHex(pattern) + ")";
+  }
+
+  /**
+   * 按索引读取字节的数据源
+   */
+  @FunctionalInterface
+  public interface ByteSource {
+    /**
+     * 读取字节
+     *
+     * @param index 索引
+     * @return 返回字节
+     */
+    byte getByte(int index);
+  }
+
+}
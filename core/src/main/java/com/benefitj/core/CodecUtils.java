@@ -1,8 +1,11 @@
 package com.benefitj.core;
 
+import com.benefitj.core.checksum.CrcAlgorithm;
+import com.benefitj.core.digest.DigestAlgorithm;
+import com.benefitj.core.digest.FileDigests;
+
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
@@ -74,14 +77,21 @@ public class CodecUtils {
   }
 
   /**
-   * 获取一个文件的md5值
+   * 获取一个文件的md5值，大文件使用内存映射读取
    */
   public static String md5(File in) {
-    try (final FileInputStream fis = new FileInputStream(in)) {
-      return md5(fis);
-    } catch (Exception e) {
-      throw new IllegalStateException(CatchUtils.findRoot(e));
-    }
+    return FileDigests.digest(in, DigestAlgorithm.MD5).getHex();
+  }
+
+  /**
+   * 获取一个文件的摘要
+   *
+   * @param in        文件
+   * @param algorithm 算法，如 SHA-256、xxHash64
+   * @return 返回16进制的摘要(小写)
+   */
+  public static String digest(File in, DigestAlgorithm algorithm) {
+    return FileDigests.digest(in, algorithm).getHex();
   }
 
   /**
@@ -118,28 +128,36 @@ public class CodecUtils {
    * @param data  数据
    * @param start 开始的位置
    * @param len   数据长度
-   * @return 返回校验和
+   * @return 返回校验和(小端)
    */
   public static byte[] CRC16(byte[] data, int start, int len) {
-    // 预置 1 个 16 位的寄存器为十六进制FFFF, 称此寄存器为 CRC寄存器。
-    int crc = 0xFFFF;
-    for (int i = 0; i < len; i++) {
-      byte b = data[start + i];
-      // 把第一个 8 位二进制数据 与 16 位的 CRC寄存器的低 8 位相异或, 把结果放于 CRC寄存器
-      crc = ((crc & 0xFF00) | (crc & 0x00FF) ^ (b & 0xFF));
-      for (int j = 0; j < 8; j++) {
-        // 把 CRC 寄存器的内容右移一位( 朝低位)用 0 填补最高位, 并检查右移后的移出位
-        if ((crc & 0x0001) > 0) {
-          // 如果移出位为 1, CRC寄存器与多项式A001进行异或
-          crc = crc >> 1;
-          crc = crc ^ 0xA001;
-        } else {
-          // 如果移出位为 0,再次右移一位
-          crc = crc >> 1;
-        }
-      }
-    }
+    long crc = CrcAlgorithm.CRC16_MODBUS.compute(data, start, len);
     return HexUtils.shortToBytes((short) crc, ByteOrder.LITTLE_ENDIAN);
   }
 
+  /**
+   * 校验帧尾的Modbus CRC16(小端)，不拷贝数据
+   *
+   * @param frame 帧数据
+   * @param start 开始的位置
+   * @param len   帧长度(包含CRC)
+   * @return 返回是否校验通过
+   */
+  public static boolean verifyCRC16(byte[] frame, int start, int len) {
+    return CrcAlgorithm.CRC16_MODBUS.verify(frame, start, len, ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * 计算CRC校验值
+   *
+   * @param algorithm 算法，如 {@link CrcAlgorithm#CRC16_XMODEM}
+   * @param data      数据
+   * @param start     开始的位置
+   * @param len       数据长度
+   * @return 返回校验值
+   */
+  public static long crc(CrcAlgorithm algorithm, byte[] data, int start, int len) {
+    return algorithm.compute(data, start, len);
+  }
+
 }
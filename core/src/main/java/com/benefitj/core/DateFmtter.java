@@ -81,8 +81,6 @@ public class DateFmtter {
   private static volatile Locale DEFAULT_LOCALE = Locale.getDefault();
   private static volatile String DEFAULT_KEY = DEFAULT_LOCALE.toString();
 
-  private static final Map<Object, String> KEY_CACHE = new WeakHashMap<>();
-  private static final Function<Object, String> KEY_CREATOR = Object::toString;
 
   private DateFmtter() {
   }
@@ -99,7 +97,7 @@ public class DateFmtter {
     DateFmtter.DEFAULT_KEY = defaultLocale.toString();
   }
 
-  private static Map<String, SimpleDateFormat> getMap(String key) {
+  private static Map<String, SimpleDateFormat> getMap(Object key) {
     return CACHED_LOCAL.computeIfAbsent(key, CREATOR).get();
   }
 
@@ -107,7 +105,7 @@ public class DateFmtter {
    * 获取SimpleDateFormat
    */
   public static SimpleDateFormat getSdf(Locale locale, String pattern) {
-    final Map<String, SimpleDateFormat> map = getMap(KEY_CACHE.computeIfAbsent(locale, KEY_CREATOR));
+    final Map<String, SimpleDateFormat> map = getMap(locale);
     SimpleDateFormat sdf = map.get(pattern);
     if (sdf == null) {
       map.put(pattern, sdf = new SimpleDateFormat(pattern, locale));
@@ -245,7 +243,8 @@ public class DateFmtter {
    * @return 返回解析后的Date对象
    */
   public static Date parse(String time, String pattern) {
-    return parse(time, getDefaultSdf(pattern));
+    long millis = parseFast(time, TimeFormat.of(pattern));
+    return millis != Long.MIN_VALUE ? new Date(millis) : parse(time, getDefaultSdf(pattern));
   }
 
   /**
@@ -297,7 +296,15 @@ public class DateFmtter {
    * @return 返回解析后的Date对象
    */
   public static Date parseUtc(String time, String pattern) {
-    return parse(time, getUtcSdf(pattern));
+    long millis = parseFast(time, TimeFormat.ofUtc(pattern));
+    return millis != Long.MIN_VALUE ? new Date(millis) : parse(time, getUtcSdf(pattern));
+  }
+
+  /**
+   * 通过预编译的格式快速解析，不支持或格式不完全匹配时返回 Long.MIN_VALUE，交给 SimpleDateFormat 兼容处理
+   */
+  private static long parseFast(String time, TimeFormat format) {
+    return time != null && format.isFast() ? format.parse(time, Long.MIN_VALUE) : Long.MIN_VALUE;
   }
 
   /**
@@ -353,6 +360,10 @@ public class DateFmtter {
    * @return 返回时间，如果格式有问题，返回默认值
    */
   public static long parseToLong(String time, String pattern, long defaultValue, boolean utc) {
+    long millis = parseFast(time, utc ? TimeFormat.ofUtc(pattern) : TimeFormat.of(pattern));
+    if (millis != Long.MIN_VALUE) {
+      return millis;
+    }
     Date date = utc ? parseUtc(time, pattern) : parse(time, pattern);
     return date != null ? date.getTime() : defaultValue;
   }
@@ -404,6 +415,13 @@ public class DateFmtter {
    * @return 返回格式化后的对象
    */
   public static String fmt(Object time, String pattern) {
+    TimeFormat format = TimeFormat.of(pattern);
+    if (format.isFast()) {
+      long millis = toMillis(time);
+      if (millis != Long.MIN_VALUE) {
+        return format.format(millis);
+      }
+    }
     return getDefaultSdf(pattern).format(time);
   }
 
@@ -414,9 +432,32 @@ public class DateFmtter {
    * @return 返回格式化后的对象
    */
   public static String fmtUtc(Object time, String pattern) {
+    TimeFormat format = TimeFormat.ofUtc(pattern);
+    if (format.isFast()) {
+      long millis = toMillis(time);
+      if (millis != Long.MIN_VALUE) {
+        return format.format(millis);
+      }
+    }
     return getUtcSdf(pattern).format(time);
   }
 
+  /**
+   * 获取时间戳，不支持的类型返回 Long.MIN_VALUE
+   */
+  private static long toMillis(Object time) {
+    if (time instanceof Long) {
+      return (Long) time;
+    } else if (time instanceof Date) {
+      return ((Date) time).getTime();
+    } else if (time instanceof Number) {
+      return ((Number) time).longValue();
+    } else if (time instanceof Instant) {
+      return ((Instant) time).toEpochMilli();
+    }
+    return Long.MIN_VALUE;
+  }
+
   /**
    * 格式化当前时间
    *
@@ -2,13 +2,17 @@ package com.benefitj.core;
 
 import com.benefitj.core.concurrent.IFuture;
 import com.benefitj.core.concurrent.IScheduledFuture;
+import com.benefitj.core.concurrent.InstrumentedExecutor;
+import com.benefitj.core.concurrent.TimingWheelExecutor;
+import com.benefitj.core.concurrent.VirtualThreadScheduler;
+import com.benefitj.core.concurrent.VirtualThreads;
+import com.benefitj.core.cron.CompiledCron;
 import com.benefitj.core.cron.CronExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
 import java.util.Collection;
-import java.util.Date;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -131,7 +135,8 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
   }
 
   /**
-   * 执行cron调度
+   * 执行cron调度，表达式在调用时立即编译(无效时抛出异常)；每次重新调度时从 cron 读取编译结果，
+   * 调度期间修改时区({@link CronExpression#setTimeZone})会在下一次触发后生效
    *
    * @param cron     cron表达式
    * @param task     任务
@@ -139,15 +144,23 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
    * @return 返回调度
    */
   default ScheduledFuture<?> scheduleCron(final CronExpression cron, Runnable task, boolean startNow) {
+    // 提前编译，表达式的错误在调用方抛出，而不是在定时器线程中
+    cron.compile();
     final AtomicInteger index = new AtomicInteger(0);
     return schedule(new Runnable() {
+      /**
+       * 计划的触发时间，避免定时器提前唤醒时重复触发
+       */
+      long fireTime = 0;
+
       @Override
       public void run() {
-        final Date afterTime = new Date();
-        Date nextTime = cron.getNextValidTimeAfter(afterTime);
-        if (nextTime != null) {
-          long delay = nextTime.getTime() - afterTime.getTime();
-          schedule(this, delay, TimeUnit.MILLISECONDS);
+        final long now = System.currentTimeMillis();
+        // 编译结果有缓存，时区改变后重新编译
+        long nextTime = cron.compile().nextFireTime(Math.max(now, fireTime));
+        if (nextTime != CompiledCron.NONE) {
+          fireTime = nextTime;
+          schedule(this, nextTime - now, TimeUnit.MILLISECONDS);
         }
         try {
           if (index.incrementAndGet() == 1 && !startNow) return;//首次不调用
@@ -345,6 +358,92 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
   }
 
 
+  /**
+   * 创建基于时间轮的EventLoop，精度为1毫秒，适合大量的定时任务(如设备超时)
+   *
+   * @param namePrefix 线程名称前缀
+   * @param workers    工作线程数
+   * @param daemon     是否为守护线程
+   * @return 返回EventLoop
+   * @see TimingWheelExecutor
+   */
+  static EventLoop newTimingWheel(String namePrefix, int workers, boolean daemon) {
+    return newTimingWheel(namePrefix, 1, TimeUnit.MILLISECONDS, workers, daemon);
+  }
+
+  /**
+   * 创建基于时间轮的EventLoop，调度和取消都是 O(1)
+   *
+   * @param namePrefix 线程名称前缀
+   * @param tick       时间轮的精度
+   * @param unit       单位
+   * @param workers    工作线程数
+   * @param daemon     是否为守护线程
+   * @return 返回EventLoop
+   */
+  static EventLoop newTimingWheel(String namePrefix, long tick, TimeUnit unit, int workers, boolean daemon) {
+    return new Impl(new TimingWheelExecutor(tick, unit, workers, newThreadFactory(namePrefix, daemon)));
+  }
+
+  /**
+   * 记录运行指标，不采样慢任务
+   *
+   * @param name 名称
+   * @param loop 线程池
+   * @return 返回新的EventLoop
+   * @see InstrumentedExecutor
+   */
+  static EventLoop instrument(String name, EventLoop loop) {
+    return instrument(name, loop, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 记录运行指标(排队数、等待时间、执行时间、拒绝数)，执行超过阈值的任务会采样堆栈
+   *
+   * @param name          名称
+   * @param loop          线程池
+   * @param slowThreshold 慢任务阈值，0 表示不采样
+   * @param unit          单位
+   * @return 返回新的EventLoop
+   * @see com.benefitj.core.concurrent.LoopMetrics
+   */
+  static EventLoop instrument(String name, EventLoop loop, long slowThreshold, TimeUnit unit) {
+    return new Impl(new InstrumentedExecutor(name, loop.executor(), slowThreshold, unit));
+  }
+
+  /**
+   * 创建运行在虚拟线程上的EventLoop，适合阻塞的任务
+   *
+   * @see #newVirtualLoop(String)
+   */
+  static EventLoop newVirtualLoop() {
+    return newVirtualLoop(generateNamePrefix());
+  }
+
+  /**
+   * 创建运行在虚拟线程上的EventLoop：每个任务一个虚拟线程，定时由一个平台线程调度。
+   * JDK 21 以下返回64个线程的EventLoop
+   *
+   * @param namePrefix 线程名称前缀
+   * @return 返回EventLoop
+   * @see VirtualThreadScheduler
+   */
+  static EventLoop newVirtualLoop(String namePrefix) {
+    return new Impl(newVirtualScheduler(namePrefix, 64));
+  }
+
+  /**
+   * 创建虚拟线程的调度，不支持时使用固定数量的平台线程
+   */
+  static ScheduledExecutorService newVirtualScheduler(String namePrefix, int fallbackPoolSize) {
+    if (VirtualThreads.isSupported()) {
+      return new VirtualThreadScheduler(VirtualThreads.newThreadPerTaskExecutor(namePrefix)
+          , newThreadFactory(namePrefix + "timer-", true));
+    }
+    return Executors.newScheduledThreadPool(fallbackPoolSize, newThreadFactory(namePrefix, true));
+  }
+
+
   /**
    * 默认实现
    */
@@ -394,8 +493,13 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
    */
   public final class Global extends Impl {
 
+    private Global(String suffix, ScheduledExecutorService executor) {
+      super(instrumentIfEnabled(suffix, executor));
+    }
+
     private Global(int corePoolSize, String suffix, boolean daemon) {
-      super(corePoolSize, newThreadFactory("loop-" + ID.getAndIncrement() + suffix, daemon));
+      super(instrumentIfEnabled(suffix, Executors.newScheduledThreadPool(corePoolSize
+          , newThreadFactory("loop-" + ID.getAndIncrement() + suffix, daemon))));
       if (!daemon) {
         ShutdownHook.register(super::shutdown);
       }
@@ -414,7 +518,22 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
     static final SingletonSupplier<EventLoop> MAIN_EVENT_LOOP = SingletonSupplier.of(() -> new Global(1, "-main-", false));
     static final SingletonSupplier<EventLoop> MULTI_EVENT_LOOP = SingletonSupplier.of(() -> new Global(coreSize(), "-multi-", true));
     static final SingletonSupplier<EventLoop> SINGLE_EVENT_LOOP = SingletonSupplier.of(() -> new Global(1, "-single-", true));
-    static final SingletonSupplier<EventLoop> IO_EVENT_LOOP = SingletonSupplier.of(() -> new Global(64, "-io-", true));
+    static final SingletonSupplier<EventLoop> IO_EVENT_LOOP = SingletonSupplier.of(() -> new Global("-io-", newVirtualScheduler("loop-" + ID.getAndIncrement() + "-io-", 64)));
+
+    /**
+     * 是否记录全局线程池的运行指标: -Dbenefitj.eventloop.metrics=true
+     */
+    static final boolean METRICS = Boolean.getBoolean("benefitj.eventloop.metrics");
+    /**
+     * 慢任务的阈值(毫秒): -Dbenefitj.eventloop.metrics.slowMillis=1000
+     */
+    static final long SLOW_MILLIS = Long.getLong("benefitj.eventloop.metrics.slowMillis", 1000L);
+
+    static ScheduledExecutorService instrumentIfEnabled(String suffix, ScheduledExecutorService executor) {
+      return METRICS
+          ? new InstrumentedExecutor("global" + suffix.substring(0, suffix.length() - 1), executor, SLOW_MILLIS, TimeUnit.MILLISECONDS)
+          : executor;
+    }
 
     static final Logger log = LoggerFactory.getLogger(EventLoop.class);
 
@@ -443,7 +562,7 @@ public interface EventLoop extends ExecutorService, ScheduledExecutorService {
   }
 
   /**
-   * IO事件，128个线程
+   * IO事件，JDK 21+ 运行在虚拟线程上，否则为64个线程
    */
   static EventLoop io() {
     return Global.IO_EVENT_LOOP.get();
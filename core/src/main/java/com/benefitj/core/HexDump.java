@@ -0,0 +1,112 @@
+package com.benefitj.core;
+
+import java.util.function.Supplier;
+
+/**
+ * 延迟格式化的16进制数据，只有在调用 {@link #toString()} 时才会编码，
+ * 用于日志参数：日志级别未开启时不会产生任何字符串
+ *
+ * <pre>
+ *   log.debug("rcv data: {}", HexDump.of(data));
+ * </pre>
+ */
+public final class HexDump {
+
+  /**
+   * 创建16进制数据
+   *
+   * @param data 数据
+   * @return 返回HexDump
+   */
+  public static HexDump of(byte[] data) {
+    return new HexDump(() -> data, 0, -1, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * 创建16进制数据
+   *
+   * @param data 数据
+   * @param off  开始的位置
+   * @param len  长度
+   * @return 返回HexDump
+   */
+  public static HexDump of(byte[] data, int off, int len) {
+    return new HexDump(() -> data, off, len, false, Integer.MAX_VALUE);
+  }
+
+  /**
+   * 创建16进制数据
+   *
+   * @param data      数据
+   * @param lowerCase 是否为小写字母
+   * @param maxBytes  最多编码的字节数，超出部分使用 "..." 表示
+   * @return 返回HexDump
+   */
+  public static HexDump of(byte[] data, boolean lowerCase, int maxBytes) {
+    return new HexDump(() -> data, 0, -1, lowerCase, maxBytes);
+  }
+
+  /**
+   * 创建16进制数据，数据在格式化时才获取，适用于获取数据本身也需要拷贝的场景
+   *
+   * @param supplier 数据
+   * @return 返回HexDump
+   */
+  public static HexDump lazy(Supplier<byte[]> supplier) {
+    return new HexDump(supplier, 0, -1, false, Integer.MAX_VALUE);
+  }
+
+  private final Supplier<byte[]> supplier;
+  private final int offset;
+  /**
+   * 长度，小于0表示到数组末尾
+   */
+  private final int length;
+  private final boolean lowerCase;
+  private final int maxBytes;
+
+  private HexDump(Supplier<byte[]> supplier, int offset, int length, boolean lowerCase, int maxBytes) {
+    this.supplier = supplier;
+    this.offset = offset;
+    this.length = length;
+    this.lowerCase = lowerCase;
+    this.maxBytes = Math.max(maxBytes, 0);
+  }
+
+  /**
+   * 追加到输出中
+   *
+   * @param out 输出
+   * @return 返回输出
+   */
+  public <A extends Appendable> A appendTo(A out) {
+    byte[] data = supplier.get();
+    if (data == null) {
+      return CatchUtils.tryThrow(() -> (A) out.append("null"));
+    }
+    int len = length < 0 ? data.length - offset : length;
+    int size = Math.min(len, maxBytes);
+    HexUtils.encodeHex(data, offset, size, out, lowerCase);
+    if (size < len) {
+      CatchUtils.tryThrow(() -> out.append("..."));
+    }
+    return out;
+  }
+
+  @Override
+  public String toString() {
+    byte[] data = supplier.get();
+    if (data == null) {
+      return "null";
+    }
+    int len = length < 0 ? data.length - offset : length;
+    int size = Math.min(len, maxBytes);
+    char[] chars = new char[(size << 1) + (size < len ? 3 : 0)];
+    int count = HexUtils.encodeHex(data, offset, size, chars, 0, lowerCase);
+    if (size < len) {
+      chars[count] = chars[count + 1] = chars[count + 2] = '.';
+    }
+    return new String(chars);
+  }
+
+}
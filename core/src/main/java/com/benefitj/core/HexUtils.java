@@ -1,5 +1,7 @@
 package com.benefitj.core;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteOrder;
 
 /**
@@ -332,6 +334,105 @@ public class HexUtils {
     return getHelper().bytesToLong(bytes, order, signed);
   }
 
+  /**
+   * 写入短整数到指定的位置
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public static byte[] writeShort(byte[] dst, int off, short v, ByteOrder order) {
+    return getHelper().writeShort(dst, off, v, order);
+  }
+
+  /**
+   * 写入整数到指定的位置
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public static byte[] writeInt(byte[] dst, int off, int v, ByteOrder order) {
+    return getHelper().writeInt(dst, off, v, order);
+  }
+
+  /**
+   * 写入长整数到指定的位置
+   *
+   * @param dst   目标数组
+   * @param off   偏移量
+   * @param v     数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public static byte[] writeLong(byte[] dst, int off, long v, ByteOrder order) {
+    return getHelper().writeLong(dst, off, v, order);
+  }
+
+  /**
+   * 从指定的位置读取短整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public static short readShort(byte[] src, int off, ByteOrder order) {
+    return getHelper().readShort(src, off, order);
+  }
+
+  /**
+   * 从指定的位置读取无符号短整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public static int readUnsignedShort(byte[] src, int off, ByteOrder order) {
+    return getHelper().readUnsignedShort(src, off, order);
+  }
+
+  /**
+   * 从指定的位置读取整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public static int readInt(byte[] src, int off, ByteOrder order) {
+    return getHelper().readInt(src, off, order);
+  }
+
+  /**
+   * 从指定的位置读取无符号整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public static long readUnsignedInt(byte[] src, int off, ByteOrder order) {
+    return getHelper().readUnsignedInt(src, off, order);
+  }
+
+  /**
+   * 从指定的位置读取长整数
+   *
+   * @param src   原数组
+   * @param off   偏移量
+   * @param order 字节序
+   * @return 返回读取的值
+   */
+  public static long readLong(byte[] src, int off, ByteOrder order) {
+    return getHelper().readLong(src, off, order);
+  }
+
   /**
    * 整形转换成16进制
    *
@@ -514,6 +615,78 @@ public class HexUtils {
     return getHelper().bytesToHex(bin, consumer);
   }
 
+  /**
+   * 16进制编码到字符数组
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param dst       目标字符数组
+   * @param dstOff    目标开始的位置
+   * @param lowerCase 是否为小写字母
+   * @return 返回写入的字符数
+   */
+  public static int encodeHex(byte[] src, int srcOff, int len, char[] dst, int dstOff, boolean lowerCase) {
+    return getHelper().encodeHex(src, srcOff, len, dst, dstOff, lowerCase);
+  }
+
+  /**
+   * 16进制编码到字节数组(ASCII)
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param dst       目标字节数组
+   * @param dstOff    目标开始的位置
+   * @param lowerCase 是否为小写字母
+   * @return 返回写入的字节数
+   */
+  public static int encodeHex(byte[] src, int srcOff, int len, byte[] dst, int dstOff, boolean lowerCase) {
+    return getHelper().encodeHex(src, srcOff, len, dst, dstOff, lowerCase);
+  }
+
+  /**
+   * 16进制编码并追加到Appendable中
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param out       输出
+   * @param lowerCase 是否为小写字母
+   * @return 返回输出
+   */
+  public static <A extends Appendable> A encodeHex(byte[] src, int srcOff, int len, A out, boolean lowerCase) {
+    return getHelper().encodeHex(src, srcOff, len, out, lowerCase);
+  }
+
+  /**
+   * 16进制编码并写入到输出流中
+   *
+   * @param src       原数据
+   * @param srcOff    原数据开始的位置
+   * @param len       编码的字节长度
+   * @param out       输出流
+   * @param lowerCase 是否为小写字母
+   * @throws IOException 写入出现的异常
+   */
+  public static void encodeHex(byte[] src, int srcOff, int len, OutputStream out, boolean lowerCase) throws IOException {
+    getHelper().encodeHex(src, srcOff, len, out, lowerCase);
+  }
+
+  /**
+   * 16进制解码到调用方的字节数组
+   *
+   * @param hex    16进制字符
+   * @param off    字符开始的位置
+   * @param len    字符的长度
+   * @param dst    目标字节数组
+   * @param dstOff 目标开始的位置
+   * @return 返回写入的字节数
+   */
+  public static int decodeHex(CharSequence hex, int off, int len, byte[] dst, int dstOff) {
+    return getHelper().decodeHex(hex, off, len, dst, dstOff);
+  }
+
   /**
    * 16进制字符串转换成字节数组
    *
@@ -642,6 +815,19 @@ public class HexUtils {
     return getHelper().indexOf(src, start, len, find);
   }
 
+  /**
+   * 查找匹配的字节数组的开始位置
+   *
+   * @param src     原数据
+   * @param start   开始的位置
+   * @param len     查找的长度
+   * @param pattern 预编译的查找器
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public static int indexOf(byte[] src, int start, int len, BytePattern pattern) {
+    return getHelper().indexOf(src, start, len, pattern);
+  }
+
   /**
    * 解析整数数组
    *
@@ -687,6 +873,105 @@ public class HexUtils {
     return BinaryHelper.get(order).parseLongArray(data, start, len, size, signed);
   }
 
+  /**
+   * 批量解码到调用方的数组
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public static short[] decodeInto(short[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    return getHelper().decodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order, signed);
+  }
+
+  /**
+   * 批量解码到调用方的数组
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public static int[] decodeInto(int[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    return getHelper().decodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order, signed);
+  }
+
+  /**
+   * 批量解码到调用方的数组
+   *
+   * @param dst            目标数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数据
+   * @param srcOff         原数据开始的位置
+   * @param count          解析的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @param signed         是否为有符号数
+   * @return 返回目标数组
+   */
+  public static long[] decodeInto(long[] dst, int dstOff, byte[] src, int srcOff, int count, int bytesPerSample, ByteOrder order, boolean signed) {
+    return getHelper().decodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order, signed);
+  }
+
+  /**
+   * 批量编码到调用方的字节数组
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public static byte[] encodeInto(byte[] dst, int dstOff, short[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    return getHelper().encodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order);
+  }
+
+  /**
+   * 批量编码到调用方的字节数组
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public static byte[] encodeInto(byte[] dst, int dstOff, int[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    return getHelper().encodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order);
+  }
+
+  /**
+   * 批量编码到调用方的字节数组
+   *
+   * @param dst            目标字节数组
+   * @param dstOff         目标数组开始的位置
+   * @param src            原数组
+   * @param srcOff         原数组开始的位置
+   * @param count          编码的数量
+   * @param bytesPerSample 每个值占的字节数
+   * @param order          字节序
+   * @return 返回目标字节数组
+   */
+  public static byte[] encodeInto(byte[] dst, int dstOff, long[] src, int srcOff, int count, int bytesPerSample, ByteOrder order) {
+    return getHelper().encodeInto(dst, dstOff, src, srcOff, count, bytesPerSample, order);
+  }
+
   /**
    * 数组转换为字节数组
    *
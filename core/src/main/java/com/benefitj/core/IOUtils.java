@@ -1,11 +1,17 @@
 package com.benefitj.core;
 
+import com.benefitj.core.file.LineIndex;
 import com.benefitj.core.functions.IBiConsumer;
 
 import javax.annotation.Nullable;
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -170,10 +176,9 @@ public class IOUtils {
    * @return 返回读取的文件行数
    */
   public static int getLineNumber(File f) {
-    try (final LineNumberReader lnr = new LineNumberReader(new FileReader(f))) {
-      lnr.skip(Long.MAX_VALUE);
-      return lnr.getLineNumber() + 1;
-    } catch (IOException e) {
+    try {
+      return (int) Math.min(LineIndex.countLines(f), Integer.MAX_VALUE);
+    } catch (IOException | UncheckedIOException e) {
       return -1;
     }
   }
@@ -1372,6 +1377,46 @@ public class IOUtils {
     }
   }
 
+  /**
+   * 释放内存映射的缓冲({@link java.nio.channels.FileChannel#map})，不等待GC，
+   * 释放后不能再访问缓冲；不支持时(非直接缓冲、JDK不提供)返回false，缓冲交给GC回收
+   *
+   * @param buf 映射的缓冲
+   * @return 返回是否释放
+   */
+  public static boolean unmap(ByteBuffer buf) {
+    if (buf == null || !buf.isDirect() || Unmapper.INVOKE_CLEANER == null) {
+      return false;
+    }
+    try {
+      Unmapper.INVOKE_CLEANER.invoke(buf);
+      return true;
+    } catch (Throwable e) {
+      // 切片或复制的缓冲不能释放
+      return false;
+    }
+  }
+
+  /**
+   * 通过 sun.misc.Unsafe#invokeCleaner 释放映射
+   */
+  static final class Unmapper {
+    static final MethodHandle INVOKE_CLEANER;
+
+    static {
+      MethodHandle mh = null;
+      try {
+        Class<?> cls = Class.forName("sun.misc.Unsafe");
+        Field f = cls.getDeclaredField("theUnsafe");
+        f.setAccessible(true);
+        mh = MethodHandles.lookup()
+            .findVirtual(cls, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+            .bindTo(f.get(null));
+      } catch (Throwable ignored) {/* ^_^ */}
+      INVOKE_CLEANER = mh;
+    }
+  }
+
 
   /**
    * 删除文件
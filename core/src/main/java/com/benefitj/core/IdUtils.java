@@ -1,8 +1,10 @@
 package com.benefitj.core;
 
+import com.benefitj.core.digest.DigestAlgorithm;
+import com.benefitj.core.digest.FileDigests;
+
+import java.io.File;
 import java.lang.ref.SoftReference;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Random;
 import java.util.UUID;
 import java.util.function.Predicate;
@@ -24,7 +26,7 @@ public class IdUtils {
 
   public static Random getRandom() {
     Random r = randomLocal.get().get();
-    if (r != null) {
+    if (r == null) {
       randomLocal.set(new SoftReference<>(r = new Random()));
     }
     return r;
@@ -268,6 +270,37 @@ public class IdUtils {
     return UUID.randomUUID().toString();
   }
 
+  /**
+   * 获取按时间排序的 UUIDv7(32个字符，不带"-")，适合作为数据库主键
+   */
+  public static String uuidV7() {
+    return new String(TimeOrderedIds.uuidV7(new char[32], 0, false));
+  }
+
+  /**
+   * 获取按时间排序的 UUIDv7(36个字符，带"-")
+   */
+  public static String rawUUIDv7() {
+    return TimeOrderedIds.uuidV7String();
+  }
+
+  /**
+   * 获取按时间排序的 ULID(26个字符)
+   */
+  public static String ulid() {
+    return TimeOrderedIds.ulid();
+  }
+
+  /**
+   * 批量获取按时间排序的 ULID
+   *
+   * @param n 数量
+   * @return 返回ULID数组
+   */
+  public static String[] ulids(int n) {
+    return TimeOrderedIds.ulids(n, new String[n]);
+  }
+
   /**
    * 获取一个 SnowflakeId
    */
@@ -312,22 +345,14 @@ public class IdUtils {
    * 字符串转换为 uuid 的形式
    */
   public static String md5Id(String input) {
-    try {
-      // 获取 MD5 摘要实例
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      // 计算哈希值
-      byte[] hashBytes = md.digest(input.getBytes());
-      // 将字节数组转换为十六进制字符串
-      StringBuilder sb = new StringBuilder();
-      for (byte b : hashBytes) {
-        String hex = Integer.toHexString(0xff & b);
-        if (hex.length() == 1) sb.append('0');
-        sb.append(hex);
-      }
-      return sb.toString();
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("MD5 algorithm not found", e);
-    }
+    return HexUtils.bytesToHex(DigestAlgorithm.MD5.newDigest().digest(input.getBytes()), true);
+  }
+
+  /**
+   * 文件的md5值，大文件使用内存映射读取
+   */
+  public static String md5Id(File file) {
+    return FileDigests.digest(file, DigestAlgorithm.MD5).getHex();
   }
 
 }
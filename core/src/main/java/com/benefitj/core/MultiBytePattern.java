@@ -0,0 +1,250 @@
+package com.benefitj.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 多个字节标志的查找器(Aho–Corasick)，用于存在多种合法包头的协议，
+ * 扫描一次即可找到最靠前的匹配，编译后线程安全
+ *
+ * <pre>
+ *   MultiBytePattern heads = MultiBytePattern.compile(HEAD_V1, HEAD_V2);
+ *   long found = heads.find(data, 0, data.length);
+ *   if (found >= 0) {
+ *     int start = MultiBytePattern.start(found);
+ *     int which = MultiBytePattern.patternIndex(found);
+ *   }
+ * </pre>
+ */
+public final class MultiBytePattern {
+
+  /**
+   * 编译查找的字节
+   *
+   * @param patterns 多个查找的字节
+   * @return 返回查找器
+   */
+  public static MultiBytePattern compile(byte[]... patterns) {
+    if (patterns == null || patterns.length == 0) {
+      throw new IllegalArgumentException("查找的字节不能为空");
+    }
+    for (byte[] p : patterns) {
+      if (p == null || p.length == 0) {
+        throw new IllegalArgumentException("查找的字节不能为空");
+      }
+    }
+    return new MultiBytePattern(patterns);
+  }
+
+  /**
+   * 匹配结果中的开始位置
+   */
+  public static int start(long found) {
+    return (int) found;
+  }
+
+  /**
+   * 匹配结果中的查找字节的索引
+   */
+  public static int patternIndex(long found) {
+    return (int) (found >>> 32);
+  }
+
+  private final byte[][] patterns;
+  private final int maxLength;
+  /**
+   * 状态转移表：state * 256 + byte => next state
+   */
+  private final int[] next;
+  /**
+   * 在该状态结束的最长匹配的长度，0表示无匹配
+   */
+  private final int[] matchLength;
+  /**
+   * 在该状态结束的最长匹配对应的索引
+   */
+  private final int[] matchIndex;
+
+  private MultiBytePattern(byte[][] patterns) {
+    this.patterns = new byte[patterns.length][];
+    int states = 1, max = 0;
+    for (int i = 0; i < patterns.length; i++) {
+      this.patterns[i] = patterns[i].clone();
+      states += patterns[i].length;
+      max = Math.max(max, patterns[i].length);
+    }
+    this.maxLength = max;
+
+    // 构建前缀树
+    int[] trie = new int[states << 8];
+    Arrays.fill(trie, -1);
+    int[] length = new int[states];
+    int[] index = new int[states];
+    Arrays.fill(index, -1);
+    int count = 1;
+    for (int i = 0; i < this.patterns.length; i++) {
+      int s = 0;
+      for (byte b : this.patterns[i]) {
+        int slot = (s << 8) | (b & 0xFF);
+        if (trie[slot] < 0) {
+          trie[slot] = count++;
+        }
+        s = trie[slot];
+      }
+      if (length[s] == 0) {
+        length[s] = this.patterns[i].length;
+        index[s] = i;
+      }
+    }
+
+    // 广度优先计算失败链接，并补全为确定的状态转移表
+    int[] fail = new int[count];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int c = 0; c < 256; c++) {
+      int t = trie[c];
+      if (t < 0) {
+        trie[c] = 0;
+      } else {
+        fail[t] = 0;
+        queue.add(t);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int s = queue.poll();
+      // 后缀上的匹配更短，只在自身没有匹配时继承
+      if (length[s] == 0 && length[fail[s]] > 0) {
+        length[s] = length[fail[s]];
+        index[s] = index[fail[s]];
+      }
+      for (int c = 0; c < 256; c++) {
+        int slot = (s << 8) | c;
+        int t = trie[slot];
+        if (t < 0) {
+          trie[slot] = trie[(fail[s] << 8) | c];
+        } else {
+          fail[t] = trie[(fail[s] << 8) | c];
+          queue.add(t);
+        }
+      }
+    }
+    this.next = Arrays.copyOf(trie, count << 8);
+    this.matchLength = Arrays.copyOf(length, count);
+    this.matchIndex = Arrays.copyOf(index, count);
+  }
+
+  /**
+   * 查找字节的数量
+   */
+  public int size() {
+    return patterns.length;
+  }
+
+  /**
+   * 最长的查找字节的长度
+   */
+  public int maxLength() {
+    return maxLength;
+  }
+
+  /**
+   * 获取查找的字节(拷贝)
+   *
+   * @param index 索引
+   * @return 返回查找的字节
+   */
+  public byte[] getPattern(int index) {
+    return patterns[index].clone();
+  }
+
+  /**
+   * 查找最靠前的匹配的开始位置
+   *
+   * @param src  数据
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回找到的位置，如果未找到返回-1
+   */
+  public int indexOf(byte[] src, int from, int to) {
+    long found = find(src, from, to);
+    return found >= 0 ? start(found) : -1;
+  }
+
+  /**
+   * 查找最靠前的匹配
+   *
+   * @param src  数据
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回匹配结果，通过 {@link #start(long)} 和 {@link #patternIndex(long)} 获取，未找到返回-1
+   */
+  public long find(byte[] src, int from, int to) {
+    Objects.checkFromToIndex(from, to, src.length);
+    final int[] next = this.next;
+    int state = 0;
+    int bestStart = Integer.MAX_VALUE, bestIndex = -1;
+    for (int i = from; i < to; i++) {
+      state = next[(state << 8) | (src[i] & 0xFF)];
+      int len = matchLength[state];
+      if (len > 0 && i - len + 1 < bestStart) {
+        bestStart = i - len + 1;
+        bestIndex = matchIndex[state];
+      }
+      // 更早开始的匹配一定在 bestStart + maxLength 之前结束
+      if (bestIndex >= 0 && i - bestStart + 1 >= maxLength) {
+        break;
+      }
+    }
+    return bestIndex >= 0 ? pack(bestStart, bestIndex) : -1;
+  }
+
+  /**
+   * 查找最靠前的匹配，使用绝对位置，不改变缓冲的position
+   *
+   * @param buf  缓冲
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回匹配结果，未找到返回-1
+   */
+  public long find(ByteBuffer buf, int from, int to) {
+    if (buf.hasArray()) {
+      int offset = buf.arrayOffset();
+      Objects.checkFromToIndex(from, to, buf.limit());
+      long found = find(buf.array(), offset + from, offset + to);
+      return found >= 0 ? pack(start(found) - offset, patternIndex(found)) : -1;
+    }
+    return find(buf::get, from, to);
+  }
+
+  /**
+   * 查找最靠前的匹配
+   *
+   * @param src  数据源，如 Netty 的 ByteBuf::getByte
+   * @param from 开始的位置(包含)
+   * @param to   结束的位置(不包含)
+   * @return 返回匹配结果，未找到返回-1
+   */
+  public long find(BytePattern.ByteSource src, int from, int to) {
+    final int[] next = this.next;
+    int state = 0;
+    int bestStart = Integer.MAX_VALUE, bestIndex = -1;
+    for (int i = from; i < to; i++) {
+      state = next[(state << 8) | (src.getByte(i) & 0xFF)];
+      int len = matchLength[state];
+      if (len > 0 && i - len + 1 < bestStart) {
+        bestStart = i - len + 1;
+        bestIndex = matchIndex[state];
+      }
+      if (bestIndex >= 0 && i - bestStart + 1 >= maxLength) {
+        break;
+      }
+    }
+    return bestIndex >= 0 ? pack(bestStart, bestIndex) : -1;
+  }
+
+  private static long pack(int start, int index) {
+    return ((long) index << 32) | (start & 0xFFFFFFFFL);
+  }
+
+}
@@ -1,5 +1,7 @@
 package com.benefitj.core;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Twitter_Snowflake<br>
  * SnowFlake的结构如下(每部分用-分开):<br>
@@ -10,7 +12,8 @@ package com.benefitj.core;
  * 10位的数据机器位，可以部署在1024个节点，包括5位datacenterId和5位workerId<br>
  * 12位序列，毫秒内的计数，12位的计数顺序号支持每个节点每毫秒(同一机器，同一时间截)产生4096个ID序号<br>
  * 加起来刚好64位，为一个Long型。<br>
- * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。
+ * SnowFlake的优点是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞(由数据中心ID和机器ID作区分)，并且效率较高，经测试，SnowFlake每秒能够产生26万ID左右。<br>
+ * 时间截和序列打包在一个 AtomicLong 中，通过CAS生成，不加锁；序列溢出或时钟小幅回退时按 {@link RollbackPolicy} 处理。
  */
 public class SnowflakeIdWorker {
 
@@ -57,11 +60,23 @@ public class SnowflakeIdWorker {
   /** 数据中心ID(0~31) */
   private long datacenterId;
 
-  /** 毫秒内序列(0~4095) */
-  private long sequence = 0L;
+  /** 数据中心ID和工作机器ID移位后的值 */
+  private final long nodeBits;
+
+  /** 上次生成ID的状态：(时间截 - 开始时间截) << 12 | 毫秒内序列 */
+  private final AtomicLong state = new AtomicLong(-1L);
+
+  /** 时钟回退(或序列透支)的处理策略 */
+  private volatile RollbackPolicy rollbackPolicy = RollbackPolicy.WAIT;
+
+  /** 允许的最大回退毫秒数，超过后抛出异常 */
+  private volatile long maxRollbackMillis = 10L;
 
-  /** 上次生成ID的时间截 */
-  private long lastTimestamp = -1L;
+  /** 线程本地预取的ID */
+  private final ThreadLocal<Lease> leases = new ThreadLocal<>();
+
+  /** 线程本地预取的数量，小于等于1表示不预取 */
+  private volatile int leaseSize = 0;
 
   //==============================Constructors=====================================
   /**
@@ -78,44 +93,123 @@ public class SnowflakeIdWorker {
     }
     this.workerId = workerId;
     this.datacenterId = datacenterId;
+    this.nodeBits = (datacenterId << datacenterIdShift) | (workerId << workerIdShift);
   }
 
   // ==============================Methods==========================================
   /**
-   * 获得下一个ID (该方法是线程安全的)
+   * 获得下一个ID (该方法是线程安全的，不加锁)
    * @return SnowflakeId
    */
-  public synchronized long nextId() {
-    long timestamp = timeGen();
+  public long nextId() {
+    int size = this.leaseSize;
+    if (size > 1) {
+      return nextLeasedId(size);
+    }
+    for (; ; ) {
+      long current = state.get();
+      long next = advance(current, 1, timeGen());
+      if (next >= 0 && state.compareAndSet(current, next)) {
+        return toId(next);
+      }
+    }
+  }
 
-    //如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
-    if (timestamp < lastTimestamp) {
-      throw new IllegalArgumentException(
-          String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+  /**
+   * 批量获取ID，一次CAS预留多个序列
+   *
+   * @param n   数量
+   * @param dst 存放ID的数组
+   * @return 返回数组
+   */
+  public long[] nextIds(int n, long[] dst) {
+    if (n < 0 || n > dst.length) {
+      throw new IllegalArgumentException("n不能小于0或大于数组长度: " + n);
+    }
+    int filled = 0;
+    while (filled < n) {
+      long current = state.get();
+      long timestamp = timeGen();
+      long next = advance(current, n - filled, timestamp);
+      if (next < 0 || !state.compareAndSet(current, next)) {
+        continue;
+      }
+      // 新的毫秒从0开始，否则紧接着上一次的序列
+      long start = isNewMillis(current, timestamp) ? (next & ~sequenceMask) : current + 1;
+      for (long v = start; v <= next; v++) {
+        dst[filled++] = toId(v);
+      }
     }
+    return dst;
+  }
 
-    //如果是同一时间生成的，则进行毫秒内序列
-    if (lastTimestamp == timestamp) {
-      sequence = (sequence + 1) & sequenceMask;
-      //毫秒内序列溢出
-      if (sequence == 0) {
-        //阻塞到下一个毫秒,获得新的时间戳
-        timestamp = tilNextMillis(lastTimestamp);
+  /**
+   * 计算预留 n 个序列后的状态
+   *
+   * @param current   当前的状态
+   * @param n         期望的数量，实际预留的数量可能更少
+   * @param timestamp 当前时间
+   * @return 返回新的状态，返回-1表示等待了时钟，需要重新获取
+   */
+  private long advance(long current, int n, long timestamp) {
+    if (isNewMillis(current, timestamp)) {
+      //时间戳改变，毫秒内序列从0开始
+      return ((timestamp - twepoch) << sequenceBits) + Math.min(n, sequenceMask + 1) - 1;
+    }
+    long lastTimestamp = (current >>> sequenceBits) + twepoch;
+    long drift = lastTimestamp - timestamp;
+    long maxRollback = this.maxRollbackMillis;
+    //如果当前时间小于上一次ID生成的时间戳，并且超过允许的范围，说明系统时钟回退过这个时候应当抛出异常
+    if (drift > maxRollback) {
+      throw new IllegalArgumentException(
+          String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", drift));
+    }
+    if (rollbackPolicy == RollbackPolicy.BORROW) {
+      //透支后面的时间截，序列溢出时直接进位，最多超前 maxRollbackMillis 毫秒
+      long limit = ((timestamp + maxRollback + 1 - twepoch) << sequenceBits) - 1;
+      long next = Math.min(current + n, limit);
+      if (next > current) {
+        return next;
       }
+      tilNextMillis(timestamp);
+      return -1;
     }
-    //时间戳改变，毫秒内序列重置
-    else {
-      sequence = 0L;
+    long sequence = current & sequenceMask;
+    if (drift > 0 || sequence == sequenceMask) {
+      //时钟回退或毫秒内序列溢出，阻塞到下一个毫秒,获得新的时间戳
+      tilNextMillis(lastTimestamp);
+      return -1;
     }
+    return current + Math.min(n, sequenceMask - sequence);
+  }
 
-    //上次生成ID的时间截
-    lastTimestamp = timestamp;
+  private boolean isNewMillis(long current, long timestamp) {
+    return current < 0 || timestamp - twepoch > (current >>> sequenceBits);
+  }
 
+  /**
+   * 状态转换为ID
+   */
+  private long toId(long state) {
     //移位并通过或运算拼到一起组成64位的ID
-    return ((timestamp - twepoch) << timestampLeftShift) //
-        | (datacenterId << datacenterIdShift) //
-        | (workerId << workerIdShift) //
-        | sequence;
+    return ((state >>> sequenceBits) << timestampLeftShift) //
+        | nodeBits //
+        | (state & sequenceMask);
+  }
+
+  /**
+   * 从线程本地预取的ID中获取
+   */
+  private long nextLeasedId(int size) {
+    Lease lease = leases.get();
+    if (lease == null || lease.ids.length != size) {
+      leases.set(lease = new Lease(size));
+    }
+    if (lease.position >= lease.ids.length) {
+      nextIds(lease.ids.length, lease.ids);
+      lease.position = 0;
+    }
+    return lease.ids[lease.position++];
   }
 
   /**
@@ -126,6 +220,7 @@ public class SnowflakeIdWorker {
   protected long tilNextMillis(long lastTimestamp) {
     long timestamp = timeGen();
     while (timestamp <= lastTimestamp) {
+      Thread.onSpinWait();
       timestamp = timeGen();
     }
     return timestamp;
@@ -139,4 +234,77 @@ public class SnowflakeIdWorker {
     return System.currentTimeMillis();
   }
 
+  public long getWorkerId() {
+    return workerId;
+  }
+
+  public long getDatacenterId() {
+    return datacenterId;
+  }
+
+  public RollbackPolicy getRollbackPolicy() {
+    return rollbackPolicy;
+  }
+
+  /**
+   * 设置时钟回退(或序列溢出)的处理策略
+   */
+  public SnowflakeIdWorker setRollbackPolicy(RollbackPolicy rollbackPolicy) {
+    this.rollbackPolicy = rollbackPolicy != null ? rollbackPolicy : RollbackPolicy.WAIT;
+    return this;
+  }
+
+  public long getMaxRollbackMillis() {
+    return maxRollbackMillis;
+  }
+
+  /**
+   * 设置允许的最大回退毫秒数，超过后抛出异常
+   */
+  public SnowflakeIdWorker setMaxRollbackMillis(long maxRollbackMillis) {
+    this.maxRollbackMillis = Math.max(maxRollbackMillis, 0);
+    return this;
+  }
+
+  public int getLeaseSize() {
+    return leaseSize;
+  }
+
+  /**
+   * 设置线程本地预取的ID数量，预取后同一线程内的ID仍然递增，但不同线程之间不再严格按时间排序
+   *
+   * @param leaseSize 数量，小于等于1表示不预取
+   */
+  public SnowflakeIdWorker setLeaseSize(int leaseSize) {
+    this.leaseSize = Math.min(Math.max(leaseSize, 0), (int) sequenceMask + 1);
+    return this;
+  }
+
+  /**
+   * 时钟回退的处理策略
+   */
+  public enum RollbackPolicy {
+    /**
+     * 等待时钟追上上一次的时间截，序列溢出时阻塞到下一个毫秒
+     */
+    WAIT,
+    /**
+     * 继续使用上一次的时间截并透支后面的时间截，不等待
+     */
+    BORROW,
+  }
+
+  /**
+   * 线程本地预取的ID
+   */
+  static final class Lease {
+    final long[] ids;
+    int position;
+
+    Lease(int size) {
+      this.ids = new long[size];
+      this.position = size;
+    }
+  }
+
 }
@@ -0,0 +1,469 @@
+package com.benefitj.core;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预编译的时间格式，不可变、线程安全、无锁
+ * <p>
+ * 只包含 yyyy、MM、dd、HH、mm、ss、SSS 和字面量的格式(如 yyyy-MM-dd HH:mm:ss.SSS、yyyy-MM-dd'T'HH:mm:ss'Z')
+ * 走快速路径：缓存当前分钟格式化好的字符，每次只改写秒和毫秒；解析时直接按位置读取数字。
+ * 其他格式使用 {@link DateTimeFormatter}
+ *
+ * <pre>
+ *   TimeFormat.ofUtc(DateFmtter._yMdHmsS_UTC).format(System.currentTimeMillis());
+ * </pre>
+ */
+public final class TimeFormat {
+
+  private static final ConcurrentMap<ZoneId, ConcurrentMap<String, TimeFormat>> REGISTRY = new ConcurrentHashMap<>();
+  /**
+   * 系统默认时区的格式，时区在创建时确定
+   */
+  private static final ConcurrentMap<String, TimeFormat> DEFAULTS = new ConcurrentHashMap<>();
+
+  /**
+   * 获取系统默认时区的时间格式
+   *
+   * @param pattern 格式
+   * @return 返回时间格式
+   */
+  public static TimeFormat of(String pattern) {
+    TimeFormat format = DEFAULTS.get(pattern);
+    if (format == null) {
+      format = DEFAULTS.computeIfAbsent(pattern, p -> of(p, ZoneId.systemDefault()));
+    }
+    return format;
+  }
+
+  /**
+   * 获取UTC的时间格式
+   *
+   * @param pattern 格式
+   * @return 返回时间格式
+   */
+  public static TimeFormat ofUtc(String pattern) {
+    return of(pattern, ZoneOffset.UTC);
+  }
+
+  /**
+   * 获取时间格式
+   *
+   * @param pattern 格式
+   * @param zone    时区
+   * @return 返回时间格式
+   */
+  public static TimeFormat of(String pattern, ZoneId zone) {
+    ConcurrentMap<String, TimeFormat> formats = REGISTRY.computeIfAbsent(zone, z -> new ConcurrentHashMap<>());
+    TimeFormat format = formats.get(pattern);
+    if (format == null) {
+      format = formats.computeIfAbsent(pattern, p -> new TimeFormat(p, zone, Locale.getDefault()));
+    }
+    return format;
+  }
+
+  /**
+   * 系统默认时区改变后，清空默认时区的格式
+   */
+  public static void resetDefaultZone() {
+    DEFAULTS.clear();
+  }
+
+  private static final int YEAR = 0, MONTH = 1, DAY = 2, HOUR = 3, MINUTE = 4, SECOND = 5, MILLI = 6;
+  private static final char[] FIELD_CHARS = {'y', 'M', 'd', 'H', 'm', 's', 'S'};
+  private static final int[] FIELD_WIDTHS = {4, 2, 2, 2, 2, 2, 3};
+
+  private final String pattern;
+  private final ZoneId zone;
+  /**
+   * 固定的时区偏移，非固定时为null
+   */
+  private final ZoneOffset fixedOffset;
+  /**
+   * java.time 的格式化，延迟创建
+   */
+  private volatile DateTimeFormatter formatter;
+  private final Locale locale;
+  /**
+   * 快速路径：格式化后的字符模板(字面量)，不支持时为null
+   */
+  private final char[] literals;
+  /**
+   * 快速路径：各个字段的位置，-1表示不存在
+   */
+  private final int[] positions;
+  /**
+   * 快速路径：是否为数字字段的位置
+   */
+  private final boolean[] digits;
+  /**
+   * 当前分钟的缓存
+   */
+  private volatile Minute minute;
+
+  private TimeFormat(String pattern, ZoneId zone, Locale locale) {
+    this.pattern = pattern;
+    this.zone = zone;
+    this.locale = locale;
+    this.fixedOffset = zone.getRules().isFixedOffset() ? zone.getRules().getOffset(Instant.EPOCH) : null;
+    int[] positions = new int[FIELD_CHARS.length];
+    this.literals = compile(pattern, positions);
+    this.positions = literals != null ? positions : null;
+    if (literals != null) {
+      this.digits = new boolean[literals.length];
+      for (int f = 0; f < positions.length; f++) {
+        for (int k = 0; positions[f] >= 0 && k < FIELD_WIDTHS[f]; k++) {
+          digits[positions[f] + k] = true;
+        }
+      }
+    } else {
+      this.digits = null;
+    }
+  }
+
+  /**
+   * 编译快速路径，格式中包含不支持的字母时返回null
+   */
+  private static char[] compile(String pattern, int[] positions) {
+    Arrays.fill(positions, -1);
+    StringBuilder sb = new StringBuilder(pattern.length());
+    for (int i = 0, len = pattern.length(); i < len; ) {
+      char c = pattern.charAt(i);
+      if (c == '\'') {
+        int end = pattern.indexOf('\'', i + 1);
+        if (end < 0) {
+          return null;
+        }
+        if (end == i + 1) {
+          sb.append('\'');
+        } else {
+          sb.append(pattern, i + 1, end);
+        }
+        i = end + 1;
+        continue;
+      }
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        int field = -1;
+        for (int f = 0; f < FIELD_CHARS.length; f++) {
+          if (FIELD_CHARS[f] == c) {
+            field = f;
+            break;
+          }
+        }
+        int count = 1;
+        while (i + count < len && pattern.charAt(i + count) == c) {
+          count++;
+        }
+        if (field < 0 || count != FIELD_WIDTHS[field] || positions[field] >= 0) {
+          return null;
+        }
+        positions[field] = sb.length();
+        for (int j = 0; j < count; j++) {
+          sb.append('0');
+        }
+        i += count;
+        continue;
+      }
+      sb.append(c);
+      i++;
+    }
+    char[] chars = new char[sb.length()];
+    sb.getChars(0, chars.length, chars, 0);
+    return chars;
+  }
+
+  public String getPattern() {
+    return pattern;
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * 是否支持快速路径
+   */
+  public boolean isFast() {
+    return literals != null;
+  }
+
+  /**
+   * 获取 java.time 的格式化
+   */
+  public DateTimeFormatter getFormatter() {
+    DateTimeFormatter f = this.formatter;
+    if (f == null) {
+      this.formatter = f = DateTimeFormatter.ofPattern(pattern, locale).withZone(zone);
+    }
+    return f;
+  }
+
+  /**
+   * 格式化
+   *
+   * @param millis 时间戳(毫秒)
+   * @return 返回格式化后的字符串
+   */
+  public String format(long millis) {
+    if (literals != null) {
+      char[] buf = new char[literals.length];
+      if (formatFast(millis, buf, 0)) {
+        return new String(buf);
+      }
+    }
+    return getFormatter().format(Instant.ofEpochMilli(millis));
+  }
+
+  /**
+   * 格式化到字符数组中
+   *
+   * @param millis 时间戳(毫秒)
+   * @param dst    字符数组
+   * @param off    开始的位置
+   * @return 返回写入的字符数
+   */
+  public int format(long millis, char[] dst, int off) {
+    if (literals != null && formatFast(millis, dst, off)) {
+      return literals.length;
+    }
+    String str = getFormatter().format(Instant.ofEpochMilli(millis));
+    str.getChars(0, str.length(), dst, off);
+    return str.length();
+  }
+
+  /**
+   * 格式化并追加到 StringBuilder 中
+   *
+   * @param millis 时间戳(毫秒)
+   * @param sb     StringBuilder
+   * @return 返回 StringBuilder
+   */
+  public StringBuilder formatTo(long millis, StringBuilder sb) {
+    if (literals != null) {
+      char[] buf = new char[literals.length];
+      if (formatFast(millis, buf, 0)) {
+        return sb.append(buf);
+      }
+    }
+    getFormatter().formatTo(Instant.ofEpochMilli(millis), sb);
+    return sb;
+  }
+
+  private boolean formatFast(long millis, char[] dst, int off) {
+    Minute m = minuteOf(millis);
+    if (m == null) {
+      return false;
+    }
+    System.arraycopy(m.chars, 0, dst, off, m.chars.length);
+    int ms = (int) Math.floorMod(millis, 60_000L);
+    int p = positions[SECOND];
+    if (p >= 0) {
+      int s = ms / 1000;
+      dst[off + p] = (char) ('0' + s / 10);
+      dst[off + p + 1] = (char) ('0' + s % 10);
+    }
+    p = positions[MILLI];
+    if (p >= 0) {
+      int s = ms % 1000;
+      dst[off + p] = (char) ('0' + s / 100);
+      dst[off + p + 1] = (char) ('0' + (s / 10) % 10);
+      dst[off + p + 2] = (char) ('0' + s % 10);
+    }
+    return true;
+  }
+
+  /**
+   * 获取分钟的缓存，时区偏移不是整分钟或年份超出4位数时返回null
+   */
+  private Minute minuteOf(long millis) {
+    long epochMinute = Math.floorDiv(millis, 60_000L);
+    Minute m = this.minute;
+    if (m != null && m.epochMinute == epochMinute) {
+      return m;
+    }
+    ZoneOffset offset = fixedOffset != null ? fixedOffset : zone.getRules().getOffset(Instant.ofEpochSecond(epochMinute * 60));
+    int offsetSeconds = offset.getTotalSeconds();
+    if (offsetSeconds % 60 != 0) {
+      return null;
+    }
+    long localMinute = epochMinute + offsetSeconds / 60;
+    long epochDay = Math.floorDiv(localMinute, 1440L);
+    int minuteOfDay = (int) Math.floorMod(localMinute, 1440L);
+    LocalDate date = LocalDate.ofEpochDay(epochDay);
+    if (date.getYear() < 0 || date.getYear() > 9999) {
+      return null;
+    }
+    char[] chars = literals.clone();
+    write(chars, positions[YEAR], date.getYear(), 4);
+    write(chars, positions[MONTH], date.getMonthValue(), 2);
+    write(chars, positions[DAY], date.getDayOfMonth(), 2);
+    write(chars, positions[HOUR], minuteOfDay / 60, 2);
+    write(chars, positions[MINUTE], minuteOfDay % 60, 2);
+    this.minute = m = new Minute(epochMinute, chars);
+    return m;
+  }
+
+  private static void write(char[] chars, int pos, int value, int width) {
+    if (pos < 0) {
+      return;
+    }
+    for (int i = width - 1; i >= 0; i--) {
+      chars[pos + i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+   * 解析时间
+   *
+   * @param text 时间字符串
+   * @return 返回时间戳(毫秒)
+   * @throws DateTimeParseException 格式错误
+   */
+  public long parse(CharSequence text) throws DateTimeParseException {
+    if (literals != null) {
+      long millis = parseFast(text);
+      if (millis != Long.MIN_VALUE) {
+        return millis;
+      }
+      throw new DateTimeParseException("格式错误: " + pattern, text, 0);
+    }
+    TemporalAccessor t = getFormatter().parse(text);
+    if (t.isSupported(ChronoField.INSTANT_SECONDS)) {
+      return Instant.from(t).toEpochMilli();
+    }
+    LocalDate date = t.query(TemporalQueries.localDate());
+    LocalTime time = t.query(TemporalQueries.localTime());
+    return ZonedDateTime.of(date != null ? date : LocalDate.EPOCH, time != null ? time : LocalTime.MIDNIGHT, zone)
+        .toInstant()
+        .toEpochMilli();
+  }
+
+  /**
+   * 解析时间
+   *
+   * @param text         时间字符串
+   * @param defaultValue 格式错误时返回的默认值
+   * @return 返回时间戳(毫秒)
+   */
+  public long parse(CharSequence text, long defaultValue) {
+    if (text == null) {
+      return defaultValue;
+    }
+    if (literals != null) {
+      long millis = parseFast(text);
+      return millis != Long.MIN_VALUE ? millis : defaultValue;
+    }
+    try {
+      return parse(text);
+    } catch (DateTimeException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * 快速解析，格式错误时返回 Long.MIN_VALUE
+   */
+  private long parseFast(CharSequence text) {
+    final char[] literals = this.literals;
+    if (text.length() != literals.length) {
+      return Long.MIN_VALUE;
+    }
+    for (int i = 0; i < literals.length; i++) {
+      char c = text.charAt(i);
+      if (digits[i]) {
+        if (c < '0' || c > '9') {
+          return Long.MIN_VALUE;
+        }
+      } else if (c != literals[i]) {
+        return Long.MIN_VALUE;
+      }
+    }
+    int year = read(text, positions[YEAR], 4, 1970);
+    int month = read(text, positions[MONTH], 2, 1);
+    int day = read(text, positions[DAY], 2, 1);
+    int hour = read(text, positions[HOUR], 2, 0);
+    int min = read(text, positions[MINUTE], 2, 0);
+    int sec = read(text, positions[SECOND], 2, 0);
+    int ms = read(text, positions[MILLI], 3, 0);
+    if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+        || hour > 23 || min > 59 || sec > 59) {
+      return Long.MIN_VALUE;
+    }
+    long localSecond = daysFromCivil(year, month, day) * 86400L + hour * 3600 + min * 60 + sec;
+    int offset = fixedOffset != null ? fixedOffset.getTotalSeconds() : offsetOf(localSecond);
+    return (localSecond - offset) * 1000L + ms;
+  }
+
+  /**
+   * 本地时间对应的时区偏移，重叠时(夏令时结束)与 SimpleDateFormat 一致，取标准时间的偏移
+   */
+  private int offsetOf(long localSecond) {
+    ZoneRules rules = zone.getRules();
+    LocalDateTime ldt = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+    ZoneOffsetTransition transition = rules.getTransition(ldt);
+    if (transition != null && transition.isOverlap()) {
+      return transition.getOffsetAfter().getTotalSeconds();
+    }
+    return rules.getOffset(ldt).getTotalSeconds();
+  }
+
+  private static int read(CharSequence text, int pos, int width, int defaultValue) {
+    if (pos < 0) {
+      return defaultValue;
+    }
+    int v = 0;
+    for (int i = 0; i < width; i++) {
+      v = v * 10 + (text.charAt(pos + i) - '0');
+    }
+    return v;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    if (month == 2) {
+      return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  /**
+   * 公历日期距离 1970-01-01 的天数
+   */
+  private static long daysFromCivil(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yoe = y - era * 400;
+    int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+    return era * 146097L + doe - 719468;
+  }
+
+  @Override
+  public String toString() {
+    return "TimeFormat(" + pattern + ", " + zone + ")";
+  }
+
+  /**
+   * 一分钟内不变的字符
+   */
+  private static final class Minute {
+    final long epochMinute;
+    final char[] chars;
+
+    Minute(long epochMinute, char[] chars) {
+      this.epochMinute = epochMinute;
+      this.chars = chars;
+    }
+  }
+
+}
@@ -0,0 +1,267 @@
+package com.benefitj.core;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间排序的ID(UUIDv7、ULID)，单调递增，适合作为数据库主键(插入时索引保持局部性)
+ * <p>
+ * 时间戳(毫秒)和计数器打包在一个 AtomicLong 中通过CAS生成，同一毫秒内计数器递增，
+ * 计数器溢出时进位到下一毫秒(透支时间戳)；随机部分使用 {@link ThreadLocalRandom}，不加锁
+ */
+public final class TimeOrderedIds {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  /**
+   * Crockford's Base32
+   */
+  private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  /**
+   * UUIDv7的状态：unix毫秒 << 12 | 12位计数器(rand_a)
+   */
+  private static final AtomicLong UUID_STATE = new AtomicLong();
+  /**
+   * ULID的状态：unix毫秒 << 16 | 16位计数器(随机部分的高16位)
+   */
+  private static final AtomicLong ULID_STATE = new AtomicLong();
+
+  private TimeOrderedIds() {
+  }
+
+  /**
+   * 预留计数器
+   *
+   * @param state       状态
+   * @param counterBits 计数器的位数
+   * @param n           数量
+   * @return 返回预留的第一个状态
+   */
+  private static long reserve(AtomicLong state, int counterBits, int n) {
+    for (; ; ) {
+      long current = state.get();
+      long now = System.currentTimeMillis();
+      long start;
+      if (now > (current >>> counterBits)) {
+        // 新的毫秒，计数器从随机值开始，最高位留空，避免很快溢出
+        long seed = ThreadLocalRandom.current().nextLong() & ((1L << (counterBits - 1)) - 1);
+        start = (now << counterBits) | seed;
+      } else {
+        start = current + 1;
+      }
+      if (state.compareAndSet(current, start + n - 1)) {
+        return start;
+      }
+    }
+  }
+
+  /* ********************************** UUIDv7 ********************************** */
+
+  /**
+   * 生成 UUIDv7
+   */
+  public static UUID uuidV7() {
+    long s = reserve(UUID_STATE, 12, 1);
+    return new UUID(uuidMsb(s), uuidLsb(ThreadLocalRandom.current()));
+  }
+
+  /**
+   * 生成 UUIDv7 的字符串(36个字符，带"-")
+   */
+  public static String uuidV7String() {
+    return new String(uuidV7(new char[36], 0, true));
+  }
+
+  /**
+   * 生成 UUIDv7 并编码到字符数组中
+   *
+   * @param dst    字符数组
+   * @param off    开始的位置
+   * @param hyphen 是否带"-"，带"-"时为36个字符，否则为32个字符
+   * @return 返回字符数组
+   */
+  public static char[] uuidV7(char[] dst, int off, boolean hyphen) {
+    long s = reserve(UUID_STATE, 12, 1);
+    encodeUuid(uuidMsb(s), uuidLsb(ThreadLocalRandom.current()), dst, off, hyphen);
+    return dst;
+  }
+
+  /**
+   * 批量生成 UUIDv7，一次CAS预留全部的计数器
+   *
+   * @param n   数量
+   * @param dst UUID数组
+   * @return 返回数组
+   */
+  public static UUID[] uuidV7s(int n, UUID[] dst) {
+    if (n <= 0) {
+      return dst;
+    }
+    long s = reserve(UUID_STATE, 12, n);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < n; i++) {
+      dst[i] = new UUID(uuidMsb(s + i), uuidLsb(random));
+    }
+    return dst;
+  }
+
+  /**
+   * 批量生成 UUIDv7 的原始位，dst[2i]为高64位，dst[2i+1]为低64位
+   *
+   * @param n   数量
+   * @param dst 数组，长度不小于 2n
+   * @return 返回数组
+   */
+  public static long[] uuidV7Bits(int n, long[] dst) {
+    if (n <= 0) {
+      return dst;
+    }
+    long s = reserve(UUID_STATE, 12, n);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < n; i++) {
+      dst[i << 1] = uuidMsb(s + i);
+      dst[(i << 1) + 1] = uuidLsb(random);
+    }
+    return dst;
+  }
+
+  /**
+   * 48位时间戳 | 版本7 | 12位计数器
+   */
+  private static long uuidMsb(long state) {
+    return ((state >>> 12) << 16) | 0x7000L | (state & 0x0FFFL);
+  }
+
+  /**
+   * 变体(10) | 62位随机数
+   */
+  private static long uuidLsb(ThreadLocalRandom random) {
+    return (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+  }
+
+  /**
+   * UUID编码为16进制字符(小写)
+   *
+   * @param msb    高64位
+   * @param lsb    低64位
+   * @param dst    字符数组
+   * @param off    开始的位置
+   * @param hyphen 是否带"-"
+   * @return 返回写入的字符数
+   */
+  public static int encodeUuid(long msb, long lsb, char[] dst, int off, boolean hyphen) {
+    int p = off;
+    p = hex(msb >>> 32, 8, dst, p);
+    if (hyphen) dst[p++] = '-';
+    p = hex(msb >>> 16, 4, dst, p);
+    if (hyphen) dst[p++] = '-';
+    p = hex(msb, 4, dst, p);
+    if (hyphen) dst[p++] = '-';
+    p = hex(lsb >>> 48, 4, dst, p);
+    if (hyphen) dst[p++] = '-';
+    p = hex(lsb, 12, dst, p);
+    return p - off;
+  }
+
+  private static int hex(long v, int digits, char[] dst, int off) {
+    for (int i = digits - 1; i >= 0; i--) {
+      dst[off + i] = HEX[(int) (v & 0xF)];
+      v >>>= 4;
+    }
+    return off + digits;
+  }
+
+  /* ********************************** ULID ********************************** */
+
+  /**
+   * 生成 ULID(26个字符，Crockford's Base32)
+   */
+  public static String ulid() {
+    return new String(ulid(new char[26], 0));
+  }
+
+  /**
+   * 生成 ULID 并编码到字符数组中
+   *
+   * @param dst 字符数组
+   * @param off 开始的位置
+   * @return 返回字符数组
+   */
+  public static char[] ulid(char[] dst, int off) {
+    long s = reserve(ULID_STATE, 16, 1);
+    encodeUlid(s, ThreadLocalRandom.current().nextLong(), dst, off);
+    return dst;
+  }
+
+  /**
+   * 批量生成 ULID，一次CAS预留全部的计数器
+   *
+   * @param n   数量
+   * @param dst 数组
+   * @return 返回数组
+   */
+  public static String[] ulids(int n, String[] dst) {
+    if (n <= 0) {
+      return dst;
+    }
+    long s = reserve(ULID_STATE, 16, n);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    char[] buf = new char[26];
+    for (int i = 0; i < n; i++) {
+      encodeUlid(s + i, random.nextLong(), buf, 0);
+      dst[i] = new String(buf);
+    }
+    return dst;
+  }
+
+  /**
+   * ULID编码为 Crockford's Base32
+   *
+   * @param hi  高64位：48位时间戳 | 随机部分的高16位
+   * @param lo  低64位：随机部分的低64位
+   * @param dst 字符数组
+   * @param off 开始的位置
+   * @return 返回写入的字符数(26)
+   */
+  public static int encodeUlid(long hi, long lo, char[] dst, int off) {
+    // 128位数据按5位一组，从低位开始编码，最高的字符只有3位有效
+    for (int i = 25, shift = 0; i >= 0; i--, shift += 5) {
+      int v;
+      if (shift + 5 <= 64) {
+        v = (int) (lo >>> shift);
+      } else if (shift < 64) {
+        v = (int) ((lo >>> shift) | (hi << (64 - shift)));
+      } else {
+        v = (int) (hi >>> (shift - 64));
+      }
+      dst[off + i] = BASE32[v & 0x1F];
+    }
+    return 26;
+  }
+
+  /**
+   * 获取ULID中的时间戳
+   *
+   * @param ulid ULID
+   * @return 返回unix毫秒
+   */
+  public static long ulidTimestamp(CharSequence ulid) {
+    long ts = 0;
+    for (int i = 0; i < 10; i++) {
+      ts = (ts << 5) | decodeBase32(ulid.charAt(i));
+    }
+    return ts;
+  }
+
+  private static int decodeBase32(char c) {
+    char u = Character.toUpperCase(c);
+    for (int i = 0; i < BASE32.length; i++) {
+      if (BASE32[i] == u) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("无效的ULID字符: " + c);
+  }
+
+}
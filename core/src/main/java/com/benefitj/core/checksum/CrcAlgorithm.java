@@ -0,0 +1,349 @@
+package com.benefitj.core.checksum;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * CRC算法参数(宽度、多项式、初始值、是否反转、结果异或值)，预先计算查找表(slice-by-4)，
+ * 创建后线程安全，可以直接计算，也可以通过 {@link #newChecksum()} 增量计算
+ *
+ * <pre>
+ *   // 校验帧尾的2字节CRC(小端)
+ *   boolean ok = CrcAlgorithm.CRC16_MODBUS.verify(frame, 0, frame.length, ByteOrder.LITTLE_ENDIAN);
+ * </pre>
+ */
+public final class CrcAlgorithm {
+
+  /**
+   * CRC-8，多项式 x8+x2+x+1
+   */
+  public static final CrcAlgorithm CRC8 = of("CRC-8", 8, 0x07, 0x00, false, 0x00);
+  /**
+   * CRC-8/MAXIM(DS18B20等单总线设备)
+   */
+  public static final CrcAlgorithm CRC8_MAXIM = of("CRC-8/MAXIM", 8, 0x31, 0x00, true, 0x00);
+  /**
+   * CRC-16/MODBUS
+   */
+  public static final CrcAlgorithm CRC16_MODBUS = of("CRC-16/MODBUS", 16, 0x8005, 0xFFFF, true, 0x0000);
+  /**
+   * CRC-16/CCITT(KERMIT)
+   */
+  public static final CrcAlgorithm CRC16_CCITT = of("CRC-16/CCITT", 16, 0x1021, 0x0000, true, 0x0000);
+  /**
+   * CRC-16/CCITT-FALSE
+   */
+  public static final CrcAlgorithm CRC16_CCITT_FALSE = of("CRC-16/CCITT-FALSE", 16, 0x1021, 0xFFFF, false, 0x0000);
+  /**
+   * CRC-16/XMODEM
+   */
+  public static final CrcAlgorithm CRC16_XMODEM = of("CRC-16/XMODEM", 16, 0x1021, 0x0000, false, 0x0000);
+  /**
+   * CRC-32，使用JDK的实现
+   */
+  public static final CrcAlgorithm CRC32 = new CrcAlgorithm("CRC-32", 32, 0x04C11DB7, 0xFFFFFFFF, true, 0xFFFFFFFF, CRC32::new);
+  /**
+   * CRC-32C(Castagnoli)，使用JDK的实现
+   */
+  public static final CrcAlgorithm CRC32C = new CrcAlgorithm("CRC-32C", 32, 0x1EDC6F41, 0xFFFFFFFF, true, 0xFFFFFFFF, CRC32C::new);
+
+  /**
+   * 创建CRC算法
+   *
+   * @param name      名称
+   * @param width     宽度(1 ~ 32)
+   * @param poly      多项式(不反转)
+   * @param init      初始值
+   * @param reflected 输入和输出是否反转
+   * @param xorOut    结果异或值
+   * @return 返回CRC算法
+   */
+  public static CrcAlgorithm of(String name, int width, int poly, int init, boolean reflected, int xorOut) {
+    if (width < 1 || width > 32) {
+      throw new IllegalArgumentException("CRC宽度错误: " + width);
+    }
+    return new CrcAlgorithm(name, width, poly, init, reflected, xorOut, null);
+  }
+
+  private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private final String name;
+  private final int width;
+  private final int poly;
+  private final int init;
+  private final boolean reflected;
+  private final int xorOut;
+  private final long mask;
+  /**
+   * 非反转算法的寄存器左对齐到32位，需要右移的位数
+   */
+  private final int shift;
+  /**
+   * slice-by-4 查找表，JDK实现时为null
+   */
+  private final int[] t0, t1, t2, t3;
+  /**
+   * JDK的实现
+   */
+  private final Supplier<Checksum> jdk;
+
+  private CrcAlgorithm(String name, int width, int poly, int init, boolean reflected, int xorOut, Supplier<Checksum> jdk) {
+    this.name = name;
+    this.width = width;
+    this.mask = width == 32 ? 0xFFFFFFFFL : (1L << width) - 1;
+    this.poly = (int) (poly & mask);
+    this.init = (int) (init & mask);
+    this.reflected = reflected;
+    this.xorOut = (int) (xorOut & mask);
+    this.shift = 32 - width;
+    this.jdk = jdk;
+    if (jdk != null) {
+      this.t0 = this.t1 = this.t2 = this.t3 = null;
+      return;
+    }
+    int[][] tables = new int[4][256];
+    if (reflected) {
+      int rpoly = Integer.reverse(this.poly) >>> shift;
+      for (int b = 0; b < 256; b++) {
+        int crc = b;
+        for (int i = 0; i < 8; i++) {
+          crc = (crc & 1) != 0 ? (crc >>> 1) ^ rpoly : crc >>> 1;
+        }
+        tables[0][b] = crc;
+      }
+      for (int b = 0; b < 256; b++) {
+        for (int k = 1; k < 4; k++) {
+          int prev = tables[k - 1][b];
+          tables[k][b] = (prev >>> 8) ^ tables[0][prev & 0xFF];
+        }
+      }
+    } else {
+      int apoly = this.poly << shift;
+      for (int b = 0; b < 256; b++) {
+        int crc = b << 24;
+        for (int i = 0; i < 8; i++) {
+          crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ apoly : crc << 1;
+        }
+        tables[0][b] = crc;
+      }
+      for (int b = 0; b < 256; b++) {
+        for (int k = 1; k < 4; k++) {
+          int prev = tables[k - 1][b];
+          tables[k][b] = (prev << 8) ^ tables[0][prev >>> 24];
+        }
+      }
+    }
+    this.t0 = tables[0];
+    this.t1 = tables[1];
+    this.t2 = tables[2];
+    this.t3 = tables[3];
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getPoly() {
+    return poly;
+  }
+
+  public int getInit() {
+    return init;
+  }
+
+  public boolean isReflected() {
+    return reflected;
+  }
+
+  public int getXorOut() {
+    return xorOut;
+  }
+
+  /**
+   * 校验值占用的字节数
+   */
+  public int byteWidth() {
+    return (width + 7) >>> 3;
+  }
+
+  /**
+   * 创建增量计算的校验和
+   */
+  public Checksum newChecksum() {
+    return jdk != null ? jdk.get() : new CrcChecksum(this);
+  }
+
+  /**
+   * 计算校验值
+   *
+   * @param src 数据
+   * @return 返回校验值
+   */
+  public long compute(byte[] src) {
+    return compute(src, 0, src.length);
+  }
+
+  /**
+   * 计算校验值
+   *
+   * @param src 数据
+   * @param off 开始的位置
+   * @param len 长度
+   * @return 返回校验值
+   */
+  public long compute(byte[] src, int off, int len) {
+    Objects.checkFromIndexSize(off, len, src.length);
+    if (jdk != null) {
+      Checksum checksum = jdk.get();
+      checksum.update(src, off, len);
+      return checksum.getValue();
+    }
+    return finish(update(initial(), src, off, len));
+  }
+
+  /**
+   * 计算缓冲中 position ~ limit 之间数据的校验值，不改变缓冲的position
+   *
+   * @param buf 缓冲
+   * @return 返回校验值
+   */
+  public long compute(ByteBuffer buf) {
+    if (jdk != null) {
+      Checksum checksum = jdk.get();
+      checksum.update(buf.duplicate());
+      return checksum.getValue();
+    }
+    return finish(update(initial(), buf, buf.position(), buf.remaining()));
+  }
+
+  /**
+   * 校验帧尾的CRC，不拷贝数据：帧的最后 {@link #byteWidth()} 个字节为前面数据的校验值
+   *
+   * @param frame 帧数据
+   * @param off   帧开始的位置
+   * @param len   帧长度(包含CRC)
+   * @param order CRC的字节序
+   * @return 返回是否校验通过
+   */
+  public boolean verify(byte[] frame, int off, int len, ByteOrder order) {
+    int n = byteWidth();
+    if (len < n) {
+      return false;
+    }
+    Objects.checkFromIndexSize(off, len, frame.length);
+    long expected = 0;
+    int end = off + len;
+    if (order == ByteOrder.LITTLE_ENDIAN) {
+      for (int i = end - 1; i >= end - n; i--) {
+        expected = (expected << 8) | (frame[i] & 0xFF);
+      }
+    } else {
+      for (int i = end - n; i < end; i++) {
+        expected = (expected << 8) | (frame[i] & 0xFF);
+      }
+    }
+    return compute(frame, off, len - n) == expected;
+  }
+
+  /**
+   * 校验值转换为字节数组
+   *
+   * @param crc   校验值
+   * @param order 字节序
+   * @return 返回 {@link #byteWidth()} 长度的字节数组
+   */
+  public byte[] toBytes(long crc, ByteOrder order) {
+    byte[] bytes = new byte[byteWidth()];
+    for (int i = 0; i < bytes.length; i++) {
+      int shift = order == ByteOrder.LITTLE_ENDIAN ? i << 3 : (bytes.length - 1 - i) << 3;
+      bytes[i] = (byte) (crc >>> shift);
+    }
+    return bytes;
+  }
+
+  /**
+   * 初始的寄存器
+   */
+  int initial() {
+    return reflected ? Integer.reverse(init) >>> shift : init << shift;
+  }
+
+  /**
+   * 寄存器转换为校验值
+   */
+  long finish(int reg) {
+    int crc = reflected ? reg : reg >>> shift;
+    return (crc ^ xorOut) & mask;
+  }
+
+  int update(int reg, int b) {
+    if (reflected) {
+      return (reg >>> 8) ^ t0[(reg ^ b) & 0xFF];
+    }
+    return (reg << 8) ^ t0[((reg >>> 24) ^ b) & 0xFF];
+  }
+
+  int update(int reg, byte[] src, int off, int len) {
+    final int[] t0 = this.t0, t1 = this.t1, t2 = this.t2, t3 = this.t3;
+    int i = off, end = off + len;
+    if (reflected) {
+      for (int limit = end - 3; i < limit; i += 4) {
+        int x = reg ^ (int) INT_LE.get(src, i);
+        reg = t3[x & 0xFF] ^ t2[(x >>> 8) & 0xFF] ^ t1[(x >>> 16) & 0xFF] ^ t0[x >>> 24];
+      }
+      for (; i < end; i++) {
+        reg = (reg >>> 8) ^ t0[(reg ^ src[i]) & 0xFF];
+      }
+    } else {
+      for (int limit = end - 3; i < limit; i += 4) {
+        int x = reg ^ (int) INT_BE.get(src, i);
+        reg = t3[x >>> 24] ^ t2[(x >>> 16) & 0xFF] ^ t1[(x >>> 8) & 0xFF] ^ t0[x & 0xFF];
+      }
+      for (; i < end; i++) {
+        reg = (reg << 8) ^ t0[((reg >>> 24) ^ src[i]) & 0xFF];
+      }
+    }
+    return reg;
+  }
+
+  int update(int reg, ByteBuffer buf, int index, int len) {
+    if (buf.hasArray()) {
+      return update(reg, buf.array(), buf.arrayOffset() + index, len);
+    }
+    ByteBuffer view = buf.duplicate().order(reflected ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    int i = index, end = index + len;
+    if (reflected) {
+      for (int limit = end - 3; i < limit; i += 4) {
+        int x = reg ^ view.getInt(i);
+        reg = t3[x & 0xFF] ^ t2[(x >>> 8) & 0xFF] ^ t1[(x >>> 16) & 0xFF] ^ t0[x >>> 24];
+      }
+    } else {
+      for (int limit = end - 3; i < limit; i += 4) {
+        int x = reg ^ view.getInt(i);
+        reg = t3[x >>> 24] ^ t2[(x >>> 16) & 0xFF] ^ t1[(x >>> 8) & 0xFF] ^ t0[x & 0xFF];
+      }
+    }
+    for (; i < end; i++) {
+      reg = update(reg, view.get(i));
+    }
+    return reg;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+}
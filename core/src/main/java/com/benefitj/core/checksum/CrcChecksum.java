@@ -0,0 +1,65 @@
+package com.benefitj.core.checksum;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.zip.Checksum;
+
+/**
+ * 查表法的CRC增量计算，非线程安全，通过 {@link CrcAlgorithm#newChecksum()} 创建
+ */
+public final class CrcChecksum implements Checksum {
+
+  private final CrcAlgorithm algorithm;
+  /**
+   * 寄存器
+   */
+  private int reg;
+
+  CrcChecksum(CrcAlgorithm algorithm) {
+    this.algorithm = algorithm;
+    this.reg = algorithm.initial();
+  }
+
+  public CrcAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public void update(int b) {
+    reg = algorithm.update(reg, b);
+  }
+
+  @Override
+  public void update(byte[] b, int off, int len) {
+    Objects.checkFromIndexSize(off, len, b.length);
+    reg = algorithm.update(reg, b, off, len);
+  }
+
+  /**
+   * 更新缓冲中 position ~ limit 之间的数据，完成后 position 等于 limit
+   *
+   * @param buffer 缓冲
+   */
+  @Override
+  public void update(ByteBuffer buffer) {
+    int pos = buffer.position(), len = buffer.remaining();
+    reg = algorithm.update(reg, buffer, pos, len);
+    buffer.position(pos + len);
+  }
+
+  @Override
+  public long getValue() {
+    return algorithm.finish(reg);
+  }
+
+  @Override
+  public void reset() {
+    reg = algorithm.initial();
+  }
+
+  @Override
+  public String toString() {
+    return algorithm.getName() + "(" + Long.toHexString(getValue()) + ")";
+  }
+
+}
@@ -1,24 +1,30 @@
 package com.benefitj.core.cmd;
 
 import com.benefitj.core.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * CMD执行(bat/shell)
  */
 public class CmdExecutor {
 
+  static final Logger log = LoggerFactory.getLogger(CmdExecutor.class);
+
   static final SingletonSupplier<CmdExecutor> single = SingletonSupplier.of(CmdExecutor::new);
 
   public static CmdExecutor get() {
@@ -51,10 +57,15 @@ public class CmdExecutor {
     return (isWindows() ? "cmd /c start /b " : "sh ") + cmd;
   }
 
-  private final AtomicReference<Thread> sign = new AtomicReference<>();
+  /**
+   * 正在执行的进程数
+   */
   private final AtomicInteger aliveProcess = new AtomicInteger();
+  /**
+   * 等待执行的命令，按提交顺序
+   */
+  private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
 
-  private final Object lock = new Object();
   /**
    * 超时时长，5分钟
    */
@@ -196,43 +207,169 @@ public class CmdExecutor {
    * @return 执行命令后的响应
    */
   public CmdCall call(String cmd, @Nullable List<String> envp, @Nullable File dir, long timeout, @Nullable Callback callback) {
+    final Pending p = enqueue(cmd, envp, dir, timeout, callback);
+    try {
+      return p.future.get();
+    } catch (InterruptedException e) {
+      // 被中断，结束进程
+      Thread.currentThread().interrupt();
+      p.future.cancel(true);
+      p.call.setException(e);
+      return p.call;
+    } catch (ExecutionException e) {
+      p.call.setException(CatchUtils.findRoot(e));
+      return p.call;
+    }
+  }
+
+  /**
+   * 异步调用命令，不占用等待的线程
+   *
+   * @param cmd      命令
+   * @param timeout  超时时长
+   * @param callback 回调
+   * @return 返回执行的结果
+   */
+  public CompletableFuture<CmdCall> callAsync(String cmd, long timeout, @Nullable Callback callback) {
+    return callAsync(cmd, null, null, timeout, callback);
+  }
+
+  /**
+   * 异步调用命令，不占用等待的线程：超过最大子进程数时排队，
+   * 排队超时(timeout > 0)或执行出错时，异常保存在 {@link CmdCall#getException()} 中
+   *
+   * @param cmd      命令
+   * @param envp     环境变量
+   * @param dir      上下文目录
+   * @param timeout  超时时长，包括排队的时间
+   * @param callback 回调
+   * @return 返回执行的结果，取消时强制结束进程
+   */
+  public CompletableFuture<CmdCall> callAsync(String cmd, @Nullable List<String> envp, @Nullable File dir, long timeout, @Nullable Callback callback) {
+    return enqueue(cmd, envp, dir, timeout, callback).future;
+  }
+
+  private Pending enqueue(String cmd, @Nullable List<String> envp, @Nullable File dir, long timeout, @Nullable Callback callback) {
     final Callback cb = callback != null ? callback : Callback.EMPTY_CALLBACK;
-    final long start = now();
     final String[] envparams = envp != null ? envp.toArray(new String[0]) : new String[0];
     final CmdCall call = createCmdCall(IdUtils.uuid());
     call.setCmd(cmd);
     call.setCtxDir(dir);
     call.setEnvp(envparams);
-    cb.onStart(call);
+    final Pending p = new Pending(call, cb, now(), timeout);
+    p.future.whenComplete((c, e) -> {
+      // 被取消
+      if (p.future.isCancelled()) {
+        if (pending.remove(p)) {
+          p.cancelQueueTimer();
+        }
+        Process process = call.getProcess();
+        if (process != null) process.destroyForcibly();
+      }
+    });
     try {
-      return safeCall(timeout, start, () -> {
-        cb.onCallBefore(call, cmd, envparams, dir);
-        final Process process = Runtime.getRuntime().exec(cmd, envparams, dir);
-        call.setProcess(process);
-        cb.onCallAfter(process, call);
-        // 强制结束
-        startTimeout(call, timeout - (now() - start));
-        cb.onWaitForBefore(process, call);
-        // 处理消息
-        handle(getExecutor(), process, call, cb);
-        // 等待进程结束
-        while (process.isAlive()) Thread.currentThread().join(5);
-        // 等待
-        //int exitValue = process.waitFor();
-        call.setExitCode(process.exitValue());
-        // 移除等待的缓存
-        cancelTimeout(call.getId());
-        // 调用结束
-        cb.onWaitForAfter(process, call);
-        return call;
-      });
+      cb.onStart(call);
+    } catch (Throwable e) {
+      finish(p, e, false);
+      return p;
+    }
+    pending.offer(p);
+    if (timeout > 0) {
+      // 排队超时，已出队时不处理
+      p.queueTimer = schedule(() -> {
+        if (pending.remove(p)) {
+          finish(p, new TimeoutException("等待超时！"), false);
+        }
+      }, timeout, TimeUnit.MILLISECONDS);
+    }
+    drain();
+    return p;
+  }
+
+  /**
+   * 未达到最大子进程数时，启动排队的命令
+   */
+  protected void drain() {
+    for (; ; ) {
+      if (pending.isEmpty()) return;
+      int alive = aliveProcess.get();
+      if (alive >= getMaxCallNum()) return;
+      if (!aliveProcess.compareAndSet(alive, alive + 1)) continue;
+      Pending p = pending.poll();
+      if (p == null) {
+        aliveProcess.decrementAndGet();
+        continue;
+      }
+      p.cancelQueueTimer();
+      try {
+        getExecutor().execute(() -> launch(p));
+      } catch (Throwable e) {
+        finish(p, e, true);
+      }
+    }
+  }
+
+  /**
+   * 启动进程，进程结束和输出读取完成后回调
+   */
+  private void launch(Pending p) {
+    final CmdCall call = p.call;
+    final Callback cb = p.cb;
+    try {
+      if (p.future.isDone()) {
+        finish(p, null, true);
+        return;
+      }
+      cb.onCallBefore(call, call.getCmd(), call.getEnvp(), call.getCtxDir());
+      final Process process = Runtime.getRuntime().exec(call.getCmd(), call.getEnvp(), call.getCtxDir());
+      call.setProcess(process);
+      cb.onCallAfter(process, call);
+      // 强制结束
+      startTimeout(call, p.timeout - (now() - p.start));
+      cb.onWaitForBefore(process, call);
+      // 处理消息，等待进程结束
+      handleAsync(getExecutor(), process, call, cb)
+          .thenCombine(process.onExit(), (c, proc) -> proc)
+          .whenComplete((proc, e) -> {
+            Throwable error = e;
+            try {
+              if (e == null) {
+                call.setExitCode(process.exitValue());
+                // 移除等待的缓存
+                cancelTimeout(call.getId());
+                // 调用结束
+                cb.onWaitForAfter(process, call);
+              }
+            } catch (Throwable ex) {
+              error = ex;
+            } finally {
+              finish(p, error, true);
+            }
+          });
     } catch (Throwable e) {
-      call.setException(e);
-      cb.onError(call, e);
+      cancelTimeout(call.getId());
+      finish(p, e, true);
+    }
+  }
+
+  /**
+   * 执行结束
+   */
+  private void finish(Pending p, @Nullable Throwable e, boolean acquired) {
+    try {
+      if (e != null) {
+        Throwable root = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        p.call.setException(root);
+        p.cb.onError(p.call, root);
+      }
+      p.cb.onFinish(p.call);
+    } catch (Throwable ex) {
+      log.error(ex.getMessage(), ex);
     } finally {
-      cb.onFinish(call);
+      if (acquired) aliveProcess.decrementAndGet();
+      p.future.complete(p.call);
+      if (acquired) drain();
     }
-    return call;
   }
 
   /**
@@ -259,8 +396,6 @@ public class CmdExecutor {
     timeout = timeout > 0 ? timeout : getTimeout();
     final CmdCallFuture task = new CmdCallFuture(call, (id, cct) -> {
       getWaitForFutures().remove(id);
-      // 唤醒等待的线程
-      lock(Object::notify);
       final CmdCall cr = cct.getRaw();
       final Process p = cr.getProcess();
       if (p != null) {
@@ -272,63 +407,6 @@ public class CmdExecutor {
     task.setSf(schedule(task, timeout, TimeUnit.MILLISECONDS));
   }
 
-  /**
-   * 加锁
-   *
-   * @param timeout 超时时长
-   * @param start   开始时间
-   * @return 返回是否加锁
-   */
-  private <V> V safeCall(long timeout, long start, Callable<V> call) throws Exception {
-    if (timeout <= 0) {
-      return call.call();
-    }
-    final AtomicReference<Thread> sign = this.sign;
-    int maxProcess = getMaxCallNum();
-    final Thread current = Thread.currentThread();
-    for (;;) {
-      if (sign.compareAndSet(null, current)) {
-        // 执行的命令未达到最大值
-        if (aliveProcess.get() < maxProcess) {
-          try {
-            aliveProcess.incrementAndGet();
-            // 释放锁
-            sign.set(null);
-            return call.call();
-          } finally {
-            aliveProcess.decrementAndGet();
-            // 唤醒等待的线程
-            lock(Object::notify);
-          }
-        }
-      }
-
-      if ((timeout - (now() - start)) > 0) {
-        lock((lock) -> {
-          sign.set(null);
-          // 等待时长
-          sign.wait(Math.max(timeout - (now() - start), 0));
-        });
-      }
-      // 判断超时状态
-      if (isTimeout(start, timeout)) {
-        // 超时了，结束操作
-        throw new TimeoutException("等待超时！");
-      }
-    }
-  }
-
-
-  protected final void lock(LockObserver observer) {
-    synchronized (lock) {
-      try {
-        observer.accept(lock);
-      } catch (InterruptedException e) {
-        throw new IllegalStateException(CatchUtils.findRoot(e));
-      }
-    }
-  }
-
   public CmdCall createCmdCall(String id) {
     return new CmdCall(id);
   }
@@ -347,13 +425,21 @@ public class CmdExecutor {
   }
 
   public void setMaxCallNum(int maxCallNum) {
-    this.maxCallNum = Math.min(maxCallNum, 1);
+    this.maxCallNum = Math.max(maxCallNum, 1);
+    drain();
   }
 
   public int getAliveProcess() {
     return aliveProcess.get();
   }
 
+  /**
+   * 排队中的命令数
+   */
+  public int getQueuedCalls() {
+    return pending.size();
+  }
+
   protected static boolean isTimeout(long start, long timeout) {
     return timeout > 0 && ((now() - start) >= timeout);
   }
@@ -364,15 +450,6 @@ public class CmdExecutor {
   }
 
 
-  interface LockObserver {
-    /**
-     * 加锁中的处理
-     *
-     * @param lock 锁
-     */
-    void accept(Object lock) throws InterruptedException;
-  }
-
   /**
    * 处理进程
    *
@@ -393,41 +470,75 @@ public class CmdExecutor {
    */
   public static void handle(Executor executor, Process process, CmdCall call, Callback cb) {
     try {
-      // 读取消息
-      Charset charset = Charset.forName(System.getProperty("sun.jnu.encoding"));
-      try (BufferedReader pipeReader = IOUtils.wrapReader(process.getInputStream(), charset);
-           BufferedReader errorReader = IOUtils.wrapReader(process.getErrorStream(), charset);) {
-        List<String> msgLines = new LinkedList<>();
-        List<String> errLines = new LinkedList<>();
-        CountDownLatch latch = new CountDownLatch(2);
-        executor.execute(() -> {
-          try {
-            IOUtils.readLines(pipeReader, (line, index) -> {
-              msgLines.add(line);
-              cb.onMessage(call, msgLines, line, false);
-            });
-          } finally {
-            latch.countDown();
-          }
-        });
-        executor.execute(() -> {
-          try {
-            IOUtils.readLines(errorReader, (line, index) -> {
-              errLines.add(line);
-              cb.onMessage(call, errLines, line, true);
-            });
-          } finally {
-            latch.countDown();
-          }
-        });
-        latch.await();
-        call.setMessage(String.join(CRLF, msgLines));
-        call.setError(String.join(CRLF, errLines));
-      }
+      handleAsync(executor, process, call, cb).get();
     } catch (InterruptedException e) {
       call.setExitCode(-1);
+    } catch (ExecutionException e) {
+      call.setError(CatchUtils.findRoot(e).getMessage());
+    }
+  }
+
+  /**
+   * 异步读取进程的输出，每行回调 {@link Callback#onMessage(CmdCall, List, String, boolean)}
+   *
+   * @param executor 线程池
+   * @param process  进程
+   * @param call     调用
+   * @param cb       回调
+   * @return 返回读取完成的结果
+   */
+  public static CompletableFuture<CmdCall> handleAsync(Executor executor, Process process, CmdCall call, Callback cb) {
+    Charset charset = Charset.forName(System.getProperty("sun.jnu.encoding"));
+    List<String> msgLines = new LinkedList<>();
+    List<String> errLines = new LinkedList<>();
+    CompletableFuture<Void> out = CompletableFuture.runAsync(() -> readLines(process.getInputStream(), charset, line -> {
+      msgLines.add(line);
+      cb.onMessage(call, msgLines, line, false);
+    }), executor);
+    CompletableFuture<Void> err = CompletableFuture.runAsync(() -> readLines(process.getErrorStream(), charset, line -> {
+      errLines.add(line);
+      cb.onMessage(call, errLines, line, true);
+    }), executor);
+    return CompletableFuture.allOf(out, err).handle((v, e) -> {
+      call.setMessage(String.join(CRLF, msgLines));
+      call.setError(e != null ? CatchUtils.findRoot(e).getMessage() : String.join(CRLF, errLines));
+      return call;
+    });
+  }
+
+  private static void readLines(InputStream in, Charset charset, Consumer<String> consumer) {
+    try (BufferedReader reader = IOUtils.wrapReader(in, charset)) {
+      IOUtils.readLines(reader, (line, index) -> {
+        consumer.accept(line);
+      });
     } catch (IOException e) {
-      call.setError(e.getMessage());
+      throw new IllegalStateException(e);
     }
   }
+
+  /**
+   * 排队的命令
+   */
+  static final class Pending {
+
+    final CmdCall call;
+    final Callback cb;
+    final long start;
+    final long timeout;
+    final CompletableFuture<CmdCall> future = new CompletableFuture<>();
+    volatile ScheduledFuture<?> queueTimer;
+
+    Pending(CmdCall call, Callback cb, long start, long timeout) {
+      this.call = call;
+      this.cb = cb;
+      this.start = start;
+      this.timeout = timeout;
+    }
+
+    void cancelQueueTimer() {
+      ScheduledFuture<?> sf = this.queueTimer;
+      if (sf != null) sf.cancel(false);
+    }
+  }
+
 }
@@ -18,7 +18,10 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 绑定到固定的EventLoop上
+ *
+ * @deprecated 线程数随绑定的键增长，使用固定线程数、按键有序的 {@link KeyedExecutor}
  */
+@Deprecated
 public class EventLoopBinder<K> {
   static final Single SINGLE = EventLoop.newSingle(EventLoop.generateNamePrefix(), true);
 
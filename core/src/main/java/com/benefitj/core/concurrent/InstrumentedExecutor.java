@@ -0,0 +1,455 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.SingletonSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录运行指标的线程池：排队数、等待时间、执行时间、拒绝数，并对慢任务采样堆栈。
+ * <p>
+ * 每个任务只增加两次 nanoTime 和几次无锁计数，可以在生产环境中开启
+ */
+public class InstrumentedExecutor extends AbstractExecutorService implements ScheduledExecutorService, LoopMetrics {
+
+  static final Logger log = LoggerFactory.getLogger(InstrumentedExecutor.class);
+
+  /**
+   * 慢任务采样和指标推送的线程
+   */
+  static final SingletonSupplier<ScheduledExecutorService> SAMPLER = SingletonSupplier.of(() -> {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread t = new Thread(r, "loop-metrics-sampler");
+      t.setDaemon(true);
+      return t;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  });
+
+  private final String name;
+  private final ScheduledExecutorService delegate;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder queued = new LongAdder();
+  private final LongAdder active = new LongAdder();
+  private final LongAdder slowTasks = new LongAdder();
+  private final LatencyHistogram waitTime = new LatencyHistogram();
+  private final LatencyHistogram runTime = new LatencyHistogram();
+
+  /**
+   * 慢任务的阈值(纳秒)，0 表示不采样
+   */
+  private final long slowThreshold;
+  /**
+   * 全部的槽位，执行时借用、结束后归还，数量不超过同时执行的任务数；
+   * 不按线程保存，每个任务一个(虚拟)线程时也不会增长
+   */
+  private final Queue<Slot> slots = new ConcurrentLinkedQueue<>();
+  private final Queue<Slot> freeSlots = new ConcurrentLinkedQueue<>();
+  private final ScheduledFuture<?> sampler;
+
+  public InstrumentedExecutor(String name, ScheduledExecutorService delegate) {
+    this(name, delegate, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 构造函数
+   *
+   * @param name          名称
+   * @param delegate      线程池
+   * @param slowThreshold 慢任务的阈值，执行超过此时间时采样堆栈，0 表示不采样
+   * @param unit          单位
+   */
+  public InstrumentedExecutor(String name, ScheduledExecutorService delegate, long slowThreshold, TimeUnit unit) {
+    this.name = name;
+    this.delegate = delegate;
+    this.slowThreshold = unit.toNanos(slowThreshold);
+    if (this.slowThreshold > 0) {
+      long period = Math.max(this.slowThreshold / 2, TimeUnit.MILLISECONDS.toNanos(10));
+      this.sampler = SAMPLER.get().scheduleAtFixedRate(this::sample, period, period, TimeUnit.NANOSECONDS);
+    } else {
+      this.sampler = null;
+    }
+    LoopMetrics.register(this);
+  }
+
+  public ScheduledExecutorService getDelegate() {
+    return delegate;
+  }
+
+  public long getSlowThreshold(TimeUnit unit) {
+    return unit.convert(slowThreshold, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Task task = new Task(command, System.nanoTime());
+    queued.increment();
+    dispatch(task, () -> {
+      delegate.execute(task);
+      return null;
+    });
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    Task task = new Task(command, dueOf(delay, unit), 0, false);
+    return dispatch(task, () -> delegate.schedule(task, delay, unit));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    TaskFuture<V> future = new TaskFuture<>(callable);
+    Task task = new Task(future, dueOf(delay, unit), 0, false);
+    ScheduledFuture<?> sf = dispatch(task, () -> delegate.schedule(task, delay, unit));
+    return new ScheduledFutureAdapter<>(sf, future);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    Task task = new Task(command, dueOf(initialDelay, unit), unit.toNanos(period), true);
+    return dispatch(task, () -> delegate.scheduleAtFixedRate(task, initialDelay, period, unit));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    Task task = new Task(command, dueOf(initialDelay, unit), unit.toNanos(delay), false);
+    return dispatch(task, () -> delegate.scheduleWithFixedDelay(task, initialDelay, delay, unit));
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    return new TaskFuture<>(Executors.callable(runnable, value));
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+    return new TaskFuture<>(callable);
+  }
+
+  private <T> T dispatch(Task task, Callable<T> call) {
+    submitted.increment();
+    try {
+      return call.call();
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      if (task.immediate) queued.decrement();
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long dueOf(long delay, TimeUnit unit) {
+    return System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+    stop();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> tasks = delegate.shutdownNow();
+    // 返回的任务可能被线程池包装过，无法逐个区分；排队的任务不会再执行，排队数清零
+    queued.add(-queued.sum());
+    stop();
+    return tasks;
+  }
+
+  private void stop() {
+    if (sampler != null) sampler.cancel(false);
+    LoopMetrics.unregister(this);
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * 采样执行超时的任务
+   */
+  void sample() {
+    long now = System.nanoTime();
+    for (Slot slot : slots) {
+      long start = slot.start;
+      Thread thread = slot.thread;
+      if (start != 0 && thread != null && now - start >= slowThreshold && slot.sampled.compareAndSet(0, 1)) {
+        slowTasks.increment();
+        StackTraceElement[] stackTrace = thread.getStackTrace();
+        // 采样期间任务可能已经结束，槽位可能已被其他任务借用
+        if (slot.start != start || slot.thread != thread) continue;
+        long elapsed = now - start;
+        List<Reporter> reporters = LoopMetrics.reporters();
+        if (reporters.isEmpty()) {
+          Throwable trace = new Throwable("slow task on " + thread.getName());
+          trace.setStackTrace(stackTrace);
+          log.warn("[{}] slow task, elapsed {}ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed), trace);
+        }
+        for (Reporter reporter : reporters) {
+          try {
+            reporter.onSlowTask(this, thread, elapsed, stackTrace);
+          } catch (Throwable e) {
+            log.error(e.getMessage(), e);
+          }
+        }
+      }
+    }
+  }
+
+  private Slot acquireSlot(long start) {
+    Slot slot = freeSlots.poll();
+    if (slot == null) {
+      slot = new Slot();
+      slots.add(slot);
+    }
+    slot.sampled.set(0);
+    slot.thread = Thread.currentThread();
+    slot.start = start;
+    return slot;
+  }
+
+  private void releaseSlot(Slot slot) {
+    slot.start = 0;
+    slot.thread = null;
+    freeSlots.offer(slot);
+  }
+
+  /**
+   * 槽位的数量
+   */
+  int slotCount() {
+    return slots.size();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public long getSubmitted() {
+    return submitted.sum();
+  }
+
+  @Override
+  public long getCompleted() {
+    return completed.sum();
+  }
+
+  @Override
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  @Override
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  @Override
+  public long getQueueDepth() {
+    return Math.max(queued.sum(), 0);
+  }
+
+  @Override
+  public long getActive() {
+    return active.sum();
+  }
+
+  @Override
+  public long getSlowTasks() {
+    return slowTasks.sum();
+  }
+
+  @Override
+  public LatencyHistogram getWaitTime() {
+    return waitTime;
+  }
+
+  @Override
+  public LatencyHistogram getRunTime() {
+    return runTime;
+  }
+
+  @Override
+  public String toString() {
+    return "InstrumentedExecutor{name=" + name
+        + ", queue=" + getQueueDepth()
+        + ", active=" + getActive()
+        + ", completed=" + getCompleted()
+        + ", rejected=" + getRejected()
+        + ", wait=" + waitTime
+        + ", run=" + runTime
+        + '}';
+  }
+
+  /**
+   * 正在执行的任务
+   */
+  static final class Slot {
+    /**
+     * 执行的线程
+     */
+    volatile Thread thread;
+    /**
+     * 开始时间，0 表示空闲
+     */
+    volatile long start;
+    final AtomicInteger sampled = new AtomicInteger();
+  }
+
+  /**
+   * 记录指标的任务
+   */
+  final class Task implements Runnable {
+
+    final Runnable task;
+    /**
+     * 是否立即执行的任务(计入排队数)
+     */
+    final boolean immediate;
+    /**
+     * 周期(纳秒)
+     */
+    final long period;
+    final boolean fixedRate;
+    /**
+     * 本次的计划执行时间
+     */
+    long due;
+
+    Task(Runnable task, long due, long period, boolean fixedRate) {
+      this.task = task;
+      this.due = due;
+      this.period = period;
+      this.fixedRate = fixedRate;
+      this.immediate = false;
+    }
+
+    Task(Runnable task, long submitAt) {
+      this.task = task;
+      this.due = submitAt;
+      this.period = 0;
+      this.fixedRate = false;
+      this.immediate = true;
+    }
+
+    @Override
+    public void run() {
+      long start = System.nanoTime();
+      if (immediate) queued.decrement();
+      waitTime.record(start - due);
+      active.increment();
+      Slot slot = slowThreshold > 0 ? acquireSlot(start) : null;
+      boolean ok = false;
+      try {
+        task.run();
+        // FutureTask 会捕获异常
+        ok = !(task instanceof TaskFuture) || !((TaskFuture<?>) task).failed;
+      } finally {
+        long end = System.nanoTime();
+        if (slot != null) releaseSlot(slot);
+        active.decrement();
+        runTime.record(end - start);
+        if (ok) completed.increment();
+        else failed.increment();
+        if (period > 0) {
+          due = fixedRate ? due + period : end + period;
+        }
+      }
+    }
+  }
+
+  /**
+   * 记录是否抛出异常的 FutureTask
+   */
+  static final class TaskFuture<V> extends FutureTask<V> {
+
+    volatile boolean failed;
+
+    TaskFuture(Callable<V> callable) {
+      super(callable);
+    }
+
+    @Override
+    protected void setException(Throwable t) {
+      failed = true;
+      super.setException(t);
+    }
+  }
+
+  /**
+   * 返回 Callable 的结果
+   */
+  static final class ScheduledFutureAdapter<V> implements ScheduledFuture<V> {
+
+    final ScheduledFuture<?> scheduled;
+    final FutureTask<V> future;
+
+    ScheduledFutureAdapter(ScheduledFuture<?> scheduled, FutureTask<V> future) {
+      this.scheduled = scheduled;
+      this.future = future;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return scheduled.getDelay(unit);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      return scheduled.compareTo(o);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = future.cancel(mayInterruptIfRunning);
+      scheduled.cancel(false);
+      return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return future.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      return future.isDone();
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+      return future.get();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      return future.get(timeout, unit);
+    }
+  }
+
+}
@@ -0,0 +1,328 @@
+package com.benefitj.core.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按键有序的执行器：固定数量的工作线程，同一个键的任务按提交顺序串行执行。
+ * <p>
+ * 每个活跃的键有一个任务队列，键作为一个工作单元提交到线程池，执行完一批后重新提交，
+ * 因此键不会固定在某个线程上；队列空闲后键被释放，不会随设备数量增长线程
+ *
+ * @param <K> 键类型
+ */
+public class KeyedExecutor<K> {
+
+  static final Logger log = LoggerFactory.getLogger(KeyedExecutor.class);
+
+  /**
+   * 每次调度最多执行的任务数，避免单个键长期占用线程
+   */
+  static final int BATCH = 64;
+  /**
+   * 队列已释放
+   */
+  static final int DEAD = Integer.MIN_VALUE;
+
+  /**
+   * 拒绝策略
+   */
+  public enum RejectPolicy {
+    /**
+     * 抛出 {@link RejectedExecutionException}
+     */
+    ABORT,
+    /**
+     * 丢弃新的任务
+     */
+    DISCARD,
+    /**
+     * 丢弃队列中最早的任务
+     */
+    DISCARD_OLDEST,
+  }
+
+  /**
+   * 键 -> 队列
+   */
+  private final Map<K, Lane> lanes = new ConcurrentHashMap<>();
+  /**
+   * 线程池
+   */
+  private final ExecutorService pool;
+  /**
+   * 每个键的最大排队数
+   */
+  private volatile int maxQueueSize;
+  /**
+   * 拒绝策略
+   */
+  private volatile RejectPolicy rejectPolicy;
+
+  /**
+   * 构造函数，使用工作窃取的线程池
+   *
+   * @param workers    线程数
+   * @param namePrefix 线程名前缀
+   */
+  public KeyedExecutor(int workers, String namePrefix) {
+    this(newWorkStealingPool(workers, namePrefix), Integer.MAX_VALUE, RejectPolicy.ABORT);
+  }
+
+  /**
+   * 构造函数
+   *
+   * @param pool         线程池
+   * @param maxQueueSize 每个键的最大排队数
+   * @param rejectPolicy 拒绝策略
+   */
+  public KeyedExecutor(ExecutorService pool, int maxQueueSize, RejectPolicy rejectPolicy) {
+    if (maxQueueSize <= 0)
+      throw new IllegalArgumentException("maxQueueSize must be > 0: " + maxQueueSize);
+    this.pool = pool;
+    this.maxQueueSize = maxQueueSize;
+    this.rejectPolicy = rejectPolicy;
+  }
+
+  /**
+   * 执行任务
+   *
+   * @param key  键
+   * @param task 任务
+   * @return 返回是否被接受，被丢弃时返回 false
+   */
+  public boolean execute(K key, Runnable task) {
+    if (task == null) throw new NullPointerException("task");
+    for (; ; ) {
+      Lane lane = lanes.computeIfAbsent(key, Lane::new);
+      int c = lane.count.get();
+      if (c == DEAD) {
+        lanes.remove(key, lane);
+        continue;
+      }
+      if (c >= maxQueueSize) {
+        switch (rejectPolicy) {
+          case DISCARD:
+            return false;
+          case DISCARD_OLDEST:
+            // 替换最早的任务，排队数不变
+            Runnable oldest = lane.queue.poll();
+            if (oldest != null) {
+              discard(oldest);
+              lane.queue.offer(task);
+              lane.schedule(task);
+              return true;
+            }
+            continue;
+          default:
+            throw new RejectedExecutionException("The queue of key[" + key + "] is full: " + c);
+        }
+      }
+      if (lane.count.compareAndSet(c, c + 1)) {
+        lane.queue.offer(task);
+        lane.schedule(task);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 提交任务
+   *
+   * @param key  键
+   * @param task 任务
+   * @return 返回结果，被丢弃时取消
+   */
+  public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+    SubmittedTask<T> submitted = new SubmittedTask<>(task);
+    if (!execute(key, submitted)) {
+      submitted.future.cancel(false);
+    }
+    return submitted.future;
+  }
+
+  /**
+   * 被丢弃的任务，取消对应的结果
+   */
+  static void discard(Runnable task) {
+    if (task instanceof SubmittedTask) {
+      ((SubmittedTask<?>) task).future.cancel(false);
+    } else if (task instanceof Future) {
+      ((Future<?>) task).cancel(false);
+    }
+  }
+
+  /**
+   * 键的排队数
+   */
+  public int queueDepth(K key) {
+    Lane lane = lanes.get(key);
+    return lane != null ? Math.max(lane.count.get(), 0) : 0;
+  }
+
+  /**
+   * 有排队任务的键的数量
+   */
+  public int activeKeys() {
+    return lanes.size();
+  }
+
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  public void setMaxQueueSize(int maxQueueSize) {
+    if (maxQueueSize <= 0)
+      throw new IllegalArgumentException("maxQueueSize must be > 0: " + maxQueueSize);
+    this.maxQueueSize = maxQueueSize;
+  }
+
+  public RejectPolicy getRejectPolicy() {
+    return rejectPolicy;
+  }
+
+  public void setRejectPolicy(RejectPolicy rejectPolicy) {
+    this.rejectPolicy = rejectPolicy;
+  }
+
+  public ExecutorService getPool() {
+    return pool;
+  }
+
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return pool.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * 创建工作窃取的线程池，FIFO模式
+   *
+   * @param workers    线程数
+   * @param namePrefix 线程名前缀
+   * @return 返回线程池
+   */
+  public static ForkJoinPool newWorkStealingPool(int workers, String namePrefix) {
+    final AtomicInteger number = new AtomicInteger(1);
+    return new ForkJoinPool(workers, p -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      thread.setName(namePrefix + number.getAndIncrement());
+      return thread;
+    }, null, true);
+  }
+
+  /**
+   * 通过 {@link #submit(Object, Callable)} 提交的任务
+   */
+  static final class SubmittedTask<T> implements Runnable {
+
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final Callable<T> task;
+
+    SubmittedTask(Callable<T> task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      if (future.isDone()) return;
+      try {
+        future.complete(task.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * 键的任务队列，多生产者单消费者
+   */
+  final class Lane implements Runnable {
+
+    final K key;
+    final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * 排队数，{@link #DEAD} 表示已释放
+     */
+    final AtomicInteger count = new AtomicInteger();
+    final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    Lane(K key) {
+      this.key = key;
+    }
+
+    void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        try {
+          pool.execute(this);
+        } catch (RejectedExecutionException e) {
+          scheduled.set(false);
+          throw e;
+        }
+      }
+    }
+
+    /**
+     * 调度刚入队的任务，线程池拒绝时撤销入队再抛出异常
+     */
+    void schedule(Runnable task) {
+      try {
+        schedule();
+      } catch (RejectedExecutionException e) {
+        if (queue.remove(task)) {
+          release(count.decrementAndGet());
+          throw e;
+        }
+        // 任务已经被执行
+      }
+    }
+
+    /**
+     * 排队数为 0 并且没有被调度时释放
+     */
+    void release(int c) {
+      if (c == 0 && !scheduled.get() && count.compareAndSet(0, DEAD)) {
+        lanes.remove(key, this);
+      }
+    }
+
+    @Override
+    public void run() {
+      Runnable task;
+      for (int i = 0; i < BATCH && (task = queue.poll()) != null; i++) {
+        try {
+          task.run();
+        } catch (Throwable e) {
+          log.error("key[" + key + "]: " + e.getMessage(), e);
+        } finally {
+          count.decrementAndGet();
+        }
+      }
+      scheduled.set(false);
+      if (!queue.isEmpty()) {
+        // 重新提交，可以被其他线程执行
+        try {
+          schedule();
+        } catch (RejectedExecutionException e) {
+          // 线程池已关闭，剩余的任务不会再执行
+          while ((task = queue.poll()) != null) {
+            discard(task);
+            release(count.decrementAndGet());
+          }
+          log.warn("key[" + key + "]: " + e.getMessage());
+        }
+      } else {
+        release(count.get());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.benefitj.core.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图(纳秒)：对数分段、段内线性(类似 HdrHistogram)，相对误差约 3%，记录无锁
+ */
+public class LatencyHistogram {
+
+  /**
+   * 每个2的幂区间内的线性分段数: 2^5
+   */
+  static final int SUB_BITS = 5;
+  static final int SUB_COUNT = 1 << SUB_BITS;
+  /**
+   * 分段总数，覆盖 [0, Long.MAX_VALUE]
+   */
+  static final int BUCKETS = (63 - SUB_BITS) * SUB_COUNT + SUB_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * 记录
+   *
+   * @param nanos 耗时(纳秒)
+   */
+  public void record(long nanos) {
+    if (nanos < 0) nanos = 0;
+    counts.incrementAndGet(indexOf(nanos));
+    count.increment();
+    sum.add(nanos);
+    long m;
+    while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+      // ~
+    }
+  }
+
+  /**
+   * 记录的数量
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * 最大值(纳秒)
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * 平均值(纳秒)
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n > 0 ? (double) sum.sum() / n : 0;
+  }
+
+  /**
+   * 百分位的值(纳秒)，返回所在分段的上界
+   *
+   * @param percentile 百分位，如 99.9
+   * @return 返回耗时
+   */
+  public long getPercentile(double percentile) {
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      total += (snapshot[i] = counts.get(i));
+    }
+    if (total == 0) return 0;
+    long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100.0 * total);
+    rank = Math.max(rank, 1);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if ((seen += snapshot[i]) >= rank) {
+        return Math.min(upperOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * 百分位的值
+   *
+   * @param percentile 百分位
+   * @param unit       单位
+   * @return 返回耗时
+   */
+  public long getPercentile(double percentile, TimeUnit unit) {
+    return unit.convert(getPercentile(percentile), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 清空
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+  static int indexOf(long v) {
+    if (v < (SUB_COUNT << 1)) {
+      return (int) v;
+    }
+    int e = 63 - Long.numberOfLeadingZeros(v);
+    int m = (int) (v >>> (e - SUB_BITS));
+    return (e - SUB_BITS + 1) * SUB_COUNT + (m - SUB_COUNT);
+  }
+
+  static long upperOf(int index) {
+    if (index < (SUB_COUNT << 1)) {
+      return index;
+    }
+    int e = index / SUB_COUNT + SUB_BITS - 1;
+    long m = index % SUB_COUNT + SUB_COUNT;
+    int shift = e - SUB_BITS;
+    return (m << shift) + (1L << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{count=" + getCount()
+        + ", mean=" + (long) getMean()
+        + ", p50=" + getPercentile(50)
+        + ", p99=" + getPercentile(99)
+        + ", max=" + getMax()
+        + '}';
+  }
+
+}
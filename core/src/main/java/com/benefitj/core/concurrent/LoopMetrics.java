@@ -0,0 +1,180 @@
+package com.benefitj.core.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池的运行指标，可以主动获取({@link #all()})，也可以通过 {@link Reporter} 推送
+ */
+public interface LoopMetrics {
+
+  /**
+   * 名称
+   */
+  String getName();
+
+  /**
+   * 提交的任务数
+   */
+  long getSubmitted();
+
+  /**
+   * 执行完成的任务数
+   */
+  long getCompleted();
+
+  /**
+   * 执行失败的任务数
+   */
+  long getFailed();
+
+  /**
+   * 被拒绝的任务数
+   */
+  long getRejected();
+
+  /**
+   * 排队等待执行的任务数(不含未到期的延时任务)
+   */
+  long getQueueDepth();
+
+  /**
+   * 正在执行的任务数
+   */
+  long getActive();
+
+  /**
+   * 超过慢任务阈值的任务数
+   */
+  long getSlowTasks();
+
+  /**
+   * 等待时间：从提交(或到期)到开始执行
+   */
+  LatencyHistogram getWaitTime();
+
+  /**
+   * 执行时间
+   */
+  LatencyHistogram getRunTime();
+
+
+  /**
+   * 指标的推送，可通过 {@link ServiceLoader} 注册(META-INF/services)
+   */
+  interface Reporter {
+
+    /**
+     * 定时推送
+     *
+     * @param metrics 全部的指标
+     */
+    default void report(Collection<LoopMetrics> metrics) {
+      // ~
+    }
+
+    /**
+     * 发现慢任务
+     *
+     * @param metrics      所属的线程池
+     * @param thread       执行的线程
+     * @param elapsedNanos 已执行的时间
+     * @param stackTrace   采样的堆栈
+     */
+    default void onSlowTask(LoopMetrics metrics, Thread thread, long elapsedNanos, StackTraceElement[] stackTrace) {
+      // ~
+    }
+  }
+
+  /**
+   * 全部注册的指标
+   */
+  static Collection<LoopMetrics> all() {
+    return Collections.unmodifiableList(Registry.METRICS);
+  }
+
+  /**
+   * 注册指标
+   */
+  static void register(LoopMetrics metrics) {
+    Registry.METRICS.addIfAbsent(metrics);
+  }
+
+  /**
+   * 注销指标
+   */
+  static void unregister(LoopMetrics metrics) {
+    Registry.METRICS.remove(metrics);
+  }
+
+  /**
+   * 添加推送
+   */
+  static void addReporter(Reporter reporter) {
+    Registry.REPORTERS.addIfAbsent(reporter);
+  }
+
+  /**
+   * 移除推送
+   */
+  static void removeReporter(Reporter reporter) {
+    Registry.REPORTERS.remove(reporter);
+  }
+
+  /**
+   * 全部的推送
+   */
+  static List<Reporter> reporters() {
+    return Registry.REPORTERS;
+  }
+
+  /**
+   * 定时推送指标
+   *
+   * @param period 周期
+   * @param unit   单位
+   * @return 返回调度
+   */
+  static ScheduledFuture<?> startPush(long period, TimeUnit unit) {
+    return InstrumentedExecutor.SAMPLER.get().scheduleAtFixedRate(() -> {
+      Collection<LoopMetrics> metrics = all();
+      for (Reporter reporter : reporters()) {
+        try {
+          reporter.report(metrics);
+        } catch (Throwable e) {
+          Registry.log.error(e.getMessage(), e);
+        }
+      }
+    }, period, period, unit);
+  }
+
+  final class Registry {
+
+    static final Logger log = LoggerFactory.getLogger(LoopMetrics.class);
+
+    static final CopyOnWriteArrayList<LoopMetrics> METRICS = new CopyOnWriteArrayList<>();
+    static final CopyOnWriteArrayList<Reporter> REPORTERS = new CopyOnWriteArrayList<>();
+
+    static {
+      try {
+        for (Reporter reporter : ServiceLoader.load(Reporter.class)) {
+          REPORTERS.add(reporter);
+        }
+      } catch (Throwable e) {
+        log.warn("load reporters: {}", e.getMessage());
+      }
+    }
+
+    private Registry() {
+    }
+  }
+
+}
@@ -4,12 +4,18 @@ import java.util.*;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
  * 读写加锁的Map
+ * <ul>
+ *   <li>{@link Impl}: 读写锁</li>
+ *   <li>{@link CopyOnWrite}: 写时复制，读无锁，适合读多写极少</li>
+ *   <li>{@link NonReentrant}: 不可重入的读写锁({@link StampedLock})，开销比 {@link Impl} 小</li>
+ * </ul>
  */
 public interface ReadWriteMap<K, V> extends Map<K, V> {
 
@@ -130,7 +136,7 @@ public interface ReadWriteMap<K, V> extends Map<K, V> {
     if ((v = get(key)) == null) {
       return writeLock(m -> {
         V v2;
-        return (v2 = m.get(key)) == null ? v2 : m.put(key, value);
+        return (v2 = m.get(key)) == null ? m.put(key, value) : v2;
       });
     }
     return v;
@@ -216,4 +222,224 @@ public interface ReadWriteMap<K, V> extends Map<K, V> {
     }
   }
 
+  /**
+   * 写时复制的Map：读取不可变的快照，不加锁；写入时复制整个Map后替换快照，写入之间互斥。
+   * <p>
+   * keySet/values/entrySet 返回调用时的快照，不随后续的写入变化
+   */
+  class CopyOnWrite<K, V> implements ReadWriteMap<K, V> {
+
+    /**
+     * 写锁，读取不使用
+     */
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * 当前的快照(只读)
+     */
+    volatile Map<K, V> snapshot;
+
+    public CopyOnWrite() {
+      this(Collections.emptyMap());
+    }
+
+    public CopyOnWrite(Map<? extends K, ? extends V> map) {
+      this.snapshot = Collections.unmodifiableMap(new HashMap<>(map));
+    }
+
+    /**
+     * 当前的快照(只读)
+     */
+    @Override
+    public Map<K, V> map() {
+      return snapshot;
+    }
+
+    @Override
+    public ReentrantReadWriteLock lock() {
+      return lock;
+    }
+
+    @Override
+    public <T> T readLock(Function<Map<K, V>, T> fun) {
+      return fun.apply(snapshot);
+    }
+
+    @Override
+    public <T> T writeLock(Function<Map<K, V>, T> fun) {
+      Lock wl = lock.writeLock();
+      wl.lock();
+      try {
+        Map<K, V> copy = new HashMap<>(snapshot);
+        T result = fun.apply(copy);
+        snapshot = Collections.unmodifiableMap(copy);
+        return result;
+      } finally {
+        wl.unlock();
+      }
+    }
+
+    @Override
+    public int size() {
+      return snapshot.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return snapshot.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return snapshot.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+      return snapshot.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+      return snapshot.get(key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+      return snapshot.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return snapshot.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+      return snapshot.values();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return snapshot.entrySet();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+      snapshot.forEach(action);
+    }
+
+    @Override
+    public V remove(Object key) {
+      // 不存在时不复制
+      return snapshot.containsKey(key) ? ReadWriteMap.super.remove(key) : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o == this || snapshot.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return snapshot.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return snapshot.toString();
+    }
+  }
+
+  /**
+   * 基于 {@link StampedLock} 的Map：读写仍然加锁，但锁不记录持有线程和重入次数，读写的开销比 {@link Impl} 小。
+   * <p>
+   * 只有 size/isEmpty 只读取单个字段，使用乐观读；get/containsKey 等需要遍历桶(写入时可能正在扩容或树化)，
+   * 对可变的Map乐观读不安全，使用读锁。读取不加锁的场景使用 {@link CopyOnWrite}。
+   * <p>
+   * 注意：锁不可重入，回调函数中不能再访问此Map
+   */
+  class NonReentrant<K, V> implements ReadWriteMap<K, V> {
+
+    final StampedLock stampedLock = new StampedLock();
+    final ReadWriteLock lock = stampedLock.asReadWriteLock();
+    final Map<K, V> map;
+
+    public NonReentrant() {
+      this(new HashMap<>());
+    }
+
+    public NonReentrant(Map<K, V> map) {
+      this.map = map;
+    }
+
+    @Override
+    public Map<K, V> map() {
+      return map;
+    }
+
+    @Override
+    public ReadWriteLock lock() {
+      return lock;
+    }
+
+    public StampedLock stampedLock() {
+      return stampedLock;
+    }
+
+    /**
+     * 乐观读，函数必须没有副作用(可能执行两次)，且只能读取单个字段，不能遍历Map的内部结构
+     * (读取到的可能是修改到一半的结构，即使校验失败也可能已经死循环或越界)
+     */
+    public <T> T optimisticRead(Function<Map<K, V>, T> fun) {
+      long stamp = stampedLock.tryOptimisticRead();
+      if (stamp != 0L) {
+        try {
+          T result = fun.apply(map);
+          if (stampedLock.validate(stamp)) {
+            return result;
+          }
+        } catch (RuntimeException e) {
+          // 读取期间被修改，结构可能不一致
+          if (stampedLock.validate(stamp)) throw e;
+        }
+      }
+      return readLock(fun);
+    }
+
+    @Override
+    public <T> T readLock(Function<Map<K, V>, T> fun) {
+      long stamp = stampedLock.readLock();
+      try {
+        return fun.apply(map);
+      } finally {
+        stampedLock.unlockRead(stamp);
+      }
+    }
+
+    @Override
+    public int size() {
+      return optimisticRead(Map::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return optimisticRead(Map::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return readLock(m -> m.containsKey(key));
+    }
+
+    @Override
+    public V get(Object key) {
+      return readLock(m -> m.get(key));
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+      return readLock(m -> m.getOrDefault(key, defaultValue));
+    }
+  }
+
 }
@@ -0,0 +1,603 @@
+package com.benefitj.core.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮调度器：调度和取消都是 O(1)，到期的任务按批分发到工作线程池中执行
+ * <p>
+ * 时钟线程按 tick 推进时间轮，其他线程提交的任务和取消请求通过无锁队列交给时钟线程处理，
+ * 时间轮本身不加锁；任务在到期后的第一个 tick 触发，不会早于指定的延迟，精度为一个 tick。
+ * 没有任务时时钟线程挂起，不会空转
+ *
+ * <pre>
+ *   EventLoop loop = EventLoop.newTimingWheel("timer-", 4, true);
+ *   loop.schedule(() -> device.expire(), 30, TimeUnit.SECONDS);
+ * </pre>
+ */
+public class TimingWheelExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+  /**
+   * 每层的槽位数为 2^8，8层覆盖全部64位的tick
+   */
+  static final int WHEEL_BITS = 8;
+  static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  static final int LEVELS = 64 / WHEEL_BITS;
+  /**
+   * 每批分发的最大任务数
+   */
+  static final int BATCH_SIZE = 32;
+
+  static final int RUNNING = 0;
+  static final int SHUTDOWN = 1;
+  static final int STOP = 2;
+
+  private final long tickNanos;
+  private final long startNanos = System.nanoTime();
+  private final ThreadPoolExecutor workers;
+  private final Thread ticker;
+  private final CountDownLatch tickerTerminated = new CountDownLatch(1);
+  /**
+   * 新提交的任务，按线程分段，减少多个线程同时提交时的竞争
+   */
+  private final Queue<Task<?>>[] pending = newStripes();
+  /**
+   * 已取消的任务，由时钟线程从时间轮中移除
+   */
+  private final Queue<Task<?>>[] cancelled = newStripes();
+  /**
+   * 时间轮的槽位(双向链表的头)，只在时钟线程中访问
+   */
+  private final Task<?>[] buckets = new Task[LEVELS * WHEEL_SIZE];
+  /**
+   * 已处理的tick，只在时钟线程中访问
+   */
+  private long currentTick = 0;
+  /**
+   * 时间轮中的任务数量，只在时钟线程中访问
+   */
+  private int count = 0;
+  /**
+   * 第0层中有任务的槽位
+   */
+  private final long[] occupied = new long[WHEEL_SIZE / 64];
+  /**
+   * 时钟线程挂起时等待的tick，提交更早到期的任务时需要唤醒；运行中为 Long.MIN_VALUE
+   */
+  private volatile long wakeupTick = Long.MIN_VALUE;
+  private volatile int state = RUNNING;
+
+  public TimingWheelExecutor(int workers, ThreadFactory threadFactory) {
+    this(1, TimeUnit.MILLISECONDS, workers, threadFactory);
+  }
+
+  /**
+   * @param tick          时间轮的精度
+   * @param unit          单位
+   * @param workers       工作线程数
+   * @param threadFactory 线程工厂，时钟线程和工作线程都由此创建
+   */
+  public TimingWheelExecutor(long tick, TimeUnit unit, int workers, ThreadFactory threadFactory) {
+    if (tick <= 0 || workers <= 0) {
+      throw new IllegalArgumentException("tick和workers必须大于0: " + tick + ", " + workers);
+    }
+    this.tickNanos = unit.toNanos(tick);
+    this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    this.ticker = threadFactory.newThread(this::runTicker);
+    this.ticker.start();
+  }
+
+  public long getTickNanos() {
+    return tickNanos;
+  }
+
+  public ThreadPoolExecutor getWorkers() {
+    return workers;
+  }
+
+  /* ********************************** ScheduledExecutorService ********************************** */
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return delayedExecute(new Task<Void>(command, null, triggerTime(delay, unit), 0));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return delayedExecute(new Task<>(callable, triggerTime(delay, unit)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("period必须大于0: " + period);
+    }
+    return delayedExecute(new Task<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("delay必须大于0: " + delay);
+    }
+    return delayedExecute(new Task<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (command == null) {
+      throw new NullPointerException();
+    }
+    checkRunning(command);
+    workers.execute(command);
+  }
+
+  @Override
+  public void shutdown() {
+    if (state == RUNNING) {
+      state = SHUTDOWN;
+      LockSupport.unpark(ticker);
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    state = STOP;
+    LockSupport.unpark(ticker);
+    List<Runnable> tasks = new ArrayList<>();
+    if (Thread.currentThread() != ticker) {
+      try {
+        tickerTerminated.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      // 时钟线程已退出，剩余的任务可以安全的读取
+      for (Task<?> head : buckets) {
+        for (Task<?> t = head; t != null; t = t.next) {
+          tasks.add(t);
+        }
+      }
+      Arrays.fill(buckets, null);
+    }
+    for (Queue<Task<?>> queue : pending) {
+      for (Task<?> t; (t = queue.poll()) != null; ) {
+        tasks.add(t);
+      }
+    }
+    for (Runnable r : workers.shutdownNow()) {
+      if (r instanceof Batch) {
+        tasks.addAll(Arrays.asList(((Batch) r).tasks));
+      } else {
+        tasks.add(r);
+      }
+    }
+    for (Runnable r : tasks) {
+      if (r instanceof Task) {
+        ((Task<?>) r).cancel(false);
+      }
+    }
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return state != RUNNING;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return tickerTerminated.getCount() == 0 && workers.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    if (!tickerTerminated.await(timeout, unit)) {
+      return false;
+    }
+    return workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + "[state=" + state + ", tick=" + tickNanos + "ns, workers=" + workers + "]";
+  }
+
+  /* ********************************** 提交和取消 ********************************** */
+
+  @SuppressWarnings("unchecked")
+  private static Queue<Task<?>>[] newStripes() {
+    int n = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 32) * 2 - 1) << 1;
+    Queue<Task<?>>[] stripes = new Queue[n];
+    for (int i = 0; i < n; i++) {
+      stripes[i] = new ConcurrentLinkedQueue<>();
+    }
+    return stripes;
+  }
+
+  private static Queue<Task<?>> stripe(Queue<Task<?>>[] stripes) {
+    int h = System.identityHashCode(Thread.currentThread());
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+
+  private static boolean isEmpty(Queue<Task<?>>[] stripes) {
+    for (Queue<Task<?>> queue : stripes) {
+      if (!queue.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long triggerTime(long delay, TimeUnit unit) {
+    long nanos = unit.toNanos(Math.max(delay, 0));
+    return System.nanoTime() + Math.min(nanos, Long.MAX_VALUE >> 1);
+  }
+
+  private void checkRunning(Runnable task) {
+    if (state != RUNNING) {
+      throw new RejectedExecutionException("Task " + task + " rejected from " + this);
+    }
+  }
+
+  private <V> Task<V> delayedExecute(Task<V> task) {
+    checkRunning(task);
+    if (task.deadline - System.nanoTime() <= 0) {
+      // 已到期的任务直接交给工作线程
+      workers.execute(task);
+      return task;
+    }
+    Queue<Task<?>> queue = stripe(pending);
+    queue.offer(task);
+    if (state != RUNNING && queue.remove(task)) {
+      task.cancel(false);
+      checkRunning(task);
+    }
+    wakeup(task);
+    return task;
+  }
+
+  /**
+   * 周期性的任务执行后重新调度
+   */
+  void reschedule(Task<?> task) {
+    if (state != RUNNING) {
+      task.cancel(false);
+      return;
+    }
+    Queue<Task<?>> queue = stripe(pending);
+    queue.offer(task);
+    if (state != RUNNING && queue.remove(task)) {
+      task.cancel(false);
+    }
+    wakeup(task);
+  }
+
+  /**
+   * 任务早于时钟线程等待的tick到期时，唤醒时钟线程
+   */
+  private void wakeup(Task<?> task) {
+    if (tickOf(task.deadline) < wakeupTick) {
+      LockSupport.unpark(ticker);
+    }
+  }
+
+  /* ********************************** 时钟线程 ********************************** */
+
+  private void runTicker() {
+    List<Task<?>> expired = new ArrayList<>();
+    boolean shutdownSeen = false;
+    try {
+      for (; ; ) {
+        int s = state;
+        if (s == STOP) {
+          return;
+        }
+        if (s == SHUTDOWN && !shutdownSeen) {
+          shutdownSeen = true;
+          cancelPeriodic();
+        }
+        processCancelled();
+        if (count == 0 && isEmpty(pending)) {
+          if (s != RUNNING) {
+            return;
+          }
+          wakeupTick = Long.MAX_VALUE;
+          if (isEmpty(pending) && state == RUNNING) {
+            LockSupport.park(this);
+          }
+          wakeupTick = Long.MIN_VALUE;
+          // 时间轮为空，直接跳到当前的tick
+          currentTick = Math.max(currentTick, nowTick());
+          continue;
+        }
+        transferPending(expired);
+        long nowTick = nowTick();
+        while (currentTick < nowTick) {
+          currentTick++;
+          if ((currentTick & WHEEL_MASK) == 0) {
+            cascade(expired);
+          }
+          expire((int) (currentTick & WHEEL_MASK), expired);
+        }
+        dispatch(expired);
+        // 挂起到下一个有任务的槽位，或者下一次级联
+        long next = nextTick();
+        wakeupTick = next;
+        long wait = startNanos + next * tickNanos - System.nanoTime();
+        if (wait > 0 && isEmpty(pending) && state == s) {
+          LockSupport.parkNanos(this, wait);
+        }
+        wakeupTick = Long.MIN_VALUE;
+      }
+    } finally {
+      if (state != STOP) {
+        workers.shutdown();
+      }
+      tickerTerminated.countDown();
+    }
+  }
+
+  /**
+   * 下一个需要处理的tick：第0层中下一个有任务的槽位，或者第0层的下一个周期(级联)
+   */
+  private long nextTick() {
+    int from = (int) (currentTick & WHEEL_MASK) + 1;
+    for (int i = from >>> 6; i < occupied.length && from < WHEEL_SIZE; i++) {
+      long bits = occupied[i] & (-1L << (from & 63));
+      if (bits != 0) {
+        return (currentTick & ~WHEEL_MASK) + (i << 6) + Long.numberOfTrailingZeros(bits);
+      }
+      from = (i + 1) << 6;
+    }
+    return (currentTick & ~WHEEL_MASK) + WHEEL_SIZE;
+  }
+
+  /**
+   * 当前已经到达的tick(向下取整)
+   */
+  private long nowTick() {
+    return Math.floorDiv(System.nanoTime() - startNanos, tickNanos);
+  }
+
+  /**
+   * 截止时间所在的tick(向上取整)
+   */
+  private long tickOf(long deadline) {
+    return -Math.floorDiv(startNanos - deadline, tickNanos);
+  }
+
+  private void transferPending(List<Task<?>> expired) {
+    for (Queue<Task<?>> queue : pending) {
+      for (Task<?> task; (task = queue.poll()) != null; ) {
+        if (task.isCancelled()) {
+          continue;
+        }
+        if (state != RUNNING && task.isPeriodic()) {
+          task.cancel(false);
+          continue;
+        }
+        task.tick = tickOf(task.deadline);
+        insert(task, expired);
+      }
+    }
+  }
+
+  /**
+   * 放入时间轮：与当前tick在同一个高层周期内的最低层
+   */
+  private void insert(Task<?> task, List<Task<?>> expired) {
+    long tick = task.tick;
+    if (tick <= currentTick) {
+      expired.add(task);
+      return;
+    }
+    int level = 0;
+    while (level < LEVELS - 1 && (tick >>> (WHEEL_BITS * (level + 1))) != (currentTick >>> (WHEEL_BITS * (level + 1)))) {
+      level++;
+    }
+    int slot = (level << WHEEL_BITS) | (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    Task<?> head = buckets[slot];
+    if (level == 0) {
+      occupied[slot >>> 6] |= 1L << slot;
+    }
+    task.slot = slot;
+    task.prev = null;
+    task.next = head;
+    if (head != null) {
+      head.prev = task;
+    }
+    buckets[slot] = task;
+    count++;
+  }
+
+  private void unlink(Task<?> task) {
+    if (task.prev != null) {
+      task.prev.next = task.next;
+    } else if ((buckets[task.slot] = task.next) == null && task.slot < WHEEL_SIZE) {
+      occupied[task.slot >>> 6] &= ~(1L << task.slot);
+    }
+    if (task.next != null) {
+      task.next.prev = task.prev;
+    }
+    task.prev = task.next = null;
+    task.slot = -1;
+    count--;
+  }
+
+  /**
+   * 进入高层的新周期时，把对应槽位的任务降到低层
+   */
+  private void cascade(List<Task<?>> expired) {
+    for (int level = LEVELS - 1; level >= 1; level--) {
+      if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+        int slot = (level << WHEEL_BITS) | (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        Task<?> t = buckets[slot];
+        buckets[slot] = null;
+        while (t != null) {
+          Task<?> next = t.next;
+          t.prev = t.next = null;
+          t.slot = -1;
+          count--;
+          insert(t, expired);
+          t = next;
+        }
+      }
+    }
+  }
+
+  private void expire(int slot, List<Task<?>> expired) {
+    Task<?> t = buckets[slot];
+    buckets[slot] = null;
+    occupied[slot >>> 6] &= ~(1L << slot);
+    while (t != null) {
+      Task<?> next = t.next;
+      t.prev = t.next = null;
+      t.slot = -1;
+      count--;
+      if (!t.isCancelled()) {
+        expired.add(t);
+      }
+      t = next;
+    }
+  }
+
+  private void processCancelled() {
+    for (Queue<Task<?>> queue : cancelled) {
+      for (Task<?> task; (task = queue.poll()) != null; ) {
+        if (task.slot >= 0) {
+          unlink(task);
+        }
+      }
+    }
+  }
+
+  private void cancelPeriodic() {
+    for (Task<?> head : buckets) {
+      for (Task<?> t = head; t != null; t = t.next) {
+        if (t.isPeriodic()) {
+          t.cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * 按批分发到工作线程，减少工作队列的竞争
+   */
+  private void dispatch(List<Task<?>> expired) {
+    int size = expired.size();
+    try {
+      for (int i = 0; i < size; i += BATCH_SIZE) {
+        int end = Math.min(size, i + BATCH_SIZE);
+        if (end - i == 1) {
+          workers.execute(expired.get(i));
+        } else {
+          workers.execute(new Batch(expired.subList(i, end).toArray(new Task[0])));
+        }
+      }
+    } catch (RejectedExecutionException ignore) {
+      // shutdownNow
+    } finally {
+      expired.clear();
+    }
+  }
+
+  /**
+   * 同一批到期的任务
+   */
+  static final class Batch implements Runnable {
+
+    final Task<?>[] tasks;
+
+    Batch(Task<?>[] tasks) {
+      this.tasks = tasks;
+    }
+
+    @Override
+    public void run() {
+      for (Task<?> task : tasks) {
+        task.run();
+      }
+    }
+  }
+
+  /**
+   * 调度任务，同时作为时间轮槽位中双向链表的节点
+   */
+  final class Task<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+    /**
+     * 截止时间(纳秒)
+     */
+    volatile long deadline;
+    /**
+     * 大于0为固定频率，小于0为固定延迟，0为单次执行
+     */
+    final long period;
+    /**
+     * 以下字段只在时钟线程中访问
+     */
+    long tick;
+    int slot = -1;
+    Task<?> prev, next;
+
+    Task(Runnable runnable, V result, long deadline, long period) {
+      super(runnable, result);
+      this.deadline = deadline;
+      this.period = period;
+    }
+
+    Task(Callable<V> callable, long deadline) {
+      super(callable);
+      this.deadline = deadline;
+      this.period = 0;
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return period != 0;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      if (o == this) {
+        return 0;
+      }
+      if (o instanceof Task) {
+        return Long.compare(deadline - ((Task<?>) o).deadline, 0);
+      }
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (runAndReset()) {
+        deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+        reschedule(this);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        stripe(TimingWheelExecutor.this.cancelled).offer(this);
+      }
+      return cancelled;
+    }
+  }
+
+}
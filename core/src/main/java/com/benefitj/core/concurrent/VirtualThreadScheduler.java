@@ -0,0 +1,232 @@
+package com.benefitj.core.concurrent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * 由平台线程的定时器负责调度、到期后交给执行器(如虚拟线程)运行的 ScheduledExecutorService，
+ * 适合大量阻塞的任务。
+ * <p>
+ * 关闭后，已提交的延时任务仍会执行，周期任务立即被取消，不会等到下一次执行
+ */
+public class VirtualThreadScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+  /**
+   * 调度的定时器
+   */
+  private final ScheduledThreadPoolExecutor timer;
+  /**
+   * 执行任务
+   */
+  private final ExecutorService runner;
+  /**
+   * 未结束的周期任务，关闭时取消
+   */
+  private final Set<Task<?>> periodicTasks = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 构造函数
+   *
+   * @param runner       执行任务，如 {@link VirtualThreads#newThreadPerTaskExecutor(String)}
+   * @param timerFactory 定时器的线程工厂
+   */
+  public VirtualThreadScheduler(ExecutorService runner, ThreadFactory timerFactory) {
+    this.runner = runner;
+    this.timer = new ScheduledThreadPoolExecutor(1, timerFactory) {
+      @Override
+      protected void terminated() {
+        // 定时器结束后不再有新的任务
+        runner.shutdown();
+      }
+    };
+    this.timer.setRemoveOnCancelPolicy(true);
+  }
+
+  public ExecutorService getRunner() {
+    return runner;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (timer.isShutdown()) {
+      throw new RejectedExecutionException("Executor has been shutdown");
+    }
+    runner.execute(command);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return schedule(new Task<Void>(Executors.callable(command, null), 0, false), delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return schedule(new Task<>(callable, 0, false), delay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    if (period <= 0) throw new IllegalArgumentException("period must be > 0");
+    return schedule(new Task<Void>(Executors.callable(command, null), unit.toNanos(period), true), initialDelay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) throw new IllegalArgumentException("delay must be > 0");
+    return schedule(new Task<Void>(Executors.callable(command, null), unit.toNanos(delay), false), initialDelay, unit);
+  }
+
+  private <V> Task<V> schedule(Task<V> task, long delay, TimeUnit unit) {
+    task.time = System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+    if (task.isPeriodic()) {
+      // 先登记再调度，关闭时一定能看到已调度的任务
+      periodicTasks.add(task);
+    }
+    try {
+      task.arm(Math.max(delay, 0), unit);
+    } catch (RejectedExecutionException e) {
+      periodicTasks.remove(task);
+      throw e;
+    }
+    return task;
+  }
+
+  @Override
+  public void shutdown() {
+    timer.shutdown();
+    cancelPeriodicTasks();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> tasks = timer.shutdownNow();
+    cancelPeriodicTasks();
+    runner.shutdownNow();
+    return tasks;
+  }
+
+  /**
+   * 取消周期任务，定时器中等待的下一次执行也被移除
+   */
+  private void cancelPeriodicTasks() {
+    for (Task<?> task : periodicTasks) {
+      task.cancel(false);
+    }
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return timer.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return timer.isTerminated() && runner.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return timer.awaitTermination(timeout, unit)
+        && runner.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 调度的任务
+   */
+  final class Task<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+    /**
+     * 周期(纳秒)，0 表示只执行一次
+     */
+    final long period;
+    /**
+     * 是否为固定频率
+     */
+    final boolean fixedRate;
+    /**
+     * 下一次执行的时间(纳秒)
+     */
+    volatile long time;
+    /**
+     * 定时器中的任务
+     */
+    volatile ScheduledFuture<?> armed;
+
+    Task(Callable<V> callable, long period, boolean fixedRate) {
+      super(callable);
+      this.period = period;
+      this.fixedRate = fixedRate;
+    }
+
+    void arm(long delay, TimeUnit unit) {
+      armed = timer.schedule(this::dispatch, delay, unit);
+      if (isCancelled()) {
+        armed.cancel(false);
+      }
+    }
+
+    void dispatch() {
+      if (isPeriodic() && timer.isShutdown()) {
+        cancel(false);
+      } else if (!isDone()) {
+        try {
+          runner.execute(this);
+        } catch (RejectedExecutionException e) {
+          cancel(false);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (super.runAndReset()) {
+        long now = System.nanoTime();
+        time = fixedRate ? time + period : now + period;
+        try {
+          arm(Math.max(time - now, 0), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+          // 已关闭
+          cancel(false);
+        }
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      ScheduledFuture<?> f = armed;
+      if (cancelled && f != null) {
+        f.cancel(false);
+      }
+      return cancelled;
+    }
+
+    @Override
+    protected void done() {
+      if (isPeriodic()) {
+        periodicTasks.remove(this);
+      }
+    }
+
+    @Override
+    public boolean isPeriodic() {
+      return period > 0;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+      if (o == this) return 0;
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+package com.benefitj.core.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程
+ * <p>
+ * JDK 11 的实现：不支持虚拟线程；JDK 21+ 使用 META-INF/versions/21 下的实现
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * 是否支持虚拟线程
+   */
+  public static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * 创建虚拟线程的工厂
+   *
+   * @param namePrefix 线程名前缀
+   * @return 返回线程工厂
+   */
+  public static ThreadFactory newThreadFactory(String namePrefix) {
+    throw new UnsupportedOperationException("Virtual threads require JDK 21+");
+  }
+
+  /**
+   * 创建每个任务一个虚拟线程的执行器
+   *
+   * @param namePrefix 线程名前缀
+   * @return 返回执行器
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    throw new UnsupportedOperationException("Virtual threads require JDK 21+");
+  }
+
+  /**
+   * 监听虚拟线程被固定在载体线程上(如在 synchronized 中阻塞)，超过阈值时打印堆栈
+   *
+   * @param threshold 阈值
+   * @return 返回监听，关闭后停止
+   */
+  public static AutoCloseable monitorPinning(Duration threshold) {
+    return () -> {/* ~ */};
+  }
+
+}
@@ -0,0 +1,424 @@
+package com.benefitj.core.cron;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译后的cron表达式，每个字段使用 long 位掩码表示，通过 java.time 的时区规则计算下次触发的时间
+ * <p>
+ * 按本地时间(墙上时间)匹配：夏令时跳过的时间顺延到跳变之后(与 {@link java.time.ZonedDateTime#of} 一致)，
+ * 重复的时间只触发一次，优先使用较早的偏移量；每小时都触发的表达式(如 0 0/5 * * * ?)在重复的时段按实际时间继续触发。
+ * 实例不可变，可以在多个线程中共享
+ *
+ * <pre>
+ *   CompiledCron cron = new CronExpression("0 0/5 * * * ?").compile();
+ *   long next = cron.nextFireTime(System.currentTimeMillis());
+ * </pre>
+ */
+public final class CompiledCron {
+
+  /**
+   * 没有下次触发的时间
+   */
+  public static final long NONE = -1L;
+
+  private static final long SECONDS_PER_DAY = 86400L;
+  private static final long DAYS_0000_TO_1970 = 719528L;
+  private static final int SUNDAY = 1;
+  private static final int SATURDAY = 7;
+
+  private final String expression;
+  private final ZoneId zone;
+  private final ZoneRules rules;
+  /**
+   * 固定偏移量的时区(如UTC)，不需要查询时区规则
+   */
+  private final ZoneOffset fixedOffset;
+
+  /**
+   * 0 ~ 59
+   */
+  private final long seconds;
+  /**
+   * 0 ~ 59
+   */
+  private final long minutes;
+  /**
+   * 0 ~ 23
+   */
+  private final long hours;
+  /**
+   * 1 ~ 31
+   */
+  private final long daysOfMonth;
+  /**
+   * 1 ~ 12
+   */
+  private final long months;
+  /**
+   * 1 ~ 7，SUN=1
+   */
+  private final long daysOfWeek;
+  /**
+   * 按年份索引
+   */
+  private final BitSet years;
+  private final int maxYear;
+  /**
+   * 每小时都会触发
+   */
+  private final boolean everyHour;
+
+  /**
+   * 按日匹配，否则按星期匹配
+   */
+  private final boolean byDayOfMonth;
+  private final boolean lastdayOfMonth;
+  private final int lastdayOffset;
+  private final boolean nearestWeekday;
+  private final int firstDayOfMonth;
+  private final boolean lastdayOfWeek;
+  private final int nthdayOfWeek;
+  private final int firstDayOfWeek;
+
+  CompiledCron(CronExpression cron, ZoneId zone) {
+    this.expression = cron.getCronExpression();
+    this.zone = zone;
+    this.rules = zone.getRules();
+    this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+    this.seconds = mask(cron.seconds, 59);
+    this.minutes = mask(cron.minutes, 59);
+    this.hours = mask(cron.hours, 23);
+    this.everyHour = hours == (1L << 24) - 1;
+    this.daysOfMonth = mask(cron.daysOfMonth, 31);
+    this.months = mask(cron.months, 12);
+    this.daysOfWeek = mask(cron.daysOfWeek, 7);
+    this.maxYear = CronExpression.MAX_YEAR;
+    this.years = new BitSet(maxYear + 1);
+    for (Integer year : cron.years) {
+      if (year >= 0 && year <= maxYear) {
+        years.set(year);
+      }
+    }
+    this.byDayOfMonth = !cron.daysOfMonth.contains(CronExpression.NO_SPEC);
+    this.lastdayOfMonth = cron.lastdayOfMonth;
+    this.lastdayOffset = cron.lastdayOffset;
+    this.nearestWeekday = cron.nearestWeekday;
+    this.firstDayOfMonth = Long.numberOfTrailingZeros(daysOfMonth);
+    this.lastdayOfWeek = cron.lastdayOfWeek;
+    this.nthdayOfWeek = cron.nthdayOfWeek;
+    this.firstDayOfWeek = Long.numberOfTrailingZeros(daysOfWeek);
+  }
+
+  /**
+   * 集合转换为位掩码，忽略 '*'、'?' 等标记
+   */
+  static long mask(Set<Integer> values, int max) {
+    long mask = 0L;
+    for (Integer v : values) {
+      if (v >= 0 && v <= max) {
+        mask |= 1L << v;
+      }
+    }
+    return mask;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * 获取给定时间之后的下次触发时间(忽略毫秒)
+   *
+   * @param afterMillis 开始的时间(毫秒)
+   * @return 返回下次触发的时间(毫秒)，没有时返回 {@link #NONE}
+   */
+  public long nextFireTime(long afterMillis) {
+    long start = Math.floorDiv(afterMillis, 1000L) + 1;
+    long local = start + offsetAt(start);
+    for (; ; ) {
+      local = nextLocal(local);
+      if (local == Long.MIN_VALUE) {
+        return NONE;
+      }
+      long epochSecond = resolve(local, start);
+      if (epochSecond != Long.MIN_VALUE) {
+        return (everyHour && fixedOffset == null ? repeatedHour(start, epochSecond) : epochSecond) * 1000L;
+      }
+      local++;
+    }
+  }
+
+  /**
+   * 每小时都触发的表达式，在夏令时结束时按实际的时间继续触发重复的时段，避免停顿
+   *
+   * @param start       开始的UTC秒数
+   * @param epochSecond 按本地时间匹配到的UTC秒数
+   * @return 返回重复时段中更早的触发时间，没有时返回 epochSecond
+   */
+  private long repeatedHour(long start, long epochSecond) {
+    ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(start - 1));
+    if (transition == null || !transition.isOverlap() || epochSecond < transition.toEpochSecond()) {
+      return epochSecond;
+    }
+    int after = transition.getOffsetAfter().getTotalSeconds();
+    long from = transition.toEpochSecond() + after;
+    long to = transition.toEpochSecond() + transition.getOffsetBefore().getTotalSeconds();
+    long local = nextLocal(Math.max(from, start + after));
+    return local != Long.MIN_VALUE && local < to ? Math.min(local - after, epochSecond) : epochSecond;
+  }
+
+  /**
+   * 批量获取给定时间之后的触发时间
+   *
+   * @param from 开始的时间(毫秒)
+   * @param n    数量
+   * @param dst  触发时间的数组
+   * @return 返回获取到的数量，没有更多的触发时间时小于 n
+   */
+  public int nextFireTimes(long from, int n, long[] dst) {
+    long time = from;
+    for (int i = 0; i < n; i++) {
+      time = nextFireTime(time);
+      if (time == NONE) {
+        return i;
+      }
+      dst[i] = time;
+    }
+    return n;
+  }
+
+  /**
+   * 给定的时间是否满足表达式(忽略毫秒)
+   *
+   * @param millis 时间(毫秒)
+   * @return 返回是否满足
+   */
+  public boolean isSatisfiedBy(long millis) {
+    long time = Math.floorDiv(millis, 1000L) * 1000L;
+    return nextFireTime(time - 1000L) == time;
+  }
+
+  /**
+   * 时间在此时区的偏移量(秒)
+   */
+  private int offsetAt(long epochSecond) {
+    return fixedOffset != null
+        ? fixedOffset.getTotalSeconds()
+        : rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+  }
+
+  /**
+   * 本地时间转换为UTC的秒数：跳过的时间顺延，重复的时间优先使用较早的偏移量
+   *
+   * @param local 本地时间的秒数
+   * @param start 开始的UTC秒数
+   * @return 返回UTC的秒数，本地时间对应的时刻都早于开始时间时返回 Long.MIN_VALUE
+   */
+  private long resolve(long local, long start) {
+    if (fixedOffset != null) {
+      return local - fixedOffset.getTotalSeconds();
+    }
+    LocalDateTime ldt = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+    List<ZoneOffset> offsets = rules.getValidOffsets(ldt);
+    if (offsets.size() == 1) {
+      return local - offsets.get(0).getTotalSeconds();
+    }
+    if (offsets.isEmpty()) {
+      // 夏令时开始，本地时间不存在，按跳变前的偏移量顺延
+      ZoneOffsetTransition transition = rules.getTransition(ldt);
+      return local - transition.getOffsetBefore().getTotalSeconds();
+    }
+    // 夏令时结束，本地时间重复：从重复区间的第二次开始查找时，使用较晚的偏移量
+    long a = local - offsets.get(0).getTotalSeconds();
+    long b = local - offsets.get(1).getTotalSeconds();
+    long earlier = Math.min(a, b), later = Math.max(a, b);
+    return earlier >= start ? earlier : (later >= start ? later : Long.MIN_VALUE);
+  }
+
+  /**
+   * 查找不早于给定本地时间的下一个匹配的本地时间
+   *
+   * @param local 本地时间的秒数(相对于 1970-01-01T00:00:00)
+   * @return 返回本地时间的秒数，没有时返回 Long.MIN_VALUE
+   */
+  private long nextLocal(long local) {
+    LocalDateTime ldt = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+    int y = ldt.getYear(), mo = ldt.getMonthValue(), d = ldt.getDayOfMonth();
+    int h = ldt.getHour(), mi = ldt.getMinute(), s = ldt.getSecond();
+    int maskYear = 0, maskMonth = 0;
+    long dayMask = 0L;
+    for (; ; ) {
+      int ny = y > maxYear ? -1 : years.nextSetBit(y);
+      if (ny < 0 || ny > maxYear) {
+        return Long.MIN_VALUE;
+      }
+      if (ny != y) {
+        y = ny;
+        mo = d = 1;
+        h = mi = s = 0;
+      }
+      int nmo = next(months, mo);
+      if (nmo < 0) {
+        y++;
+        mo = d = 1;
+        h = mi = s = 0;
+        continue;
+      }
+      if (nmo != mo) {
+        mo = nmo;
+        d = 1;
+        h = mi = s = 0;
+      }
+      if (maskYear != y || maskMonth != mo) {
+        dayMask = dayMask(y, mo);
+        maskYear = y;
+        maskMonth = mo;
+      }
+      int nd = next(dayMask, d);
+      if (nd < 0) {
+        mo++;
+        d = 1;
+        h = mi = s = 0;
+        continue;
+      }
+      if (nd != d) {
+        d = nd;
+        h = mi = s = 0;
+      }
+      int nh = next(hours, h);
+      if (nh < 0) {
+        d++;
+        h = mi = s = 0;
+        continue;
+      }
+      if (nh != h) {
+        h = nh;
+        mi = s = 0;
+      }
+      int nmi = next(minutes, mi);
+      if (nmi < 0) {
+        h++;
+        mi = s = 0;
+        continue;
+      }
+      if (nmi != mi) {
+        mi = nmi;
+        s = 0;
+      }
+      int ns = next(seconds, s);
+      if (ns < 0) {
+        mi++;
+        s = 0;
+        continue;
+      }
+      return epochDay(y, mo, d) * SECONDS_PER_DAY + h * 3600 + mi * 60 + ns;
+    }
+  }
+
+  /**
+   * 某个月中匹配的日期，第 d 位表示 d 日
+   */
+  private long dayMask(int year, int month) {
+    int len = lengthOfMonth(year, month);
+    long monthDays = ((1L << len) - 1) << 1;
+    int firstDow = (int) Math.floorMod(epochDay(year, month, 1) + 4, 7L) + 1;
+    if (byDayOfMonth) {
+      if (!lastdayOfMonth && !nearestWeekday) {
+        return daysOfMonth & monthDays;
+      }
+      int day = lastdayOfMonth ? len - lastdayOffset : Math.min(firstDayOfMonth, len);
+      if (day < 1) {
+        return 0L;
+      }
+      if (nearestWeekday) {
+        int dow = dayOfWeek(firstDow, day);
+        if (dow == SATURDAY) {
+          day = day == 1 ? day + 2 : day - 1;
+        } else if (dow == SUNDAY) {
+          day = day == len ? day - 2 : day + 1;
+        }
+      }
+      return 1L << day;
+    }
+    // 'L' 和 '#' 只使用第一个星期
+    long dows = (lastdayOfWeek || nthdayOfWeek > 0) ? (1L << firstDayOfWeek) : daysOfWeek;
+    long week = 0L;
+    for (int d = 1; d <= 7; d++) {
+      if (((dows >>> dayOfWeek(firstDow, d)) & 1L) != 0) {
+        week |= 1L << d;
+      }
+    }
+    long mask = (week | (week << 7) | (week << 14) | (week << 21) | (week << 28)) & monthDays;
+    if (lastdayOfWeek) {
+      return Long.highestOneBit(mask);
+    }
+    if (nthdayOfWeek > 0) {
+      return mask & (0x7FL << (1 + (nthdayOfWeek - 1) * 7));
+    }
+    return mask;
+  }
+
+  private static int dayOfWeek(int firstDow, int day) {
+    return (firstDow + day - 2) % 7 + 1;
+  }
+
+  private static int next(long mask, int from) {
+    if (from >= 64) {
+      return -1;
+    }
+    long m = mask & (-1L << from);
+    return m == 0 ? -1 : Long.numberOfTrailingZeros(m);
+  }
+
+  private static boolean isLeapYear(int year) {
+    return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * 与 {@link java.time.LocalDate#toEpochDay()} 相同，年份不小于0
+   */
+  private static long epochDay(int year, int month, int day) {
+    long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+    total += (367 * month - 362) / 12;
+    total += day - 1;
+    if (month > 2) {
+      total--;
+      if (!isLeapYear(year)) {
+        total--;
+      }
+    }
+    return total - DAYS_0000_TO_1970;
+  }
+
+  @Override
+  public String toString() {
+    return expression + " [" + zone + "]";
+  }
+
+}
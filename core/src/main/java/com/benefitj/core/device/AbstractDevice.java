@@ -1,5 +1,6 @@
 package com.benefitj.core.device;
 
+import com.benefitj.core.AttributeMap;
 import com.benefitj.core.TimeUtils;
 import com.benefitj.core.Utils;
 
@@ -30,9 +31,9 @@ public abstract class AbstractDevice<Id extends Serializable> implements Device<
    */
   private boolean active;
   /**
-   * 属性
+   * 属性，修改时通知设备索引
    */
-  private final Map<String, Object> attrs = new ConcurrentHashMap<>();
+  private final AttributeMap.Observable attrs = AttributeMap.observable(new ConcurrentHashMap<>());
   /**
    * 在线时间
    */
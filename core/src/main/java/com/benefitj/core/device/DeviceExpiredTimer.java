@@ -24,6 +24,10 @@ public class DeviceExpiredTimer {
    * 线程调度
    */
   private EventLoop executor;
+  /**
+   * 当前调度的设备管理
+   */
+  private volatile DeviceManager<?, ?> manager;
 
   public DeviceExpiredTimer() {
     this(SINGLE);
@@ -37,23 +41,29 @@ public class DeviceExpiredTimer {
    * 开始调度
    *
    * @param manager  设备管理类
-   * @param interval 检查的间隔
+   * @param interval 检查的间隔，最小1秒
    */
   public void start(DeviceManager<?, ?> manager, Duration interval) {
-    long period = Math.max(interval.toSeconds(), 1);
+    long period = Math.max(interval.toMillis(), 1000);
+    this.manager = manager;
     EventLoop.cancel(expiredTimer.getAndSet(executor.scheduleAtFixedRate(() -> {
       if (lock.compareAndSet(false, true)) {
         try {
-          DeviceManager.removeInactive(manager);
+          manager.removeExpired();
         } finally {
           lock.set(false);
         }
       }
-    }, period, period, TimeUnit.SECONDS)));
+    }, period, period, TimeUnit.MILLISECONDS)));
   }
 
   public void stop() {
     EventLoop.cancel(expiredTimer.getAndSet(null));
+    DeviceManager<?, ?> m = this.manager;
+    this.manager = null;
+    if (m instanceof DeviceManager.Impl) {
+      ((DeviceManager.Impl<?, ?>) m).resetExpiryIndex();
+    }
   }
 
   public EventLoop getExecutor() {
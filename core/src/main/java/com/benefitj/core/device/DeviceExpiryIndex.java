@@ -0,0 +1,130 @@
+package com.benefitj.core.device;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * 设备过期索引：按截止时间分桶，取出到期设备的代价只与到期的数量有关
+ *
+ * @param <K> ID类型
+ * @param <V> 设备类型
+ */
+public class DeviceExpiryIndex<K, V extends Device<K>> {
+
+  /**
+   * 默认的桶精度(毫秒)
+   */
+  public static final long DEFAULT_RESOLUTION = 100L;
+
+  /**
+   * 桶: 序号 -> 设备
+   */
+  private final ConcurrentSkipListMap<Long, Bucket<K, V>> buckets = new ConcurrentSkipListMap<>();
+  /**
+   * 桶精度(毫秒)
+   */
+  private final long resolution;
+
+  public DeviceExpiryIndex() {
+    this(DEFAULT_RESOLUTION);
+  }
+
+  public DeviceExpiryIndex(long resolution) {
+    if (resolution <= 0)
+      throw new IllegalArgumentException("resolution must be > 0: " + resolution);
+    this.resolution = resolution;
+  }
+
+  public long getResolution() {
+    return resolution;
+  }
+
+  /**
+   * 添加设备，截止时间向上取整到桶，因此不会被提前取出
+   *
+   * @param key      ID
+   * @param device   设备
+   * @param deadline 截止时间(毫秒)
+   */
+  public void add(K key, V device, long deadline) {
+    Node<K, V> node = new Node<>(key, device);
+    long idx = Math.floorDiv(deadline + resolution - 1, resolution);
+    for (; ; ) {
+      Bucket<K, V> bucket = buckets.computeIfAbsent(idx, k -> new Bucket<>());
+      bucket.nodes.add(node);
+      // 桶已被取走，且节点未被消费，重新放入
+      if (!bucket.sealed || !bucket.nodes.remove(node)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * 取出截止时间不晚于 now 的设备
+   *
+   * @param now      当前时间(毫秒)
+   * @param consumer 消费者
+   * @return 返回取出的数量
+   */
+  public int poll(long now, BiConsumer<K, V> consumer) {
+    long limit = Math.floorDiv(now, resolution);
+    int count = 0;
+    Map.Entry<Long, Bucket<K, V>> entry;
+    while ((entry = buckets.firstEntry()) != null && entry.getKey() <= limit) {
+      Bucket<K, V> bucket = entry.getValue();
+      if (!buckets.remove(entry.getKey(), bucket)) {
+        continue;
+      }
+      bucket.sealed = true;
+      for (Iterator<Node<K, V>> itr = bucket.nodes.iterator(); itr.hasNext(); ) {
+        Node<K, V> node = itr.next();
+        if (bucket.nodes.remove(node)) {
+          consumer.accept(node.key, node.device);
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 索引中的设备数量(近似值)
+   */
+  public int size() {
+    int size = 0;
+    for (Bucket<K, V> bucket : buckets.values()) {
+      size += bucket.nodes.size();
+    }
+    return size;
+  }
+
+  /**
+   * 清空
+   */
+  public void clear() {
+    buckets.clear();
+  }
+
+  static final class Bucket<K, V> {
+    final Set<Node<K, V>> nodes = ConcurrentHashMap.newKeySet();
+    volatile boolean sealed;
+  }
+
+  /**
+   * 节点按引用比较，同一设备可以在不同的桶中各有一个节点
+   */
+  static final class Node<K, V> {
+    final K key;
+    final V device;
+
+    Node(K key, V device) {
+      this.key = key;
+      this.device = device;
+    }
+  }
+
+}
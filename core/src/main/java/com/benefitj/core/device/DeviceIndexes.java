@@ -0,0 +1,282 @@
+package com.benefitj.core.device;
+
+import com.benefitj.core.AttributeMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * 设备的二级索引：哈希索引用于等值查询，有序索引用于范围查询。
+ * <p>
+ * 设备的属性通过 {@link AttributeMap.Observable} 修改时增量更新，其他字段(如类型)修改后需调用 {@link #reindex(Object)}
+ *
+ * @param <K> ID类型
+ * @param <V> 设备类型
+ */
+public class DeviceIndexes<K, V extends Device<K>> {
+
+  private final DeviceManager<K, V> manager;
+  /**
+   * 索引: 名称 -> 索引
+   */
+  private final Map<String, Index<K, V>> indexes = new ConcurrentHashMap<>();
+  /**
+   * 已绑定属性监听的设备
+   */
+  private final Map<K, Binding> bindings = new ConcurrentHashMap<>();
+
+  public DeviceIndexes(DeviceManager<K, V> manager) {
+    this.manager = manager;
+  }
+
+  /**
+   * 添加属性的哈希索引
+   *
+   * @param attr 属性名称
+   */
+  public void addHashIndex(String attr) {
+    addHashIndex(attr, device -> device.getAttr(attr));
+  }
+
+  /**
+   * 添加哈希索引
+   *
+   * @param name      索引名称
+   * @param extractor 取值函数
+   */
+  public void addHashIndex(String name, Function<? super V, ?> extractor) {
+    addIndex(new Index<>(name, false, extractor));
+  }
+
+  /**
+   * 添加属性的有序索引，属性值需要实现 {@link Comparable}
+   *
+   * @param attr 属性名称
+   */
+  public void addSortedIndex(String attr) {
+    addSortedIndex(attr, device -> device.getAttr(attr));
+  }
+
+  /**
+   * 添加有序索引，索引值需要实现 {@link Comparable}
+   *
+   * @param name      索引名称
+   * @param extractor 取值函数
+   */
+  public void addSortedIndex(String name, Function<? super V, ? extends Comparable<?>> extractor) {
+    addIndex(new Index<>(name, true, extractor));
+  }
+
+  private void addIndex(Index<K, V> index) {
+    if (indexes.putIfAbsent(index.name, index) != null) {
+      throw new IllegalStateException("The index already exists: " + index.name);
+    }
+    manager.devices().forEach(this::add);
+  }
+
+  /**
+   * 移除索引
+   *
+   * @param name 索引名称
+   */
+  public boolean removeIndex(String name) {
+    return indexes.remove(name) != null;
+  }
+
+  /**
+   * 是否有索引
+   */
+  public boolean hasIndex(String name) {
+    return indexes.containsKey(name);
+  }
+
+  /**
+   * 重新计算设备的索引值
+   *
+   * @param key 设备ID
+   */
+  public void reindex(K key) {
+    Binding binding = bindings.get(key);
+    if (binding != null) {
+      binding.update();
+    }
+  }
+
+  /**
+   * 设备被添加
+   */
+  void add(K key, V device) {
+    if (indexes.isEmpty()) {
+      return;
+    }
+    Binding binding = bindings.compute(key, (k, old) -> {
+      if (old != null && old.device == device) return old;
+      if (old != null) old.unbind();
+      return new Binding(key, device);
+    });
+    binding.update();
+  }
+
+  /**
+   * 设备被移除
+   */
+  void remove(K key, V device) {
+    Binding binding = bindings.get(key);
+    if (binding != null && binding.device == device && bindings.remove(key, binding)) {
+      binding.unbind();
+    }
+  }
+
+  /**
+   * 创建查询
+   */
+  public DeviceQuery<K, V> query() {
+    return new DeviceQuery<>(this);
+  }
+
+  DeviceManager<K, V> getManager() {
+    return manager;
+  }
+
+  Index<K, V> getIndex(String name) {
+    Index<K, V> index = indexes.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("No such index: " + name);
+    }
+    return index;
+  }
+
+  /**
+   * 设备与属性监听的绑定，同一设备的索引更新是串行的
+   */
+  final class Binding implements AttributeMap.Observer {
+
+    final K key;
+    final V device;
+
+    Binding(K key, V device) {
+      this.key = key;
+      this.device = device;
+      if (device.attrs() instanceof AttributeMap.Observable) {
+        ((AttributeMap.Observable) device.attrs()).addObserver(this);
+      }
+    }
+
+    @Override
+    public void onAttrChanged(String attr, Object oldValue, Object newValue) {
+      update();
+    }
+
+    synchronized void update() {
+      RuntimeException error = null;
+      for (Index<K, V> index : indexes.values()) {
+        try {
+          index.update(key, device);
+        } catch (RuntimeException e) {
+          // 其他索引继续更新
+          error = e;
+        }
+      }
+      if (error != null) {
+        throw error;
+      }
+    }
+
+    synchronized void unbind() {
+      if (device.attrs() instanceof AttributeMap.Observable) {
+        ((AttributeMap.Observable) device.attrs()).removeObserver(this);
+      }
+      for (Index<K, V> index : indexes.values()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  /**
+   * 索引
+   */
+  static final class Index<K, V> {
+
+    final String name;
+    final boolean sorted;
+    final Function<? super V, ?> extractor;
+    /**
+     * 值 -> 设备ID
+     */
+    final ConcurrentMap<Object, Set<K>> values;
+    /**
+     * 设备ID -> 当前的值
+     */
+    final Map<K, Object> current = new ConcurrentHashMap<>();
+
+    Index(String name, boolean sorted, Function<? super V, ?> extractor) {
+      this.name = name;
+      this.sorted = sorted;
+      this.extractor = extractor;
+      this.values = sorted ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+    }
+
+    void update(K key, V device) {
+      Object value = extractor.apply(device);
+      Object old = value != null ? current.put(key, value) : current.remove(key);
+      if (!Objects.equals(old, value)) {
+        if (old != null) unlink(old, key);
+        if (value != null) {
+          try {
+            link(value, key);
+          } catch (RuntimeException e) {
+            // 有序索引中不能比较的值(ClassCastException)，设备不在此索引中
+            current.remove(key, value);
+            throw e;
+          }
+        }
+      }
+    }
+
+    void remove(K key) {
+      Object old = current.remove(key);
+      if (old != null) unlink(old, key);
+    }
+
+    boolean test(K key, Object value) {
+      return Objects.equals(current.get(key), value);
+    }
+
+    private void link(Object value, K key) {
+      if (sorted) {
+        // 跳表的 compute 不是原子的：加入后确认集合仍在索引中，已被移除时重试
+        for (; ; ) {
+          Set<K> keys = values.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet());
+          keys.add(key);
+          if (values.get(value) == keys) return;
+        }
+      }
+      values.compute(value, (v, keys) -> {
+        if (keys == null) keys = ConcurrentHashMap.newKeySet();
+        keys.add(key);
+        return keys;
+      });
+    }
+
+    private void unlink(Object value, K key) {
+      if (sorted) {
+        Set<K> keys = values.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty() && values.remove(value, keys)) {
+          // 移除空集合时有新加入的ID，重新放入
+          for (K k : keys) {
+            if (test(k, value)) link(value, k);
+          }
+        }
+      } else {
+        values.computeIfPresent(value, (v, keys) -> {
+          keys.remove(key);
+          return keys.isEmpty() ? null : keys;
+        });
+      }
+    }
+  }
+
+}
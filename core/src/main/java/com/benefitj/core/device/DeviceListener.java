@@ -2,6 +2,8 @@ package com.benefitj.core.device;
 
 import com.benefitj.core.ProxyUtils;
 
+import java.util.Map;
+
 /**
  * 设备监听
  *
@@ -29,6 +31,15 @@ public interface DeviceListener<Id, T> {
     // ~
   }
 
+  /**
+   * 批量移除，默认逐个回调 {@link #onRemoval(Object, Object)}
+   *
+   * @param devices 被移除的设备
+   */
+  default void onRemovals(Map<Id, T> devices) {
+    devices.forEach(this::onRemoval);
+  }
+
 
   /**
    * 创建代理监听
@@ -26,10 +26,12 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
    * @return 返回新创建的设备
    */
   default V create(K k, Map<String, Object> attrs) {
-    V device;
-    synchronized (this) {
-      if ((device = get(k)) == null) {
-        put(k, device = getDeviceFactory().create(k, attrs));
+    V device = get(k);
+    if (device == null) {
+      synchronized (this) {
+        if ((device = get(k)) == null) {
+          put(k, device = getDeviceFactory().create(k, attrs));
+        }
       }
     }
     device.setActiveAtNow();
@@ -77,6 +79,15 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
    */
   void setExpire(Duration expire);
 
+  /**
+   * 移除超时过期的设备
+   *
+   * @return 返回被移除的设备
+   */
+  default Map<K, V> removeExpired() {
+    return removeInactive(this);
+  }
+
   /**
    * 查找匹配的设备
    *
@@ -106,7 +117,16 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
    */
   class Impl<K, V extends Device<K>> implements DeviceManager<K, V>, WrappedMap<K, V> {
 
+    /**
+     * 创建锁的分段数，2的幂
+     */
+    static final int LOCK_STRIPES = 64;
+
     final Map<K, V> map = new ConcurrentHashMap<>();
+    /**
+     * 创建锁，不同ID的设备可以并行创建
+     */
+    private final Object[] locks = new Object[LOCK_STRIPES];
     /**
      * 设备工厂
      */
@@ -119,11 +139,23 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
      * 过期时间
      */
     private Duration expire = Duration.ofSeconds(30L);
+    /**
+     * 过期索引，第一次调用 {@link #removeExpired()} 时创建
+     */
+    private volatile DeviceExpiryIndex<K, V> expiryIndex;
+    /**
+     * 二级索引
+     */
+    private final DeviceIndexes<K, V> indexes = new DeviceIndexes<>(this);
 
     public Impl() {
+      for (int i = 0; i < locks.length; i++) {
+        locks[i] = new Object();
+      }
     }
 
     public Impl(DeviceFactory<K, V> deviceFactory, DeviceListener<K, V> deviceListener) {
+      this();
       this.deviceFactory = deviceFactory;
       this.deviceListener = deviceListener;
     }
@@ -133,6 +165,10 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
       return map;
     }
 
+    /**
+     * 设备(原始的Map)，用于遍历和读取；通过它修改不会更新过期索引、二级索引，也不会回调监听，
+     * 添加和移除设备请调用管理器的方法
+     */
     @Override
     public Map<K, V> devices() {
       return map();
@@ -166,6 +202,57 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
     @Override
     public void setExpire(Duration expire) {
       this.expire = expire;
+      // 截止时间已变化，下次检查时重建
+      this.expiryIndex = null;
+    }
+
+    /**
+     * 释放过期索引，不再定时检查时调用
+     */
+    public void resetExpiryIndex() {
+      this.expiryIndex = null;
+    }
+
+    @Override
+    public Map<K, V> removeExpired() {
+      final long now = System.currentTimeMillis();
+      DeviceExpiryIndex<K, V> index = this.expiryIndex;
+      if (index == null) {
+        synchronized (map) {
+          if ((index = this.expiryIndex) == null) {
+            // 先发布再填充，避免并发 put 的设备漏掉
+            this.expiryIndex = index = new DeviceExpiryIndex<>();
+            final DeviceExpiryIndex<K, V> seed = index;
+            map().forEach((key, device) -> seed.add(key, device, deadlineOf(device, now)));
+          }
+        }
+      }
+      final DeviceExpiryIndex<K, V> idx = index;
+      final Map<K, V> removeMap = new LinkedHashMap<>();
+      idx.poll(now, (key, device) -> {
+        if (map().get(key) != device) {
+          return; // 已被移除或替换
+        }
+        long deadline = deadlineOf(device, now);
+        if (deadline > now) {
+          // 期间有活动，按新的截止时间重新放入
+          idx.add(key, device, deadline);
+        } else if (map().remove(key, device)) {
+          indexes.remove(key, device);
+          removeMap.put(key, device);
+        }
+      });
+      if (!removeMap.isEmpty()) {
+        getDeviceListener().onRemovals(removeMap);
+      }
+      return removeMap;
+    }
+
+    /**
+     * 设备的截止时间，不活跃的设备立即过期
+     */
+    long deadlineOf(V device, long inactive) {
+      return device.isActive() ? device.getActiveAt() + getExpire().toMillis() : inactive;
     }
 
     @Override
@@ -174,15 +261,122 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
         throw new IllegalArgumentException("The key or value is null: " + key + ", " + value + "]");
       V old = map().put(key, value);
       if (old != value) {
-        getDeviceListener().onAddition(key, value);
+        onAdded(key, value);
+      }
+      return old;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+      if (key == null || value == null)
+        throw new IllegalArgumentException("The key or value is null: " + key + ", " + value + "]");
+      V old = map().putIfAbsent(key, value);
+      if (old == null) {
+        onAdded(key, value);
       }
       return old;
     }
 
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+      if (key == null || value == null)
+        throw new IllegalArgumentException("The key or value is null: " + key + ", " + value + "]");
+      for (; ; ) {
+        V old = map().get(key);
+        if (old == null) {
+          if (map().putIfAbsent(key, value) == null) {
+            onAdded(key, value);
+            return value;
+          }
+          continue;
+        }
+        V v = remappingFunction.apply(old, value);
+        if (v == null) {
+          if (remove(key, old)) {
+            return null;
+          }
+        } else if (map().replace(key, old, v)) {
+          if (v != old) {
+            onAdded(key, v);
+          }
+          return v;
+        }
+      }
+    }
+
+    /**
+     * 设备被添加，在锁外调用
+     */
+    protected void onAdded(K key, V device) {
+      DeviceExpiryIndex<K, V> index = this.expiryIndex;
+      if (index != null) {
+        index.add(key, device, deadlineOf(device, System.currentTimeMillis()));
+      }
+      indexes.add(key, device);
+      getDeviceListener().onAddition(key, device);
+    }
+
+    /**
+     * 二级索引
+     */
+    public DeviceIndexes<K, V> indexes() {
+      return indexes;
+    }
+
+    /**
+     * 创建基于二级索引的查询
+     */
+    public DeviceQuery<K, V> query() {
+      return indexes.query();
+    }
+
+    /**
+     * 获取ID对应的创建锁
+     */
+    protected Object lockOf(Object key) {
+      int h = key.hashCode();
+      return locks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * 获取设备，如果不存在则创建：只锁住ID所在的分段，监听在锁外回调
+     *
+     * @param key     ID
+     * @param creator 创建函数，返回 null 时不添加
+     * @return 返回设备
+     */
+    protected V createIfAbsent(K key, Function<? super K, ? extends V> creator) {
+      V device = map().get(key);
+      if (device != null) {
+        return device;
+      }
+      V created = null;
+      synchronized (lockOf(key)) {
+        if ((device = map().get(key)) == null) {
+          if ((device = created = creator.apply(key)) == null) {
+            return null;
+          }
+          map().put(key, device);
+        }
+      }
+      if (created != null) {
+        onAdded(key, created);
+      }
+      return device;
+    }
+
+    @Override
+    public V create(K k, Map<String, Object> attrs) {
+      V device = createIfAbsent(k, key -> getDeviceFactory().create(key, attrs));
+      device.setActiveAtNow();
+      return device;
+    }
+
     @Override
     public boolean remove(Object key, Object value) {
       boolean remove = map().remove(key, value);
       if (remove) {
+        indexes.remove((K) key, (V) value);
         getDeviceListener().onRemoval((K) key, (V) value);
       }
       return remove;
@@ -192,6 +386,7 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
     public V remove(Object key) {
       V remove = map().remove(key);
       if (remove != null) {
+        indexes.remove((K) key, remove);
         getDeviceListener().onRemoval((K) key, remove);
       }
       return remove;
@@ -202,19 +397,154 @@ public interface DeviceManager<K, V extends Device<K>> extends Map<K, V> {
       m.forEach(this::put);
     }
 
+    /**
+     * 逐个移除，更新二级索引并回调监听
+     */
     @Override
-    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
-      V device = get(key);
-      if (device == null) {
-        synchronized (this) {
-          if ((device = get(key)) == null) {
-            putIfAbsent(key, device = (mappingFunction != null
-                ? mappingFunction.apply(key)
-                : create(key, Collections.emptyMap())));
+    public void clear() {
+      for (Map.Entry<K, V> entry : map().entrySet()) {
+        remove(entry.getKey(), entry.getValue());
+      }
+    }
+
+    /**
+     * ID的视图，移除时与 {@link #remove(Object)} 相同
+     */
+    @Override
+    public Set<K> keySet() {
+      return new AbstractSet<K>() {
+        @Override
+        public Iterator<K> iterator() {
+          return new ViewIterator<>(Map.Entry::getKey);
+        }
+
+        @Override
+        public int size() {
+          return map().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return map().containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+          return Impl.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+          Impl.this.clear();
+        }
+      };
+    }
+
+    /**
+     * 设备的视图，移除时与 {@link #remove(Object, Object)} 相同
+     */
+    @Override
+    public Collection<V> values() {
+      return new AbstractCollection<V>() {
+        @Override
+        public Iterator<V> iterator() {
+          return new ViewIterator<>(Map.Entry::getValue);
+        }
+
+        @Override
+        public int size() {
+          return map().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return map().containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+          Impl.this.clear();
+        }
+      };
+    }
+
+    /**
+     * 键值对的视图，不支持 setValue，移除时与 {@link #remove(Object, Object)} 相同
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<Map.Entry<K, V>>() {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return new ViewIterator<>(AbstractMap.SimpleImmutableEntry::new);
+        }
+
+        @Override
+        public int size() {
+          return map().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          if (!(o instanceof Map.Entry)) {
+            return false;
           }
+          Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+          V device = map().get(e.getKey());
+          return device != null && device.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+          return o instanceof Map.Entry
+              && Impl.this.remove(((Map.Entry<?, ?>) o).getKey(), ((Map.Entry<?, ?>) o).getValue());
+        }
+
+        @Override
+        public void clear() {
+          Impl.this.clear();
         }
+      };
+    }
+
+    /**
+     * 视图的迭代器，移除时经过管理器
+     */
+    final class ViewIterator<E> implements Iterator<E> {
+
+      final Iterator<Map.Entry<K, V>> it = map().entrySet().iterator();
+      final Function<Map.Entry<K, V>, E> mapper;
+      Map.Entry<K, V> last;
+
+      ViewIterator(Function<Map.Entry<K, V>, E> mapper) {
+        this.mapper = mapper;
       }
-      return device;
+
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public E next() {
+        return mapper.apply(last = it.next());
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        Impl.this.remove(last.getKey(), last.getValue());
+        last = null;
+      }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+      return mappingFunction != null
+          ? createIfAbsent(key, mappingFunction)
+          : create(key, Collections.emptyMap());
     }
 
     @Deprecated
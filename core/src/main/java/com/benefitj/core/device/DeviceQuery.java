@@ -0,0 +1,219 @@
+package com.benefitj.core.device;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.function.Predicate;
+
+/**
+ * 基于二级索引的设备查询，多个条件取交集：从候选最少的条件开始遍历，其余条件按ID校验
+ *
+ * @param <K> ID类型
+ * @param <V> 设备类型
+ */
+public class DeviceQuery<K, V extends Device<K>> {
+
+  private final DeviceIndexes<K, V> indexes;
+  private final List<Condition<K>> conditions = new ArrayList<>();
+  private Predicate<V> filter;
+
+  DeviceQuery(DeviceIndexes<K, V> indexes) {
+    this.indexes = indexes;
+  }
+
+  /**
+   * 等于
+   *
+   * @param index 索引名称
+   * @param value 值
+   */
+  public DeviceQuery<K, V> eq(String index, Object value) {
+    DeviceIndexes.Index<K, V> idx = indexes.getIndex(index);
+    conditions.add(new Condition<K>() {
+      @Override
+      public Iterable<K> keys() {
+        Set<K> keys = idx.values.get(value);
+        return keys != null ? keys : Collections.emptySet();
+      }
+
+      @Override
+      public long estimate() {
+        Set<K> keys = idx.values.get(value);
+        return keys != null ? keys.size() : 0;
+      }
+
+      @Override
+      public boolean test(K key) {
+        return idx.test(key, value);
+      }
+    });
+    return this;
+  }
+
+  /**
+   * 在范围内(包含两端)，需要有序索引
+   *
+   * @param index 索引名称
+   * @param from  起始值，NULL 表示不限
+   * @param to    结束值，NULL 表示不限
+   */
+  public DeviceQuery<K, V> between(String index, Comparable<?> from, Comparable<?> to) {
+    return range(index, from, true, to, true);
+  }
+
+  /**
+   * 在范围内，需要有序索引
+   *
+   * @param index         索引名称
+   * @param from          起始值，NULL 表示不限
+   * @param fromInclusive 是否包含起始值
+   * @param to            结束值，NULL 表示不限
+   * @param toInclusive   是否包含结束值
+   */
+  public DeviceQuery<K, V> range(String index, Comparable<?> from, boolean fromInclusive, Comparable<?> to, boolean toInclusive) {
+    DeviceIndexes.Index<K, V> idx = indexes.getIndex(index);
+    if (!idx.sorted) {
+      throw new IllegalArgumentException("The index is not sorted: " + index);
+    }
+    conditions.add(new Condition<K>() {
+
+      ConcurrentNavigableMap<Object, Set<K>> sub() {
+        ConcurrentNavigableMap<Object, Set<K>> map = (ConcurrentNavigableMap<Object, Set<K>>) idx.values;
+        if (from != null) map = map.tailMap(from, fromInclusive);
+        if (to != null) map = map.headMap(to, toInclusive);
+        return map;
+      }
+
+      @Override
+      public Iterable<K> keys() {
+        Collection<Set<K>> sets = sub().values();
+        return () -> sets.stream().flatMap(Set::stream).iterator();
+      }
+
+      @Override
+      public long estimate() {
+        long size = 0;
+        for (Set<K> keys : sub().values()) {
+          size += keys.size();
+        }
+        return size;
+      }
+
+      @Override
+      public boolean test(K key) {
+        Object value = idx.current.get(key);
+        if (value == null) return false;
+        Comparable<Object> v = (Comparable<Object>) value;
+        if (from != null) {
+          int c = v.compareTo(from);
+          if (c < 0 || (c == 0 && !fromInclusive)) return false;
+        }
+        if (to != null) {
+          int c = v.compareTo(to);
+          return c < 0 || (c == 0 && toInclusive);
+        }
+        return true;
+      }
+    });
+    return this;
+  }
+
+  /**
+   * 附加的过滤条件，在索引匹配后执行
+   *
+   * @param filter 过滤
+   */
+  public DeviceQuery<K, V> filter(Predicate<? super V> filter) {
+    Predicate<V> p = filter::test;
+    this.filter = this.filter != null ? this.filter.and(p) : p;
+    return this;
+  }
+
+  /**
+   * 查询结果的视图，每次遍历时重新计算，不复制设备
+   */
+  public Collection<V> list() {
+    final List<Condition<K>> conds = new ArrayList<>(conditions);
+    final Predicate<V> filter = this.filter;
+    final DeviceManager<K, V> manager = indexes.getManager();
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        Condition<K> driver = null;
+        long min = Long.MAX_VALUE;
+        for (Condition<K> c : conds) {
+          long estimate = c.estimate();
+          if (estimate < min) {
+            min = estimate;
+            driver = c;
+          }
+        }
+        Iterator<K> keys = driver != null ? driver.keys().iterator() : manager.devices().keySet().iterator();
+        return new Iterator<V>() {
+          V next;
+
+          @Override
+          public boolean hasNext() {
+            while (next == null && keys.hasNext()) {
+              K key = keys.next();
+              if (matches(key)) {
+                V device = manager.get(key);
+                if (device != null && (filter == null || filter.test(device))) {
+                  next = device;
+                }
+              }
+            }
+            return next != null;
+          }
+
+          @Override
+          public V next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            V device = next;
+            next = null;
+            return device;
+          }
+        };
+      }
+
+      private boolean matches(K key) {
+        for (Condition<K> c : conds) {
+          if (!c.test(key)) return false;
+        }
+        return true;
+      }
+
+      @Override
+      public int size() {
+        int size = 0;
+        for (V ignored : this) size++;
+        return size;
+      }
+    };
+  }
+
+  /**
+   * 匹配的数量
+   */
+  public int count() {
+    return list().size();
+  }
+
+  interface Condition<K> {
+
+    /**
+     * 候选的设备ID
+     */
+    Iterable<K> keys();
+
+    /**
+     * 候选数量的估计
+     */
+    long estimate();
+
+    /**
+     * 校验设备ID是否满足条件
+     */
+    boolean test(K key);
+  }
+
+}
@@ -0,0 +1,117 @@
+package com.benefitj.core.device;
+
+import com.benefitj.core.EventLoop;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 分片的设备管理：按ID分成N个分区，每个分区绑定一个单线程的EventLoop，
+ * 同一设备的状态修改都在所属分区的线程上执行，不需要加锁
+ *
+ * @param <K> ID类型
+ * @param <V> 设备类型
+ */
+public class ShardedDeviceManager<K, V extends Device<K>> extends DeviceManager.Impl<K, V> {
+
+  /**
+   * 分区的线程
+   */
+  private final EventLoop.Single[] loops;
+  /**
+   * 线程是否由当前对象创建
+   */
+  private final boolean ownLoops;
+
+  public ShardedDeviceManager(int shards) {
+    this(EventLoop.generateNamePrefix(), shards);
+  }
+
+  public ShardedDeviceManager(String namePrefix, int shards) {
+    if (shards <= 0)
+      throw new IllegalArgumentException("shards must be > 0: " + shards);
+    this.loops = new EventLoop.Single[shards];
+    for (int i = 0; i < shards; i++) {
+      this.loops[i] = EventLoop.newSingle(namePrefix + i + "-", true);
+    }
+    this.ownLoops = true;
+  }
+
+  public ShardedDeviceManager(EventLoop.Single... loops) {
+    if (loops.length == 0)
+      throw new IllegalArgumentException("loops is empty");
+    this.loops = loops.clone();
+    this.ownLoops = false;
+  }
+
+  /**
+   * 分区数
+   */
+  public int getShards() {
+    return loops.length;
+  }
+
+  /**
+   * ID所在的分区
+   */
+  public int shardOf(Object key) {
+    int h = key.hashCode();
+    return ((h ^ (h >>> 16)) & 0x7FFFFFFF) % loops.length;
+  }
+
+  /**
+   * ID所在分区的线程
+   */
+  public EventLoop.Single executorOf(Object key) {
+    return loops[shardOf(key)];
+  }
+
+  /**
+   * 在设备所属的分区线程上执行，设备不存在时忽略
+   *
+   * @param key    ID
+   * @param action 操作
+   */
+  public void execute(K key, Consumer<? super V> action) {
+    EventLoop.Single loop = executorOf(key);
+    Runnable task = () -> {
+      V device = get(key);
+      if (device != null) {
+        action.accept(device);
+      }
+    };
+    if (loop.isInLoop()) {
+      task.run();
+    } else {
+      loop.execute(task);
+    }
+  }
+
+  /**
+   * 在所属的分区线程上创建设备，同一分区内的创建是串行的
+   *
+   * @param key   ID
+   * @param attrs 属性
+   * @return 返回创建的设备
+   */
+  public CompletableFuture<V> createAsync(K key, Map<String, Object> attrs) {
+    EventLoop.Single loop = executorOf(key);
+    if (loop.isInLoop()) {
+      return CompletableFuture.completedFuture(create(key, attrs));
+    }
+    return CompletableFuture.supplyAsync(() -> create(key, attrs), loop);
+  }
+
+  /**
+   * 停止分区线程，仅停止由当前对象创建的线程
+   */
+  public void shutdown() {
+    if (ownLoops) {
+      for (EventLoop.Single loop : loops) {
+        loop.shutdown();
+      }
+    }
+  }
+
+}
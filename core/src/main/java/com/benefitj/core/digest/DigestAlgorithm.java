@@ -0,0 +1,45 @@
+package com.benefitj.core.digest;
+
+import com.benefitj.core.CatchUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 摘要算法
+ */
+public enum DigestAlgorithm {
+
+  MD5("MD5"),
+  SHA1("SHA-1"),
+  SHA256("SHA-256"),
+  /**
+   * 非加密哈希，速度接近内存带宽，适合去重和同步比对
+   */
+  XXHASH64("XXH64");
+
+  private final String algorithm;
+
+  DigestAlgorithm(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * 创建摘要
+   */
+  public MessageDigest newDigest() {
+    if (this == XXHASH64) {
+      return new XxHash64();
+    }
+    try {
+      return MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
+}
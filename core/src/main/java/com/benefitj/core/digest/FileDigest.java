@@ -0,0 +1,118 @@
+package com.benefitj.core.digest;
+
+import com.benefitj.core.HexUtils;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 文件摘要
+ * <p>
+ * 分块模式下，每个块单独计算摘要，文件的摘要为所有块摘要拼接后再计算的摘要(一层的Merkle树)，
+ * 文件局部修改后，只需要重新计算修改区域所在的块，见 {@link FileDigests#update(FileDigest, long, long)}
+ */
+public final class FileDigest {
+
+  private final File file;
+  private final DigestAlgorithm algorithm;
+  /**
+   * 计算时的文件长度
+   */
+  private final long length;
+  /**
+   * 计算时的修改时间
+   */
+  private final long lastModified;
+  /**
+   * 块大小，0表示不分块
+   */
+  private final int chunkSize;
+  private final List<byte[]> chunks;
+  private final byte[] digest;
+  /**
+   * 计算失败的异常
+   */
+  private final Throwable error;
+
+  FileDigest(File file, DigestAlgorithm algorithm, long length, long lastModified, int chunkSize, List<byte[]> chunks, byte[] digest) {
+    this.file = file;
+    this.algorithm = algorithm;
+    this.length = length;
+    this.lastModified = lastModified;
+    this.chunkSize = chunkSize;
+    this.chunks = chunks != null ? Collections.unmodifiableList(chunks) : Collections.emptyList();
+    this.digest = digest;
+    this.error = null;
+  }
+
+  FileDigest(File file, DigestAlgorithm algorithm, Throwable error) {
+    this.file = file;
+    this.algorithm = algorithm;
+    this.length = -1;
+    this.lastModified = -1;
+    this.chunkSize = 0;
+    this.chunks = Collections.emptyList();
+    this.digest = null;
+    this.error = error;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public DigestAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * 每个块的摘要，不分块时为空
+   */
+  public List<byte[]> getChunks() {
+    return chunks;
+  }
+
+  /**
+   * 摘要(拷贝)，计算失败时为null
+   */
+  public byte[] getDigest() {
+    return digest != null ? digest.clone() : null;
+  }
+
+  /**
+   * 16进制的摘要(小写)，计算失败时为null
+   */
+  public String getHex() {
+    return digest != null ? HexUtils.bytesToHex(digest, true) : null;
+  }
+
+  public Throwable getError() {
+    return error;
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  byte[] digest() {
+    return digest;
+  }
+
+  @Override
+  public String toString() {
+    return "FileDigest(" + file + ", " + algorithm + ", " + (error != null ? error : getHex()) + ")";
+  }
+
+}
@@ -0,0 +1,293 @@
+package com.benefitj.core.digest;
+
+import com.benefitj.core.CatchUtils;
+import com.benefitj.core.EventLoop;
+import com.benefitj.core.IOUtils;
+import com.benefitj.core.pool.ByteArrayPool;
+import com.benefitj.core.pool.PooledBytes;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 文件摘要：大文件通过 {@link FileChannel#map} 按窗口读取(每个窗口用完立即释放)，小文件使用池化的缓冲读取，
+ * 支持分块(Merkle)模式，以及在线程池中并发计算多个文件
+ *
+ * <pre>
+ *   try (Stream<FileDigest> s = FileDigests.digestAll(files, DigestAlgorithm.XXHASH64, EventLoop.io(), 8)) {
+ *     s.filter(FileDigest::isSuccess).collect(Collectors.groupingBy(FileDigest::getHex));
+ *   }
+ * </pre>
+ */
+public class FileDigests {
+
+  /**
+   * 超过此大小的区域使用内存映射读取
+   */
+  public static final long MAP_THRESHOLD = 1L << 20;
+  /**
+   * 每次映射的最大长度
+   */
+  public static final int MAP_WINDOW = 64 << 20;
+  /**
+   * 普通读取时的缓冲大小
+   */
+  public static final int READ_BUFFER_SIZE = 256 << 10;
+  /**
+   * 默认的块大小
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+  /**
+   * 计算文件摘要
+   *
+   * @param file      文件
+   * @param algorithm 算法
+   * @return 返回摘要
+   */
+  public static FileDigest digest(File file, DigestAlgorithm algorithm) {
+    try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long lastModified = file.lastModified();
+      long length = ch.size();
+      MessageDigest md = algorithm.newDigest();
+      update(md, ch, 0, length);
+      return new FileDigest(file, algorithm, length, lastModified, 0, null, md.digest());
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
+  /**
+   * 分块计算文件摘要
+   *
+   * @param file      文件
+   * @param algorithm 算法
+   * @param chunkSize 块大小
+   * @return 返回摘要
+   */
+  public static FileDigest digestChunks(File file, DigestAlgorithm algorithm, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize必须大于0: " + chunkSize);
+    }
+    try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long lastModified = file.lastModified();
+      long length = ch.size();
+      MessageDigest md = algorithm.newDigest();
+      List<byte[]> chunks = new ArrayList<>(chunkCount(length, chunkSize));
+      for (long pos = 0; pos < length; pos += chunkSize) {
+        update(md, ch, pos, Math.min(chunkSize, length - pos));
+        chunks.add(md.digest());
+      }
+      return new FileDigest(file, algorithm, length, lastModified, chunkSize, chunks, root(md, chunks));
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
+  /**
+   * 文件局部修改后更新分块摘要，只重新计算修改区域所在的块；文件长度变化时，从较短长度所在的块开始重新计算
+   *
+   * @param previous 之前的分块摘要
+   * @param offset   修改的位置
+   * @param length   修改的长度
+   * @return 返回新的摘要
+   */
+  public static FileDigest update(FileDigest previous, long offset, long length) {
+    int chunkSize = previous.getChunkSize();
+    if (chunkSize <= 0 || !previous.isSuccess()) {
+      throw new IllegalArgumentException("不是分块的摘要: " + previous);
+    }
+    File file = previous.getFile();
+    DigestAlgorithm algorithm = previous.getAlgorithm();
+    try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long lastModified = file.lastModified();
+      long size = ch.size();
+      List<byte[]> old = previous.getChunks();
+      int count = chunkCount(size, chunkSize);
+      // 文件长度变化后，从较短长度所在的块开始都需要重新计算
+      long stableEnd = Math.min(size, previous.getLength());
+      int firstResized = size != previous.getLength() ? (int) (stableEnd / chunkSize) : count;
+      int firstDirty = (int) (Math.max(offset, 0) / chunkSize);
+      int lastDirty = length > 0 ? (int) ((offset + length - 1) / chunkSize) : -1;
+      MessageDigest md = algorithm.newDigest();
+      List<byte[]> chunks = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        if (i < firstResized && i < old.size() && (i < firstDirty || i > lastDirty)) {
+          chunks.add(old.get(i));
+        } else {
+          long pos = (long) i * chunkSize;
+          update(md, ch, pos, Math.min(chunkSize, size - pos));
+          chunks.add(md.digest());
+        }
+      }
+      return new FileDigest(file, algorithm, size, lastModified, chunkSize, chunks, root(md, chunks));
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
+  /**
+   * 在IO线程池中并发计算多个文件的摘要，结果按完成的顺序返回
+   *
+   * @param files     文件
+   * @param algorithm 算法
+   * @return 返回摘要的流，使用完成后需要关闭
+   */
+  public static Stream<FileDigest> digestAll(Collection<File> files, DigestAlgorithm algorithm) {
+    return digestAll(files, algorithm, EventLoop.io(), Runtime.getRuntime().availableProcessors(), 0);
+  }
+
+  /**
+   * 并发计算多个文件的摘要，结果按完成的顺序返回
+   *
+   * @param files       文件
+   * @param algorithm   算法
+   * @param executor    线程池
+   * @param parallelism 同时计算的文件数量
+   * @return 返回摘要的流，使用完成后需要关闭
+   */
+  public static Stream<FileDigest> digestAll(Collection<File> files, DigestAlgorithm algorithm, EventLoop executor, int parallelism) {
+    return digestAll(files, algorithm, executor, parallelism, 0);
+  }
+
+  /**
+   * 并发计算多个文件的摘要，结果按完成的顺序返回；只有消费结果时才会提交新的任务，
+   * 同时进行中的任务不超过 parallelism 个，计算失败的文件通过 {@link FileDigest#getError()} 返回
+   *
+   * @param files       文件
+   * @param algorithm   算法
+   * @param executor    线程池
+   * @param parallelism 同时计算的文件数量
+   * @param chunkSize   块大小，小于等于0表示不分块
+   * @return 返回摘要的流，使用完成后需要关闭
+   */
+  public static Stream<FileDigest> digestAll(Collection<File> files, DigestAlgorithm algorithm, EventLoop executor, int parallelism, int chunkSize) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism必须大于0: " + parallelism);
+    }
+    DigestSpliterator spliterator = new DigestSpliterator(files, algorithm, executor, parallelism, chunkSize);
+    return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+  }
+
+  /**
+   * 更新区域的摘要
+   *
+   * @param md       摘要
+   * @param ch       文件通道
+   * @param position 开始的位置
+   * @param length   长度
+   */
+  static void update(MessageDigest md, FileChannel ch, long position, long length) throws IOException {
+    if (length >= MAP_THRESHOLD) {
+      for (long pos = position, end = position + length; pos < end; ) {
+        long size = Math.min(MAP_WINDOW, end - pos);
+        MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, size);
+        try {
+          md.update(window);
+        } finally {
+          // 立即释放映射，不等待GC，避免并发计算时地址空间和文件句柄的占用不断增长
+          IOUtils.unmap(window);
+        }
+        pos += size;
+      }
+      return;
+    }
+    try (PooledBytes buf = ByteArrayPool.get().acquire((int) Math.min(READ_BUFFER_SIZE, Math.max(length, 1)))) {
+      byte[] array = buf.array();
+      ByteBuffer bb = ByteBuffer.wrap(array);
+      for (long pos = position, end = position + length; pos < end; ) {
+        bb.clear().limit((int) Math.min(array.length, end - pos));
+        int n = ch.read(bb, pos);
+        if (n < 0) {
+          break;
+        }
+        md.update(array, 0, n);
+        pos += n;
+      }
+    }
+  }
+
+  static byte[] root(MessageDigest md, List<byte[]> chunks) {
+    for (byte[] chunk : chunks) {
+      md.update(chunk);
+    }
+    return md.digest();
+  }
+
+  static int chunkCount(long length, int chunkSize) {
+    return (int) ((length + chunkSize - 1) / chunkSize);
+  }
+
+  /**
+   * 按完成顺序返回结果，消费时补充新的任务
+   */
+  static final class DigestSpliterator extends Spliterators.AbstractSpliterator<FileDigest> {
+
+    final Iterator<File> files;
+    final DigestAlgorithm algorithm;
+    final ExecutorCompletionService<FileDigest> completion;
+    final int parallelism;
+    final int chunkSize;
+    final Set<Future<FileDigest>> running = ConcurrentHashMap.newKeySet();
+    volatile boolean cancelled = false;
+
+    DigestSpliterator(Collection<File> files, DigestAlgorithm algorithm, EventLoop executor, int parallelism, int chunkSize) {
+      super(files.size(), Spliterator.SIZED | Spliterator.NONNULL);
+      this.files = new ArrayList<>(files).iterator();
+      this.algorithm = algorithm;
+      this.completion = new ExecutorCompletionService<>(executor);
+      this.parallelism = parallelism;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super FileDigest> action) {
+      while (!cancelled && running.size() < parallelism && files.hasNext()) {
+        File file = files.next();
+        running.add(completion.submit(() -> compute(file)));
+      }
+      if (running.isEmpty()) {
+        return false;
+      }
+      try {
+        Future<FileDigest> f = completion.take();
+        running.remove(f);
+        action.accept(f.get());
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+        throw CatchUtils.throwing(e, IllegalStateException.class);
+      } catch (ExecutionException e) {
+        throw CatchUtils.throwing(e.getCause(), IllegalStateException.class);
+      }
+    }
+
+    FileDigest compute(File file) {
+      try {
+        return chunkSize > 0 ? digestChunks(file, algorithm, chunkSize) : digest(file, algorithm);
+      } catch (Throwable e) {
+        return new FileDigest(file, algorithm, CatchUtils.findRoot(e));
+      }
+    }
+
+    void cancel() {
+      cancelled = true;
+      for (Future<FileDigest> f : running) {
+        f.cancel(true);
+      }
+      running.clear();
+    }
+  }
+
+}
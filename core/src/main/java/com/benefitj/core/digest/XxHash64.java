@@ -0,0 +1,212 @@
+package com.benefitj.core.digest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+
+/**
+ * xxHash64，非加密的快速哈希，适合文件去重、同步比对，
+ * 以 {@link MessageDigest} 的形式提供，摘要为8字节(大端)
+ */
+public final class XxHash64 extends MessageDigest implements Cloneable {
+
+  private static final long P1 = 0x9E3779B185EBCA87L;
+  private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long P3 = 0x165667B19E3779F9L;
+  private static final long P4 = 0x85EBCA77C2B2AE63L;
+  private static final long P5 = 0x27D4EB2F165667C5L;
+
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * 计算哈希值
+   *
+   * @param src  数据
+   * @param off  开始的位置
+   * @param len  长度
+   * @param seed 种子
+   * @return 返回哈希值
+   */
+  public static long hash(byte[] src, int off, int len, long seed) {
+    XxHash64 h = new XxHash64(seed);
+    h.engineUpdate(src, off, len);
+    return h.getValue();
+  }
+
+  private final long seed;
+  private long v1, v2, v3, v4;
+  private long total;
+  /**
+   * 未满32字节的数据
+   */
+  private byte[] mem = new byte[32];
+  private int memSize;
+
+  public XxHash64() {
+    this(0L);
+  }
+
+  public XxHash64(long seed) {
+    super("XXH64");
+    this.seed = seed;
+    engineReset();
+  }
+
+  /**
+   * 获取当前的哈希值，不重置状态
+   */
+  public long getValue() {
+    long h;
+    if (total >= 32) {
+      h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      h = merge(h, v1);
+      h = merge(h, v2);
+      h = merge(h, v3);
+      h = merge(h, v4);
+    } else {
+      h = seed + P5;
+    }
+    h += total;
+    int i = 0;
+    for (; i + 8 <= memSize; i += 8) {
+      h ^= round(0, (long) LONG_LE.get(mem, i));
+      h = Long.rotateLeft(h, 27) * P1 + P4;
+    }
+    if (i + 4 <= memSize) {
+      h ^= ((int) INT_LE.get(mem, i) & 0xFFFFFFFFL) * P1;
+      h = Long.rotateLeft(h, 23) * P2 + P3;
+      i += 4;
+    }
+    for (; i < memSize; i++) {
+      h ^= (mem[i] & 0xFF) * P5;
+      h = Long.rotateLeft(h, 11) * P1;
+    }
+    h ^= h >>> 33;
+    h *= P2;
+    h ^= h >>> 29;
+    h *= P3;
+    h ^= h >>> 32;
+    return h;
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return 8;
+  }
+
+  @Override
+  protected void engineUpdate(byte input) {
+    mem[memSize++] = input;
+    total++;
+    if (memSize == 32) {
+      consume(mem, 0);
+      memSize = 0;
+    }
+  }
+
+  @Override
+  protected void engineUpdate(byte[] input, int offset, int len) {
+    total += len;
+    int i = offset, end = offset + len;
+    if (memSize > 0) {
+      int n = Math.min(32 - memSize, len);
+      System.arraycopy(input, i, mem, memSize, n);
+      memSize += n;
+      i += n;
+      if (memSize < 32) {
+        return;
+      }
+      consume(mem, 0);
+      memSize = 0;
+    }
+    for (int limit = end - 32; i <= limit; i += 32) {
+      consume(input, i);
+    }
+    if (i < end) {
+      System.arraycopy(input, i, mem, 0, end - i);
+      memSize = end - i;
+    }
+  }
+
+  @Override
+  protected void engineUpdate(ByteBuffer input) {
+    if (input.hasArray()) {
+      int pos = input.position(), len = input.remaining();
+      engineUpdate(input.array(), input.arrayOffset() + pos, len);
+      input.position(pos + len);
+      return;
+    }
+    // 直接内存：先补齐缓存，再按32字节读取
+    while (memSize > 0 && input.hasRemaining()) {
+      engineUpdate(input.get());
+    }
+    ByteBuffer view = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int i = view.position(), end = view.limit();
+    long a = v1, b = v2, c = v3, d = v4;
+    for (int limit = end - 32; i <= limit; i += 32) {
+      a = round(a, view.getLong(i));
+      b = round(b, view.getLong(i + 8));
+      c = round(c, view.getLong(i + 16));
+      d = round(d, view.getLong(i + 24));
+    }
+    v1 = a;
+    v2 = b;
+    v3 = c;
+    v4 = d;
+    total += i - view.position();
+    input.position(i);
+    while (input.hasRemaining()) {
+      engineUpdate(input.get());
+    }
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    long h = getValue();
+    engineReset();
+    byte[] out = new byte[8];
+    for (int i = 0; i < 8; i++) {
+      out[i] = (byte) (h >>> ((7 - i) << 3));
+    }
+    return out;
+  }
+
+  @Override
+  protected void engineReset() {
+    v1 = seed + P1 + P2;
+    v2 = seed + P2;
+    v3 = seed;
+    v4 = seed - P1;
+    total = 0;
+    memSize = 0;
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    XxHash64 copy = (XxHash64) super.clone();
+    copy.mem = mem.clone();
+    return copy;
+  }
+
+  private void consume(byte[] src, int off) {
+    v1 = round(v1, (long) LONG_LE.get(src, off));
+    v2 = round(v2, (long) LONG_LE.get(src, off + 8));
+    v3 = round(v3, (long) LONG_LE.get(src, off + 16));
+    v4 = round(v4, (long) LONG_LE.get(src, off + 24));
+  }
+
+  private static long round(long acc, long input) {
+    acc += input * P2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * P1;
+  }
+
+  private static long merge(long acc, long val) {
+    acc ^= round(0, val);
+    return acc * P1 + P4;
+  }
+
+}
@@ -229,6 +229,47 @@ public class CompressUtils {
     }
   }
 
+  /**
+   * 并行GZIP压缩
+   *
+   * @param src     源文件
+   * @param dest    目标文件
+   * @param level   压缩级别，0 ~ 9 或 -1(默认)
+   * @param workers 压缩的线程数
+   * @return 返回目标文件
+   * @see ParallelGzipOutputStream
+   */
+  public static File gzip(File src, File dest, int level, int workers) {
+    return gzip(src, dest, level, workers, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * 并行GZIP压缩
+   *
+   * @param src       源文件
+   * @param dest      目标文件
+   * @param level     压缩级别，0 ~ 9 或 -1(默认)
+   * @param workers   压缩的线程数
+   * @param blockSize 块大小，建议 128KB ~ 1MB
+   * @return 返回目标文件
+   * @see ParallelGzipOutputStream
+   */
+  public static File gzip(File src, File dest, int level, int workers, int blockSize) {
+    try (final ParallelGzipOutputStream out = new ParallelGzipOutputStream(new FileOutputStream(dest), level, workers, blockSize);
+         final FileInputStream in = new FileInputStream(src);) {
+      // 不能每次写入后 flush，否则每次都会等待压缩完成
+      byte[] buf = new byte[blockSize];
+      int len;
+      while ((len = in.read(buf)) > 0) {
+        out.write(buf, 0, len);
+      }
+      out.finish();
+      return dest;
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+  }
+
   /**
    * GZIP解压
    *
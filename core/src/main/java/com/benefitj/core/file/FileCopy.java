@@ -117,16 +117,10 @@ public class FileCopy {
         && destFile.isFile())
         && (destFile.delete() && destFile.mkdirs());
 
-    String oldDirName = srcFile.getAbsolutePath();
-    String newDirName = destFile.getAbsolutePath();
-    StringBuilder sb = new StringBuilder();
     File[] files = srcFile.listFiles(filter);
     if (files != null && files.length > 0) {
       for (File tmpSrcFile : files) {
-        sb.setLength(0);
-        sb.append(tmpSrcFile.getAbsolutePath());
-        sb.replace(0, oldDirName.length(), newDirName);
-        operate(tmpSrcFile, new File(sb.toString()), filter, type, true);
+        operate(tmpSrcFile, new File(destFile, tmpSrcFile.getName()), filter, type, true);
       }
     }
     return type != Type.CUT || srcFile.delete();
@@ -145,48 +139,88 @@ public class FileCopy {
       createIfNotExist(destFile);
       try (final FileInputStream fis = new FileInputStream(srcFile);
            final FileOutputStream fos = new FileOutputStream(destFile);) {
-        FileChannel srcChannel = fis.getChannel();
-        FileChannel destChannel = fos.getChannel();
-        destChannel.transferFrom(srcChannel, 0, srcChannel.size());
-        closeQuietly(srcChannel, destChannel);
-        Path srcPath = srcFile.toPath();
-        Path destPath = destFile.toPath();
-        // 修改属性
-        try {
-          DosFileAttributes srcDosAttrs = Files.readAttributes(srcPath, DosFileAttributes.class);
-          DosFileAttributeView destDosAttrView = Files.getFileAttributeView(destPath, DosFileAttributeView.class);
-          destDosAttrView.setTimes(srcDosAttrs.lastModifiedTime(),
-              srcDosAttrs.lastAccessTime(), srcDosAttrs.creationTime());
-          destDosAttrView.setHidden(srcDosAttrs.isHidden());
-          destDosAttrView.setSystem(srcDosAttrs.isSystem());
-          destDosAttrView.setArchive(srcDosAttrs.isArchive());
-          destDosAttrView.setReadOnly(srcDosAttrs.isReadOnly());
-        } catch (UnsupportedOperationException e) {
-          BasicFileAttributes srcAttrs = Files.readAttributes(srcPath, BasicFileAttributes.class);
-          BasicFileAttributeView destAttrView = Files.getFileAttributeView(destPath, BasicFileAttributeView.class);
-          destAttrView.setTimes(srcAttrs.lastModifiedTime(), srcAttrs.lastAccessTime(), srcAttrs.creationTime());
-        }
-
-        // 修改权限
-        try {
-          PosixFileAttributes srcPosixFileAttributes = Files.readAttributes(srcPath, PosixFileAttributes.class);
-          PosixFileAttributeView destPosixFileAttributeView = Files.getFileAttributeView(srcPath, PosixFileAttributeView.class);
-          destPosixFileAttributeView.setPermissions(srcPosixFileAttributes.permissions());
-          destPosixFileAttributeView.setGroup(srcPosixFileAttributes.group());
-          destPosixFileAttributeView.setOwner(Files.getOwner(srcPath));
-        } catch (UnsupportedOperationException e) {
-          destFile.setReadable(srcFile.canRead());
-          destFile.setWritable(srcFile.canWrite());
-          destFile.setExecutable(srcFile.canExecute());
-        }
-        return true;
+        transfer(fis.getChannel(), fos.getChannel());
       } catch (IOException e) {
         throw CatchUtils.throwing(e, IllegalStateException.class);
       }
+      copyAttributes(srcFile, destFile);
+      return true;
     }
     return false;
   }
 
+  /**
+   * 拷贝全部的数据，transferTo 单次可能只传输一部分，循环直到完成
+   *
+   * @param src  源
+   * @param dest 目标
+   * @return 返回拷贝的字节数
+   */
+  public static long transfer(FileChannel src, FileChannel dest) throws IOException {
+    long size = src.size();
+    long position = 0;
+    while (position < size) {
+      long n = src.transferTo(position, size - position, dest);
+      if (n <= 0) {
+        // 文件被截断
+        if (src.size() <= position) break;
+        // transferFrom 从 src 的当前位置读取，transferTo 不会移动 src 的位置
+        src.position(position);
+        n = dest.transferFrom(src, position, size - position);
+        if (n <= 0) break;
+      }
+      position += n;
+    }
+    return position;
+  }
+
+  /**
+   * 拷贝文件的时间和权限
+   *
+   * @param srcFile  原文件
+   * @param destFile 目标文件
+   */
+  static void copyAttributes(File srcFile, File destFile) {
+    Path srcPath = srcFile.toPath();
+    Path destPath = destFile.toPath();
+    try {
+      // 修改属性
+      try {
+        DosFileAttributes srcDosAttrs = Files.readAttributes(srcPath, DosFileAttributes.class);
+        DosFileAttributeView destDosAttrView = Files.getFileAttributeView(destPath, DosFileAttributeView.class);
+        destDosAttrView.setTimes(srcDosAttrs.lastModifiedTime(),
+            srcDosAttrs.lastAccessTime(), srcDosAttrs.creationTime());
+        destDosAttrView.setHidden(srcDosAttrs.isHidden());
+        destDosAttrView.setSystem(srcDosAttrs.isSystem());
+        destDosAttrView.setArchive(srcDosAttrs.isArchive());
+        destDosAttrView.setReadOnly(srcDosAttrs.isReadOnly());
+      } catch (UnsupportedOperationException e) {
+        BasicFileAttributes srcAttrs = Files.readAttributes(srcPath, BasicFileAttributes.class);
+        BasicFileAttributeView destAttrView = Files.getFileAttributeView(destPath, BasicFileAttributeView.class);
+        destAttrView.setTimes(srcAttrs.lastModifiedTime(), srcAttrs.lastAccessTime(), srcAttrs.creationTime());
+      }
+    } catch (IOException e) {
+      throw CatchUtils.throwing(e, IllegalStateException.class);
+    }
+
+    // 修改权限
+    try {
+      PosixFileAttributes srcPosixFileAttributes = Files.readAttributes(srcPath, PosixFileAttributes.class);
+      PosixFileAttributeView destPosixFileAttributeView = Files.getFileAttributeView(destPath, PosixFileAttributeView.class);
+      destPosixFileAttributeView.setPermissions(srcPosixFileAttributes.permissions());
+      try {
+        destPosixFileAttributeView.setGroup(srcPosixFileAttributes.group());
+        destPosixFileAttributeView.setOwner(srcPosixFileAttributes.owner());
+      } catch (IOException ignored) {
+        // 非管理员不能修改所有者
+      }
+    } catch (UnsupportedOperationException | IOException e) {
+      destFile.setReadable(srcFile.canRead());
+      destFile.setWritable(srcFile.canWrite());
+      destFile.setExecutable(srcFile.canExecute());
+    }
+  }
+
   private static void createIfNotExist(File f) {
     if (!exists(f.getParentFile())) {
       f.getParentFile().mkdirs();
@@ -230,22 +264,6 @@ public class FileCopy {
     return f != null && f.exists();
   }
 
-  /**
-   * 关闭全部
-   *
-   * @param closes AutoCloseable实现(InputStream、OutputStream)
-   */
-  private static void closeQuietly(AutoCloseable... closes) {
-    if (closes != null && closes.length > 0) {
-      for (AutoCloseable c : closes) {
-        try {
-          c.close();
-        } catch (Exception e) {/* ignore */}
-      }
-    }
-  }
-
-
   /**
    * 文件操作的类型，拷贝或剪切
    */
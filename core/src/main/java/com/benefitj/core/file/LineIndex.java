@@ -0,0 +1,366 @@
+package com.benefitj.core.file;
+
+import com.benefitj.core.CatchUtils;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 文件的行索引：记录每一行开始的位置，按行读取时直接定位。
+ * <p>
+ * 换行符为 \n、\r\n 或 \r(与 {@link LineNumberReader} 相同)；通过内存映射分块并行扫描，
+ * 文件增长后增量更新，只支持在文件末尾追加。索引可以保存到同目录的 ".lidx" 文件中(差值编码)
+ */
+public class LineIndex {
+
+  /**
+   * 索引文件的后缀
+   */
+  public static final String SUFFIX = ".lidx";
+
+  static final int MAGIC = 0x4C494458;
+  static final int VERSION = 1;
+  /**
+   * 每个并行任务扫描的最小字节数
+   */
+  static final long CHUNK = 16L << 20;
+
+  private final File file;
+  /**
+   * 每一行的开始位置，第一行为 0
+   */
+  private long[] offsets = new long[8];
+  private int size = 1;
+  /**
+   * 已扫描的长度
+   */
+  private long indexedLength;
+  /**
+   * 最后一个字节是否为 \r(后面追加 \n 时需要修正)
+   */
+  private boolean pendingCR;
+
+  public LineIndex(File file) {
+    this.file = file;
+  }
+
+  /**
+   * 扫描文件创建索引
+   *
+   * @param file 文件
+   * @return 返回索引
+   */
+  public static LineIndex build(File file) {
+    return new LineIndex(file).update();
+  }
+
+  /**
+   * 读取已保存的索引并增量更新，索引文件无效时重新扫描，更新后保存
+   *
+   * @param file 文件
+   * @return 返回索引
+   */
+  public static LineIndex open(File file) {
+    LineIndex index = new LineIndex(file);
+    if (!index.load()) {
+      index.reset();
+    }
+    long indexed = index.indexedLength;
+    index.update();
+    if (indexed != index.indexedLength || !index.getSidecar().exists()) {
+      index.save();
+    }
+    return index;
+  }
+
+  /**
+   * 统计文件的行数(换行符的数量 + 1)，不保存位置
+   *
+   * @param file 文件
+   * @return 返回行数
+   */
+  public static long countLines(File file) throws IOException {
+    try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long length = ch.size();
+      Offsets counted = ForkJoinPool.commonPool().invoke(new ScanTask(ch, 0, length, length, true));
+      return counted.count + 1;
+    }
+  }
+
+  /**
+   * 扫描新增的数据，文件变短时重新扫描
+   *
+   * @return 返回索引
+   */
+  public synchronized LineIndex update() {
+    try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long length = ch.size();
+      if (length < indexedLength) {
+        reset();
+      }
+      if (length == indexedLength) {
+        return this;
+      }
+      long from = indexedLength;
+      if (pendingCR) {
+        // 上次以 \r 结尾，\r\n 只算一个换行
+        MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, from, 1);
+        if (head.get(0) == RaFile.NL_N) {
+          offsets[size - 1] = from + 1;
+          from++;
+        }
+        pendingCR = false;
+      }
+      Offsets found = from < length
+          ? ForkJoinPool.commonPool().invoke(new ScanTask(ch, from, length, length, false))
+          : new Offsets(0);
+      ensureCapacity(size + found.count);
+      System.arraycopy(found.values, 0, offsets, size, found.count);
+      size += found.count;
+      if (length > 0) {
+        MappedByteBuffer tail = ch.map(FileChannel.MapMode.READ_ONLY, length - 1, 1);
+        pendingCR = tail.get(0) == RaFile.NL_R;
+      }
+      indexedLength = length;
+      return this;
+    } catch (IOException e) {
+      throw new IllegalStateException(CatchUtils.findRoot(e));
+    }
+  }
+
+  /**
+   * 清空索引
+   */
+  public synchronized void reset() {
+    this.offsets = new long[8];
+    this.size = 1;
+    this.indexedLength = 0;
+    this.pendingCR = false;
+  }
+
+  /**
+   * 行数(换行符的数量 + 1)
+   */
+  public synchronized long getLineCount() {
+    return size;
+  }
+
+  /**
+   * 行开始的位置，超过行数时返回已扫描的长度
+   *
+   * @param line 行号，从 0 开始
+   * @return 返回位置
+   */
+  public synchronized long offsetOf(long line) {
+    if (line < 0) throw new IllegalArgumentException("line < 0: " + line);
+    return line < size ? offsets[(int) line] : indexedLength;
+  }
+
+  /**
+   * 已扫描的长度
+   */
+  public synchronized long getIndexedLength() {
+    return indexedLength;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * 索引文件
+   */
+  public File getSidecar() {
+    return new File(file.getAbsolutePath() + SUFFIX);
+  }
+
+  /**
+   * 保存索引：行开始位置的差值，变长编码
+   */
+  public synchronized void save() {
+    File sidecar = getSidecar();
+    File tmp = new File(sidecar.getAbsolutePath() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 << 10))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(indexedLength);
+      out.writeBoolean(pendingCR);
+      out.writeInt(size);
+      long prev = 0;
+      for (int i = 0; i < size; i++) {
+        writeVarLong(out, offsets[i] - prev);
+        prev = offsets[i];
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(CatchUtils.findRoot(e));
+    }
+    try {
+      Files.move(tmp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new IllegalStateException(CatchUtils.findRoot(e));
+    }
+  }
+
+  /**
+   * 读取索引，索引文件不存在或与文件不匹配时返回 false
+   */
+  synchronized boolean load() {
+    File sidecar = getSidecar();
+    if (!sidecar.exists()) return false;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar), 64 << 10))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+      long length = in.readLong();
+      if (length > file.length()) return false;
+      boolean cr = in.readBoolean();
+      int count = in.readInt();
+      if (count < 1) return false;
+      long[] values = new long[count];
+      long prev = 0;
+      for (int i = 0; i < count; i++) {
+        values[i] = (prev += readVarLong(in));
+      }
+      this.offsets = values;
+      this.size = count;
+      this.indexedLength = length;
+      this.pendingCR = cr;
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > offsets.length) {
+      offsets = Arrays.copyOf(offsets, Math.max(capacity, offsets.length + (offsets.length >> 1)));
+    }
+  }
+
+  static void writeVarLong(DataOutput out, long v) throws IOException {
+    while ((v & ~0x7FL) != 0) {
+      out.writeByte((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.writeByte((int) v);
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long v = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      v |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return v;
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * 换行后的位置
+   */
+  static final class Offsets {
+    long[] values;
+    int count;
+
+    Offsets(int capacity) {
+      this.values = new long[capacity];
+    }
+
+    void add(long v) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, Math.max(16, count << 1));
+      }
+      values[count++] = v;
+    }
+
+    Offsets append(Offsets o) {
+      if (o.count == 0) return this;
+      if (count + o.count > values.length) {
+        values = Arrays.copyOf(values, count + o.count);
+      }
+      System.arraycopy(o.values, 0, values, count, o.count);
+      count += o.count;
+      return this;
+    }
+  }
+
+  /**
+   * 并行扫描 [from, to)，按位置拆分，\r 需要查看下一个字节
+   */
+  static final class ScanTask extends RecursiveTask<Offsets> {
+
+    final FileChannel channel;
+    final long from;
+    final long to;
+    final long length;
+    /**
+     * 只计数
+     */
+    final boolean countOnly;
+
+    ScanTask(FileChannel channel, long from, long to, long length, boolean countOnly) {
+      this.channel = channel;
+      this.from = from;
+      this.to = to;
+      this.length = length;
+      this.countOnly = countOnly;
+    }
+
+    @Override
+    protected Offsets compute() {
+      if (to - from > CHUNK) {
+        long mid = from + ((to - from) >>> 1);
+        ScanTask left = new ScanTask(channel, from, mid, length, countOnly);
+        ScanTask right = new ScanTask(channel, mid, to, length, countOnly);
+        left.fork();
+        Offsets r = right.compute();
+        Offsets l = left.join();
+        if (countOnly) {
+          l.count += r.count;
+          return l;
+        }
+        return l.append(r);
+      }
+      try {
+        return scan();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private Offsets scan() throws IOException {
+      Offsets found = new Offsets(countOnly ? 0 : 64);
+      // 多映射一个字节，用于判断 \r\n
+      long end = Math.min(to + 1, length);
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, end - from);
+      int limit = (int) (to - from);
+      byte[] chunk = new byte[64 << 10];
+      for (int base = 0; base < limit; base += chunk.length) {
+        int n = Math.min(chunk.length, limit - base);
+        buf.position(base);
+        buf.get(chunk, 0, n);
+        for (int i = 0; i < n; i++) {
+          byte b = chunk[i];
+          if (b == RaFile.NL_N || b == RaFile.NL_R) {
+            int pos = base + i;
+            if (b == RaFile.NL_R && pos + 1 < buf.limit() && buf.get(pos + 1) == RaFile.NL_N) {
+              continue;
+            }
+            if (countOnly) {
+              found.count++;
+            } else {
+              found.add(from + pos + 1);
+            }
+          }
+        }
+      }
+      return found;
+    }
+  }
+
+}
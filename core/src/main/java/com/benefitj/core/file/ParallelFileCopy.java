@@ -0,0 +1,364 @@
+package com.benefitj.core.file;
+
+import com.benefitj.core.EventLoop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并行拷贝目录：在 {@link ForkJoinPool} 中按目录和文件分批拷贝，同时拷贝的文件数等于线程数；
+ * 支持增量同步(按大小和修改时间，或按内容比较)，并定时回调进度
+ */
+public class ParallelFileCopy {
+
+  static final Logger log = LoggerFactory.getLogger(ParallelFileCopy.class);
+
+  /**
+   * 每个任务拷贝的文件数
+   */
+  static final int BATCH = 32;
+
+  /**
+   * 增量同步的方式
+   */
+  public enum SyncMode {
+    /**
+     * 全部拷贝
+     */
+    ALWAYS,
+    /**
+     * 大小和修改时间相同时跳过
+     */
+    SIZE_AND_MTIME,
+    /**
+     * 大小和内容相同时跳过
+     */
+    CONTENT,
+  }
+
+  /**
+   * 进度
+   */
+  public interface Progress {
+    /**
+     * 定时回调，拷贝结束时再回调一次
+     *
+     * @param stats 统计
+     */
+    void onProgress(Stats stats);
+  }
+
+  /**
+   * 同时拷贝的文件数
+   */
+  private int maxInFlight = Math.max(4, Math.min(EventLoop.coreSize() * 2, 16));
+  /**
+   * 增量同步的方式
+   */
+  private SyncMode syncMode = SyncMode.SIZE_AND_MTIME;
+  /**
+   * 过滤器
+   */
+  private FileFilter filter;
+  /**
+   * 进度
+   */
+  private Progress progress;
+  /**
+   * 进度回调的间隔(毫秒)
+   */
+  private long progressInterval = 1000;
+
+  public ParallelFileCopy() {
+  }
+
+  /**
+   * 拷贝文件或目录
+   *
+   * @param src  原文件
+   * @param dest 目标文件
+   * @return 返回统计
+   */
+  public Stats copy(File src, File dest) {
+    if (src == null || !src.exists()) {
+      throw new IllegalArgumentException("src is not exists: " + src);
+    }
+    final Stats stats = new Stats();
+    final Progress p = this.progress;
+    ScheduledFuture<?> sf = p != null
+        ? EventLoop.single().scheduleAtFixedRate(() -> p.onProgress(stats), progressInterval, progressInterval, TimeUnit.MILLISECONDS)
+        : null;
+    ForkJoinPool pool = new ForkJoinPool(maxInFlight);
+    try {
+      if (src.isFile()) {
+        copyFile(src, dest, stats);
+      } else {
+        pool.invoke(new DirTask(src, dest, stats));
+      }
+    } finally {
+      pool.shutdown();
+      if (sf != null) sf.cancel(false);
+      stats.end = System.nanoTime();
+      if (p != null) p.onProgress(stats);
+    }
+    return stats;
+  }
+
+  void copyFile(File src, File dest, Stats stats) {
+    try {
+      long size = src.length();
+      if (dest.isFile() && dest.length() == size && isSame(src, dest)) {
+        stats.skippedFiles.increment();
+        stats.skippedBytes.add(size);
+        return;
+      }
+      if (dest.isDirectory()) {
+        throw new IOException("dest is a directory: " + dest.getAbsolutePath());
+      }
+      File parent = dest.getParentFile();
+      if (parent != null && !parent.exists()) {
+        parent.mkdirs();
+      }
+      try (FileChannel in = FileChannel.open(src.toPath(), StandardOpenOption.READ);
+           FileChannel out = FileChannel.open(dest.toPath(), StandardOpenOption.CREATE,
+               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        stats.copiedBytes.add(FileCopy.transfer(in, out));
+      }
+      FileCopy.copyAttributes(src, dest);
+      stats.copiedFiles.increment();
+    } catch (IOException | RuntimeException e) {
+      stats.failedFiles.increment();
+      log.warn("copy failed: {} -> {}, {}", src.getAbsolutePath(), dest.getAbsolutePath(), e.getMessage());
+    }
+  }
+
+  /**
+   * 大小相同的文件是否需要跳过
+   */
+  boolean isSame(File src, File dest) throws IOException {
+    switch (syncMode) {
+      case SIZE_AND_MTIME:
+        return src.lastModified() == dest.lastModified();
+      case CONTENT:
+        return contentEquals(src, dest);
+      default:
+        return false;
+    }
+  }
+
+  static boolean contentEquals(File a, File b) throws IOException {
+    try (FileChannel ca = FileChannel.open(a.toPath(), StandardOpenOption.READ);
+         FileChannel cb = FileChannel.open(b.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer ba = ByteBuffer.allocateDirect(256 << 10);
+      ByteBuffer bb = ByteBuffer.allocateDirect(256 << 10);
+      for (; ; ) {
+        ba.clear();
+        bb.clear();
+        int na = readFully(ca, ba);
+        int nb = readFully(cb, bb);
+        if (na != nb) return false;
+        if (na <= 0) return true;
+        ba.flip();
+        bb.flip();
+        if (ba.mismatch(bb) >= 0) return false;
+      }
+    }
+  }
+
+  private static int readFully(FileChannel ch, ByteBuffer buf) throws IOException {
+    int total = 0;
+    while (buf.hasRemaining()) {
+      int n = ch.read(buf);
+      if (n < 0) break;
+      total += n;
+    }
+    return total;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public ParallelFileCopy setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = Math.max(maxInFlight, 1);
+    return this;
+  }
+
+  public SyncMode getSyncMode() {
+    return syncMode;
+  }
+
+  public ParallelFileCopy setSyncMode(SyncMode syncMode) {
+    this.syncMode = syncMode != null ? syncMode : SyncMode.ALWAYS;
+    return this;
+  }
+
+  public FileFilter getFilter() {
+    return filter;
+  }
+
+  public ParallelFileCopy setFilter(FileFilter filter) {
+    this.filter = filter;
+    return this;
+  }
+
+  public Progress getProgress() {
+    return progress;
+  }
+
+  public ParallelFileCopy setProgress(Progress progress) {
+    this.progress = progress;
+    return this;
+  }
+
+  public long getProgressInterval() {
+    return progressInterval;
+  }
+
+  public ParallelFileCopy setProgressInterval(long progressInterval) {
+    this.progressInterval = Math.max(progressInterval, 10);
+    return this;
+  }
+
+  /**
+   * 拷贝目录：子目录和每批文件拆分为子任务
+   */
+  final class DirTask extends RecursiveAction {
+
+    final File src;
+    final File dest;
+    final Stats stats;
+
+    DirTask(File src, File dest, Stats stats) {
+      this.src = src;
+      this.dest = dest;
+      this.stats = stats;
+    }
+
+    @Override
+    protected void compute() {
+      if (!dest.exists() && !dest.mkdirs() && !dest.isDirectory()) {
+        stats.failedFiles.increment();
+        log.warn("mkdirs failed: {}", dest.getAbsolutePath());
+        return;
+      }
+      File[] children = src.listFiles(filter);
+      if (children == null || children.length == 0) return;
+      File[] dirs = Arrays.stream(children).filter(File::isDirectory).toArray(File[]::new);
+      File[] files = Arrays.stream(children).filter(File::isFile).toArray(File[]::new);
+      RecursiveAction[] tasks = new RecursiveAction[dirs.length + (files.length + BATCH - 1) / BATCH];
+      int i = 0;
+      for (File dir : dirs) {
+        tasks[i++] = new DirTask(dir, new File(dest, dir.getName()), stats);
+      }
+      for (int start = 0; start < files.length; start += BATCH) {
+        tasks[i++] = new FilesTask(files, start, Math.min(start + BATCH, files.length), dest, stats);
+      }
+      invokeAll(tasks);
+    }
+  }
+
+  /**
+   * 拷贝一批文件
+   */
+  final class FilesTask extends RecursiveAction {
+
+    final File[] files;
+    final int from;
+    final int to;
+    final File destDir;
+    final Stats stats;
+
+    FilesTask(File[] files, int from, int to, File destDir, Stats stats) {
+      this.files = files;
+      this.from = from;
+      this.to = to;
+      this.destDir = destDir;
+      this.stats = stats;
+    }
+
+    @Override
+    protected void compute() {
+      for (int i = from; i < to; i++) {
+        copyFile(files[i], new File(destDir, files[i].getName()), stats);
+      }
+    }
+  }
+
+  /**
+   * 拷贝的统计
+   */
+  public static final class Stats {
+
+    final long start = System.nanoTime();
+    volatile long end;
+    final LongAdder copiedFiles = new LongAdder();
+    final LongAdder copiedBytes = new LongAdder();
+    final LongAdder skippedFiles = new LongAdder();
+    final LongAdder skippedBytes = new LongAdder();
+    final LongAdder failedFiles = new LongAdder();
+
+    public long getCopiedFiles() {
+      return copiedFiles.sum();
+    }
+
+    public long getCopiedBytes() {
+      return copiedBytes.sum();
+    }
+
+    public long getSkippedFiles() {
+      return skippedFiles.sum();
+    }
+
+    public long getSkippedBytes() {
+      return skippedBytes.sum();
+    }
+
+    public long getFailedFiles() {
+      return failedFiles.sum();
+    }
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+      return end != 0;
+    }
+
+    /**
+     * 耗时(毫秒)
+     */
+    public long getElapsed() {
+      long e = end;
+      return TimeUnit.NANOSECONDS.toMillis((e != 0 ? e : System.nanoTime()) - start);
+    }
+
+    /**
+     * 拷贝的速度(字节/秒)
+     */
+    public long getBytesPerSecond() {
+      long elapsed = getElapsed();
+      return elapsed > 0 ? getCopiedBytes() * 1000 / elapsed : getCopiedBytes();
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{copied=" + getCopiedFiles() + "/" + getCopiedBytes() + "B"
+          + ", skipped=" + getSkippedFiles() + "/" + getSkippedBytes() + "B"
+          + ", failed=" + getFailedFiles()
+          + ", elapsed=" + getElapsed() + "ms"
+          + ", speed=" + getBytesPerSecond() + "B/s"
+          + '}';
+    }
+  }
+
+}
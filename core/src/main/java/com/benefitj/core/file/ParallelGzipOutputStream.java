@@ -0,0 +1,389 @@
+package com.benefitj.core.file;
+
+import com.benefitj.core.EventLoop;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 并行 GZIP 压缩：按块拆分数据，多个线程同时压缩，每块使用上一块末尾的 32KB 作为预设字典，
+ * 按顺序输出为一个标准的 GZIP 流(单个 member)，CRC32 由每块的 CRC 合并得到。
+ * <p>
+ * 非最后一块以 {@link Deflater#SYNC_FLUSH} 结束，保证各块的压缩数据按字节对齐，可以直接拼接
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+  /**
+   * 默认块大小
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 128 << 10;
+  /**
+   * 字典大小(DEFLATE 的窗口大小)
+   */
+  static final int DICT_SIZE = 32 << 10;
+
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+  private final int level;
+  private final int blockSize;
+  private final Executor executor;
+  /**
+   * 是否为自己创建的线程池，关闭时释放
+   */
+  private final boolean ownExecutor;
+  /**
+   * 同时压缩的块数
+   */
+  private final int maxInFlight;
+  /**
+   * 按顺序等待输出的块
+   */
+  private final ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+
+  private byte[] buf;
+  private int count;
+  /**
+   * 上一块末尾的数据
+   */
+  private byte[] dict = new byte[0];
+  private long crc;
+  private long totalIn;
+  private boolean headerWritten;
+  private boolean closed;
+
+  public ParallelGzipOutputStream(OutputStream out) {
+    this(out, Deflater.DEFAULT_COMPRESSION, EventLoop.coreSize());
+  }
+
+  /**
+   * 构造函数
+   *
+   * @param out     输出流
+   * @param level   压缩级别，0 ~ 9 或 -1(默认)
+   * @param workers 压缩的线程数
+   */
+  public ParallelGzipOutputStream(OutputStream out, int level, int workers) {
+    this(out, level, workers, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * 构造函数
+   *
+   * @param out       输出流
+   * @param level     压缩级别，0 ~ 9 或 -1(默认)
+   * @param workers   压缩的线程数
+   * @param blockSize 块大小，建议 128KB ~ 1MB
+   */
+  public ParallelGzipOutputStream(OutputStream out, int level, int workers, int blockSize) {
+    this(out, level, Math.max(workers, 1), blockSize, new ForkJoinPool(Math.max(workers, 1)), true);
+  }
+
+  /**
+   * 构造函数，使用外部的线程池(如 {@link EventLoop#multi()})，关闭时不释放
+   *
+   * @param out       输出流
+   * @param level     压缩级别，0 ~ 9 或 -1(默认)
+   * @param workers   同时压缩的块数
+   * @param blockSize 块大小，建议 128KB ~ 1MB
+   * @param executor  线程池
+   */
+  public ParallelGzipOutputStream(OutputStream out, int level, int workers, int blockSize, Executor executor) {
+    this(out, level, Math.max(workers, 1), blockSize, executor, false);
+  }
+
+  ParallelGzipOutputStream(OutputStream out, int level, int workers, int blockSize, Executor executor, boolean ownExecutor) {
+    super(out);
+    if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+      throw new IllegalArgumentException("Invalid compression level: " + level);
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Invalid block size: " + blockSize);
+    }
+    this.level = level;
+    this.blockSize = blockSize;
+    this.executor = executor;
+    this.ownExecutor = ownExecutor;
+    // 多一倍的块，输出时其他线程不会空闲
+    this.maxInFlight = workers * 2;
+    this.buf = new byte[blockSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    buf[count++] = (byte) b;
+    if (count == blockSize) {
+      submit(false);
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    if ((off | len | (b.length - (off + len))) < 0) {
+      throw new IndexOutOfBoundsException();
+    }
+    while (len > 0) {
+      int n = Math.min(len, blockSize - count);
+      System.arraycopy(b, off, buf, count, n);
+      count += n;
+      off += n;
+      len -= n;
+      if (count == blockSize) {
+        submit(false);
+      }
+    }
+  }
+
+  /**
+   * 压缩已写入的数据并输出，会降低压缩率
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if (count > 0) {
+      submit(false);
+    }
+    drain(0);
+    out.flush();
+  }
+
+  /**
+   * 写入最后一块和 GZIP 的结尾，不关闭输出流
+   */
+  public void finish() throws IOException {
+    ensureOpen();
+    try {
+      submit(true);
+      drain(0);
+      byte[] trailer = new byte[8];
+      writeIntLE(trailer, 0, (int) crc);
+      writeIntLE(trailer, 4, (int) totalIn);
+      out.write(trailer);
+      out.flush();
+    } finally {
+      closed = true;
+      release();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      out.close();
+      return;
+    }
+    try {
+      finish();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * 提交当前的块
+   */
+  private void submit(boolean last) throws IOException {
+    byte[] data = this.buf;
+    int len = this.count;
+    byte[] dictionary = this.dict;
+    // 下一块的字典
+    this.dict = tail(dictionary, data, len);
+    this.buf = last ? null : new byte[blockSize];
+    this.count = 0;
+    drain(maxInFlight - 1);
+    FutureTask<Block> task = new FutureTask<>(() -> deflate(data, len, dictionary, last));
+    pending.add(task);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      pending.pollLast();
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * 按顺序输出已压缩的块，直到剩余的块数不大于 remaining
+   */
+  private void drain(int remaining) throws IOException {
+    if (!headerWritten && !pending.isEmpty()) {
+      out.write(HEADER);
+      headerWritten = true;
+    }
+    while (pending.size() > remaining) {
+      Block block = await(pending.peekFirst());
+      pending.pollFirst();
+      out.write(block.data, 0, block.size);
+      crc = crc32Combine(crc, block.crc, block.length);
+      totalIn += block.length;
+    }
+  }
+
+  private Block await(Future<Block> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+  }
+
+  private void release() {
+    for (Future<Block> f; (f = pending.pollFirst()) != null; ) {
+      f.cancel(false);
+    }
+    if (ownExecutor && executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  /**
+   * 压缩一块
+   */
+  Block deflate(byte[] data, int len, byte[] dictionary, boolean last) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      if (dictionary.length > 0) {
+        deflater.setDictionary(dictionary);
+      }
+      deflater.setInput(data, 0, len);
+      int flush;
+      if (last) {
+        deflater.finish();
+        flush = Deflater.NO_FLUSH;
+      } else {
+        flush = Deflater.SYNC_FLUSH;
+      }
+      byte[] out = new byte[len + (len >>> 3) + 64];
+      int size = 0;
+      for (; ; ) {
+        size += deflater.deflate(out, size, out.length - size, flush);
+        // 输出缓冲区未写满时，数据已全部输出
+        if (last ? deflater.finished() : size < out.length) {
+          break;
+        }
+        if (size == out.length) {
+          out = Arrays.copyOf(out, out.length + (out.length >>> 1) + 64);
+        }
+      }
+      CRC32 c = new CRC32();
+      c.update(data, 0, len);
+      return new Block(out, size, c.getValue(), len);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * 最后 32KB 的数据(块较小时包含上一个字典的末尾)
+   */
+  static byte[] tail(byte[] dictionary, byte[] data, int len) {
+    if (len >= DICT_SIZE) {
+      return Arrays.copyOfRange(data, len - DICT_SIZE, len);
+    }
+    int keep = Math.min(dictionary.length, DICT_SIZE - len);
+    byte[] dict = new byte[keep + len];
+    System.arraycopy(dictionary, dictionary.length - keep, dict, 0, keep);
+    System.arraycopy(data, 0, dict, keep, len);
+    return dict;
+  }
+
+  /**
+   * 合并 CRC32(与 zlib 的 crc32_combine 相同)
+   *
+   * @param crc1 前一段数据的 CRC
+   * @param crc2 后一段数据的 CRC
+   * @param len2 后一段数据的长度
+   * @return 返回拼接后数据的 CRC
+   */
+  public static long crc32Combine(long crc1, long crc2, long len2) {
+    if (len2 <= 0) {
+      return crc1;
+    }
+    long[] even = new long[32];
+    long[] odd = new long[32];
+    // 一个 0 比特的运算矩阵
+    odd[0] = 0xEDB88320L;
+    long row = 1;
+    for (int n = 1; n < 32; n++) {
+      odd[n] = row;
+      row <<= 1;
+    }
+    // 2 个和 4 个 0 比特
+    gf2MatrixSquare(even, odd);
+    gf2MatrixSquare(odd, even);
+    // 每次平方，按 len2 的比特应用
+    do {
+      gf2MatrixSquare(even, odd);
+      if ((len2 & 1) != 0) {
+        crc1 = gf2MatrixTimes(even, crc1);
+      }
+      len2 >>>= 1;
+      if (len2 == 0) {
+        break;
+      }
+      gf2MatrixSquare(odd, even);
+      if ((len2 & 1) != 0) {
+        crc1 = gf2MatrixTimes(odd, crc1);
+      }
+      len2 >>>= 1;
+    } while (len2 != 0);
+    return crc1 ^ crc2;
+  }
+
+  private static long gf2MatrixTimes(long[] mat, long vec) {
+    long sum = 0;
+    for (int i = 0; vec != 0; i++, vec >>>= 1) {
+      if ((vec & 1) != 0) {
+        sum ^= mat[i];
+      }
+    }
+    return sum;
+  }
+
+  private static void gf2MatrixSquare(long[] square, long[] mat) {
+    for (int n = 0; n < 32; n++) {
+      square[n] = gf2MatrixTimes(mat, mat[n]);
+    }
+  }
+
+  private static void writeIntLE(byte[] b, int off, int v) {
+    b[off] = (byte) v;
+    b[off + 1] = (byte) (v >>> 8);
+    b[off + 2] = (byte) (v >>> 16);
+    b[off + 3] = (byte) (v >>> 24);
+  }
+
+  /**
+   * 压缩后的块
+   */
+  static final class Block {
+    final byte[] data;
+    final int size;
+    final long crc;
+    final int length;
+
+    Block(byte[] data, int size, long crc, int length) {
+      this.data = data;
+      this.size = size;
+      this.crc = crc;
+      this.length = length;
+    }
+  }
+
+}
@@ -3,7 +3,6 @@ package com.benefitj.core.file;
 import com.benefitj.core.CatchUtils;
 import com.benefitj.core.IOUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
@@ -15,9 +14,17 @@ public class RaFile implements IWriter<RaFile> {
   public static final String[] MODES = {"r", "rw", "rws", "rwd"};
   public static final byte NL_N = '\n';
   public static final byte NL_R = '\r';
+  /**
+   * 按行读取时每次读取的字节数，超过此长度的单行单独读取
+   */
+  static final int READ_CHUNK = 64 << 10;
 
   private final File source;
   private final RandomAccessFile raf;
+  /**
+   * 行索引
+   */
+  private volatile LineIndex lineIndex;
 
   public RaFile(String filename) {
     this(filename, "rw");
@@ -88,6 +95,7 @@ public class RaFile implements IWriter<RaFile> {
     try {
       synchronized (this) {
         getRaf().setLength(newLength);
+        resetLineIndex(newLength);
       }
     } catch (IOException e) {
       throw new IllegalStateException(CatchUtils.findRoot(e));
@@ -124,49 +132,61 @@ public class RaFile implements IWriter<RaFile> {
   }
 
   /**
-   * 读取行数
+   * 读取行数，通过行索引定位开始的行，只读取需要的数据，按块读取，不会一次分配整个范围
    *
    * @param start 开始的行数
    * @param count 长度
    * @return 返回读取的行数据
    */
   public List<String> readLines(int start, int count) {
-    List<String> lines = new ArrayList<>(count);
+    List<String> lines = new ArrayList<>(Math.max(Math.min(count, 1024), 0));
+    if (count <= 0 || start < 0) {
+      return lines;
+    }
     synchronized (this) {
       try {
+        LineIndex index = getLineIndex().update();
+        long length = index.getIndexedLength();
+        long lineCount = index.getLineCount();
+        // 以换行结尾时，最后一行为空
+        if (lineCount > 0 && index.offsetOf(lineCount - 1) >= length) {
+          lineCount--;
+        }
+        if (start >= lineCount) {
+          return lines;
+        }
+        int end = (int) Math.min((long) start + count, lineCount);
         RandomAccessFile raf = getRaf();
-        long position = raf.getChannel().position();
-        raf.seek(0);
-        ByteArrayOutputStream tmp = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024 << 4];
-        int len, lineNumber = 0;
-        boolean flagN = false;
-        while ((len = raf.read(buf)) > 0) {
-          int index = 0;
-          for (int i = 0; i < len; i++) {
-            if (buf[i] == NL_N || buf[i] == NL_R) {
-              if (buf[i] == NL_R && (buf.length > i + 1 && buf[i + 1] == NL_N)) {
-                continue;
-              }
-              tmp.write(buf, index, i - index);
-              if (lineNumber >= start && (i != 0 && !flagN)) {
-                lines.add(tmp.toString());
-              }
-              tmp.reset();
-              index = i + 1;
-              lineNumber++;
-              flagN = buf[i] == NL_R;
-
-              if (lines.size() >= count) {
-                // 重置回原来的位置
-                raf.seek(position);
-                return lines;
-              }
+        long position = raf.getFilePointer();
+        try {
+          byte[] buf = new byte[0];
+          for (int i = start; i < end; ) {
+            // 一块包含多行，至少一行
+            long from = index.offsetOf(i);
+            int j = i + 1;
+            while (j < end && index.offsetOf(j + 1) - from <= READ_CHUNK) j++;
+            long to = j < lineCount ? index.offsetOf(j) : length;
+            if (to - from > Integer.MAX_VALUE - 8) {
+              throw new IllegalStateException("Line " + i + " is too long: " + (to - from) + " bytes");
+            }
+            int size = (int) (to - from);
+            if (buf.length < size) {
+              buf = new byte[Math.max(size, READ_CHUNK)];
+            }
+            raf.seek(from);
+            raf.readFully(buf, 0, size);
+            for (; i < j; i++) {
+              int s = (int) (index.offsetOf(i) - from);
+              int e = (int) (Math.min(index.offsetOf(i + 1), to) - from);
+              // 去掉换行符
+              if (e > s && buf[e - 1] == NL_N) e--;
+              if (e > s && buf[e - 1] == NL_R) e--;
+              lines.add(new String(buf, s, e - s));
             }
           }
-          if (index < len) {
-            tmp.write(buf, index, len - index);
-          }
+        } finally {
+          // 重置回原来的位置
+          raf.seek(position);
         }
       } catch (IOException e) {
         throw new IllegalStateException(CatchUtils.findRoot(e));
@@ -175,6 +195,29 @@ public class RaFile implements IWriter<RaFile> {
     return lines;
   }
 
+  /**
+   * 获取行索引，首次调用时扫描文件，之后增量更新
+   */
+  public LineIndex getLineIndex() {
+    LineIndex index = this.lineIndex;
+    if (index == null) {
+      synchronized (this) {
+        if ((index = this.lineIndex) == null) {
+          this.lineIndex = index = new LineIndex(getSource());
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * 设置行索引，如 {@link LineIndex#open(File)} 读取保存的索引
+   */
+  public RaFile setLineIndex(LineIndex lineIndex) {
+    this.lineIndex = lineIndex;
+    return this;
+  }
+
   /**
    * 重置文件的大小
    *
@@ -207,6 +250,7 @@ public class RaFile implements IWriter<RaFile> {
           raf.seek(rpos);
         }
         raf.setLength(wpos);
+        resetLineIndex(0);
       }
     } catch (IOException e) {
       throw new IllegalStateException(CatchUtils.findRoot(e));
@@ -218,14 +262,28 @@ public class RaFile implements IWriter<RaFile> {
   @Override
   public RaFile write(byte[] buf, int offset, int len, boolean flush) {
     synchronized (this) {
-      CatchUtils.tryThrow(() -> getRaf().write(buf, offset, len));
+      CatchUtils.tryThrow(() -> {
+        // 行索引只支持追加
+        resetLineIndex(getRaf().getFilePointer());
+        getRaf().write(buf, offset, len);
+      });
     }
     return this;
   }
 
+  /**
+   * 修改的位置在已索引的范围内时，清空行索引
+   */
+  private void resetLineIndex(long position) {
+    LineIndex index = this.lineIndex;
+    if (index != null && position < index.getIndexedLength()) {
+      index.reset();
+    }
+  }
+
   @Override
   public RaFile write(byte[] buf, int offset, int len) {
-    return null;
+    return write(buf, offset, len, false);
   }
 
   @Override
@@ -0,0 +1,386 @@
+package com.benefitj.core.file.log;
+
+import com.benefitj.core.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小的内存映射段，只追加。
+ * <p>
+ * 记录格式: [int 长度][long 时间戳][int 同一设备的上一条记录的位置][short 设备ID长度][设备ID][数据]，
+ * 长度为 0 表示结束；先写入内容再写入长度，写入中断的记录在恢复时被忽略。
+ * <p>
+ * 索引是稀疏的，保存在段旁边的 .idx 文件中，打开时只扫描索引之后写入的记录
+ */
+final class LogSegment {
+
+  /**
+   * 记录头: 长度 + 时间戳 + 上一条记录的位置 + 设备ID长度
+   */
+  static final int HEADER = 4 + 8 + 4 + 2;
+  /**
+   * 索引中每块的记录数，每块只记录最后一条记录的位置和时间范围
+   */
+  static final int INDEX_BLOCK = 64;
+  /**
+   * 索引文件的后缀
+   */
+  static final String INDEX_SUFFIX = ".idx";
+  /**
+   * 索引文件的标识
+   */
+  static final int INDEX_MAGIC = 0x53494458;
+
+  final File file;
+  final long sequence;
+  final int capacity;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  /**
+   * 引用计数，关闭后为 0 时释放映射
+   */
+  private final AtomicInteger refs = new AtomicInteger(1);
+  private boolean closed;
+  /**
+   * 已写入的位置
+   */
+  private volatile int position;
+  /**
+   * 索引文件对应的位置
+   */
+  private int savedPosition = -1;
+  private volatile long minTimestamp = Long.MAX_VALUE;
+  private volatile long maxTimestamp = Long.MIN_VALUE;
+  /**
+   * 设备 -> 记录索引
+   */
+  private final Map<String, DeviceIndex> indexes = new HashMap<>();
+
+  private LogSegment(File file, long sequence, int capacity) throws IOException {
+    this.file = file;
+    this.sequence = sequence;
+    this.capacity = capacity;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  /**
+   * 创建新的段
+   */
+  static LogSegment create(File file, long sequence, int capacity) throws IOException {
+    return new LogSegment(file, sequence, capacity);
+  }
+
+  /**
+   * 打开已有的段，读取索引文件后扫描之后写入的记录；没有索引文件或已损坏时重建索引
+   */
+  static LogSegment open(File file, long sequence) throws IOException {
+    LogSegment segment = new LogSegment(file, sequence, (int) Math.min(file.length(), Integer.MAX_VALUE));
+    segment.recover(segment.loadIndex() ? segment.position : 0);
+    return segment;
+  }
+
+  private void recover(int pos) {
+    for (; ; ) {
+      if (pos + HEADER > capacity) break;
+      int len = buffer.getInt(pos);
+      if (len < HEADER || pos + len > capacity) break;
+      long timestamp = buffer.getLong(pos + 4);
+      int idLen = buffer.getShort(pos + 16) & 0xFFFF;
+      byte[] id = new byte[idLen];
+      ByteBuffer dup = buffer.duplicate();
+      dup.position(pos + HEADER);
+      dup.get(id);
+      index(new String(id, StandardCharsets.UTF_8), timestamp, pos);
+      pos += len;
+    }
+    this.position = pos;
+  }
+
+  /**
+   * 追加记录，空间不足时返回 false
+   */
+  boolean append(String deviceId, byte[] id, long timestamp, byte[] data, int offset, int len) {
+    int total = HEADER + id.length + len;
+    int pos = this.position;
+    if (pos + total > capacity) {
+      return false;
+    }
+    // 只有写入线程修改索引
+    DeviceIndex index = indexes.get(deviceId);
+    buffer.putLong(pos + 4, timestamp);
+    buffer.putInt(pos + 12, index != null ? index.last : -1);
+    buffer.putShort(pos + 16, (short) id.length);
+    ByteBuffer dup = buffer.duplicate();
+    dup.position(pos + HEADER);
+    dup.put(id);
+    dup.put(data, offset, len);
+    // 最后写入长度
+    buffer.putInt(pos, total);
+    synchronized (this) {
+      index(deviceId, timestamp, pos);
+      // 与索引一起修改，保存的索引和位置一致
+      this.position = pos + total;
+    }
+    return true;
+  }
+
+  private void index(String deviceId, long timestamp, int pos) {
+    indexes.computeIfAbsent(deviceId, k -> new DeviceIndex()).add(timestamp, pos);
+    if (timestamp < minTimestamp) minTimestamp = timestamp;
+    if (timestamp > maxTimestamp) maxTimestamp = timestamp;
+  }
+
+  /**
+   * 扫描设备在时间范围内的记录，只读取该设备的记录：
+   * 跳过时间范围不相交的块，从块的最后一条记录沿着上一条记录的位置找到块内的记录
+   *
+   * @param deviceId 设备ID
+   * @param from     开始时间(包含)
+   * @param to       结束时间(包含)
+   * @param visitor  记录
+   */
+  void scan(String deviceId, long from, long to, SegmentLog.RecordVisitor visitor) {
+    if (maxTimestamp < from || minTimestamp > to) return;
+    if (!retain()) return;
+    try {
+      int[] ends;
+      int[] counts;
+      int n = 0;
+      synchronized (this) {
+        DeviceIndex index = indexes.get(deviceId);
+        if (index == null) return;
+        int blocks = index.blocks();
+        ends = new int[blocks];
+        counts = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+          if (index.blockMax[b] < from || index.blockMin[b] > to) continue;
+          ends[n] = index.blockEnd[b];
+          counts[n] = Math.min(index.count - b * INDEX_BLOCK, INDEX_BLOCK);
+          n++;
+        }
+      }
+      ByteBuffer view = buffer.asReadOnlyBuffer();
+      int[] chain = new int[INDEX_BLOCK];
+      for (int i = 0; i < n; i++) {
+        int pos = ends[i];
+        for (int k = counts[i] - 1; k >= 0; k--) {
+          chain[k] = pos;
+          pos = view.getInt(pos + 12);
+        }
+        // 按写入顺序
+        for (int k = 0; k < counts[i]; k++) {
+          int p = chain[k];
+          long timestamp = view.getLong(p + 4);
+          if (timestamp < from || timestamp > to) continue;
+          int len = view.getInt(p);
+          int idLen = view.getShort(p + 16) & 0xFFFF;
+          ByteBuffer dup = view.duplicate();
+          dup.limit(p + len).position(p + HEADER + idLen);
+          visitor.onRecord(deviceId, timestamp, dup.slice());
+        }
+      }
+    } finally {
+      release();
+    }
+  }
+
+  int position() {
+    return position;
+  }
+
+  long minTimestamp() {
+    return minTimestamp;
+  }
+
+  long maxTimestamp() {
+    return maxTimestamp;
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  File indexFile() {
+    return new File(file.getPath() + INDEX_SUFFIX);
+  }
+
+  /**
+   * 保存索引，先写入数据，再写入临时文件后替换
+   */
+  synchronized void saveIndex() throws IOException {
+    int pos = this.position;
+    if (closed || pos == savedPosition) return;
+    buffer.force();
+    File tmp = new File(file.getPath() + INDEX_SUFFIX + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(INDEX_MAGIC);
+      out.writeInt(capacity);
+      out.writeInt(pos);
+      out.writeLong(minTimestamp);
+      out.writeLong(maxTimestamp);
+      out.writeInt(indexes.size());
+      for (Map.Entry<String, DeviceIndex> entry : indexes.entrySet()) {
+        byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+        out.writeShort(id.length);
+        out.write(id);
+        entry.getValue().writeTo(out);
+      }
+    }
+    Files.move(tmp.toPath(), indexFile().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    savedPosition = pos;
+  }
+
+  /**
+   * 读取索引文件
+   *
+   * @return 返回是否读取成功
+   */
+  private boolean loadIndex() {
+    File f = indexFile();
+    if (!f.exists()) return false;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+      if (in.readInt() != INDEX_MAGIC || in.readInt() != capacity) return false;
+      int pos = in.readInt();
+      if (pos < 0 || pos > capacity) return false;
+      long min = in.readLong();
+      long max = in.readLong();
+      Map<String, DeviceIndex> loaded = new HashMap<>();
+      for (int i = 0, n = in.readInt(); i < n; i++) {
+        byte[] id = new byte[in.readUnsignedShort()];
+        in.readFully(id);
+        loaded.put(new String(id, StandardCharsets.UTF_8), DeviceIndex.readFrom(in, pos));
+      }
+      indexes.putAll(loaded);
+      this.minTimestamp = min;
+      this.maxTimestamp = max;
+      this.position = pos;
+      this.savedPosition = pos;
+      return true;
+    } catch (IOException | RuntimeException e) {
+      // 索引损坏，重新扫描
+      return false;
+    }
+  }
+
+  /**
+   * 扫描期间持有引用，避免映射被释放
+   */
+  private boolean retain() {
+    for (; ; ) {
+      int r = refs.get();
+      if (r <= 0) return false;
+      if (refs.compareAndSet(r, r + 1)) return true;
+    }
+  }
+
+  private void release() {
+    if (refs.decrementAndGet() == 0) {
+      IOUtils.unmap(buffer);
+    }
+  }
+
+  /**
+   * 关闭，正在进行的扫描结束后释放映射；之前返回的切片不能再访问
+   */
+  void close() {
+    synchronized (this) {
+      if (closed) return;
+      closed = true;
+    }
+    IOUtils.closeQuietly(channel);
+    release();
+  }
+
+  /**
+   * 关闭并删除文件和索引
+   */
+  boolean delete() {
+    close();
+    indexFile().delete();
+    return file.delete();
+  }
+
+  /**
+   * 设备的稀疏索引：每 {@link #INDEX_BLOCK} 条记录一个块，记录块的最后一条记录的位置和时间范围，
+   * 块内的记录通过记录头中上一条记录的位置找到
+   */
+  static final class DeviceIndex {
+
+    int[] blockEnd = new int[1];
+    long[] blockMin = new long[1];
+    long[] blockMax = new long[1];
+    /**
+     * 记录数
+     */
+    int count;
+    /**
+     * 最后一条记录的位置
+     */
+    int last = -1;
+
+    void add(long timestamp, int pos) {
+      int block = count / INDEX_BLOCK;
+      if (count % INDEX_BLOCK == 0) {
+        if (block == blockEnd.length) {
+          blockEnd = Arrays.copyOf(blockEnd, block << 1);
+          blockMin = Arrays.copyOf(blockMin, block << 1);
+          blockMax = Arrays.copyOf(blockMax, block << 1);
+        }
+        blockMin[block] = timestamp;
+        blockMax[block] = timestamp;
+      } else {
+        if (timestamp < blockMin[block]) blockMin[block] = timestamp;
+        if (timestamp > blockMax[block]) blockMax[block] = timestamp;
+      }
+      blockEnd[block] = pos;
+      last = pos;
+      count++;
+    }
+
+    int blocks() {
+      return (count + INDEX_BLOCK - 1) / INDEX_BLOCK;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+      out.writeInt(count);
+      for (int b = 0, blocks = blocks(); b < blocks; b++) {
+        out.writeInt(blockEnd[b]);
+        out.writeLong(blockMin[b]);
+        out.writeLong(blockMax[b]);
+      }
+    }
+
+    static DeviceIndex readFrom(DataInput in, int position) throws IOException {
+      DeviceIndex index = new DeviceIndex();
+      int count = in.readInt();
+      if (count <= 0) throw new IllegalStateException("count: " + count);
+      index.count = count;
+      int blocks = index.blocks();
+      index.blockEnd = new int[blocks];
+      index.blockMin = new long[blocks];
+      index.blockMax = new long[blocks];
+      for (int b = 0; b < blocks; b++) {
+        int end = in.readInt();
+        if (end < 0 || end >= position) throw new IllegalStateException("position: " + end);
+        index.blockEnd[b] = end;
+        index.blockMin[b] = in.readLong();
+        index.blockMax[b] = in.readLong();
+      }
+      index.last = index.blockEnd[blocks - 1];
+      return index;
+    }
+  }
+
+}
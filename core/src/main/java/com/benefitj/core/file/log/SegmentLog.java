@@ -0,0 +1,342 @@
+package com.benefitj.core.file.log;
+
+import com.benefitj.core.EventLoop;
+import com.benefitj.core.file.slicer.FileSlicer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 分段的只追加日志，按设备和时间查询原始数据。
+ * <p>
+ * 每个段是固定大小的内存映射文件，写满后切换到新的段(与 {@link FileSlicer} 相同，默认50MB)；
+ * 每个段按设备维护稀疏的时间索引，切换段、flush 和关闭时保存到段旁边的 .idx 文件，打开时不需要重新解析整个段。
+ * 查询时只读取该设备命中的记录，返回映射内存的只读切片，不拷贝数据；
+ * 段被删除(保留策略)或日志关闭后映射被释放，切片不能再访问，需要保留时先拷贝
+ */
+public class SegmentLog implements AutoCloseable {
+
+  static final Logger log = LoggerFactory.getLogger(SegmentLog.class);
+
+  static final String SUFFIX = ".seg";
+
+  /**
+   * 记录
+   */
+  public interface RecordVisitor {
+    /**
+     * 查询到的记录
+     *
+     * @param deviceId  设备ID
+     * @param timestamp 时间戳
+     * @param data      数据(只读，映射内存的切片)
+     */
+    void onRecord(String deviceId, long timestamp, ByteBuffer data);
+  }
+
+  /**
+   * 目录
+   */
+  private final File dir;
+  /**
+   * 段的大小
+   */
+  private volatile int segmentSize = (int) FileSlicer.MAX_SIZE;
+  /**
+   * 保留的最大字节数，0 表示不限制
+   */
+  private volatile long retentionBytes = 0;
+  /**
+   * 保留的时长(毫秒，按记录的时间戳)，0 表示不限制
+   */
+  private volatile long retentionMillis = 0;
+  /**
+   * 段切换的监听，参数为写满的文件
+   */
+  private volatile Consumer<File> rollListener;
+  /**
+   * 全部的段，按顺序
+   */
+  private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+  /**
+   * 当前写入的段
+   */
+  private LogSegment active;
+
+  public SegmentLog(File dir) {
+    this(dir, (int) FileSlicer.MAX_SIZE);
+  }
+
+  /**
+   * 构造函数，打开目录中已有的段
+   *
+   * @param dir         目录
+   * @param segmentSize 段的大小
+   */
+  public SegmentLog(File dir, int segmentSize) {
+    this.dir = dir;
+    setSegmentSize(segmentSize);
+    if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+      throw new IllegalStateException("Can't create directory: " + dir.getAbsolutePath());
+    }
+    File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+    if (files != null) {
+      Arrays.sort(files);
+      for (File file : files) {
+        try {
+          segments.add(LogSegment.open(file, sequenceOf(file)));
+        } catch (IOException | RuntimeException e) {
+          throw new IllegalStateException("Can't open segment: " + file.getAbsolutePath(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * 追加记录
+   *
+   * @param deviceId  设备ID
+   * @param timestamp 时间戳
+   * @param data      数据
+   */
+  public void append(String deviceId, long timestamp, byte[] data) {
+    append(deviceId, timestamp, data, 0, data.length);
+  }
+
+  /**
+   * 追加记录
+   *
+   * @param deviceId  设备ID
+   * @param timestamp 时间戳
+   * @param data      数据
+   * @param offset    偏移量
+   * @param len       长度
+   */
+  public void append(String deviceId, long timestamp, byte[] data, int offset, int len) {
+    byte[] id = deviceId.getBytes(StandardCharsets.UTF_8);
+    if (id.length > 0xFFFF) {
+      throw new IllegalArgumentException("deviceId is too long: " + id.length);
+    }
+    int total = LogSegment.HEADER + id.length + len;
+    synchronized (this) {
+      if (total > segmentSize) {
+        throw new IllegalArgumentException("record is larger than segment: " + total + " > " + segmentSize);
+      }
+      LogSegment segment = activeSegment();
+      if (!segment.append(deviceId, id, timestamp, data, offset, len)) {
+        roll();
+        if (!activeSegment().append(deviceId, id, timestamp, data, offset, len)) {
+          throw new IllegalStateException("segment is full");
+        }
+      }
+    }
+  }
+
+  /**
+   * 查询设备在时间范围内的记录
+   *
+   * @param deviceId 设备ID
+   * @param from     开始时间(包含)
+   * @param to       结束时间(包含)
+   * @return 返回数据的只读切片，按写入顺序
+   */
+  public List<ByteBuffer> scan(String deviceId, long from, long to) {
+    List<ByteBuffer> list = new ArrayList<>();
+    scan(deviceId, from, to, (id, timestamp, data) -> list.add(data));
+    return list;
+  }
+
+  /**
+   * 查询设备在时间范围内的记录
+   *
+   * @param deviceId 设备ID
+   * @param from     开始时间(包含)
+   * @param to       结束时间(包含)
+   * @param visitor  记录
+   */
+  public void scan(String deviceId, long from, long to, RecordVisitor visitor) {
+    for (LogSegment segment : segments) {
+      segment.scan(deviceId, from, to, visitor);
+    }
+  }
+
+  /**
+   * 切换到新的段
+   */
+  public synchronized void roll() {
+    LogSegment old = this.active;
+    if (old == null && !segments.isEmpty()) {
+      old = segments.get(segments.size() - 1);
+    }
+    long sequence = old != null ? old.sequence + 1 : 0;
+    File file = new File(dir, String.format("%020d", sequence) + SUFFIX);
+    try {
+      LogSegment segment = LogSegment.create(file, sequence, segmentSize);
+      segments.add(segment);
+      this.active = segment;
+    } catch (IOException e) {
+      throw new IllegalStateException("Can't create segment: " + file.getAbsolutePath(), e);
+    }
+    if (old != null) {
+      old.force();
+      saveIndex(old);
+      final Consumer<File> listener = this.rollListener;
+      if (listener != null) {
+        final File rolled = old.file;
+        EventLoop.single().execute(() -> listener.accept(rolled));
+      }
+    }
+    applyRetention();
+  }
+
+  private LogSegment activeSegment() {
+    LogSegment segment = this.active;
+    if (segment == null) {
+      if (!segments.isEmpty()) {
+        // 继续写入最后一个段
+        this.active = segment = segments.get(segments.size() - 1);
+      } else {
+        roll();
+        segment = this.active;
+      }
+    }
+    return segment;
+  }
+
+  /**
+   * 删除超出保留大小或时长的段，不删除当前写入的段
+   *
+   * @return 返回删除的段数
+   */
+  public synchronized int applyRetention() {
+    int deleted = 0;
+    long maxBytes = this.retentionBytes;
+    long maxMillis = this.retentionMillis;
+    long expireBefore = maxMillis > 0 ? System.currentTimeMillis() - maxMillis : Long.MIN_VALUE;
+    long total = size();
+    while (segments.size() > 1) {
+      LogSegment oldest = segments.get(0);
+      if (oldest == active) break;
+      boolean overSize = maxBytes > 0 && total > maxBytes;
+      boolean expired = maxMillis > 0 && oldest.maxTimestamp() < expireBefore;
+      if (!overSize && !expired) break;
+      segments.remove(0);
+      total -= oldest.position();
+      if (!oldest.delete()) {
+        log.warn("Can't delete segment: {}", oldest.file.getAbsolutePath());
+      }
+      deleted++;
+    }
+    return deleted;
+  }
+
+  /**
+   * 写入到磁盘
+   */
+  public synchronized void flush() {
+    if (active != null) {
+      active.force();
+      saveIndex(active);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    flush();
+    for (LogSegment segment : segments) {
+      saveIndex(segment);
+      segment.close();
+    }
+    segments.clear();
+    active = null;
+  }
+
+  private static void saveIndex(LogSegment segment) {
+    try {
+      segment.saveIndex();
+    } catch (IOException e) {
+      // 下次打开时重新扫描
+      log.warn("Can't save index: {}, {}", segment.indexFile().getAbsolutePath(), e.getMessage());
+    }
+  }
+
+  /**
+   * 已写入的字节数
+   */
+  public long size() {
+    long total = 0;
+    for (LogSegment segment : segments) {
+      total += segment.position();
+    }
+    return total;
+  }
+
+  /**
+   * 段的数量
+   */
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  public File getDir() {
+    return dir;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  /**
+   * 设置段的大小，对新的段生效，最小1MB
+   */
+  public SegmentLog setSegmentSize(int segmentSize) {
+    this.segmentSize = Math.max(segmentSize, 1024 << 10);
+    return this;
+  }
+
+  public long getRetentionBytes() {
+    return retentionBytes;
+  }
+
+  public SegmentLog setRetentionBytes(long retentionBytes) {
+    this.retentionBytes = Math.max(retentionBytes, 0);
+    return this;
+  }
+
+  public long getRetentionMillis() {
+    return retentionMillis;
+  }
+
+  public SegmentLog setRetentionMillis(long retentionMillis) {
+    this.retentionMillis = Math.max(retentionMillis, 0);
+    return this;
+  }
+
+  public Consumer<File> getRollListener() {
+    return rollListener;
+  }
+
+  public SegmentLog setRollListener(Consumer<File> rollListener) {
+    this.rollListener = rollListener;
+    return this;
+  }
+
+  static long sequenceOf(File file) {
+    String name = file.getName();
+    try {
+      return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("Illegal segment name: " + name);
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.benefitj.core.file.slicer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 异步写入的配置：生产者写入队列，由单独的线程批量写入文件
+ */
+public class AsyncOptions {
+
+  /**
+   * 队列的最大记录数，满时生产者等待
+   */
+  private int capacity = 16 << 10;
+  /**
+   * 写入缓冲区(直接内存)的大小
+   */
+  private int bufferSize = 256 << 10;
+  /**
+   * 写入间隔(毫秒)，0 表示队列为空时写入
+   */
+  private long flushInterval = 0;
+  /**
+   * 缓冲达到此字节数时写入，0 表示不限制
+   */
+  private int flushBytes = 0;
+  /**
+   * 每次写入后是否同步到磁盘(fsync)
+   */
+  private boolean fsync = false;
+  /**
+   * 切换文件前是否同步到磁盘(fsync)
+   */
+  private boolean fsyncOnRoll = true;
+  /**
+   * 执行 {@link FileListener} 的线程，默认 EventLoop.single()
+   */
+  private Executor listenerExecutor;
+
+  public AsyncOptions() {
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public AsyncOptions setCapacity(int capacity) {
+    this.capacity = Math.max(capacity, 2);
+    return this;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public AsyncOptions setBufferSize(int bufferSize) {
+    this.bufferSize = Math.max(bufferSize, 4096);
+    return this;
+  }
+
+  public long getFlushInterval() {
+    return flushInterval;
+  }
+
+  public AsyncOptions setFlushInterval(long flushInterval) {
+    this.flushInterval = Math.max(flushInterval, 0);
+    return this;
+  }
+
+  public int getFlushBytes() {
+    return flushBytes;
+  }
+
+  public AsyncOptions setFlushBytes(int flushBytes) {
+    this.flushBytes = Math.max(flushBytes, 0);
+    return this;
+  }
+
+  public boolean isFsync() {
+    return fsync;
+  }
+
+  public AsyncOptions setFsync(boolean fsync) {
+    this.fsync = fsync;
+    return this;
+  }
+
+  public boolean isFsyncOnRoll() {
+    return fsyncOnRoll;
+  }
+
+  public AsyncOptions setFsyncOnRoll(boolean fsyncOnRoll) {
+    this.fsyncOnRoll = fsyncOnRoll;
+    return this;
+  }
+
+  public Executor getListenerExecutor() {
+    return listenerExecutor;
+  }
+
+  public AsyncOptions setListenerExecutor(Executor listenerExecutor) {
+    this.listenerExecutor = listenerExecutor;
+    return this;
+  }
+
+}
@@ -0,0 +1,236 @@
+package com.benefitj.core.file.slicer;
+
+import com.benefitj.core.EventLoop;
+import com.benefitj.core.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步写入：生产者写入 {@link RecordRing}，写线程批量取出后拷贝到直接内存，
+ * 通过 {@link FileChannel#write(ByteBuffer[])} 写入，并负责切换文件和回调监听
+ */
+final class AsyncSliceWriter<T extends SliceFileWriter> implements Runnable {
+
+  static final Logger log = LoggerFactory.getLogger(FileSlicer.class);
+
+  /**
+   * 没有数据时的最长等待
+   */
+  static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final FileSlicer<T> slicer;
+  private final AsyncOptions options;
+  private final RecordRing ring;
+  private final ByteBuffer buffer;
+  private final Executor listenerExecutor;
+  private final Thread thread;
+
+  private volatile boolean running = true;
+  private volatile boolean sleeping = false;
+  private volatile boolean rollRequested = false;
+
+  /**
+   * 以下只由写线程访问
+   */
+  private T writer;
+  private FileChannel channel;
+  private long fileSize;
+  private long lastFlushTime = System.nanoTime();
+
+  AsyncSliceWriter(FileSlicer<T> slicer, AsyncOptions options) {
+    this.slicer = slicer;
+    this.options = options;
+    this.ring = new RecordRing(options.getCapacity());
+    this.buffer = ByteBuffer.allocateDirect(options.getBufferSize());
+    this.listenerExecutor = options.getListenerExecutor() != null ? options.getListenerExecutor() : EventLoop.single();
+    this.thread = EventLoop.newThreadFactory("slicer-writer-", true).newThread(this);
+    this.thread.start();
+  }
+
+  /**
+   * 写入队列，队列满时等待
+   */
+  void offer(byte[] buf, int offset, int len) {
+    byte[] record = Arrays.copyOfRange(buf, offset, offset + len);
+    while (!ring.offer(record)) {
+      if (!running) throw new IllegalStateException("FileSlicer is closed");
+      wakeup();
+      LockSupport.parkNanos(50_000);
+    }
+    if (!running) throw new IllegalStateException("FileSlicer is closed");
+    wakeup();
+  }
+
+  /**
+   * 写入已排队的数据后切换文件
+   */
+  void roll() {
+    rollRequested = true;
+    LockSupport.unpark(thread);
+  }
+
+  /**
+   * 写入剩余的数据，切换文件并结束写线程
+   */
+  void close() {
+    running = false;
+    LockSupport.unpark(thread);
+    if (Thread.currentThread() != thread) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  int queued() {
+    return ring.size();
+  }
+
+  private void wakeup() {
+    if (sleeping) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  @Override
+  public void run() {
+    for (; ; ) {
+      boolean drained = false;
+      byte[] record;
+      while ((record = ring.poll()) != null) {
+        append(record);
+        drained = true;
+      }
+      if (rollRequested) {
+        rollRequested = false;
+        rollFile();
+      } else if (shouldFlush()) {
+        flushBuffer(options.isFsync());
+      }
+      if (!running && ring.isEmpty()) {
+        break;
+      }
+      if (!drained) {
+        park();
+      }
+    }
+    rollFile();
+  }
+
+  private void park() {
+    long nanos = IDLE_NANOS;
+    if (buffer.position() > 0 && options.getFlushInterval() > 0) {
+      long remaining = TimeUnit.MILLISECONDS.toNanos(options.getFlushInterval()) - (System.nanoTime() - lastFlushTime);
+      nanos = Math.max(Math.min(remaining, nanos), 1);
+    }
+    sleeping = true;
+    if (ring.isEmpty() && running && !rollRequested) {
+      LockSupport.parkNanos(this, nanos);
+    }
+    sleeping = false;
+  }
+
+  /**
+   * 是否满足写入的条件
+   */
+  private boolean shouldFlush() {
+    int pending = buffer.position();
+    if (pending <= 0) return false;
+    long interval = options.getFlushInterval();
+    int bytes = options.getFlushBytes();
+    if (interval <= 0 && bytes <= 0) {
+      // 队列为空时写入(组提交)
+      return true;
+    }
+    return (bytes > 0 && pending >= bytes)
+        || (interval > 0 && System.nanoTime() - lastFlushTime >= TimeUnit.MILLISECONDS.toNanos(interval));
+  }
+
+  private void append(byte[] record) {
+    try {
+      if (writer == null) {
+        openFile();
+      }
+      if (record.length <= buffer.remaining()) {
+        buffer.put(record);
+      } else {
+        // 缓冲区不足，与缓冲区的数据一起写入
+        write(ByteBuffer.wrap(record));
+      }
+      fileSize += record.length;
+      if (fileSize >= slicer.getMaxSize()) {
+        rollFile();
+      }
+    } catch (Throwable e) {
+      log.error("slicer write error: " + e.getMessage(), e);
+    }
+  }
+
+  private void openFile() throws IOException {
+    T w = slicer.getWriter(true);
+    FileChannel ch = FileChannel.open(w.source().toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    this.writer = w;
+    this.channel = ch;
+    this.fileSize = ch.size();
+  }
+
+  private void flushBuffer(boolean fsync) {
+    if (channel == null) return;
+    try {
+      write(null);
+      if (fsync) {
+        channel.force(false);
+      }
+    } catch (Throwable e) {
+      log.error("slicer flush error: " + e.getMessage(), e);
+    }
+  }
+
+  private void write(ByteBuffer extra) throws IOException {
+    buffer.flip();
+    ByteBuffer[] srcs = extra != null ? new ByteBuffer[]{buffer, extra} : new ByteBuffer[]{buffer};
+    ByteBuffer last = srcs[srcs.length - 1];
+    while (buffer.hasRemaining() || last.hasRemaining()) {
+      channel.write(srcs);
+    }
+    buffer.clear();
+    lastFlushTime = System.nanoTime();
+  }
+
+  /**
+   * 写入缓冲的数据，关闭当前文件并通知监听
+   */
+  private void rollFile() {
+    final T w = this.writer;
+    if (w == null) return;
+    flushBuffer(options.isFsyncOnRoll());
+    IOUtils.closeQuietly(channel);
+    this.channel = null;
+    this.writer = null;
+    this.fileSize = 0;
+    slicer.releaseWriter(w);
+    w.close();
+    final FileListener<T> listener = slicer.getFileListener();
+    if (listener != null) {
+      listenerExecutor.execute(() -> {
+        try {
+          listener.onHandle(w, w.source());
+        } catch (Throwable e) {
+          log.error("slicer listener error: " + e.getMessage(), e);
+        }
+      });
+    }
+  }
+
+}
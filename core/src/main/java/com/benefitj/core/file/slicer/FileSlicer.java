@@ -8,6 +8,8 @@ import java.util.Properties;
 
 /**
  * 文件分割器
+ * <p>
+ * 默认在调用线程中写入并刷新；{@link #setAsync(AsyncOptions)} 后由单独的线程批量写入
  */
 public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer<T>> {
 
@@ -54,6 +56,10 @@ public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer
    * 编码
    */
   private Charset charset = Charset.defaultCharset();
+  /**
+   * 异步写入
+   */
+  private volatile AsyncSliceWriter<T> async;
 
   public FileSlicer() {
   }
@@ -65,6 +71,12 @@ public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer
 
   @Override
   public FileSlicer<T> write(byte[] buf, int offset, int len, boolean flush) {
+    final AsyncSliceWriter<T> aw = this.async;
+    if (aw != null) {
+      aw.offer(buf, offset, len);
+      this.setLastWriteTime(System.currentTimeMillis());
+      return this;
+    }
     final T writer = getWriter(true);
     boolean newFile = false;
     synchronized (writer) {
@@ -85,6 +97,11 @@ public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer
 
   @Override
   public void flush() {
+    final AsyncSliceWriter<T> aw = this.async;
+    if (aw != null) {
+      aw.roll();
+      return;
+    }
     T writer;
     synchronized (this) {
       writer = getWriter(false);
@@ -98,9 +115,51 @@ public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer
     }
   }
 
+  /**
+   * 异步模式下写入剩余的数据并结束写线程，同步模式下忽略
+   */
   @Override
   public void close() {
-    // ignore
+    setAsync(null);
+  }
+
+  /**
+   * 是否为异步写入
+   */
+  public boolean isAsync() {
+    return async != null;
+  }
+
+  /**
+   * 设置异步写入，null 表示恢复同步写入(会先写入已排队的数据)
+   *
+   * @param options 配置
+   * @return 返回对象
+   */
+  public FileSlicer<T> setAsync(AsyncOptions options) {
+    AsyncSliceWriter<T> old;
+    synchronized (this) {
+      old = this.async;
+      this.async = null;
+    }
+    if (old != null) {
+      // 先关闭旧的写线程，避免两个线程写同一个文件
+      old.close();
+    }
+    if (options != null) {
+      synchronized (this) {
+        this.async = new AsyncSliceWriter<>(this, options);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * 异步模式下排队的记录数
+   */
+  public int getQueuedRecords() {
+    final AsyncSliceWriter<T> aw = this.async;
+    return aw != null ? aw.queued() : 0;
   }
 
   /**
@@ -169,6 +228,17 @@ public class FileSlicer<T extends SliceFileWriter> implements IWriter<FileSlicer
     return writer;
   }
 
+  /**
+   * 释放当前的 Writer
+   */
+  void releaseWriter(T writer) {
+    synchronized (this) {
+      if (this.currentWriter == writer) {
+        this.currentWriter = null;
+      }
+    }
+  }
+
   /**
    * 获取最后一个文件长度
    */
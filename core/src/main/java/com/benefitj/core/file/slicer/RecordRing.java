@@ -0,0 +1,78 @@
+package com.benefitj.core.file.slicer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界的无锁环形队列，多生产者单消费者：每个槽位有序号，生产者 CAS 占位后写入并发布序号
+ */
+final class RecordRing {
+
+  private final int mask;
+  private final Object[] slots;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  /**
+   * 只由消费者修改
+   */
+  private volatile long head;
+
+  RecordRing(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.mask = size - 1;
+    this.slots = new Object[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * 添加，队列已满时返回 false
+   */
+  boolean offer(byte[] record) {
+    for (; ; ) {
+      long t = tail.get();
+      int index = (int) (t & mask);
+      long diff = sequences.get(index) - t;
+      if (diff == 0) {
+        if (tail.compareAndSet(t, t + 1)) {
+          slots[index] = record;
+          sequences.set(index, t + 1);
+          return true;
+        }
+      } else if (diff < 0) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * 取出，队列为空(或生产者尚未发布)时返回 null
+   */
+  byte[] poll() {
+    long h = head;
+    int index = (int) (h & mask);
+    if (sequences.get(index) != h + 1) {
+      return null;
+    }
+    byte[] record = (byte[]) slots[index];
+    slots[index] = null;
+    sequences.set(index, h + mask + 1);
+    head = h + 1;
+    return record;
+  }
+
+  boolean isEmpty() {
+    return tail.get() == head;
+  }
+
+  int size() {
+    return (int) Math.max(tail.get() - head, 0);
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+}
@@ -0,0 +1,304 @@
+package com.benefitj.core.pool;
+
+import com.benefitj.core.SingletonSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界的字节数组池
+ * <p>
+ * 按2的幂划分规格(minSize ~ maxSize)，不超过16KB的规格在每个线程持有一个小的本地弹夹(magazine)，
+ * 弹夹满了以后归还到共享的无锁仓库(depot)，仓库中空闲数组的总字节数不超过 maxMemory，
+ * 超出规格或超出上限的数组直接交给GC，不做缓存。
+ * 单个线程最多缓存 magazineSize * 32KB 的数组，与连接数无关。
+ *
+ * <pre>
+ *   try (PooledBytes buf = ByteArrayPool.get().acquire(len)) {
+ *     in.readBytes(buf.array(), 0, len);
+ *     ...
+ *   }
+ * </pre>
+ */
+public class ByteArrayPool {
+
+  static final Logger log = LoggerFactory.getLogger(ByteArrayPool.class);
+
+  static final SingletonSupplier<ByteArrayPool> singleton = SingletonSupplier.of(() ->
+      new ByteArrayPool(64, 1 << 20, 64L << 20, 8, Boolean.getBoolean("benefitj.pool.leakDetection")));
+
+  /**
+   * 获取全局的字节数组池，默认：64B ~ 1MB，最多缓存64MB，
+   * 通过系统属性 benefitj.pool.leakDetection=true 开启泄漏检测
+   */
+  public static ByteArrayPool get() {
+    return singleton.get();
+  }
+
+  static final Cleaner CLEANER = Cleaner.create();
+  /**
+   * 使用线程本地弹夹的最大规格
+   */
+  static final int MAGAZINE_MAX_SIZE = 16 << 10;
+
+  /**
+   * 最小规格(2的幂)
+   */
+  private final int minSize;
+  /**
+   * 最大规格(2的幂)
+   */
+  private final int maxSize;
+  /**
+   * 仓库中空闲数组的字节数上限
+   */
+  private final long maxMemory;
+  /**
+   * 每个线程、每个规格最多缓存的数组数量
+   */
+  private final int magazineSize;
+  /**
+   * 是否开启泄漏检测
+   */
+  private volatile boolean leakDetection;
+  /**
+   * 最小规格的位移
+   */
+  private final int minShift;
+  /**
+   * 共享仓库，按规格划分
+   */
+  private final ConcurrentLinkedQueue<byte[]>[] depot;
+  /**
+   * 线程本地的弹夹
+   */
+  private final ThreadLocal<Magazine> magazines;
+  /**
+   * 仓库中空闲数组的字节数
+   */
+  private final AtomicLong retained = new AtomicLong();
+  /**
+   * 新分配的次数
+   */
+  private final AtomicLong allocations = new AtomicLong();
+  /**
+   * 泄漏的次数
+   */
+  private final AtomicLong leaks = new AtomicLong();
+
+  public ByteArrayPool(int minSize, int maxSize, long maxMemory, int magazineSize, boolean leakDetection) {
+    if (minSize <= 0 || maxSize < minSize) {
+      throw new IllegalArgumentException("规格错误: minSize=" + minSize + ", maxSize=" + maxSize);
+    }
+    this.minSize = ceilingPowerOfTwo(minSize);
+    this.maxSize = ceilingPowerOfTwo(maxSize);
+    this.maxMemory = Math.max(maxMemory, 0);
+    this.magazineSize = Math.max(magazineSize, 0);
+    this.leakDetection = leakDetection;
+    this.minShift = Integer.numberOfTrailingZeros(this.minSize);
+    int classes = Integer.numberOfTrailingZeros(this.maxSize) - minShift + 1;
+    @SuppressWarnings("unchecked")
+    ConcurrentLinkedQueue<byte[]>[] depot = new ConcurrentLinkedQueue[classes];
+    for (int i = 0; i < classes; i++) {
+      depot[i] = new ConcurrentLinkedQueue<>();
+    }
+    this.depot = depot;
+    int magazineClasses = Math.max(0, Math.min(classes, Integer.numberOfTrailingZeros(MAGAZINE_MAX_SIZE) - minShift + 1));
+    this.magazines = ThreadLocal.withInitial(() -> new Magazine(magazineClasses, this.magazineSize));
+  }
+
+  /**
+   * 获取缓冲(租约)，使用完成后必须调用 {@link PooledBytes#release()} 归还
+   *
+   * @param size 需要的大小
+   * @return 返回缓冲，数组长度不小于 size
+   */
+  public PooledBytes acquire(int size) {
+    byte[] array = acquireArray(size);
+    return new PooledBytes(this, array, size, leakDetection);
+  }
+
+  /**
+   * 获取数组，返回的数组长度为规格大小(不小于 size)，使用完成后调用 {@link #release(byte[])} 归还
+   *
+   * @param size 需要的大小
+   * @return 返回数组
+   */
+  public byte[] acquireArray(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size不能小于0: " + size);
+    }
+    int index = sizeClass(size);
+    if (index < 0) {
+      // 超过最大规格，不缓存
+      allocations.incrementAndGet();
+      return new byte[size];
+    }
+    byte[] array = magazines.get().pop(index);
+    if (array != null) {
+      return array;
+    }
+    array = depot[index].poll();
+    if (array != null) {
+      retained.addAndGet(-array.length);
+      return array;
+    }
+    allocations.incrementAndGet();
+    return new byte[minSize << index];
+  }
+
+  /**
+   * 归还数组，长度不是规格大小的数组会被忽略
+   *
+   * @param array 数组
+   */
+  public void release(byte[] array) {
+    if (array == null) {
+      return;
+    }
+    int len = array.length;
+    if (len < minSize || len > maxSize || Integer.bitCount(len) != 1) {
+      return;
+    }
+    int index = Integer.numberOfTrailingZeros(len) - minShift;
+    if (magazines.get().push(index, array)) {
+      return;
+    }
+    // 本地弹夹已满，尝试放入共享仓库
+    for (; ; ) {
+      long current = retained.get();
+      if (current + len > maxMemory) {
+        return;
+      }
+      if (retained.compareAndSet(current, current + len)) {
+        depot[index].offer(array);
+        return;
+      }
+    }
+  }
+
+  /**
+   * 清空共享仓库和当前线程的弹夹
+   */
+  public void trim() {
+    magazines.remove();
+    for (ConcurrentLinkedQueue<byte[]> queue : depot) {
+      byte[] array;
+      while ((array = queue.poll()) != null) {
+        retained.addAndGet(-array.length);
+      }
+    }
+  }
+
+  int sizeClass(int size) {
+    if (size > maxSize) {
+      return -1;
+    }
+    return size <= minSize ? 0 : Integer.numberOfTrailingZeros(ceilingPowerOfTwo(size)) - minShift;
+  }
+
+  void onLeak(int length, Throwable trace) {
+    leaks.incrementAndGet();
+    if (trace != null) {
+      log.warn("PooledBytes[{}] 未调用release()就被GC回收，申请的位置: ", length, trace);
+    } else {
+      log.warn("PooledBytes[{}] 未调用release()就被GC回收", length);
+    }
+  }
+
+  public int getMinSize() {
+    return minSize;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  public int getMagazineSize() {
+    return magazineSize;
+  }
+
+  public boolean isLeakDetection() {
+    return leakDetection;
+  }
+
+  public void setLeakDetection(boolean leakDetection) {
+    this.leakDetection = leakDetection;
+  }
+
+  /**
+   * 共享仓库中空闲数组的字节数
+   */
+  public long getRetainedBytes() {
+    return retained.get();
+  }
+
+  /**
+   * 新分配数组的次数
+   */
+  public long getAllocations() {
+    return allocations.get();
+  }
+
+  /**
+   * 检测到的泄漏次数
+   */
+  public long getLeaks() {
+    return leaks.get();
+  }
+
+  static int ceilingPowerOfTwo(int size) {
+    return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+  }
+
+  /**
+   * 线程本地的弹夹，每个规格一个小栈
+   */
+  static final class Magazine {
+
+    final byte[][][] stacks;
+    final int[] counts;
+
+    Magazine(int classes, int capacity) {
+      this.stacks = new byte[classes][capacity][];
+      this.counts = new int[classes];
+    }
+
+    byte[] pop(int index) {
+      if (index >= counts.length) {
+        return null;
+      }
+      int count = counts[index];
+      if (count == 0) {
+        return null;
+      }
+      byte[][] stack = stacks[index];
+      byte[] array = stack[--count];
+      stack[count] = null;
+      counts[index] = count;
+      return array;
+    }
+
+    boolean push(int index, byte[] array) {
+      if (index >= counts.length) {
+        return false;
+      }
+      byte[][] stack = stacks[index];
+      int count = counts[index];
+      if (count >= stack.length) {
+        return false;
+      }
+      stack[count] = array;
+      counts[index] = count + 1;
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.benefitj.core.pool;
+
+import java.lang.ref.Cleaner;
+
+/**
+ * 从 {@link ByteArrayPool} 获取的缓冲(租约)，数组长度不小于申请的大小，
+ * 有效数据的长度为 {@link #length()}，调用 {@link #release()} 后不能再使用数组
+ */
+public final class PooledBytes implements AutoCloseable {
+
+  private final ByteArrayPool pool;
+  private final byte[] array;
+  private final int length;
+  /**
+   * 泄漏检测的状态，未开启时为null
+   */
+  private final LeakState state;
+  private final Cleaner.Cleanable cleanable;
+  private volatile boolean released = false;
+
+  PooledBytes(ByteArrayPool pool, byte[] array, int length, boolean leakDetection) {
+    this.pool = pool;
+    this.array = array;
+    this.length = length;
+    if (leakDetection) {
+      this.state = new LeakState(pool, array.length, new Throwable("PooledBytes acquire"));
+      this.cleanable = ByteArrayPool.CLEANER.register(this, state);
+    } else {
+      this.state = null;
+      this.cleanable = null;
+    }
+  }
+
+  /**
+   * 数组，长度可能大于 {@link #length()}
+   */
+  public byte[] array() {
+    if (released) {
+      throw new IllegalStateException("缓冲已被释放");
+    }
+    return array;
+  }
+
+  /**
+   * 申请的长度
+   */
+  public int length() {
+    return length;
+  }
+
+  public boolean isReleased() {
+    return released;
+  }
+
+  /**
+   * 归还到池中，重复调用无影响
+   */
+  public void release() {
+    if (released) {
+      return;
+    }
+    synchronized (this) {
+      if (released) {
+        return;
+      }
+      released = true;
+    }
+    if (state != null) {
+      state.released = true;
+      cleanable.clean();
+    }
+    pool.release(array);
+  }
+
+  @Override
+  public void close() {
+    release();
+  }
+
+  /**
+   * 立即执行泄漏检测的清理动作(等同于被GC回收)，只执行一次，用于测试
+   */
+  void runLeakCheck() {
+    if (cleanable != null) {
+      cleanable.clean();
+    }
+  }
+
+  /**
+   * 泄漏检测的状态，不能引用 PooledBytes 本身
+   */
+  static final class LeakState implements Runnable {
+
+    final ByteArrayPool pool;
+    final int length;
+    final Throwable trace;
+    volatile boolean released = false;
+
+    LeakState(ByteArrayPool pool, int length, Throwable trace) {
+      this.pool = pool;
+      this.length = length;
+      this.trace = trace;
+    }
+
+    @Override
+    public void run() {
+      if (!released) {
+        pool.onLeak(length, trace);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+package com.benefitj.core.concurrent;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程
+ * <p>
+ * JDK 21+ 的实现
+ */
+public final class VirtualThreads {
+
+  static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * 是否支持虚拟线程
+   */
+  public static boolean isSupported() {
+    return true;
+  }
+
+  /**
+   * 创建虚拟线程的工厂
+   *
+   * @param namePrefix 线程名前缀
+   * @return 返回线程工厂
+   */
+  public static ThreadFactory newThreadFactory(String namePrefix) {
+    return Thread.ofVirtual().name(namePrefix, 1).factory();
+  }
+
+  /**
+   * 创建每个任务一个虚拟线程的执行器
+   *
+   * @param namePrefix 线程名前缀
+   * @return 返回执行器
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    return Executors.newThreadPerTaskExecutor(newThreadFactory(namePrefix));
+  }
+
+  /**
+   * 监听虚拟线程被固定在载体线程上(如在 synchronized 中阻塞)，超过阈值时打印堆栈
+   *
+   * @param threshold 阈值
+   * @return 返回监听，关闭后停止
+   */
+  public static AutoCloseable monitorPinning(Duration threshold) {
+    RecordingStream rs = new RecordingStream();
+    rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    rs.onEvent(PINNED_EVENT, event -> {
+      RecordedThread thread = event.getThread();
+      StringBuilder sb = new StringBuilder();
+      RecordedStackTrace stackTrace = event.getStackTrace();
+      if (stackTrace != null) {
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+          sb.append("\n\tat ")
+              .append(frame.getMethod().getType().getName())
+              .append('.')
+              .append(frame.getMethod().getName())
+              .append(':')
+              .append(frame.getLineNumber());
+        }
+      }
+      log.warn("virtual thread pinned {}ms, thread: {}{}", event.getDuration().toMillis()
+          , thread != null ? thread.getJavaName() : null, sb);
+    });
+    rs.startAsync();
+    return rs;
+  }
+
+}
@@ -0,0 +1,173 @@
+package com.benefitj.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryHelperTest extends BaseTest {
+
+  final BinaryHelper helper = BinaryHelper.BIG_ENDIAN;
+
+  @Test
+  public void testWriteAndReadAtOffset() {
+    byte[] buf = new byte[16];
+    helper.writeShort(buf, 1, (short) 0x1234, ByteOrder.BIG_ENDIAN);
+    assertArrayEquals(new byte[]{0, 0x12, 0x34, 0}, Arrays.copyOf(buf, 4));
+    helper.writeShort(buf, 1, (short) 0x1234, ByteOrder.LITTLE_ENDIAN);
+    assertArrayEquals(new byte[]{0, 0x34, 0x12, 0}, Arrays.copyOf(buf, 4));
+
+    helper.writeInt(buf, 3, 0x01020304, ByteOrder.BIG_ENDIAN);
+    assertArrayEquals(new byte[]{1, 2, 3, 4}, Arrays.copyOfRange(buf, 3, 7));
+    assertEquals(0x01020304, helper.readInt(buf, 3, ByteOrder.BIG_ENDIAN));
+    assertEquals(0x04030201, helper.readInt(buf, 3, ByteOrder.LITTLE_ENDIAN));
+
+    helper.writeLong(buf, 7, 0x0102030405060708L, ByteOrder.LITTLE_ENDIAN);
+    assertArrayEquals(new byte[]{8, 7, 6, 5, 4, 3, 2, 1}, Arrays.copyOfRange(buf, 7, 15));
+    assertEquals(0x0102030405060708L, helper.readLong(buf, 7, ByteOrder.LITTLE_ENDIAN));
+    assertEquals(0x0807060504030201L, helper.readLong(buf, 7, ByteOrder.BIG_ENDIAN));
+
+    // 默认字节序
+    helper.writeInt(buf, 0, -2);
+    assertEquals(-2, helper.readInt(buf, 0));
+    assertEquals(0xFFFFFFFEL, helper.readUnsignedInt(buf, 0, ByteOrder.BIG_ENDIAN));
+    helper.writeShort(buf, 0, (short) -2);
+    assertEquals(-2, helper.readShort(buf, 0));
+    assertEquals(0xFFFE, helper.readUnsignedShort(buf, 0, ByteOrder.BIG_ENDIAN));
+
+    helper.writeFloat(buf, 2, 3.5f, ByteOrder.LITTLE_ENDIAN);
+    assertEquals(3.5f, helper.readFloat(buf, 2, ByteOrder.LITTLE_ENDIAN));
+    assertEquals(Float.floatToRawIntBits(3.5f), helper.readInt(buf, 2, ByteOrder.LITTLE_ENDIAN));
+    helper.writeDouble(buf, 5, -0.125, ByteOrder.BIG_ENDIAN);
+    assertEquals(-0.125, helper.readDouble(buf, 5, ByteOrder.BIG_ENDIAN));
+
+    assertThrows(IndexOutOfBoundsException.class, () -> helper.readLong(buf, 9, ByteOrder.BIG_ENDIAN));
+    assertThrows(IndexOutOfBoundsException.class, () -> helper.writeInt(buf, -1, 0, ByteOrder.BIG_ENDIAN));
+  }
+
+  @Test
+  public void testByteBufferKeepsPositionAndOrder() {
+    for (ByteBuffer buf : new ByteBuffer[]{ByteBuffer.allocate(16), ByteBuffer.allocateDirect(16)}) {
+      buf.position(3);
+      helper.writeInt(buf, 4, 0xCAFEBABE, ByteOrder.LITTLE_ENDIAN);
+      helper.writeShort(buf, 0, (short) 0xABCD, ByteOrder.BIG_ENDIAN);
+      helper.writeLong(buf, 8, Long.MIN_VALUE + 1, ByteOrder.BIG_ENDIAN);
+      assertEquals(3, buf.position());
+      assertEquals(ByteOrder.BIG_ENDIAN, buf.order());
+      assertEquals((byte) 0xBE, buf.get(4));
+      assertEquals(0xCAFEBABE, helper.readInt(buf, 4, ByteOrder.LITTLE_ENDIAN));
+      assertEquals(0xCAFEBABEL, helper.readUnsignedInt(buf, 4, ByteOrder.LITTLE_ENDIAN));
+      assertEquals((short) 0xABCD, helper.readShort(buf, 0, ByteOrder.BIG_ENDIAN));
+      assertEquals(0xCDAB, helper.readUnsignedShort(buf, 0, ByteOrder.LITTLE_ENDIAN));
+      assertEquals(Long.MIN_VALUE + 1, helper.readLong(buf, 8, ByteOrder.BIG_ENDIAN));
+    }
+  }
+
+  @Test
+  public void testBytesToMatchesReadAt() {
+    byte[] data = {0x7F, (byte) 0x80, (byte) 0xFF, 0x01, 0x02, (byte) 0x83, 0x44, 0x55, 0x66, 0x77};
+    for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      for (int off = 0; off + 8 <= data.length; off++) {
+        // 完整位宽走 VarHandle，与按偏移读取一致
+        assertEquals(helper.readShort(data, off, order), helper.bytesToShort(data, off, 2, order, true));
+        assertEquals(helper.readInt(data, off, order), helper.bytesToInt(data, off, 4, order, true));
+        assertEquals(helper.readLong(data, off, order), helper.bytesToLong(data, off, 8, order, true));
+      }
+    }
+  }
+
+  @Test
+  public void testPartialWidthWithOffset() {
+    byte[] data = {0x11, 0x22, (byte) 0xF0, 0x01, 0x33};
+    // 小端无符号按偏移读取，不能从 0 开始
+    assertEquals(0x01F0, helper.bytesToInt(data, 2, 2, ByteOrder.LITTLE_ENDIAN, false));
+    assertEquals(0x01F0, helper.bytesToLong(data, 2, 2, ByteOrder.LITTLE_ENDIAN, false));
+    assertEquals(0xF001, helper.bytesToInt(data, 2, 2, ByteOrder.BIG_ENDIAN, false));
+    // 3 字节有符号
+    assertEquals(0xFFF00133, helper.bytesToInt(data, 2, 3, ByteOrder.BIG_ENDIAN, true));
+    assertEquals(0x00F00133, helper.bytesToInt(data, 2, 3, ByteOrder.BIG_ENDIAN, false));
+    assertEquals((short) 0xFFF0, helper.bytesToShort(data, 2, 1, ByteOrder.BIG_ENDIAN, true));
+    assertEquals((short) 0x00F0, helper.bytesToShort(data, 2, 1, ByteOrder.LITTLE_ENDIAN, false));
+  }
+
+  @Test
+  public void testDecodeIntoMatchesScalar() {
+    byte[] src = new byte[3 + 8 * 17];
+    new Random(7).nextBytes(src);
+    int count = 17;
+    for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      for (boolean signed : new boolean[]{true, false}) {
+        for (int size = 1; size <= 2; size++) {
+          short[] dst = helper.decodeInto(new short[count + 1], 1, src, 3, count, size, order, signed);
+          assertEquals(0, dst[0]);
+          for (int i = 0; i < count; i++) {
+            assertEquals(helper.bytesToShort(src, 3 + i * size, size, order, signed), dst[i + 1]);
+          }
+        }
+        for (int size = 1; size <= 4; size++) {
+          int[] dst = helper.decodeInto(new int[count], 0, src, 3, count, size, order, signed);
+          for (int i = 0; i < count; i++) {
+            assertEquals(helper.bytesToInt(src, 3 + i * size, size, order, signed), dst[i], "size=" + size + ", i=" + i);
+          }
+        }
+        for (int size = 1; size <= 8; size++) {
+          long[] dst = helper.decodeInto(new long[count], 0, src, 3, count, size, order, signed);
+          for (int i = 0; i < count; i++) {
+            assertEquals(helper.bytesToLong(src, 3 + i * size, size, order, signed), dst[i], "size=" + size + ", i=" + i);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeIntoRoundTrip() {
+    int[] ints = {0, 1, -1, 0x7FFFFF, -0x800000, 12345, -12345};
+    for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      // 3 字节有符号，值在 24 位范围内
+      byte[] bytes = helper.encodeInto(new byte[ints.length * 3 + 2], 2, ints, 0, ints.length, 3, order);
+      assertArrayEquals(ints, helper.decodeInto(new int[ints.length], 0, bytes, 2, ints.length, 3, order, true));
+
+      bytes = helper.encodeInto(new byte[ints.length * 4], 0, ints, 0, ints.length, 4, order);
+      assertArrayEquals(ints, helper.decodeInto(new int[ints.length], 0, bytes, 0, ints.length, 4, order, true));
+
+      short[] shorts = {0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE};
+      bytes = helper.encodeInto(new byte[shorts.length * 2], 0, shorts, 0, shorts.length, 2, order);
+      assertArrayEquals(shorts, helper.decodeInto(new short[shorts.length], 0, bytes, 0, shorts.length, 2, order, true));
+
+      long[] longs = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, 0x0102030405060708L};
+      bytes = helper.encodeInto(new byte[longs.length * 8], 0, longs, 0, longs.length, 8, order);
+      assertArrayEquals(longs, helper.decodeInto(new long[longs.length], 0, bytes, 0, longs.length, 8, order, true));
+      // 与逐个转换的结果一致
+      for (int i = 0; i < longs.length; i++) {
+        assertArrayEquals(helper.longToBytes(longs[i], order), Arrays.copyOfRange(bytes, i * 8, i * 8 + 8));
+      }
+    }
+    // 超出字节数的高位被截断
+    byte[] bytes = helper.encodeInto(new byte[2], 0, new int[]{0x12345678}, 0, 1, 2, ByteOrder.BIG_ENDIAN);
+    assertArrayEquals(new byte[]{0x56, 0x78}, bytes);
+  }
+
+  @Test
+  public void testBulkEdgeCases() {
+    // 数量为 0
+    assertArrayEquals(new int[2], helper.decodeInto(new int[2], 2, new byte[0], 0, 0, 4, ByteOrder.BIG_ENDIAN, true));
+    assertArrayEquals(new byte[0], helper.encodeInto(new byte[0], 0, new long[0], 0, 0, 8, ByteOrder.BIG_ENDIAN));
+    // 越界和非法的字节数
+    assertThrows(IndexOutOfBoundsException.class, () -> helper.decodeInto(new int[4], 0, new byte[15], 0, 4, 4, ByteOrder.BIG_ENDIAN, true));
+    assertThrows(IndexOutOfBoundsException.class, () -> helper.decodeInto(new int[3], 0, new byte[16], 0, 4, 4, ByteOrder.BIG_ENDIAN, true));
+    assertThrows(IndexOutOfBoundsException.class, () -> helper.encodeInto(new byte[7], 0, new short[4], 0, 4, 2, ByteOrder.BIG_ENDIAN));
+    assertThrows(IllegalArgumentException.class, () -> helper.decodeInto(new long[1], 0, new byte[8], 0, 1, 0, ByteOrder.BIG_ENDIAN, true));
+
+    byte[] data = {0x00, 0x01, (byte) 0xFF, (byte) 0xFE, 0x7F};
+    assertArrayEquals(new int[]{1, 0xFFFE}, helper.parseIntArray(data, 0, 4, 2, false));
+    assertArrayEquals(new short[]{1, -2}, helper.parseShortArray(data, 0, 5, 2, true));
+    assertArrayEquals(new byte[]{0x00, 0x01, (byte) 0xFF, (byte) 0xFE},
+        new BinaryHelper().arrayToBytes(new int[]{1, -2}, 16));
+  }
+
+}
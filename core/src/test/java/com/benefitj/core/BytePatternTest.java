@@ -0,0 +1,196 @@
+package com.benefitj.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BytePatternTest extends BaseTest {
+
+  @Test
+  public void testIndexOf() {
+    byte[] data = {0x01, 0x55, (byte) 0xAA, 0x02, 0x55, 0x55, (byte) 0xAA};
+    BytePattern head = BytePattern.compile(new byte[]{0x55, (byte) 0xAA});
+    assertEquals(1, head.indexOf(data));
+    assertEquals(5, head.indexOf(data, 2, data.length));
+    // 匹配需要完整落在范围内
+    assertEquals(-1, head.indexOf(data, 2, data.length - 1));
+    // 末尾的匹配
+    assertEquals(5, head.indexOf(data, 5, data.length));
+    assertEquals(-1, head.indexOf(data, 6, data.length));
+    // 空范围、比查找的字节更短的数据
+    assertEquals(-1, head.indexOf(data, 3, 3));
+    assertEquals(-1, head.indexOf(new byte[]{0x55}));
+    assertEquals(-1, head.indexOf(new byte[0]));
+    assertThrows(IndexOutOfBoundsException.class, () -> head.indexOf(data, 0, data.length + 1));
+    assertThrows(IllegalArgumentException.class, () -> BytePattern.compile(new byte[0]));
+
+    // 单字节
+    BytePattern one = BytePattern.compile(new byte[]{(byte) 0xAA});
+    assertEquals(2, one.indexOf(data));
+    assertEquals(6, one.indexOf(data, 3, data.length));
+
+    assertTrue(head.matches(data, 5));
+    assertFalse(head.matches(data, 6));
+    assertFalse(head.matches(data, -1));
+  }
+
+  @Test
+  public void testOverlapping() {
+    byte[] data = {1, 1, 1, 2, 1, 1, 2};
+    BytePattern p = BytePattern.compile(new byte[]{1, 1, 2});
+    assertEquals(1, p.indexOf(data));
+    assertEquals(4, p.indexOf(data, 2, data.length));
+    BytePattern aaa = BytePattern.compile(new byte[]{7, 7, 7});
+    byte[] sevens = {7, 7, 7, 7};
+    assertEquals(0, aaa.indexOf(sevens));
+    assertEquals(1, aaa.indexOf(sevens, 1, 4));
+    assertEquals(-1, aaa.indexOf(sevens, 2, 4));
+  }
+
+  @Test
+  public void testBufferAndSource() {
+    byte[] raw = {9, 9, 0x01, 0x55, (byte) 0xAA, 0x02, 0x55, (byte) 0xAA};
+    BytePattern head = BytePattern.compile(new byte[]{0x55, (byte) 0xAA});
+    // 带偏移的堆缓冲，返回相对位置
+    ByteBuffer slice = ByteBuffer.wrap(raw, 2, raw.length - 2).slice();
+    assertEquals(1, head.indexOf(slice, 0, slice.limit()));
+    assertEquals(4, head.indexOf(slice, 2, slice.limit()));
+    assertEquals(0, slice.position());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(raw.length).put(raw);
+    direct.flip();
+    assertEquals(3, head.indexOf(direct, 0, direct.limit()));
+    assertEquals(6, head.indexOf(direct, 4, direct.limit()));
+    assertEquals(-1, head.indexOf(direct, 7, direct.limit()));
+    assertEquals(6, head.indexOf(i -> raw[i], 4, raw.length));
+  }
+
+  @Test
+  public void testMatchesNaiveSearch() {
+    Random random = new Random(11);
+    // 较小的字母表，产生大量部分匹配
+    byte[] data = new byte[4096];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) random.nextInt(3);
+    }
+    for (int n = 1; n <= 6; n++) {
+      for (int k = 0; k < 20; k++) {
+        byte[] find = new byte[n];
+        for (int i = 0; i < n; i++) {
+          find[i] = (byte) random.nextInt(3);
+        }
+        BytePattern p = BytePattern.compile(find);
+        int from = random.nextInt(100);
+        int to = data.length - random.nextInt(100);
+        int expected = naiveIndexOf(data, from, to, find);
+        assertEquals(expected, p.indexOf(data, from, to));
+        assertEquals(expected, p.indexOf(i -> data[i], from, to));
+        assertEquals(BinaryHelper.BIG_ENDIAN.indexOf(data, from, to - from, find),
+            BinaryHelper.BIG_ENDIAN.indexOf(data, from, to - from, p));
+      }
+    }
+  }
+
+  @Test
+  public void testBinaryHelperIndexOf() {
+    BinaryHelper helper = BinaryHelper.BIG_ENDIAN;
+    byte[] data = {0x01, 0x02, 0x03, 0x04};
+    // 最后一个位置和最后一个字节都参与比较
+    assertEquals(2, helper.indexOf(data, new byte[]{0x03, 0x04}));
+    assertEquals(-1, helper.indexOf(data, new byte[]{0x03, 0x05}));
+    assertEquals(3, helper.indexOf(data, 3, 1, BytePattern.compile(new byte[]{0x04})));
+    assertEquals(-1, helper.indexOf(data, 0, 0, BytePattern.compile(new byte[]{0x01})));
+    assertEquals(-1, helper.indexOf(data, 0, 0, new byte[]{0x01}));
+  }
+
+  @Test
+  public void testMultiPattern() {
+    byte[] v1 = {0x55, (byte) 0xAA};
+    byte[] v2 = {(byte) 0xAA, 0x01, 0x02};
+    byte[] v3 = {0x55, (byte) 0xAA, 0x03};
+    MultiBytePattern heads = MultiBytePattern.compile(v1, v2, v3);
+    assertEquals(3, heads.size());
+    assertEquals(3, heads.maxLength());
+
+    byte[] data = {0x00, (byte) 0xAA, 0x01, 0x02, 0x55, (byte) 0xAA, 0x03};
+    long found = heads.find(data, 0, data.length);
+    assertEquals(1, MultiBytePattern.start(found));
+    assertEquals(1, MultiBytePattern.patternIndex(found));
+    // 相同位置开始的匹配，先结束的优先
+    found = heads.find(data, 2, data.length);
+    assertEquals(4, MultiBytePattern.start(found));
+    assertEquals(0, MultiBytePattern.patternIndex(found));
+    // 末尾的匹配
+    assertEquals(4, heads.indexOf(data, 4, 6));
+    assertEquals(-1, heads.find(data, 5, data.length));
+    assertEquals(-1, heads.find(new byte[0], 0, 0));
+
+    // 后缀上的匹配: "AA 01 02" 包含在 "55 AA 01 02" 中
+    byte[] overlap = {0x55, (byte) 0xAA, 0x01, 0x02};
+    found = heads.find(overlap, 0, overlap.length);
+    assertEquals(0, MultiBytePattern.start(found));
+    assertEquals(0, MultiBytePattern.patternIndex(found));
+    found = heads.find(overlap, 1, overlap.length);
+    assertEquals(1, MultiBytePattern.start(found));
+    assertEquals(1, MultiBytePattern.patternIndex(found));
+
+    ByteBuffer slice = ByteBuffer.wrap(data, 3, 4).slice();
+    found = heads.find(slice, 0, slice.limit());
+    assertEquals(1, MultiBytePattern.start(found));
+    assertEquals(0, MultiBytePattern.patternIndex(found));
+
+    assertThrows(IllegalArgumentException.class, () -> MultiBytePattern.compile(v1, new byte[0]));
+  }
+
+  @Test
+  public void testMultiPatternMatchesNaiveSearch() {
+    Random random = new Random(13);
+    byte[] data = new byte[2048];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) random.nextInt(4);
+    }
+    for (int k = 0; k < 50; k++) {
+      byte[][] patterns = new byte[1 + random.nextInt(4)][];
+      for (int i = 0; i < patterns.length; i++) {
+        patterns[i] = new byte[1 + random.nextInt(6)];
+        for (int j = 0; j < patterns[i].length; j++) {
+          patterns[i][j] = (byte) random.nextInt(4);
+        }
+      }
+      MultiBytePattern mp = MultiBytePattern.compile(patterns);
+      int from = random.nextInt(data.length);
+      int expected = -1;
+      for (byte[] p : patterns) {
+        int index = naiveIndexOf(data, from, data.length, p);
+        if (index >= 0 && (expected < 0 || index < expected)) {
+          expected = index;
+        }
+      }
+      long found = mp.find(data, from, data.length);
+      assertEquals(expected, found >= 0 ? MultiBytePattern.start(found) : -1);
+      if (found >= 0) {
+        // 返回的索引在该位置匹配
+        byte[] p = patterns[MultiBytePattern.patternIndex(found)];
+        assertTrue(BytePattern.compile(p).matches(data, MultiBytePattern.start(found)));
+      }
+      assertEquals(found, mp.find(i -> data[i], from, data.length));
+    }
+  }
+
+  static int naiveIndexOf(byte[] src, int from, int to, byte[] find) {
+    outer:
+    for (int i = from; i + find.length <= to; i++) {
+      for (int j = 0; j < find.length; j++) {
+        if (src[i + j] != find[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+}
@@ -2,7 +2,12 @@ package com.benefitj.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.text.SimpleDateFormat;
 import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class DateFmtterTest extends BaseTest {
 
@@ -15,4 +20,29 @@ class DateFmtterTest extends BaseTest {
     log.info("getOffset: {}", time.getOffset());
   }
 
-}
\ No newline at end of file
+  /**
+   * 与 SimpleDateFormat 的结果一致(u、Y、S、a 等字母与 DateTimeFormatter 含义不同)
+   */
+  @Test
+  void test_fmtSameAsSimpleDateFormat() {
+    String[] patterns = {
+        DateFmtter._yMdHmsS, "yyyyMMddHHmmss", "u EEE", "YYYY-ww", "S", "SSS", "a hh:mm",
+        "yy-M-d H:m:s", "D F E", "k K h", "z Z", "G yyyy MMM", "'T'HH'h'"
+    };
+    TimeZone utc = TimeZone.getTimeZone("UTC");
+    long[] times = {0L, 1_600_000_000_007L, 1_735_660_799_999L, 1_789_000_123_456L};
+    for (String pattern : patterns) {
+      for (long time : times) {
+        SimpleDateFormat sdf = new SimpleDateFormat(pattern, Locale.getDefault());
+        assertEquals(sdf.format(time), DateFmtter.fmt(time, pattern), pattern);
+        sdf.setTimeZone(utc);
+        assertEquals(sdf.format(time), DateFmtter.fmtUtc(time, pattern), pattern);
+      }
+      // 当前时间：只比较不随秒变化的格式
+      if (!pattern.contains("s") && !pattern.contains("S") && !pattern.contains("m")) {
+        assertEquals(new SimpleDateFormat(pattern, Locale.getDefault()).format(DateFmtter.now()), DateFmtter.fmtNow(pattern), pattern);
+      }
+    }
+  }
+
+}
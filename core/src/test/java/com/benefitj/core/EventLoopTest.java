@@ -1,5 +1,6 @@
 package com.benefitj.core;
 
+import com.benefitj.core.cron.CompiledCron;
 import com.benefitj.core.cron.CronExpression;
 import com.benefitj.core.cron.CronExpressionGenerator;
 import com.benefitj.core.cron.CronTimeUnit;
@@ -15,13 +16,19 @@ import org.junit.jupiter.api.Test;
 
 import java.text.ParseException;
 import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 
 @Slf4j
 class EventLoopTest {
@@ -58,6 +65,29 @@ class EventLoopTest {
     EventLoop.sleepSecond(Integer.MAX_VALUE);
   }
 
+  @Test
+  void testScheduleCronValidatesEagerly() {
+    // 无效的表达式在调用方抛出
+    assertThrows(IllegalArgumentException.class, () -> EventLoop.io().scheduleCron("0 0 25 * * ?", () -> {}));
+  }
+
+  @Test
+  void testScheduleCronFollowsTimeZone() throws Exception {
+    CronExpression cron = new CronExpression("* * * * * ?");
+    CountDownLatch latch = new CountDownLatch(2);
+    ScheduledFuture<?> future = EventLoop.io().scheduleCron(cron, latch::countDown, true);
+    try {
+      CompiledCron first = cron.compile();
+      // 调度期间修改时区，重新调度时使用新的编译结果
+      cron.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertNotSame(first, cron.compile());
+      assertEquals(ZoneId.of("Asia/Tokyo"), cron.getTimeZone().toZoneId());
+    } finally {
+      future.cancel(true);
+    }
+  }
+
   @Test
   void testCronGenerate() {
     // 示例1：每天8:30执行
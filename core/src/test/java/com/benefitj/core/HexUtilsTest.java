@@ -2,10 +2,16 @@ package com.benefitj.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class HexUtilsTest extends BaseTest {
 
@@ -43,4 +49,79 @@ public class HexUtilsTest extends BaseTest {
     IOUtils.write(decode, IOUtils.createFile(f.getParentFile(), "base64.pdf"));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testEncodeHexKnownAnswer() {
+    byte[] data = {0x00, 0x01, 0x7F, (byte) 0x80, (byte) 0xAB, (byte) 0xFF};
+    assertEquals("00017F80ABFF", HexUtils.bytesToHex(data));
+    assertEquals("00017f80abff", HexUtils.encodeHex(data, 0, data.length, new StringBuilder(), true).toString());
+
+    char[] chars = new char[6];
+    assertEquals(4, HexUtils.encodeHex(data, 3, 2, chars, 1, false));
+    assertArrayEquals(new char[]{0, '8', '0', 'A', 'B', 0}, chars);
+
+    byte[] ascii = new byte[4];
+    assertEquals(4, HexUtils.encodeHex(data, 4, 2, ascii, 0, true));
+    assertEquals("abff", new String(ascii, StandardCharsets.US_ASCII));
+
+    // 空数据
+    assertEquals(0, HexUtils.encodeHex(new byte[0], 0, 0, new char[0], 0, false));
+    assertEquals("", HexUtils.encodeHex(data, 6, 0, new StringBuilder(), false).toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> HexUtils.encodeHex(data, 0, 6, new char[11], 0, false));
+  }
+
+  @Test
+  public void testEncodeHexToStream() throws Exception {
+    // 超过一次分段(512字节)的数据
+    byte[] data = new byte[1500];
+    new Random(3).nextBytes(data);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HexUtils.encodeHex(data, 1, data.length - 1, out, false);
+    assertEquals(HexUtils.bytesToHex(Arrays.copyOfRange(data, 1, data.length)), out.toString("US-ASCII"));
+  }
+
+  @Test
+  public void testDecodeHex() {
+    byte[] dst = new byte[5];
+    assertEquals(3, HexUtils.decodeHex("xx00aBFf", 2, 6, dst, 1));
+    assertArrayEquals(new byte[]{0, 0x00, (byte) 0xAB, (byte) 0xFF, 0}, dst);
+    assertEquals(0, HexUtils.decodeHex("", 0, 0, new byte[0], 0));
+
+    // 奇数长度、非16进制字符(包括非ASCII)、越界
+    assertThrows(IllegalArgumentException.class, () -> HexUtils.decodeHex("ABC", 0, 3, new byte[2], 0));
+    assertThrows(IllegalArgumentException.class, () -> HexUtils.decodeHex("0G", 0, 2, new byte[1], 0));
+    assertThrows(IllegalArgumentException.class, () -> HexUtils.decodeHex("0\u00C0", 0, 2, new byte[1], 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> HexUtils.decodeHex("ABCD", 0, 4, new byte[1], 0));
+
+    // 往返
+    byte[] data = new byte[257];
+    new Random(5).nextBytes(data);
+    String hex = HexUtils.bytesToHex(data);
+    byte[] decoded = new byte[data.length];
+    HexUtils.decodeHex(hex.toLowerCase(), 0, hex.length(), decoded, 0);
+    assertArrayEquals(data, decoded);
+    assertArrayEquals(data, HexUtils.hexToBytes(hex));
+  }
+
+  @Test
+  public void testHexDump() {
+    byte[] data = {0x01, 0x02, (byte) 0xFE};
+    assertEquals("0102FE", HexDump.of(data).toString());
+    assertEquals("02FE", HexDump.of(data, 1, 2).toString());
+    assertEquals("01...", HexDump.of(data, true, 1).toString());
+    assertEquals("0102fe", HexDump.of(data, true, 3).toString());
+    assertEquals("", HexDump.of(new byte[0]).toString());
+    assertEquals("null", HexDump.of(null).toString());
+    assertEquals("[0102FE]", HexDump.of(data).appendTo(new StringBuilder("[")).append(']').toString());
+
+    // 只有格式化时才获取数据
+    AtomicInteger calls = new AtomicInteger();
+    HexDump dump = HexDump.lazy(() -> {
+      calls.incrementAndGet();
+      return data;
+    });
+    assertEquals(0, calls.get());
+    assertEquals("0102FE", dump.toString());
+    assertEquals(1, calls.get());
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.benefitj.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeIdWorkerTest extends BaseTest {
+
+  @Test
+  public void testUniqueAndIncreasing() {
+    SnowflakeIdWorker worker = new SnowflakeIdWorker(1, 2);
+    long last = 0;
+    for (int i = 0; i < 100_000; i++) {
+      long id = worker.nextId();
+      assertTrue(id > last);
+      last = id;
+    }
+    long[] ids = worker.nextIds(10_000, new long[10_000]);
+    Set<Long> set = new HashSet<>();
+    for (long id : ids) {
+      assertTrue(id > last);
+      last = id;
+      set.add(id);
+    }
+    assertEquals(ids.length, set.size());
+  }
+
+  @Test
+  public void testConcurrentUnique() throws InterruptedException {
+    SnowflakeIdWorker worker = new SnowflakeIdWorker(0, 0).setLeaseSize(64);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    int threads = 8, count = 50_000;
+    CountDownLatch latch = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        for (int i = 0; i < count; i++) {
+          ids.add(worker.nextId());
+        }
+        latch.countDown();
+      }).start();
+    }
+    latch.await();
+    assertEquals(threads * count, ids.size());
+  }
+
+  @Test
+  public void testClockRollback() {
+    AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    SnowflakeIdWorker worker = new SnowflakeIdWorker(0, 0) {
+      @Override
+      protected long timeGen() {
+        return clock.get();
+      }
+    }.setRollbackPolicy(SnowflakeIdWorker.RollbackPolicy.BORROW).setMaxRollbackMillis(5);
+    long first = worker.nextId();
+    clock.addAndGet(-3);
+    long second = worker.nextId();
+    assertTrue(second > first);
+    clock.addAndGet(-10);
+    assertThrows(IllegalArgumentException.class, worker::nextId);
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.benefitj.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedIdsTest extends BaseTest {
+
+  static final Pattern ULID = Pattern.compile("[0-7][0-9A-HJKMNP-TV-Z]{25}");
+  static final Pattern UUID_HEX = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-7[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
+
+  @Test
+  public void testUuidV7Format() {
+    long before = System.currentTimeMillis();
+    UUID uuid = TimeOrderedIds.uuidV7();
+    long after = System.currentTimeMillis();
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    // 高48位为unix毫秒，计数器溢出时可能透支到之后的毫秒
+    long ts = uuid.getMostSignificantBits() >>> 16;
+    assertTrue(ts >= before && ts <= after + 1, "ts=" + ts);
+
+    String str = TimeOrderedIds.uuidV7String();
+    assertTrue(UUID_HEX.matcher(str).matches(), str);
+    assertEquals(str, UUID.fromString(str).toString());
+    assertEquals(7, UUID.fromString(str).version());
+
+    // 编码与 UUID.toString() 一致
+    char[] dst = new char[40];
+    assertEquals(36, TimeOrderedIds.encodeUuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dst, 2, true));
+    assertEquals(uuid.toString(), new String(dst, 2, 36));
+    assertEquals(32, TimeOrderedIds.encodeUuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dst, 0, false));
+    assertEquals(uuid.toString().replace("-", ""), new String(dst, 0, 32));
+
+    String id = IdUtils.uuidV7();
+    assertEquals(32, id.length());
+    assertEquals('7', id.charAt(12));
+    assertTrue(UUID_HEX.matcher(IdUtils.rawUUIDv7()).matches());
+  }
+
+  @Test
+  public void testUuidV7Monotonic() {
+    // 同一毫秒内大量生成，计数器溢出时进位，顺序不变
+    String prev = TimeOrderedIds.uuidV7String();
+    long prevMsb = UUID.fromString(prev).getMostSignificantBits();
+    for (int i = 0; i < 20_000; i++) {
+      String next = TimeOrderedIds.uuidV7String();
+      assertTrue(next.compareTo(prev) > 0, prev + " >= " + next);
+      long msb = UUID.fromString(next).getMostSignificantBits();
+      assertTrue(Long.compareUnsigned(msb, prevMsb) > 0);
+      prev = next;
+      prevMsb = msb;
+    }
+
+    // 批量生成连续的计数器
+    UUID[] batch = TimeOrderedIds.uuidV7s(100, new UUID[100]);
+    for (int i = 1; i < batch.length; i++) {
+      assertTrue(Long.compareUnsigned(batch[i].getMostSignificantBits(), batch[i - 1].getMostSignificantBits()) > 0);
+      assertEquals(7, batch[i].version());
+      assertEquals(2, batch[i].variant());
+    }
+    long[] bits = TimeOrderedIds.uuidV7Bits(3, new long[6]);
+    assertEquals(7, new UUID(bits[4], bits[5]).version());
+    assertTrue(Long.compareUnsigned(bits[2], bits[0]) > 0);
+    assertTrue(Long.compareUnsigned(bits[0], batch[99].getMostSignificantBits()) > 0);
+    assertSame(batch, TimeOrderedIds.uuidV7s(0, batch));
+  }
+
+  @Test
+  public void testUlidFormat() {
+    long before = System.currentTimeMillis();
+    String ulid = TimeOrderedIds.ulid();
+    long after = System.currentTimeMillis();
+    assertEquals(26, ulid.length());
+    assertTrue(ULID.matcher(ulid).matches(), ulid);
+    long ts = TimeOrderedIds.ulidTimestamp(ulid);
+    assertTrue(ts >= before && ts <= after + 1, "ts=" + ts);
+    assertEquals(ts, TimeOrderedIds.ulidTimestamp(ulid.toLowerCase()));
+
+    // 规范中的示例: 1469918176385 -> 01ARYZ6S41
+    char[] dst = new char[26];
+    assertEquals(26, TimeOrderedIds.encodeUlid(1469918176385L << 16, 0, dst, 0));
+    assertEquals("01ARYZ6S41", new String(dst, 0, 10));
+    assertEquals(1469918176385L, TimeOrderedIds.ulidTimestamp(new String(dst)));
+    // 边界值
+    TimeOrderedIds.encodeUlid(0, 0, dst, 0);
+    assertEquals("00000000000000000000000000", new String(dst));
+    TimeOrderedIds.encodeUlid(-1, -1, dst, 0);
+    assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", new String(dst));
+    // 第64位跨越两个long
+    TimeOrderedIds.encodeUlid(1, 0, dst, 0);
+    assertEquals("0000000000000G000000000000", new String(dst));
+
+    assertThrows(IllegalArgumentException.class, () -> TimeOrderedIds.ulidTimestamp("01ARYZ6SIU"));
+  }
+
+  @Test
+  public void testUlidMonotonic() {
+    String prev = TimeOrderedIds.ulid();
+    for (int i = 0; i < 20_000; i++) {
+      String next = TimeOrderedIds.ulid();
+      assertTrue(next.compareTo(prev) > 0, prev + " >= " + next);
+      prev = next;
+    }
+    String[] batch = IdUtils.ulids(100);
+    assertTrue(batch[0].compareTo(prev) > 0);
+    for (int i = 1; i < batch.length; i++) {
+      assertTrue(batch[i].compareTo(batch[i - 1]) > 0);
+      assertTrue(ULID.matcher(batch[i]).matches());
+    }
+  }
+
+  @Test
+  public void testConcurrentUnique() throws InterruptedException {
+    int threads = 8, count = 5000;
+    Set<String> uuids = ConcurrentHashMap.newKeySet();
+    Set<String> ulids = ConcurrentHashMap.newKeySet();
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        try {
+          String prev = "";
+          for (int i = 0; i < count; i++) {
+            String uuid = TimeOrderedIds.uuidV7String();
+            // 时间戳和计数器部分(UUID的高64位、ULID的前14个字符)在全部线程中唯一
+            uuids.add(uuid.substring(0, 18));
+            String ulid = TimeOrderedIds.ulid();
+            assertTrue(ulid.compareTo(prev) > 0);
+            ulids.add(ulid.substring(0, 14));
+            prev = ulid;
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        } finally {
+          latch.countDown();
+        }
+      }).start();
+    }
+    latch.await();
+    assertTrue(errors.isEmpty(), errors.toString());
+    assertEquals(threads * count, uuids.size());
+    assertEquals(threads * count, ulids.size());
+  }
+
+}
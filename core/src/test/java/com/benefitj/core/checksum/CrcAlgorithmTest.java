@@ -0,0 +1,153 @@
+package com.benefitj.core.checksum;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrcAlgorithmTest extends BaseTest {
+
+  static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+  static final CrcAlgorithm CRC16_ARC = CrcAlgorithm.of("CRC-16/ARC", 16, 0x8005, 0x0000, true, 0x0000);
+  static final CrcAlgorithm CRC32_TABLE = CrcAlgorithm.of("CRC-32", 32, 0x04C11DB7, 0xFFFFFFFF, true, 0xFFFFFFFF);
+  static final CrcAlgorithm CRC32_BZIP2 = CrcAlgorithm.of("CRC-32/BZIP2", 32, 0x04C11DB7, 0xFFFFFFFF, false, 0xFFFFFFFF);
+  static final CrcAlgorithm CRC5_USB = CrcAlgorithm.of("CRC-5/USB", 5, 0x05, 0x1F, true, 0x1F);
+  static final CrcAlgorithm CRC7_MMC = CrcAlgorithm.of("CRC-7/MMC", 7, 0x09, 0x00, false, 0x00);
+
+  @Test
+  public void testCheckValues() {
+    // "123456789" 的校验值(CRC参数目录中的 check 值)
+    assertEquals(0xF4, CrcAlgorithm.CRC8.compute(CHECK));
+    assertEquals(0xA1, CrcAlgorithm.CRC8_MAXIM.compute(CHECK));
+    assertEquals(0x4B37, CrcAlgorithm.CRC16_MODBUS.compute(CHECK));
+    assertEquals(0x2189, CrcAlgorithm.CRC16_CCITT.compute(CHECK));
+    assertEquals(0x29B1, CrcAlgorithm.CRC16_CCITT_FALSE.compute(CHECK));
+    assertEquals(0x31C3, CrcAlgorithm.CRC16_XMODEM.compute(CHECK));
+    assertEquals(0xBB3D, CRC16_ARC.compute(CHECK));
+    assertEquals(0xCBF43926L, CrcAlgorithm.CRC32.compute(CHECK));
+    assertEquals(0xE3069283L, CrcAlgorithm.CRC32C.compute(CHECK));
+    assertEquals(0xCBF43926L, CRC32_TABLE.compute(CHECK));
+    assertEquals(0xFC891918L, CRC32_BZIP2.compute(CHECK));
+    assertEquals(0x19, CRC5_USB.compute(CHECK));
+    assertEquals(0x75, CRC7_MMC.compute(CHECK));
+  }
+
+  @Test
+  public void testEmptyInput() {
+    assertEquals(0, CrcAlgorithm.CRC32.compute(new byte[0]));
+    assertEquals(0, CRC32_TABLE.compute(new byte[0]));
+    assertEquals(0xFFFF, CrcAlgorithm.CRC16_MODBUS.compute(new byte[0]));
+    assertEquals(0xFFFF, CrcAlgorithm.CRC16_CCITT_FALSE.compute(CHECK, 3, 0));
+    assertEquals(0, CrcAlgorithm.CRC16_XMODEM.compute(ByteBuffer.allocate(0)));
+    assertEquals(0xFFFF, CrcAlgorithm.CRC16_MODBUS.newChecksum().getValue());
+    assertThrows(IndexOutOfBoundsException.class, () -> CrcAlgorithm.CRC16_MODBUS.compute(CHECK, 5, 5));
+    assertThrows(IllegalArgumentException.class, () -> CrcAlgorithm.of("CRC-33", 33, 1, 0, false, 0));
+  }
+
+  @Test
+  public void testSliceBy4MatchesBitwise() {
+    CrcAlgorithm[] algorithms = {CrcAlgorithm.CRC8, CrcAlgorithm.CRC8_MAXIM, CrcAlgorithm.CRC16_MODBUS,
+        CrcAlgorithm.CRC16_CCITT, CrcAlgorithm.CRC16_CCITT_FALSE, CrcAlgorithm.CRC16_XMODEM,
+        CRC16_ARC, CRC32_TABLE, CRC32_BZIP2, CRC5_USB, CRC7_MMC};
+    Random random = new Random(17);
+    byte[] data = new byte[300];
+    random.nextBytes(data);
+    for (CrcAlgorithm crc : algorithms) {
+      // 不同的偏移和长度，覆盖4字节分组后剩余 0 ~ 3 个字节的情况
+      for (int k = 0; k < 40; k++) {
+        int off = random.nextInt(8);
+        int len = random.nextInt(data.length - off);
+        long expected = bitwise(crc, data, off, len);
+        assertEquals(expected, crc.compute(data, off, len), crc + ", off=" + off + ", len=" + len);
+
+        ByteBuffer heap = ByteBuffer.wrap(data, off, len);
+        assertEquals(expected, crc.compute(heap), crc.toString());
+        assertEquals(off, heap.position());
+        ByteBuffer direct = ByteBuffer.allocateDirect(len).put(data, off, len);
+        direct.flip();
+        assertEquals(expected, crc.compute(direct), crc.toString());
+      }
+    }
+    // 与JDK的实现一致
+    CRC32 jdk = new CRC32();
+    jdk.update(data, 0, data.length);
+    assertEquals(jdk.getValue(), CRC32_TABLE.compute(data));
+  }
+
+  @Test
+  public void testIncremental() {
+    byte[] data = new byte[1000];
+    new Random(19).nextBytes(data);
+    for (CrcAlgorithm crc : new CrcAlgorithm[]{CrcAlgorithm.CRC16_MODBUS, CRC32_BZIP2, CRC5_USB, CrcAlgorithm.CRC32}) {
+      long expected = crc.compute(data);
+      Checksum checksum = crc.newChecksum();
+      // 分段更新：数组、单个字节、缓冲
+      checksum.update(data, 0, 333);
+      checksum.update(data[333]);
+      ByteBuffer direct = ByteBuffer.allocateDirect(300).put(data, 334, 300);
+      direct.flip();
+      checksum.update(direct);
+      assertEquals(0, direct.remaining());
+      checksum.update(ByteBuffer.wrap(data, 634, data.length - 634));
+      assertEquals(expected, checksum.getValue(), crc.toString());
+
+      checksum.reset();
+      checksum.update(CHECK, 0, CHECK.length);
+      assertEquals(crc.compute(CHECK), checksum.getValue());
+    }
+  }
+
+  @Test
+  public void testVerify() {
+    byte[] frame = new byte[CHECK.length + 2];
+    System.arraycopy(CHECK, 0, frame, 0, CHECK.length);
+    long crc = CrcAlgorithm.CRC16_MODBUS.compute(CHECK);
+    byte[] le = CrcAlgorithm.CRC16_MODBUS.toBytes(crc, ByteOrder.LITTLE_ENDIAN);
+    assertArrayEquals(new byte[]{0x37, 0x4B}, le);
+    assertArrayEquals(new byte[]{0x4B, 0x37}, CrcAlgorithm.CRC16_MODBUS.toBytes(crc, ByteOrder.BIG_ENDIAN));
+    System.arraycopy(le, 0, frame, CHECK.length, 2);
+    assertTrue(CrcAlgorithm.CRC16_MODBUS.verify(frame, 0, frame.length, ByteOrder.LITTLE_ENDIAN));
+    assertFalse(CrcAlgorithm.CRC16_MODBUS.verify(frame, 0, frame.length, ByteOrder.BIG_ENDIAN));
+    frame[0] ^= 1;
+    assertFalse(CrcAlgorithm.CRC16_MODBUS.verify(frame, 0, frame.length, ByteOrder.LITTLE_ENDIAN));
+    // 长度不足CRC的宽度
+    assertFalse(CrcAlgorithm.CRC16_MODBUS.verify(frame, 0, 1, ByteOrder.LITTLE_ENDIAN));
+  }
+
+  /**
+   * 逐位计算的参考实现
+   */
+  static long bitwise(CrcAlgorithm crc, byte[] data, int off, int len) {
+    int width = crc.getWidth();
+    long mask = width == 32 ? 0xFFFFFFFFL : (1L << width) - 1;
+    long topBit = 1L << (width - 1);
+    long reg = crc.getInit() & mask;
+    for (int i = off; i < off + len; i++) {
+      int b = data[i] & 0xFF;
+      if (crc.isReflected()) {
+        b = Integer.reverse(b) >>> 24;
+      }
+      for (int j = 7; j >= 0; j--) {
+        boolean bit = ((b >>> j) & 1) != 0;
+        boolean top = (reg & topBit) != 0;
+        reg = (reg << 1) & mask;
+        if (bit ^ top) {
+          reg ^= crc.getPoly() & mask;
+        }
+      }
+    }
+    if (crc.isReflected()) {
+      reg = (Long.reverse(reg) >>> (64 - width)) & mask;
+    }
+    return (reg ^ crc.getXorOut()) & mask;
+  }
+
+}
@@ -2,6 +2,7 @@ package com.benefitj.core.cmd;
 
 import com.benefitj.core.*;
 import com.benefitj.core.file.PathWatcher;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.BufferedReader;
@@ -10,9 +11,13 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Paths;
 import java.nio.file.StandardWatchEventKinds;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +32,32 @@ public class CmdExecutorTest extends BaseTest {
     log.info("{}", call.toPrintInfo("java version", null));
   }
 
+  @Test
+  void testCallAsync() {
+    if (SystemOS.isWindows()) return;
+    CmdExecutor executor = new CmdExecutor();
+    executor.setMaxCallNum(1);
+    // 超时强制结束
+    CompletableFuture<CmdCall> blocker = executor.callAsync("sleep 1", 300, null);
+    // 排队超时
+    CmdCall queued = executor.callAsync("echo queued", 100, null).join();
+    Assertions.assertTrue(queued.getException() instanceof TimeoutException);
+    CmdCall call = blocker.join();
+    Assertions.assertNotEquals(0, call.getExitCode());
+    // 逐行回调
+    List<String> lines = new CopyOnWriteArrayList<>();
+    call = executor.callAsync("echo hello", 0, new Callback() {
+      @Override
+      public void onMessage(CmdCall call, List<String> msgLines, String line, boolean error) {
+        lines.add(line);
+      }
+    }).join();
+    Assertions.assertEquals(0, call.getExitCode());
+    Assertions.assertEquals("hello", call.getMessage());
+    Assertions.assertEquals(Collections.singletonList("hello"), lines);
+    Assertions.assertEquals(0, executor.getAliveProcess());
+  }
+
   @Test
   void testProperties() {
     SystemProperty.getSystemProperties().forEach((key, value) -> System.err.println(key + " ==>: " + value));
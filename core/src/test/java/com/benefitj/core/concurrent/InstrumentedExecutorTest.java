@@ -0,0 +1,136 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.EventLoop;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedExecutorTest extends BaseTest {
+
+  @Test
+  public void testHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(10000, histogram.getCount());
+    assertEquals(10_000_000L, histogram.getMax());
+    // 相对误差约 3%
+    long p50 = histogram.getPercentile(50);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(Math.abs(p50 - 5_000_000L) <= 5_000_000L * 0.04, "p50: " + p50);
+    assertTrue(Math.abs(p99 - 9_900_000L) <= 9_900_000L * 0.04, "p99: " + p99);
+    log.info("{}", histogram);
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    AtomicLong slow = new AtomicLong();
+    LoopMetrics.Reporter reporter = new LoopMetrics.Reporter() {
+      @Override
+      public void onSlowTask(LoopMetrics metrics, Thread thread, long elapsedNanos, StackTraceElement[] stackTrace) {
+        slow.set(elapsedNanos);
+      }
+    };
+    LoopMetrics.addReporter(reporter);
+    EventLoop loop = EventLoop.instrument("test", EventLoop.newSingle(true), 50, TimeUnit.MILLISECONDS);
+    InstrumentedExecutor metrics = (InstrumentedExecutor) loop.executor();
+    try {
+      assertTrue(LoopMetrics.all().contains(metrics));
+      CountDownLatch block = new CountDownLatch(1);
+      loop.execute(() -> {
+        try {
+          block.await();
+        } catch (InterruptedException ignored) {
+        }
+      });
+      for (int i = 0; i < 10; i++) {
+        loop.execute(() -> {});
+      }
+      Thread.sleep(150);
+      // 单线程被阻塞，其余任务在排队
+      assertEquals(10, metrics.getQueueDepth());
+      assertEquals(1, metrics.getActive());
+      assertEquals(1, metrics.getSlowTasks());
+      assertTrue(slow.get() >= TimeUnit.MILLISECONDS.toNanos(50));
+      block.countDown();
+      loop.submit(() -> {}).get(1, TimeUnit.SECONDS);
+      assertEquals(0, metrics.getQueueDepth());
+      assertEquals(12, metrics.getCompleted());
+      // submit 的任务抛出异常，计入失败
+      Future<?> failed = metrics.submit(() -> {
+        throw new IllegalStateException("test");
+      });
+      assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+      assertEquals(1, metrics.getFailed());
+      assertEquals(12, metrics.getCompleted());
+      assertTrue(metrics.getWaitTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(150));
+      log.info("{}", metrics);
+    } finally {
+      loop.shutdown();
+      LoopMetrics.removeReporter(reporter);
+    }
+    assertThrows(RejectedExecutionException.class, () -> loop.execute(() -> {}));
+    assertEquals(1, metrics.getRejected());
+    assertFalse(LoopMetrics.all().contains(metrics));
+  }
+
+  @Test
+  public void testShutdownNowClearsQueue() throws Exception {
+    InstrumentedExecutor metrics = new InstrumentedExecutor("test", Executors.newSingleThreadScheduledExecutor());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch block = new CountDownLatch(1);
+    metrics.execute(() -> {
+      started.countDown();
+      try {
+        block.await();
+      } catch (InterruptedException ignored) {
+      }
+    });
+    for (int i = 0; i < 5; i++) {
+      metrics.execute(() -> {});
+    }
+    metrics.schedule(() -> {}, 1, TimeUnit.HOURS);
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    assertEquals(5, metrics.getQueueDepth());
+    List<Runnable> drained = metrics.shutdownNow();
+    // 5 个排队的任务和 1 个延时任务
+    assertEquals(6, drained.size());
+    assertEquals(0, metrics.getQueueDepth());
+    assertTrue(metrics.awaitTermination(1, TimeUnit.SECONDS));
+    assertEquals(0, metrics.getQueueDepth());
+  }
+
+  @Test
+  public void testSlotsBoundedByConcurrency() throws Exception {
+    // 每个任务一个线程(如虚拟线程)，执行完线程即结束
+    ExecutorService runner = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.NANOSECONDS, new SynchronousQueue<>());
+    VirtualThreadScheduler scheduler = new VirtualThreadScheduler(runner, EventLoop.newThreadFactory("timer-", true));
+    InstrumentedExecutor metrics = new InstrumentedExecutor("test", scheduler, 1, TimeUnit.SECONDS);
+    try {
+      for (int i = 0; i < 200; i++) {
+        metrics.submit(() -> {}).get(1, TimeUnit.SECONDS);
+      }
+      List<Future<Object>> futures = metrics.invokeAll(List.of(() -> {
+        Thread.sleep(20);
+        return null;
+      }, () -> {
+        Thread.sleep(20);
+        return null;
+      }));
+      for (Future<Object> f : futures) {
+        f.get();
+      }
+      // 槽位的数量取决于同时执行的任务数(结果先于槽位归还，可能多几个)，与线程数无关
+      assertTrue(metrics.slotCount() < 10, "slots: " + metrics.slotCount());
+    } finally {
+      metrics.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyedExecutorTest extends BaseTest {
+
+  @Test
+  public void testOrdering() throws Exception {
+    KeyedExecutor<Integer> executor = new KeyedExecutor<>(4, "keyed-");
+    try {
+      int keys = 200, n = 500;
+      Map<Integer, AtomicInteger> last = new ConcurrentHashMap<>();
+      AtomicInteger disorder = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(keys * n);
+      for (int i = 0; i < n; i++) {
+        for (int k = 0; k < keys; k++) {
+          final int seq = i, key = k;
+          executor.execute(key, () -> {
+            AtomicInteger prev = last.computeIfAbsent(key, x -> new AtomicInteger(-1));
+            if (prev.getAndSet(seq) != seq - 1) {
+              disorder.incrementAndGet();
+            }
+            latch.countDown();
+          });
+        }
+      }
+      assertTrue(latch.await(30, TimeUnit.SECONDS));
+      // 同一个键的任务按提交顺序执行
+      assertEquals(0, disorder.get());
+      assertEquals(42, (int) executor.submit(1, () -> 42).get(1, TimeUnit.SECONDS));
+      log.info("active keys: {}", executor.activeKeys());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testReject() throws Exception {
+    KeyedExecutor<String> executor = new KeyedExecutor<>(
+        KeyedExecutor.newWorkStealingPool(2, "keyed-"), 2, KeyedExecutor.RejectPolicy.ABORT);
+    try {
+      CountDownLatch block = new CountDownLatch(1);
+      executor.execute("a", () -> {
+        try {
+          block.await();
+        } catch (InterruptedException ignored) {
+        }
+      });
+      executor.execute("a", () -> {});
+      assertThrows(RejectedExecutionException.class, () -> executor.execute("a", () -> {}));
+      // 其他键不受影响
+      assertTrue(executor.execute("b", () -> {}));
+      executor.setRejectPolicy(KeyedExecutor.RejectPolicy.DISCARD);
+      assertFalse(executor.execute("a", () -> {}));
+      assertEquals(2, executor.queueDepth("a"));
+      block.countDown();
+      while (executor.queueDepth("a") > 0) {
+        Thread.sleep(1);
+      }
+      assertEquals("ok", executor.submit("a", () -> "ok").get(1, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testPoolRejected() throws Exception {
+    // 只有一个线程并且不排队，线程占用时拒绝新的键
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+    KeyedExecutor<String> executor = new KeyedExecutor<>(pool, 10, KeyedExecutor.RejectPolicy.ABORT);
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch block = new CountDownLatch(1);
+      executor.execute("a", () -> {
+        started.countDown();
+        try {
+          block.await();
+        } catch (InterruptedException ignored) {
+        }
+      });
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+      CompletableFuture<String> rejected = new CompletableFuture<>();
+      assertThrows(RejectedExecutionException.class, () -> executor.execute("b", () -> rejected.complete("b")));
+      // 被拒绝的任务不会留在队列中，键被释放
+      assertEquals(0, executor.queueDepth("b"));
+      assertEquals(1, executor.activeKeys());
+      block.countDown();
+      CompletableFuture<String> ok;
+      for (; ; ) {
+        try {
+          ok = executor.submit("b", () -> "ok");
+          break;
+        } catch (RejectedExecutionException e) {
+          // 工作线程可能还没有回到队列上等待
+          assertEquals(0, executor.queueDepth("b"));
+          Thread.sleep(1);
+        }
+      }
+      assertEquals("ok", ok.get(1, TimeUnit.SECONDS));
+      assertFalse(rejected.isDone());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testDiscardOldest() throws Exception {
+    KeyedExecutor<String> executor = new KeyedExecutor<>(
+        KeyedExecutor.newWorkStealingPool(1, "keyed-"), 2, KeyedExecutor.RejectPolicy.DISCARD_OLDEST);
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch block = new CountDownLatch(1);
+      executor.execute("a", () -> {
+        started.countDown();
+        try {
+          block.await();
+        } catch (InterruptedException ignored) {
+        }
+      });
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+      CompletableFuture<String> oldest = executor.submit("a", () -> "oldest");
+      CompletableFuture<String> newest = executor.submit("a", () -> "newest");
+      // 最早的任务被丢弃，结果被取消
+      assertTrue(oldest.isCancelled());
+      assertEquals(2, executor.queueDepth("a"));
+      block.countDown();
+      assertEquals("newest", newest.get(1, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
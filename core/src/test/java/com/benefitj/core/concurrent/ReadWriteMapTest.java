@@ -0,0 +1,75 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadWriteMapTest extends BaseTest {
+
+  @Test
+  public void testSemantics() {
+    List<ReadWriteMap<String, Integer>> maps = Arrays.asList(
+        new ReadWriteMap.Impl<>(), new ReadWriteMap.CopyOnWrite<>(), new ReadWriteMap.NonReentrant<>());
+    for (ReadWriteMap<String, Integer> map : maps) {
+      assertNull(map.put("a", 1));
+      assertNull(map.putIfAbsent("b", 2));
+      assertEquals(2, (int) map.putIfAbsent("b", 3));
+      assertEquals(4, (int) map.computeIfAbsent("c", k -> 4));
+      assertEquals(3, map.size());
+      assertTrue(map.containsKey("c"));
+      assertEquals(-1, (int) map.getOrDefault("d", -1));
+      assertNull(map.remove("d"));
+      assertEquals(1, (int) map.remove("a"));
+      assertFalse(map.containsKey("a"));
+    }
+    // 快照不随写入变化
+    ReadWriteMap.CopyOnWrite<String, Integer> cow = new ReadWriteMap.CopyOnWrite<>();
+    cow.put("a", 1);
+    Set<String> keys = cow.keySet();
+    cow.put("b", 2);
+    assertEquals(1, keys.size());
+    assertThrows(UnsupportedOperationException.class, () -> cow.map().put("c", 3));
+  }
+
+  @Test
+  public void testConcurrentRead() throws Exception {
+    List<ReadWriteMap<Integer, Integer>> maps = Arrays.asList(
+        new ReadWriteMap.Impl<>(), new ReadWriteMap.CopyOnWrite<>(), new ReadWriteMap.NonReentrant<>());
+    for (ReadWriteMap<Integer, Integer> map : maps) {
+      for (int i = 0; i < 1000; i++) {
+        map.put(i, i);
+      }
+      AtomicBoolean running = new AtomicBoolean(true);
+      AtomicInteger wrong = new AtomicInteger();
+      CountDownLatch latch = new CountDownLatch(4);
+      for (int t = 0; t < 4; t++) {
+        new Thread(() -> {
+          for (int i = 0; running.get(); i = (i + 1) % 1000) {
+            Integer v = map.get(i);
+            if (v == null || v != i) wrong.incrementAndGet();
+          }
+          latch.countDown();
+        }).start();
+      }
+      // 写入会触发扩容，已有的键始终可读
+      for (int i = 1000; i < 5000; i++) {
+        map.put(i, i);
+        if (i % 2 == 0) map.remove(i);
+      }
+      running.set(false);
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(0, wrong.get(), map.getClass().getSimpleName());
+      log.info("{} size: {}", map.getClass().getSimpleName(), map.size());
+    }
+  }
+
+}
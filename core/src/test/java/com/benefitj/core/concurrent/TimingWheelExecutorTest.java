@@ -0,0 +1,83 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.EventLoop;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelExecutorTest extends BaseTest {
+
+  @Test
+  public void testSchedule() throws Exception {
+    TimingWheelExecutor executor = new TimingWheelExecutor(2, EventLoop.newThreadFactory("wheel-", true));
+    try {
+      int n = 500;
+      CountDownLatch latch = new CountDownLatch(n);
+      AtomicInteger early = new AtomicInteger();
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < n; i++) {
+        long delay = random.nextInt(1000);
+        long start = System.nanoTime();
+        executor.schedule(() -> {
+          if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+            early.incrementAndGet();
+          }
+          latch.countDown();
+        }, delay, TimeUnit.MILLISECONDS);
+      }
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      // 不会早于指定的延迟
+      assertEquals(0, early.get());
+      assertEquals(42, executor.schedule(() -> 42, 20, TimeUnit.MILLISECONDS).get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    TimingWheelExecutor executor = new TimingWheelExecutor(2, EventLoop.newThreadFactory("wheel-", true));
+    try {
+      AtomicInteger counter = new AtomicInteger();
+      List<ScheduledFuture<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        futures.add(executor.schedule(counter::incrementAndGet, 100 + i, TimeUnit.MILLISECONDS));
+      }
+      for (int i = 0; i < futures.size(); i += 2) {
+        assertTrue(futures.get(i).cancel(false));
+      }
+      Thread.sleep(600);
+      assertEquals(100, counter.get());
+
+      AtomicInteger periodic = new AtomicInteger();
+      ScheduledFuture<?> f = executor.scheduleAtFixedRate(periodic::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+      Thread.sleep(205);
+      f.cancel(false);
+      log.info("fixed rate: {}", periodic.get());
+      assertTrue(periodic.get() >= 15);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testShutdown() throws Exception {
+    TimingWheelExecutor executor = new TimingWheelExecutor(2, EventLoop.newThreadFactory("wheel-", true));
+    AtomicInteger counter = new AtomicInteger();
+    executor.schedule(counter::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+    ScheduledFuture<?> periodic = executor.scheduleWithFixedDelay(counter::incrementAndGet, 1, 1, TimeUnit.HOURS);
+    executor.shutdown();
+    assertThrows(RejectedExecutionException.class, () -> executor.schedule(() -> {}, 1, TimeUnit.SECONDS));
+    // 已调度的单次任务继续执行，周期任务被取消
+    assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+    assertEquals(1, counter.get());
+    assertTrue(periodic.isCancelled());
+  }
+
+}
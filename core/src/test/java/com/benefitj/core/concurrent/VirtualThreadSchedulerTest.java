@@ -0,0 +1,91 @@
+package com.benefitj.core.concurrent;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.EventLoop;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadSchedulerTest extends BaseTest {
+
+  @Test
+  public void testSchedule() throws Exception {
+    // JDK 21 以下使用平台线程执行
+    ExecutorService runner = VirtualThreads.isSupported()
+        ? VirtualThreads.newThreadPerTaskExecutor("vt-")
+        : Executors.newCachedThreadPool(EventLoop.newThreadFactory("vt-", true));
+    VirtualThreadScheduler scheduler = new VirtualThreadScheduler(runner, EventLoop.newThreadFactory("vt-timer-", true));
+    try {
+      long start = System.nanoTime();
+      assertEquals(7, (int) scheduler.schedule(() -> 7, 50, TimeUnit.MILLISECONDS).get(1, TimeUnit.SECONDS));
+      assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+      AtomicInteger counter = new AtomicInteger();
+      ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(counter::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+      Thread.sleep(100);
+      future.cancel(false);
+      int count = counter.get();
+      Thread.sleep(50);
+      log.info("fixed rate: {}", count);
+      assertTrue(count >= 5);
+      // 取消后不再执行
+      assertEquals(count, counter.get());
+    } finally {
+      scheduler.shutdown();
+    }
+    assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+    assertThrows(RejectedExecutionException.class, () -> scheduler.execute(() -> {}));
+  }
+
+  @Test
+  public void testShutdownCancelsPeriodic() throws Exception {
+    VirtualThreadScheduler scheduler = new VirtualThreadScheduler(
+        Executors.newCachedThreadPool(EventLoop.newThreadFactory("vt-", true)), EventLoop.newThreadFactory("vt-timer-", true));
+    CountDownLatch ran = new CountDownLatch(1);
+    ScheduledFuture<?> rate = scheduler.scheduleAtFixedRate(ran::countDown, 0, 1, TimeUnit.HOURS);
+    ScheduledFuture<?> delay = scheduler.scheduleWithFixedDelay(() -> {}, 1, 1, TimeUnit.HOURS);
+    ScheduledFuture<Integer> once = scheduler.schedule(() -> 1, 50, TimeUnit.MILLISECONDS);
+    assertTrue(ran.await(1, TimeUnit.SECONDS));
+    scheduler.shutdown();
+    // 不等待周期任务的下一次执行，延时任务仍会执行
+    assertTrue(rate.isCancelled());
+    assertTrue(delay.isCancelled());
+    assertEquals(1, (int) once.get(1, TimeUnit.SECONDS));
+    assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+    assertThrows(RejectedExecutionException.class, () -> scheduler.scheduleAtFixedRate(() -> {}, 0, 1, TimeUnit.HOURS));
+
+    VirtualThreadScheduler now = new VirtualThreadScheduler(
+        Executors.newCachedThreadPool(EventLoop.newThreadFactory("vt-", true)), EventLoop.newThreadFactory("vt-timer-", true));
+    ScheduledFuture<?> periodic = now.scheduleWithFixedDelay(() -> {}, 1, 1, TimeUnit.HOURS);
+    now.shutdownNow();
+    assertTrue(periodic.isCancelled());
+    assertTrue(now.awaitTermination(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  public void testRunsOnVirtualThreads() throws Exception {
+    // 需要 JDK 21 并且类路径上是 META-INF/versions/21 的实现
+    assertTrue(VirtualThreads.isSupported());
+    VirtualThreadScheduler scheduler = new VirtualThreadScheduler(
+        VirtualThreads.newThreadPerTaskExecutor("vt-"), EventLoop.newThreadFactory("vt-timer-", true));
+    try {
+      Thread thread = scheduler.schedule(Thread::currentThread, 10, TimeUnit.MILLISECONDS).get(1, TimeUnit.SECONDS);
+      assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+      List<Future<Thread>> futures = scheduler.invokeAll(List.of(Thread::currentThread, Thread::currentThread));
+      for (Future<Thread> f : futures) {
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(f.get()));
+      }
+    } finally {
+      scheduler.shutdown();
+    }
+    assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.benefitj.core.cron;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.ZonedDateTime;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledCronTest extends BaseTest {
+
+  static CompiledCron compile(String expression, String zone) throws ParseException {
+    CronExpression cron = new CronExpression(expression);
+    cron.setTimeZone(TimeZone.getTimeZone(zone));
+    return cron.compile();
+  }
+
+  static long millis(String time) {
+    return ZonedDateTime.parse(time).toInstant().toEpochMilli();
+  }
+
+  @Test
+  public void testNextFireTime() throws ParseException {
+    assertEquals(millis("2024-03-11T10:15:00+08:00[Asia/Shanghai]"),
+        compile("0 15 10 ? * MON-FRI", "Asia/Shanghai").nextFireTime(millis("2024-03-08T10:15:00+08:00[Asia/Shanghai]")));
+    // 每月最后一个周五、第二个周一、最后一个工作日
+    assertEquals(millis("2024-03-29T10:15:00Z[UTC]"), compile("0 15 10 ? * 6L", "UTC").nextFireTime(millis("2024-03-01T00:00:00Z[UTC]")));
+    assertEquals(millis("2024-03-11T10:15:00Z[UTC]"), compile("0 15 10 ? * 2#2", "UTC").nextFireTime(millis("2024-03-01T00:00:00Z[UTC]")));
+    assertEquals(millis("2024-08-30T12:00:00Z[UTC]"), compile("0 0 12 LW * ?", "UTC").nextFireTime(millis("2024-08-01T00:00:00Z[UTC]")));
+    // 没有下次触发的时间
+    assertEquals(CompiledCron.NONE, compile("0 0 0 30 2 ?", "UTC").nextFireTime(System.currentTimeMillis()));
+  }
+
+  @Test
+  public void testDaylightSaving() throws ParseException {
+    // 跳过的时间顺延
+    assertEquals(millis("2024-03-10T03:30:00-04:00[America/New_York]"),
+        compile("0 30 2 * * ?", "America/New_York").nextFireTime(millis("2024-03-09T12:00:00-05:00[America/New_York]")));
+    // 重复的时间只触发一次
+    CompiledCron daily = compile("0 30 1 * * ?", "America/New_York");
+    long first = daily.nextFireTime(millis("2024-11-02T12:00:00-04:00[America/New_York]"));
+    assertEquals(millis("2024-11-03T01:30:00-04:00[America/New_York]"), first);
+    assertEquals(millis("2024-11-04T01:30:00-05:00[America/New_York]"), daily.nextFireTime(first));
+    // 每小时都触发的表达式，在重复的时段按实际时间继续触发
+    long[] times = new long[4];
+    assertEquals(4, compile("0 0/20 * * * ?", "America/New_York").nextFireTimes(millis("2024-11-03T01:30:00-04:00[America/New_York]"), 4, times));
+    assertArrayEquals(new long[]{
+        millis("2024-11-03T01:40:00-04:00[America/New_York]"),
+        millis("2024-11-03T01:00:00-05:00[America/New_York]"),
+        millis("2024-11-03T01:20:00-05:00[America/New_York]"),
+        millis("2024-11-03T01:40:00-05:00[America/New_York]"),
+    }, times);
+  }
+
+}
@@ -0,0 +1,261 @@
+package com.benefitj.core.device;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeviceManagerTest extends BaseTest {
+
+  @Test
+  public void testRemoveExpired() throws Exception {
+    List<Integer> batches = new ArrayList<>();
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id),
+        new DeviceListener<String, SimpleDevice>() {
+          @Override
+          public void onRemovals(Map<String, SimpleDevice> devices) {
+            batches.add(devices.size());
+          }
+        });
+    manager.setExpire(Duration.ofMillis(300));
+    for (int i = 0; i < 100; i++) {
+      manager.create("device-" + i, null);
+    }
+    // 未到期
+    assertTrue(manager.removeExpired().isEmpty());
+    Thread.sleep(200);
+    // 保持活跃的设备不会被移除
+    for (int i = 0; i < 10; i++) {
+      manager.get("device-" + i).setActiveAtNow();
+    }
+    manager.get("device-10").setActive(false);
+    assertTrue(manager.removeExpired().isEmpty());
+    Thread.sleep(200);
+    Map<String, SimpleDevice> removed = manager.removeExpired();
+    log.info("removed: {}, batches: {}", removed.size(), batches);
+    assertEquals(90, removed.size());
+    assertTrue(removed.containsKey("device-10"));
+    assertFalse(removed.containsKey("device-0"));
+    assertEquals(10, manager.size());
+    assertEquals(List.of(90), batches);
+    Thread.sleep(400);
+    assertEquals(10, manager.removeExpired().size());
+    assertTrue(manager.isEmpty());
+  }
+
+  @Test
+  public void testCreateConcurrent() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    AtomicInteger added = new AtomicInteger();
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> {
+          created.incrementAndGet();
+          return new SimpleDevice(id);
+        },
+        new DeviceListener<String, SimpleDevice>() {
+          @Override
+          public void onAddition(String id, SimpleDevice device) {
+            added.incrementAndGet();
+          }
+        });
+    int threads = 4, n = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch latch = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < n; i++) {
+          manager.create("device-" + i, null);
+        }
+        latch.countDown();
+      });
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    executor.shutdown();
+    // 每个ID只创建一次
+    assertEquals(n, manager.size());
+    assertEquals(n, created.get());
+    assertEquals(n, added.get());
+  }
+
+  @Test
+  public void testSharded() throws Exception {
+    ShardedDeviceManager<String, SimpleDevice> manager = new ShardedDeviceManager<>("shard-", 4);
+    manager.setDeviceFactory((id, attrs) -> new SimpleDevice(id));
+    manager.setDeviceListener(new DeviceListener<String, SimpleDevice>() {});
+    try {
+      SimpleDevice device = manager.createAsync("device-1", null).get(1, TimeUnit.SECONDS);
+      assertEquals(device, manager.get("device-1"));
+      CompletableFuture<String> thread = new CompletableFuture<>();
+      manager.execute("device-1", d -> thread.complete(Thread.currentThread().getName()));
+      assertEquals(manager.executorOf("device-1").getThread().getName(), thread.get(1, TimeUnit.SECONDS));
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+  @Test
+  public void testQuery() {
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id), new DeviceListener<String, SimpleDevice>() {});
+    manager.indexes().addHashIndex("group");
+    manager.indexes().addSortedIndex("version");
+    for (int i = 0; i < 100; i++) {
+      SimpleDevice device = manager.create("device-" + i, null);
+      device.setAttr("group", "g" + (i % 4));
+      device.setAttr("version", i);
+    }
+    Collection<SimpleDevice> view = manager.query()
+        .eq("group", "g1")
+        .between("version", 10, 29)
+        .list();
+    assertEquals(5, view.size());
+    // 属性修改后，视图同步变化
+    manager.get("device-12").setAttr("group", "g1");
+    assertEquals(6, view.size());
+    manager.get("device-13").removeAttr("group");
+    assertEquals(5, view.size());
+    manager.remove("device-17");
+    assertEquals(4, view.size());
+    assertEquals(24, manager.query().eq("group", "g1").count());
+    assertEquals(89, manager.query().range("version", 10, true, null, false).count());
+  }
+
+  @Test
+  public void testOtherAddPathsExpire() throws Exception {
+    AtomicInteger added = new AtomicInteger();
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id), new DeviceListener<String, SimpleDevice>() {
+      @Override
+      public void onAddition(String id, SimpleDevice device) {
+        added.incrementAndGet();
+      }
+    });
+    manager.setExpire(Duration.ofMillis(100));
+    // 先创建过期索引
+    assertTrue(manager.removeExpired().isEmpty());
+    manager.putIfAbsent("a", newDevice("a"));
+    manager.merge("b", newDevice("b"), (o, n) -> o);
+    manager.put("c", newDevice("c"));
+    assertEquals(3, added.get());
+    Thread.sleep(250);
+    assertEquals(3, manager.removeExpired().size());
+    assertTrue(manager.isEmpty());
+  }
+
+  @Test
+  public void testViewRemovals() {
+    List<String> removed = new ArrayList<>();
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id), new DeviceListener<String, SimpleDevice>() {
+      @Override
+      public void onRemoval(String id, SimpleDevice device) {
+        removed.add(id);
+      }
+    });
+    for (int i = 0; i < 10; i++) {
+      manager.create("device-" + i, null);
+    }
+    // 通过视图移除，与管理器的 remove 相同
+    assertTrue(manager.keySet().remove("device-0"));
+    assertFalse(manager.keySet().remove("device-0"));
+    assertTrue(manager.values().removeIf(d -> d.getId().equals("device-1")));
+    assertTrue(manager.entrySet().removeIf(e -> e.getKey().equals("device-2")));
+    Iterator<String> it = manager.keySet().iterator();
+    String first = it.next();
+    it.remove();
+    assertThrows(IllegalStateException.class, it::remove);
+    assertEquals(4, removed.size());
+    assertEquals(first, removed.get(3));
+    assertEquals(6, manager.size());
+    assertThrows(UnsupportedOperationException.class, () -> manager.entrySet().iterator().next().setValue(null));
+
+    manager.clear();
+    assertTrue(manager.isEmpty());
+    assertEquals(10, removed.size());
+
+    // devices() 为原始的Map，修改不经过管理器
+    manager.devices().put("raw", new SimpleDevice("raw"));
+    manager.devices().compute("raw", (k, v) -> v);
+    assertEquals(10, removed.size());
+    manager.devices().clear();
+    assertEquals(10, removed.size());
+  }
+
+  @Test
+  public void testSortedIndexReleasesValues() {
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id), new DeviceListener<String, SimpleDevice>() {});
+    manager.indexes().addSortedIndex("counter");
+    for (int i = 0; i < 10; i++) {
+      manager.create("device-" + i, null);
+    }
+    // 高基数的属性：值不断变化，不再使用的值被移除
+    for (int n = 0; n < 1000; n++) {
+      for (int i = 0; i < 10; i++) {
+        manager.get("device-" + i).setAttr("counter", n * 10 + i);
+      }
+    }
+    assertEquals(10, manager.indexes().getIndex("counter").values.size());
+    assertEquals(10, manager.query().range("counter", 9990, true, null, false).count());
+  }
+
+  @Test
+  public void testAttrViewsUpdateIndexes() {
+    DeviceManager.Impl<String, SimpleDevice> manager = new DeviceManager.Impl<String, SimpleDevice>(
+        (id, attrs) -> new SimpleDevice(id), new DeviceListener<String, SimpleDevice>() {});
+    manager.indexes().addHashIndex("group");
+    manager.indexes().addSortedIndex("version");
+    SimpleDevice a = manager.create("a", null);
+    SimpleDevice b = manager.create("b", null);
+    a.setAttr("group", "g");
+    a.setAttr("version", 1);
+    b.setAttr("group", "g");
+    b.setAttr("version", 2);
+    // 通过属性的视图修改，索引同步变化
+    assertTrue(a.attrs().keySet().remove("group"));
+    assertEquals(1, manager.query().eq("group", "g").count());
+    assertTrue(b.attrs().values().removeIf(v -> v.equals(2)));
+    assertEquals(1, manager.query().range("version", 0, true, null, false).count());
+    for (Map.Entry<String, Object> e : a.attrs().entrySet()) {
+      if (e.getKey().equals("version")) e.setValue(5);
+    }
+    assertEquals(5, (int) a.getAttr("version"));
+    assertEquals(1, manager.query().between("version", 5, 5).count());
+    b.attrs().entrySet().clear();
+    assertTrue(b.attrs().isEmpty());
+    assertEquals(0, manager.query().eq("group", "g").count());
+
+    // 有序索引中不能比较的值：属性照常修改，其他索引继续更新
+    a.setAttr("group", "g");
+    b.setAttr("version", 3);
+    b.setAttr("group", "g");
+    assertDoesNotThrow(() -> b.setAttr("version", "v3"));
+    assertEquals("v3", b.<String>getAttr("version"));
+    assertEquals(2, manager.query().eq("group", "g").count());
+    assertEquals(1, manager.query().range("version", 0, true, null, false).count());
+    b.setAttr("version", 4);
+    assertEquals(2, manager.query().range("version", 0, true, null, false).count());
+  }
+
+  private static SimpleDevice newDevice(String id) {
+    SimpleDevice device = new SimpleDevice(id);
+    device.setAttr("group", "g");
+    device.setActiveAtNow();
+    return device;
+  }
+
+}
@@ -0,0 +1,178 @@
+package com.benefitj.core.digest;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.HexUtils;
+import com.benefitj.core.IOUtils;
+import com.benefitj.core.IdUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileDigestsTest extends BaseTest {
+
+  static final long SEED = 0x9E3779B97F4A7C15L;
+
+  /**
+   * 0, 1, 2 ... 250, 0, 1 ...
+   */
+  static byte[] sequence(int len) {
+    byte[] data = new byte[len];
+    for (int i = 0; i < len; i++) {
+      data[i] = (byte) (i % 251);
+    }
+    return data;
+  }
+
+  @Test
+  public void testXxHash64Vectors() {
+    // 公开的参考值
+    assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(new byte[0], 0, 0, 0));
+    assertEquals(0xD24EC4F1A98C6E5BL, hash("a", 0));
+    assertEquals(0x44BC2CF5AD770999L, hash("abc", 0));
+    assertEquals(0x0B242D361FDA71BCL, hash("The quick brown fox jumps over the lazy dog", 0));
+
+    // 参考实现计算的值，覆盖 <4、<8、<32、=32、>32 字节和种子
+    int[] lengths = {1, 4, 7, 8, 31, 32, 33, 63, 64, 100, 1000};
+    long[] expected = {0xE934A84ADB052768L, 0xFFCED8604453CC1EL, 0x14CC643F630C72D2L, 0x884A173614B81B8DL,
+        0xC346D2B59B4D8EE1L, 0xCBF59C5116FF32B4L, 0x0C535D1ACAFB8EADL, 0xE26AA9E2A95F8E4FL,
+        0xF7C67301DB6713F0L, 0x6AC1E58032166597L, 0xF306F04AA88B54D3L};
+    long[] seeded = {0x126BB57A12364AA5L, 0xD89842CD31E24E54L, 0xECECF5FAA8A7490EL, 0xD18B6D7A5A668732L,
+        0xF3DA6D05709C035DL, 0xA1C89217E9D50750L, 0xE6A3C00CD6E74075L, 0x26A0ACD772DE057EL,
+        0x2589245E62A1969BL, 0x3B97D91EBA03E785L, 0xD9B7AF87DD48F5B4L};
+    byte[] data = sequence(1000);
+    for (int i = 0; i < lengths.length; i++) {
+      assertEquals(expected[i], XxHash64.hash(data, 0, lengths[i], 0), "len=" + lengths[i]);
+      assertEquals(seeded[i], XxHash64.hash(data, 0, lengths[i], SEED), "len=" + lengths[i]);
+    }
+  }
+
+  @Test
+  public void testXxHash64Incremental() throws Exception {
+    byte[] data = new byte[777];
+    new Random(23).nextBytes(data);
+    long expected = XxHash64.hash(data, 0, data.length, SEED);
+    Random random = new Random(29);
+    for (int k = 0; k < 20; k++) {
+      // 随机分段：数组、单个字节、直接缓冲
+      XxHash64 h = new XxHash64(SEED);
+      for (int pos = 0; pos < data.length; ) {
+        int n = Math.min(random.nextInt(70), data.length - pos);
+        switch (random.nextInt(3)) {
+          case 0:
+            h.update(data, pos, n);
+            break;
+          case 1:
+            for (int i = 0; i < n; i++) {
+              h.update(data[pos + i]);
+            }
+            break;
+          default:
+            ByteBuffer direct = ByteBuffer.allocateDirect(n).put(data, pos, n);
+            direct.flip();
+            h.update(direct);
+            assertEquals(0, direct.remaining());
+        }
+        pos += n;
+      }
+      assertEquals(expected, h.getValue());
+      // clone 后两边独立
+      XxHash64 copy = (XxHash64) h.clone();
+      h.update((byte) 1);
+      assertEquals(expected, copy.getValue());
+      // 摘要为大端的8字节，digest() 后重置
+      assertEquals(HexUtils.bytesToHex(HexUtils.longToBytes(expected)), HexUtils.bytesToHex(copy.digest()));
+      assertEquals(XxHash64.hash(new byte[0], 0, 0, SEED), copy.getValue());
+    }
+  }
+
+  @Test
+  public void testFileDigests() throws Exception {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "file-digests-" + IdUtils.uuid());
+    dir.mkdirs();
+    try {
+      // 小文件走缓冲读取，大文件(> MAP_THRESHOLD)走内存映射
+      File small = new File(dir, "small");
+      File large = new File(dir, "large");
+      File empty = new File(dir, "empty");
+      byte[] smallData = new byte[1000];
+      byte[] largeData = new byte[(int) (FileDigests.MAP_THRESHOLD * 3 + 17)];
+      Random random = new Random(31);
+      random.nextBytes(smallData);
+      random.nextBytes(largeData);
+      Files.write(small.toPath(), smallData);
+      Files.write(large.toPath(), largeData);
+      Files.write(empty.toPath(), new byte[0]);
+
+      for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+        assertArrayEquals(digest(algorithm, smallData, 0, smallData.length), FileDigests.digest(small, algorithm).getDigest());
+        assertArrayEquals(digest(algorithm, largeData, 0, largeData.length), FileDigests.digest(large, algorithm).getDigest());
+        assertArrayEquals(digest(algorithm, new byte[0], 0, 0), FileDigests.digest(empty, algorithm).getDigest());
+      }
+      assertEquals(largeData.length, FileDigests.digest(large, DigestAlgorithm.XXHASH64).getLength());
+
+      // 分块：每块一个摘要，根摘要为块摘要的摘要
+      int chunkSize = (int) FileDigests.MAP_THRESHOLD;
+      FileDigest chunks = FileDigests.digestChunks(large, DigestAlgorithm.SHA256, chunkSize);
+      assertEquals(4, chunks.getChunks().size());
+      MessageDigest md = DigestAlgorithm.SHA256.newDigest();
+      for (int i = 0; i < 4; i++) {
+        int off = i * chunkSize;
+        byte[] expected = digest(DigestAlgorithm.SHA256, largeData, off, Math.min(chunkSize, largeData.length - off));
+        assertArrayEquals(expected, chunks.getChunks().get(i));
+        md.update(expected);
+      }
+      assertArrayEquals(md.digest(), chunks.getDigest());
+
+      // 局部修改后只更新对应的块，结果与重新计算一致
+      try (RandomAccessFile raf = new RandomAccessFile(large, "rw")) {
+        raf.seek(chunkSize + 5);
+        raf.write(new byte[]{1, 2, 3});
+      }
+      FileDigest updated = FileDigests.update(chunks, chunkSize + 5, 3);
+      FileDigest full = FileDigests.digestChunks(large, DigestAlgorithm.SHA256, chunkSize);
+      assertArrayEquals(full.getDigest(), updated.getDigest());
+      assertFalse(Arrays.equals(chunks.getDigest(), updated.getDigest()));
+      assertSame(chunks.getChunks().get(0), updated.getChunks().get(0));
+    } finally {
+      IOUtils.delete(dir, false);
+    }
+  }
+
+  @Test
+  public void testUnmap() throws Exception {
+    File f = File.createTempFile("unmap-", ".bin");
+    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+      raf.setLength(4096);
+      ByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, 4096);
+      assertEquals(0, mapped.get(100));
+      assertTrue(IOUtils.unmap(mapped));
+      // 非映射的缓冲
+      assertFalse(IOUtils.unmap(ByteBuffer.allocate(16)));
+      assertFalse(IOUtils.unmap(null));
+    } finally {
+      f.delete();
+    }
+  }
+
+  static long hash(String s, long seed) {
+    byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+    return XxHash64.hash(bytes, 0, bytes.length, seed);
+  }
+
+  static byte[] digest(DigestAlgorithm algorithm, byte[] data, int off, int len) {
+    MessageDigest md = algorithm.newDigest();
+    md.update(data, off, len);
+    return md.digest();
+  }
+
+}
@@ -2,9 +2,18 @@ package com.benefitj.core.file;
 
 import com.benefitj.core.BaseTest;
 import com.benefitj.core.ClasspathUtils;
+import com.benefitj.core.IOUtils;
+import com.benefitj.core.IdUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class CompressUtilsTest extends BaseTest {
 
@@ -39,4 +48,45 @@ public class CompressUtilsTest extends BaseTest {
   public void testUngzip() {
   }
 
+  /**
+   * 并行压缩
+   */
+  @Test
+  public void testParallelGzip() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200_000; i++) {
+      sb.append("line-").append(i).append(' ').append(IdUtils.uuid()).append('\n');
+    }
+    byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+    File src = new File(System.getProperty("java.io.tmpdir"), "pgzip-" + IdUtils.uuid() + ".log");
+    File dest = CompressUtils.getFilename(src, ".gz");
+    try {
+      Files.write(src.toPath(), data);
+      CompressUtils.gzip(src, dest, 6, 4);
+      assertArrayEquals(data, ungzip(Files.readAllBytes(dest.toPath())));
+      // 输出流，写入不足一块的数据后 flush
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(bos, 1, 2, 32 << 10)) {
+        out.write(data, 0, 1000);
+        out.flush();
+        out.write(data, 1000, data.length - 1000);
+      }
+      assertArrayEquals(data, ungzip(bos.toByteArray()));
+    } finally {
+      IOUtils.delete(src);
+      IOUtils.delete(dest);
+    }
+  }
+
+  private static byte[] ungzip(byte[] gz) throws Exception {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[8192];
+      for (int n; (n = in.read(buf)) > 0; ) {
+        out.write(buf, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+
 }
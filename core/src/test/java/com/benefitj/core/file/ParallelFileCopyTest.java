@@ -0,0 +1,55 @@
+package com.benefitj.core.file;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.IOUtils;
+import com.benefitj.core.IdUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFileCopyTest extends BaseTest {
+
+  @Test
+  public void testCopy() throws Exception {
+    File tmp = new File(System.getProperty("java.io.tmpdir"), "parallel-copy-" + IdUtils.uuid());
+    File src = new File(tmp, "src");
+    File dest = new File(tmp, "dest");
+    try {
+      byte[] data = new byte[10_000];
+      for (int i = 0; i < 100; i++) {
+        File f = new File(src, "dir-" + (i % 5) + "/file-" + i);
+        f.getParentFile().mkdirs();
+        data[0] = (byte) i;
+        Files.write(f.toPath(), data);
+      }
+      AtomicInteger calls = new AtomicInteger();
+      ParallelFileCopy copy = new ParallelFileCopy()
+          .setMaxInFlight(4)
+          .setProgress(stats -> calls.incrementAndGet());
+      ParallelFileCopy.Stats stats = copy.copy(src, dest);
+      assertEquals(100, stats.getCopiedFiles());
+      assertEquals(1_000_000, stats.getCopiedBytes());
+      assertEquals(0, stats.getFailedFiles());
+      assertTrue(calls.get() >= 1);
+      assertArrayEquals(Files.readAllBytes(new File(src, "dir-3/file-8").toPath()),
+          Files.readAllBytes(new File(dest, "dir-3/file-8").toPath()));
+      // 增量同步：全部跳过
+      stats = copy.copy(src, dest);
+      assertEquals(0, stats.getCopiedFiles());
+      assertEquals(100, stats.getSkippedFiles());
+      // 按内容比较：修改一个文件
+      data[0] = (byte) -1;
+      Files.write(new File(src, "dir-1/file-1").toPath(), data);
+      stats = copy.setSyncMode(ParallelFileCopy.SyncMode.CONTENT).copy(src, dest);
+      assertEquals(1, stats.getCopiedFiles());
+      assertEquals(99, stats.getSkippedFiles());
+    } finally {
+      IOUtils.delete(tmp);
+    }
+  }
+
+}
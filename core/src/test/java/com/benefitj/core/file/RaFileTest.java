@@ -2,10 +2,17 @@ package com.benefitj.core.file;
 
 import com.benefitj.core.BaseTest;
 import com.benefitj.core.DateFmtter;
+import com.benefitj.core.IOUtils;
 import com.benefitj.core.IdUtils;
 import com.benefitj.core.Utils;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class RaFileTest extends BaseTest {
 
   @Test
@@ -24,4 +31,41 @@ public class RaFileTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testReadLines() {
+    File file = new File(System.getProperty("java.io.tmpdir"), "ra-file-" + IdUtils.uuid() + ".log");
+    try (final RaFile raFile = new RaFile(file, "rw")) {
+      for (int i = 0; i < 10_000; i++) {
+        raFile.write("line-" + i + (i % 2 == 0 ? "\r\n" : "\n"));
+      }
+      assertEquals(Arrays.asList("line-5000", "line-5001"), raFile.readLines(5000, 2));
+      assertEquals(Arrays.asList("line-9999"), raFile.readLines(9999, 10));
+      assertTrue(raFile.readLines(10_000, 10).isEmpty());
+      // 追加后增量更新，\r 和 \n 分两次写入
+      raFile.write("line-10000\r");
+      raFile.write("\nline-10001");
+      assertEquals(Arrays.asList("line-10000", "line-10001"), raFile.readLines(10_000, 10));
+      assertEquals(10_002, IOUtils.getLineNumber(file));
+      // 跨多个读取块
+      List<String> all = raFile.readLines(0, 20_000);
+      assertEquals(10_002, all.size());
+      for (int i = 0; i < all.size(); i++) {
+        assertEquals("line-" + i, all.get(i));
+      }
+      // 超过读取块的单行
+      char[] chars = new char[RaFile.READ_CHUNK * 2 + 7];
+      Arrays.fill(chars, 'x');
+      String longLine = new String(chars);
+      raFile.write("\n" + longLine + "\nline-10003\n");
+      assertEquals(Arrays.asList("line-10001", longLine, "line-10003"), raFile.readLines(10_001, 10));
+      // 索引文件
+      LineIndex index = LineIndex.open(file);
+      assertTrue(index.getSidecar().exists());
+      assertEquals(index.offsetOf(5000), LineIndex.open(file).offsetOf(5000));
+      IOUtils.delete(index.getSidecar());
+    } finally {
+      IOUtils.delete(file);
+    }
+  }
+
 }
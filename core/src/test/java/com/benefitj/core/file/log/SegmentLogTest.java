@@ -0,0 +1,117 @@
+package com.benefitj.core.file.log;
+
+import com.benefitj.core.BaseTest;
+import com.benefitj.core.IOUtils;
+import com.benefitj.core.IdUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentLogTest extends BaseTest {
+
+  @Test
+  public void testAppendAndScan() {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "segment-log-" + IdUtils.uuid());
+    try {
+      long base = System.currentTimeMillis();
+      byte[] data = new byte[200];
+      try (SegmentLog sl = new SegmentLog(dir, 1 << 20)) {
+        for (int i = 0; i < 20_000; i++) {
+          ByteBuffer.wrap(data).putInt(0, i);
+          sl.append("device-" + (i % 10), base + i, data);
+        }
+        assertTrue(sl.getSegmentCount() > 1);
+        // 跨段查询：i ∈ [5000, 15000]，i % 10 == 3
+        List<ByteBuffer> list = sl.scan("device-3", base + 5000, base + 15000);
+        assertEquals(1000, list.size());
+        assertEquals(5003, list.get(0).getInt(0));
+        assertEquals(14993, list.get(list.size() - 1).getInt(0));
+        assertEquals(200, list.get(0).remaining());
+        assertTrue(list.get(0).isReadOnly());
+        assertTrue(sl.scan("device-x", base, base + 20_000).isEmpty());
+      }
+      // 关闭时保存了索引，重新打开后读取索引
+      File[] idx = dir.listFiles((d, name) -> name.endsWith(SegmentLog.SUFFIX + LogSegment.INDEX_SUFFIX));
+      assertNotNull(idx);
+      assertTrue(idx.length > 1);
+      try (SegmentLog sl = new SegmentLog(dir, 1 << 20)) {
+        assertEquals(1000, sl.scan("device-3", base + 5000, base + 15000).size());
+        sl.setRetentionBytes(2 << 20);
+        assertTrue(sl.applyRetention() > 0);
+        assertTrue(sl.size() <= (3 << 20));
+      }
+    } finally {
+      IOUtils.delete(dir);
+    }
+  }
+
+  @Test
+  public void testSparseIndex() throws Exception {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "segment-log-" + IdUtils.uuid());
+    try {
+      dir.mkdirs();
+      File file = new File(dir, String.format("%020d", 0) + SegmentLog.SUFFIX);
+      LogSegment segment = LogSegment.create(file, 0, 1 << 20);
+      for (int i = 0; i < 1000; i++) {
+        append(segment, "device-" + (i % 3), i, i);
+      }
+      segment.saveIndex();
+      // 保存索引之后写入的记录
+      for (int i = 1000; i < 1100; i++) {
+        append(segment, "device-" + (i % 3), i, i);
+      }
+      int position = segment.position();
+      segment.close();
+      // 关闭后不能再查询
+      assertTrue(scan(segment, "device-1", 0, 2000).isEmpty());
+
+      segment = LogSegment.open(file, 0);
+      assertEquals(position, segment.position());
+      List<Integer> values = scan(segment, "device-1", 100, 1050);
+      assertEquals(317, values.size());
+      assertEquals(100, (int) values.get(0));
+      assertEquals(1048, (int) values.get(values.size() - 1));
+      for (int i = 1; i < values.size(); i++) {
+        assertEquals(values.get(i - 1) + 3, (int) values.get(i));
+      }
+      assertEquals(0, segment.minTimestamp());
+      assertEquals(1099, segment.maxTimestamp());
+      // 继续写入，链接到之前的记录
+      append(segment, "device-1", 2000, 2000);
+      assertEquals(368, scan(segment, "device-1", 0, 3000).size());
+      segment.saveIndex();
+      segment.close();
+
+      // 索引损坏时重新扫描
+      try (RandomAccessFile raf = new RandomAccessFile(segment.indexFile(), "rw")) {
+        raf.writeInt(0);
+      }
+      segment = LogSegment.open(file, 0);
+      assertEquals(368, scan(segment, "device-1", 0, 3000).size());
+      assertEquals(366, scan(segment, "device-2", 0, 3000).size());
+      assertTrue(segment.delete());
+      assertFalse(file.exists());
+      assertFalse(segment.indexFile().exists());
+    } finally {
+      IOUtils.delete(dir);
+    }
+  }
+
+  private static void append(LogSegment segment, String deviceId, long timestamp, int value) {
+    byte[] data = ByteBuffer.allocate(4).putInt(value).array();
+    assertTrue(segment.append(deviceId, deviceId.getBytes(), timestamp, data, 0, data.length));
+  }
+
+  private static List<Integer> scan(LogSegment segment, String deviceId, long from, long to) {
+    List<Integer> values = new ArrayList<>();
+    segment.scan(deviceId, from, to, (id, timestamp, data) -> values.add(data.getInt(0)));
+    return values;
+  }
+
+}
@@ -2,13 +2,19 @@ package com.benefitj.core.file.slicer;
 
 import com.benefitj.core.BaseTest;
 import com.benefitj.core.DateFmtter;
+import com.benefitj.core.IOUtils;
 import com.benefitj.core.IdUtils;
 import com.benefitj.core.Utils;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class FileSlicerTest extends BaseTest {
 
   /**
@@ -46,4 +52,48 @@ public class FileSlicerTest extends BaseTest {
 
   }
 
-}
\ No newline at end of file
+  /**
+   * 测试异步写入
+   */
+  @Test
+  public void testAsyncWrite() throws Exception {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "slicer-" + IdUtils.uuid());
+    List<File> files = new CopyOnWriteArrayList<>();
+    FileSlicer<SliceFileWriter> slicer = new FileSlicer<>();
+    slicer.setCacheDir(dir);
+    slicer.setMaxSize(Utils.MB);
+    slicer.setFileFactory(FileFactory.newFactory(".txt"));
+    slicer.setFileListener((writer, file) -> files.add(file));
+    slicer.setAsync(new AsyncOptions().setFlushInterval(10));
+    try {
+      byte[] line = (IdUtils.nextId(null, "\n", 99)).getBytes();
+      int threads = 4, count = 10_000;
+      Thread[] producers = new Thread[threads];
+      for (int i = 0; i < threads; i++) {
+        producers[i] = new Thread(() -> {
+          for (int j = 0; j < count; j++) {
+            slicer.write(line);
+          }
+        });
+        producers[i].start();
+      }
+      for (Thread t : producers) {
+        t.join();
+      }
+      slicer.close();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (files.size() < 4 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      // 1MB 切换文件，记录不会被拆分
+      assertEquals(4, files.size());
+      assertEquals((long) threads * count * line.length, files.stream().mapToLong(File::length).sum());
+      for (File file : files) {
+        assertEquals(0, file.length() % line.length);
+      }
+    } finally {
+      IOUtils.delete(dir);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.benefitj.core.pool;
+
+import com.benefitj.core.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteArrayPoolTest extends BaseTest {
+
+  @Test
+  public void testAcquireAndRelease() {
+    ByteArrayPool pool = new ByteArrayPool(64, 1 << 20, 1 << 20, 2, false);
+    PooledBytes buf = pool.acquire(100);
+    assertEquals(128, buf.array().length);
+    assertEquals(100, buf.length());
+    byte[] array = buf.array();
+    buf.close();
+    buf.close();
+    assertTrue(buf.isReleased());
+    // 同一线程再次申请，复用弹夹中的数组
+    assertSame(array, pool.acquireArray(100));
+    // 超过最大规格不缓存
+    assertEquals((1 << 20) + 1, pool.acquireArray((1 << 20) + 1).length);
+  }
+
+  @Test
+  public void testMaxMemory() {
+    ByteArrayPool pool = new ByteArrayPool(64, 1 << 20, 1 << 17, 0, false);
+    for (int i = 0; i < 5; i++) {
+      pool.release(new byte[1 << 16]);
+    }
+    assertEquals(1 << 17, pool.getRetainedBytes());
+    pool.trim();
+    assertEquals(0, pool.getRetainedBytes());
+  }
+
+  @Test
+  public void testLeakDetection() {
+    ByteArrayPool pool = new ByteArrayPool(64, 1 << 20, 1 << 20, 2, true);
+    // 未释放的缓冲，直接执行清理动作，不依赖GC的时机
+    PooledBytes leaked = pool.acquire(10);
+    leaked.runLeakCheck();
+    assertEquals(1, pool.getLeaks());
+    // 只执行一次
+    leaked.runLeakCheck();
+    assertEquals(1, pool.getLeaks());
+
+    // 已释放的缓冲不算泄漏
+    PooledBytes released = pool.acquire(10);
+    released.release();
+    released.runLeakCheck();
+    assertEquals(1, pool.getLeaks());
+
+    // 未开启检测
+    pool.setLeakDetection(false);
+    pool.acquire(10).runLeakCheck();
+    assertEquals(1, pool.getLeaks());
+  }
+
+}
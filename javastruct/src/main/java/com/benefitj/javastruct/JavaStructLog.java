@@ -0,0 +1,82 @@
+package com.benefitj.javastruct;
+
+import com.benefitj.core.file.log.SegmentLog;
+import com.benefitj.core.pool.ByteArrayPool;
+import com.benefitj.core.pool.PooledBytes;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按设备和时间存储结构体，数据保存在 {@link SegmentLog} 中，查询时只解析命中的记录
+ *
+ * @param <T> 结构体类型
+ */
+public class JavaStructLog<T> {
+
+  private final SegmentLog log;
+  private final Class<T> type;
+  private final JavaStructManager manager;
+
+  public JavaStructLog(SegmentLog log, Class<T> type) {
+    this(log, type, JavaStructManager.get());
+  }
+
+  public JavaStructLog(SegmentLog log, Class<T> type, JavaStructManager manager) {
+    this.log = log;
+    this.type = type;
+    this.manager = manager;
+  }
+
+  /**
+   * 追加结构体
+   *
+   * @param deviceId  设备ID
+   * @param timestamp 时间戳
+   * @param struct    结构体
+   */
+  public void append(String deviceId, long timestamp, T struct) {
+    log.append(deviceId, timestamp, manager.toBytes(struct));
+  }
+
+  /**
+   * 查询设备在时间范围内的结构体
+   *
+   * @param deviceId 设备ID
+   * @param from     开始时间(包含)
+   * @param to       结束时间(包含)
+   * @return 返回解析的结构体
+   */
+  public List<T> scan(String deviceId, long from, long to) {
+    List<T> list = new ArrayList<>();
+    log.scan(deviceId, from, to, (id, timestamp, data) -> list.add(parse(data)));
+    return list;
+  }
+
+  /**
+   * 解析结构体，数据完整时使用池化的缓冲
+   */
+  public T parse(ByteBuffer data) {
+    int size = data.remaining();
+    if (size < manager.getStructClass(type, true).getSize()) {
+      // 数据不完整时按实际长度解析，缺少的字段不处理
+      byte[] buf = new byte[size];
+      data.duplicate().get(buf);
+      return manager.parseObject(buf, type);
+    }
+    try (PooledBytes buf = ByteArrayPool.get().acquire(size)) {
+      data.duplicate().get(buf.array(), 0, size);
+      return manager.parseObject(buf.array(), type);
+    }
+  }
+
+  public SegmentLog getLog() {
+    return log;
+  }
+
+  public Class<T> getType() {
+    return type;
+  }
+
+}
@@ -168,6 +168,18 @@ public class JavaStructManager {
     return getStructClass(o.getClass(), true).toBytes(o);
   }
 
+  /**
+   * 转换到给定的数组中，所需的长度为结构体的大小 {@link StructClass#getSize()}
+   *
+   * @param o    对象
+   * @param dest 目标数组
+   * @param off  开始的位置
+   * @return 返回目标数组
+   */
+  public byte[] toBytes(Object o, byte[] dest, int off) {
+    return getStructClass(o.getClass(), true).toBytes(o, dest, off);
+  }
+
   /**
    * 解析结构体数据
    *
@@ -62,15 +62,29 @@ public class StructClass {
    * @return 返回转换后的字节数组
    */
   public byte[] toBytes(Object obj) {
-    byte[] data = new byte[getSize()];
-    int index = 0;
+    return toBytes(obj, new byte[getSize()], 0);
+  }
+
+  /**
+   * 转换对象，写入到给定的数组中(例如从字节数组池获取的缓冲)
+   *
+   * @param obj  对象
+   * @param dest 目标数组
+   * @param off  开始的位置
+   * @return 返回目标数组
+   */
+  public byte[] toBytes(Object obj, byte[] dest, int off) {
+    if (off < 0 || dest.length - off < getSize()) {
+      throw new IndexOutOfBoundsException("数组长度不够，要求长度" + getSize() + "，实际长度" + (dest.length - off));
+    }
+    int index = off;
     for (StructField field : getFields()) {
       Object value = ReflectUtils.getFieldValue(field.getField(), obj);
       byte[] bytes = field.getConverter().convert(obj, field, value);
-      System.arraycopy(bytes, 0, data, index, bytes.length);
+      System.arraycopy(bytes, 0, dest, index, bytes.length);
       index += field.size();
     }
-    return data;
+    return dest;
   }
 
   /**
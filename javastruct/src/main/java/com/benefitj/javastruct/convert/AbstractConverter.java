@@ -1,11 +1,14 @@
 package com.benefitj.javastruct.convert;
 
+import com.benefitj.core.pool.PooledBytes;
 import com.benefitj.javastruct.JavaStructField;
 import com.benefitj.javastruct.PrimitiveType;
 import com.benefitj.javastruct.StructField;
 
 import java.lang.reflect.Field;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.function.Function;
 
 /**
@@ -103,7 +106,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertShort(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().shortToBytes(((Number) value).shortValue(), field.getByteOrder()));
+    return convertBits(field, 2, ((Number) value).shortValue());
   }
 
   /**
@@ -114,7 +117,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertInteger(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().intToBytes(((Number) value).intValue(), field.getByteOrder()));
+    return convertBits(field, 4, ((Number) value).intValue());
   }
 
   /**
@@ -125,7 +128,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertLong(StructField field, Object value) {
-    return convert(field, value, o -> getBinary().longToBytes(((Number) value).longValue(), field.getByteOrder()));
+    return convertBits(field, 8, ((Number) value).longValue());
   }
 
   /**
@@ -136,8 +139,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertFloat(StructField field, Object value) {
-    return convert(field, value, o ->
-        getBinary().intToBytes(Float.floatToIntBits(((Number) value).floatValue()), field.getByteOrder()));
+    return convertBits(field, 4, Float.floatToIntBits(((Number) value).floatValue()));
   }
 
   /**
@@ -148,8 +150,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换后的数据
    */
   public byte[] convertDouble(StructField field, Object value) {
-    return convert(field, value, o ->
-        getBinary().longToBytes(Double.doubleToLongBits(((Number) value).doubleValue()), field.getByteOrder()));
+    return convertBits(field, 8, Double.doubleToLongBits(((Number) value).doubleValue()));
   }
 
   /**
@@ -190,6 +191,59 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
     return copy(bytes, srcPos, buf, 0, Math.min(bytes.length, size));
   }
 
+  /**
+   * 转换数值，按字段的字节序写入缓存数组，位宽与字段长度不同时借用池中的临时缓冲，不再为每个值分配数组
+   *
+   * @param field 字段
+   * @param width 数值的字节数(2、4、8)
+   * @param bits  数值(浮点数为对应的位)
+   * @return 返回转换后的字节数据
+   */
+  public byte[] convertBits(StructField field, int width, long bits) {
+    int size = field.getFieldSize() > 0 ? field.getFieldSize() : field.getPrimitiveType().getSize();
+    if (width == size) {
+      return writeBits(getCache(size), 0, width, bits, field.getByteOrder());
+    }
+    byte[] buf = getCache(size);
+    try (PooledBytes tmp = acquire(width)) {
+      byte[] bytes = writeBits(tmp.array(), 0, width, bits, field.getByteOrder());
+      int len = Math.min(width, size);
+      if (field.isLittleEndian()) {
+        return copy(bytes, 0, buf, 0, len);
+      }
+      if (width > size) {
+        // 保留低位
+        return copy(bytes, width - size, buf, 0, len);
+      }
+      // 高位补0
+      Arrays.fill(buf, 0, size - width, (byte) 0);
+      return copy(bytes, 0, buf, size - width, len);
+    }
+  }
+
+  /**
+   * 写入数值
+   *
+   * @param dst   目标数组
+   * @param off   开始的位置
+   * @param width 字节数(2、4、8)
+   * @param bits  数值
+   * @param order 字节序
+   * @return 返回目标数组
+   */
+  public byte[] writeBits(byte[] dst, int off, int width, long bits, ByteOrder order) {
+    switch (width) {
+      case 2:
+        return getBinary().writeShort(dst, off, (short) bits, order);
+      case 4:
+        return getBinary().writeInt(dst, off, (int) bits, order);
+      case 8:
+        return getBinary().writeLong(dst, off, bits, order);
+      default:
+        throw new IllegalArgumentException("不支持的字节数: " + width);
+    }
+  }
+
   /**
    * 转换布尔数组类型
    *
@@ -266,10 +320,10 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public byte[] convertShortArray(StructField field, Object value) {
     if (value.getClass() == short[].class) {
       short[] array = (short[]) value;
-      return convertArray(field, i -> getBinary().shortToBytes(array[i]));
+      return convertArray(field, 2, (i, dst) -> writeElement(dst, 2, array[i]));
     } else {
       Short[] array = (Short[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().shortToBytes(array[i]) : null);
+      return convertArray(field, 2, (i, dst) -> array[i] != null && writeElement(dst, 2, array[i]));
     }
   }
 
@@ -283,10 +337,10 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public byte[] convertIntegerArray(StructField field, Object value) {
     if (value.getClass() == int[].class) {
       int[] array = (int[]) value;
-      return convertArray(field, i -> getBinary().intToBytes(array[i]));
+      return convertArray(field, 4, (i, dst) -> writeElement(dst, 4, array[i]));
     } else {
       Integer[] array = (Integer[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().intToBytes(array[i]) : null);
+      return convertArray(field, 4, (i, dst) -> array[i] != null && writeElement(dst, 4, array[i]));
     }
   }
 
@@ -300,10 +354,10 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public byte[] convertLongArray(StructField field, Object value) {
     if (value.getClass() == long[].class) {
       long[] array = (long[]) value;
-      return convertArray(field, i -> getBinary().longToBytes(array[i]));
+      return convertArray(field, 8, (i, dst) -> writeElement(dst, 8, array[i]));
     } else {
       Long[] array = (Long[]) value;
-      return convertArray(field, i -> array[i] != null ? getBinary().longToBytes(array[i]) : null);
+      return convertArray(field, 8, (i, dst) -> array[i] != null && writeElement(dst, 8, array[i]));
     }
   }
 
@@ -317,11 +371,11 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public byte[] convertFloatArray(StructField field, Object value) {
     if (value.getClass() == float[].class) {
       float[] array = (float[]) value;
-      return convertArray(field, i -> getBinary().intToBytes(Float.floatToIntBits(array[i])));
+      return convertArray(field, 4, (i, dst) -> writeElement(dst, 4, Float.floatToIntBits(array[i])));
     } else {
       Float[] array = (Float[]) value;
-      return convertArray(field, i ->
-          array[i] != null ? getBinary().intToBytes(Float.floatToIntBits(array[i])) : null);
+      return convertArray(field, 4, (i, dst) ->
+          array[i] != null && writeElement(dst, 4, Float.floatToIntBits(array[i])));
     }
   }
 
@@ -335,11 +389,11 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public byte[] convertDoubleArray(StructField field, Object value) {
     if (value.getClass() == double[].class) {
       double[] array = (double[]) value;
-      return convertArray(field, i -> getBinary().longToBytes(Double.doubleToLongBits(array[i])));
+      return convertArray(field, 8, (i, dst) -> writeElement(dst, 8, Double.doubleToLongBits(array[i])));
     } else {
       Double[] array = (Double[]) value;
-      return convertArray(field, i ->
-          array[i] != null ? getBinary().longToBytes(Double.doubleToLongBits(array[i])) : null);
+      return convertArray(field, 8, (i, dst) ->
+          array[i] != null && writeElement(dst, 8, Double.doubleToLongBits(array[i])));
     }
   }
 
@@ -368,6 +422,44 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
     return buf;
   }
 
+  /**
+   * 转换数值数组，每个元素按大端写入池中的临时缓冲再拷贝到结果，不再为每个元素分配数组
+   *
+   * @param field 字段信息
+   * @param width 元素的字节数
+   * @param func  写入元素的函数
+   * @return 返回转换后的字节数组
+   */
+  public byte[] convertArray(StructField field, int width, ArrayWriterFunction func) {
+    int ratio = field.getFieldSize();
+    byte[] buf = getCache(field.size());
+    int arrayLength = field.getArrayLength();
+    int len = Math.min(width, ratio);
+    int srcPos = width >= ratio ? width - ratio : 0;
+    int destPos = width >= ratio ? 0 : ratio - width;
+    try (PooledBytes tmp = acquire(width)) {
+      byte[] bytes = tmp.array();
+      for (int i = 0; i < arrayLength; i++) {
+        if (func.write(i, bytes)) {
+          if (field.isLittleEndian()) {
+            copy(bytes, 0, buf, i * ratio, len);
+          } else {
+            copy(bytes, srcPos, buf, destPos + i * ratio, len);
+          }
+        }
+      }
+    }
+    return buf;
+  }
+
+  /**
+   * 按大端写入数组元素
+   */
+  boolean writeElement(byte[] dst, int width, long bits) {
+    writeBits(dst, 0, width, bits, ByteOrder.BIG_ENDIAN);
+    return true;
+  }
+
   public int srcPos(byte[] src, int ratio) {
     return src.length >= ratio ? src.length - ratio : 0;
   }
@@ -414,7 +506,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的短整数
    */
   public short parseShort(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToShort(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().bytesToShort(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -427,7 +519,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的整数
    */
   public int parseInt(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToInt(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().bytesToInt(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -440,7 +532,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的长整数
    */
   public long parseLong(StructField field, byte[] data, int position, boolean signed) {
-    return getBinary().bytesToLong(copy(data, position, field.size()), field.getByteOrder(), signed);
+    return getBinary().bytesToLong(data, position, field.size(), field.getByteOrder(), signed);
   }
 
   /**
@@ -453,7 +545,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
    * @return 返回转换的单精度浮点数
    */
   public float parseFloat(StructField field, byte[] data, int position, boolean signed) {
-    return Float.floatToIntBits(parseInt(field, data, position, signed));
+    return Float.intBitsToFloat(parseInt(field, data, position, signed));
   }
 
   /**
@@ -498,8 +590,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public Object parseShortArray(StructField field, byte[] data, int start) {
     if (field.getType() == short[].class) {
       short[] array = new short[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToShort(buf, field.getByteOrder(), field.isSinged()));
+      return getBinary().decodeInto(array, 0, data, start, array.length, field.getFieldSize(), field.getByteOrder(), field.isSinged());
     } else {
       Short[] array = new Short[field.getArrayLength()];
       return parseArray(field, data, start, array, (arr, index, buf)
@@ -518,8 +609,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public Object parseIntegerArray(StructField field, byte[] data, int start) {
     if (field.getType() == int[].class) {
       int[] array = new int[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToInt(buf, field.getByteOrder(), field.isSinged()));
+      return getBinary().decodeInto(array, 0, data, start, array.length, field.getFieldSize(), field.getByteOrder(), field.isSinged());
     } else {
       Integer[] array = new Integer[field.getArrayLength()];
       return parseArray(field, data, start, array, (arr, index, buf)
@@ -538,8 +628,7 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
   public Object parseLongArray(StructField field, byte[] data, int start) {
     if (field.getType() == long[].class) {
       long[] array = new long[field.getArrayLength()];
-      return parseArray(field, data, start, array, (arr, index, buf)
-          -> arr[index] = getBinary().bytesToLong(buf, field.getByteOrder(), field.isSinged()));
+      return getBinary().decodeInto(array, 0, data, start, array.length, field.getFieldSize(), field.getByteOrder(), field.isSinged());
     } else {
       Long[] array = new Long[field.getArrayLength()];
       return parseArray(field, data, start, array, (arr, index, buf)
@@ -631,6 +720,17 @@ public abstract class AbstractConverter<T> extends BufCopyConverter<T> {
 
   }
 
+  interface ArrayWriterFunction {
+    /**
+     * 写入元素对应的字节
+     *
+     * @param index 数组的索引
+     * @param dst   写入的缓冲，从0开始
+     * @return 返回是否写入，元素为null时返回false
+     */
+    boolean write(int index, byte[] dst);
+  }
+
   interface ArrayConverterFunction {
     /**
      * 获取元素对应的字节数组
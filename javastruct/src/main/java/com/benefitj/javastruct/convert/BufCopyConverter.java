@@ -2,6 +2,7 @@ package com.benefitj.javastruct.convert;
 
 import com.benefitj.core.BinaryHelper;
 import com.benefitj.core.ByteArrayCopy;
+import com.benefitj.core.pool.PooledBytes;
 import com.benefitj.javastruct.JavaStructField;
 import com.benefitj.javastruct.PrimitiveType;
 import com.benefitj.javastruct.StructField;
@@ -80,6 +81,16 @@ public abstract class BufCopyConverter<T> implements Converter<T> {
     return copy.getCache(size, local);
   }
 
+  /**
+   * 从字节数组池获取临时缓冲，使用完成后需要归还，数组长度可能大于 size
+   *
+   * @param size 大小
+   * @return 返回缓冲
+   */
+  public PooledBytes acquire(int size) {
+    return copy.acquire(size);
+  }
+
   /**
    * 拷贝
    *
@@ -5,6 +5,8 @@ import com.benefitj.core.BinaryHelper;
 import com.benefitj.core.ClasspathUtils;
 import com.benefitj.core.HexUtils;
 import com.benefitj.core.IOUtils;
+import com.benefitj.core.pool.ByteArrayPool;
+import com.benefitj.core.pool.PooledBytes;
 import com.benefitj.javastruct.entity.CollectorPacket;
 import com.benefitj.javastruct.entity.LeadWave;
 import com.benefitj.javastruct.entity.Person;
@@ -14,8 +16,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Date;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class JavaStructManagerTest {
 
 
@@ -63,6 +69,28 @@ public class JavaStructManagerTest {
     System.err.println(binary.bytesToHex(data));
   }
 
+  /**
+   * 测试转换到池中的缓冲
+   */
+  @Test
+  public void testBytesInto() {
+    Person person = new Person();
+    person.setName("蔡狗");
+    person.setAge(30);
+    person.setV5(new short[]{1, -2, 3, 0x7F00});
+    person.setTime(System.currentTimeMillis());
+    person.setCreateTime(new Date());
+    person.setHex(binary.bytesToHex(binary.longToBytes(1024 * 1234 * 123456789L)));
+    person.setHello("世界,你好!");
+
+    byte[] data = manager.toBytes(person);
+    try (PooledBytes buf = ByteArrayPool.get().acquire(data.length + 3)) {
+      manager.toBytes(person, buf.array(), 3);
+      assertArrayEquals(data, Arrays.copyOfRange(buf.array(), 3, 3 + data.length));
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> manager.toBytes(person, new byte[data.length], 1));
+  }
+
   /**
    * 测试解析器
    */
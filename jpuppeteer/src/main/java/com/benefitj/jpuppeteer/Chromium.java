@@ -483,7 +483,7 @@ public class Chromium implements Launcher {
 
     @Override
     public void onMessage(@NotNull WebSocket webSocket, @NotNull ByteString bytes) {
-      log.info("[Chromium] onMessage, bytes: {}", HexUtils.bytesToHex(bytes.toByteArray()));
+      log.info("[Chromium] onMessage, bytes: {}", HexDump.lazy(bytes::toByteArray));
     }
 
     @Override
@@ -0,0 +1,95 @@
+package com.benefitj.netty;
+
+import com.benefitj.core.checksum.CrcAlgorithm;
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * 在 ByteBuf 上计算校验和，不拷贝数据
+ */
+public class ByteBufChecksums {
+
+  /**
+   * 更新校验和，不改变读写位置
+   *
+   * @param checksum 校验和
+   * @param buf      缓冲
+   * @param index    开始的位置(绝对索引)
+   * @param len      长度
+   * @return 返回校验和
+   */
+  public static <T extends Checksum> T update(T checksum, ByteBuf buf, int index, int len) {
+    if (buf.hasArray()) {
+      checksum.update(buf.array(), buf.arrayOffset() + index, len);
+    } else if (buf.nioBufferCount() == 1) {
+      checksum.update(buf.nioBuffer(index, len));
+    } else {
+      for (int i = index, end = index + len; i < end; i++) {
+        checksum.update(buf.getByte(i));
+      }
+    }
+    return checksum;
+  }
+
+  /**
+   * 计算可读数据的校验值，不改变读写位置
+   *
+   * @param algorithm 算法
+   * @param buf       缓冲
+   * @return 返回校验值
+   */
+  public static long compute(CrcAlgorithm algorithm, ByteBuf buf) {
+    return compute(algorithm, buf, buf.readerIndex(), buf.readableBytes());
+  }
+
+  /**
+   * 计算校验值，不改变读写位置
+   *
+   * @param algorithm 算法
+   * @param buf       缓冲
+   * @param index     开始的位置(绝对索引)
+   * @param len       长度
+   * @return 返回校验值
+   */
+  public static long compute(CrcAlgorithm algorithm, ByteBuf buf, int index, int len) {
+    if (buf.hasArray()) {
+      return algorithm.compute(buf.array(), buf.arrayOffset() + index, len);
+    }
+    return update(algorithm.newChecksum(), buf, index, len).getValue();
+  }
+
+  /**
+   * 校验帧尾的CRC，不拷贝数据，不改变读写位置
+   *
+   * @param algorithm 算法
+   * @param buf       缓冲
+   * @param index     帧开始的位置(绝对索引)
+   * @param len       帧长度(包含CRC)
+   * @param order     CRC的字节序
+   * @return 返回是否校验通过
+   */
+  public static boolean verify(CrcAlgorithm algorithm, ByteBuf buf, int index, int len, ByteOrder order) {
+    if (buf.hasArray()) {
+      return algorithm.verify(buf.array(), buf.arrayOffset() + index, len, order);
+    }
+    int n = algorithm.byteWidth();
+    if (len < n) {
+      return false;
+    }
+    long expected = 0;
+    int end = index + len;
+    if (order == ByteOrder.LITTLE_ENDIAN) {
+      for (int i = end - 1; i >= end - n; i--) {
+        expected = (expected << 8) | buf.getUnsignedByte(i);
+      }
+    } else {
+      for (int i = end - n; i < end; i++) {
+        expected = (expected << 8) | buf.getUnsignedByte(i);
+      }
+    }
+    return compute(algorithm, buf, index, len - n) == expected;
+  }
+
+}
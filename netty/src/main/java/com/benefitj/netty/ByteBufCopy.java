@@ -1,6 +1,7 @@
 package com.benefitj.netty;
 
 import com.benefitj.core.ByteArrayCopy;
+import com.benefitj.core.pool.PooledBytes;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.socket.DatagramPacket;
 
@@ -206,6 +207,30 @@ public interface ByteBufCopy extends ByteArrayCopy {
     return buf;
   }
 
+  /**
+   * 读取数据到池化的缓冲中，使用完成后需要调用 {@link PooledBytes#release()} 归还
+   *
+   * <pre>
+   *   try (PooledBytes buf = copy.acquire(data, data.readableBytes(), false)) {
+   *     handle(buf.array(), 0, buf.length());
+   *   }
+   * </pre>
+   *
+   * @param data  数据
+   * @param size  读取的长度
+   * @param reset 是否重置读取位置
+   * @return 返回缓冲，有效数据的长度为 {@link PooledBytes#length()}
+   */
+  default PooledBytes acquire(ByteBuf data, int size, boolean reset) {
+    PooledBytes buf = acquire(size);
+    if (reset) {
+      data.getBytes(data.readerIndex(), buf.array(), 0, size);
+    } else {
+      data.readBytes(buf.array(), 0, size);
+    }
+    return buf;
+  }
+
   /**
    * 创建字节缓冲拷贝
    */
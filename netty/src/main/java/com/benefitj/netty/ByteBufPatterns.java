@@ -0,0 +1,70 @@
+package com.benefitj.netty;
+
+import com.benefitj.core.BytePattern;
+import com.benefitj.core.MultiBytePattern;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 在 ByteBuf 中查找字节标志，不拷贝数据
+ */
+public class ByteBufPatterns {
+
+  /**
+   * 查找匹配的开始位置
+   *
+   * @param pattern 查找器
+   * @param buf     缓冲
+   * @return 返回找到的位置(绝对索引)，如果未找到返回-1
+   */
+  public static int indexOf(BytePattern pattern, ByteBuf buf) {
+    return indexOf(pattern, buf, buf.readerIndex(), buf.writerIndex());
+  }
+
+  /**
+   * 查找匹配的开始位置
+   *
+   * @param pattern 查找器
+   * @param buf     缓冲
+   * @param from    开始的位置(包含)
+   * @param to      结束的位置(不包含)
+   * @return 返回找到的位置(绝对索引)，如果未找到返回-1
+   */
+  public static int indexOf(BytePattern pattern, ByteBuf buf, int from, int to) {
+    if (buf.hasArray()) {
+      int offset = buf.arrayOffset();
+      int index = pattern.indexOf(buf.array(), offset + from, offset + to);
+      return index >= 0 ? index - offset : -1;
+    }
+    return pattern.indexOf(buf::getByte, from, to);
+  }
+
+  /**
+   * 查找最靠前的匹配
+   *
+   * @param pattern 查找器
+   * @param buf     缓冲
+   * @return 返回匹配结果(绝对索引)，未找到返回-1
+   */
+  public static long find(MultiBytePattern pattern, ByteBuf buf) {
+    return find(pattern, buf, buf.readerIndex(), buf.writerIndex());
+  }
+
+  /**
+   * 查找最靠前的匹配
+   *
+   * @param pattern 查找器
+   * @param buf     缓冲
+   * @param from    开始的位置(包含)
+   * @param to      结束的位置(不包含)
+   * @return 返回匹配结果(绝对索引)，通过 {@link MultiBytePattern#start(long)} 获取位置，未找到返回-1
+   */
+  public static long find(MultiBytePattern pattern, ByteBuf buf, int from, int to) {
+    if (buf.hasArray()) {
+      int offset = buf.arrayOffset();
+      long found = pattern.find(buf.array(), offset + from, offset + to);
+      return found >= 0 ? found - offset : -1;
+    }
+    return pattern.find(buf::getByte, from, to);
+  }
+
+}
@@ -1,8 +1,9 @@
 package com.benefitj.netty.handler;
 
-import com.benefitj.core.HexUtils;
+import com.benefitj.core.HexDump;
 import com.benefitj.core.SingletonSupplier;
 import com.benefitj.core.log.ILogger;
+import com.benefitj.core.pool.PooledBytes;
 import com.benefitj.netty.NettyLogger;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -48,11 +49,13 @@ public class LoggingHandler extends SimpleCopyHandler<ByteBuf> {
     try {
       if (isPrint() && msg.readableBytes() > 0) {
         int size = Math.min(getReadMaxSize(), msg.readableBytes());
-        byte[] data = copyAndReset(msg, size, true);
-        log.info("remote: {}, data[{}]: {}"
-            , ctx.channel().remoteAddress()
-            , msg.readableBytes()
-            , HexUtils.bytesToHex(data));
+        // 临时缓冲，日志输出后归还；HexDump 只在日志级别开启时才格式化
+        try (PooledBytes data = acquire(msg, size, true)) {
+          log.info("remote: {}, data[{}]: {}"
+              , ctx.channel().remoteAddress()
+              , msg.readableBytes()
+              , HexDump.of(data.array(), 0, size));
+        }
       }
     } finally {
       ctx.fireChannelRead(msg.retain());
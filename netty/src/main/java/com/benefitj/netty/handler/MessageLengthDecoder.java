@@ -1,7 +1,10 @@
 package com.benefitj.netty.handler;
 
+import com.benefitj.core.BytePattern;
 import com.benefitj.core.HexUtils;
+import com.benefitj.core.ReflectUtils;
 import com.benefitj.netty.ByteBufCopy;
+import com.benefitj.netty.ByteBufPatterns;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -10,6 +13,8 @@ import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
 
 import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -30,6 +35,10 @@ public class MessageLengthDecoder extends ByteToMessageDecoder implements ByteBu
    * 包头
    */
   private byte[] head = HEAD;
+  /**
+   * 预编译的包头查找器，按 {@link #getHead()} 的内容缓存，子类重写 getHead 时同样生效
+   */
+  private volatile CompiledHead compiledHead;
   /**
    * 获取长度的实现
    */
@@ -42,6 +51,10 @@ public class MessageLengthDecoder extends ByteToMessageDecoder implements ByteBu
    * 长度
    */
   private final AttributeKey<Integer> lengthKey = AttributeKey.valueOf("length");
+  /**
+   * 子类未重写 isHead 和 isDiscard 时，才能直接在可读数据中查找包头
+   */
+  private final boolean defaultHeadMatch = !isOverridden("isHead") && !isOverridden("isDiscard");
 
   public MessageLengthDecoder() {
   }
@@ -82,10 +95,23 @@ public class MessageLengthDecoder extends ByteToMessageDecoder implements ByteBu
       return;
     }
 
-    // 只读取包头的数据
-    byte[] segment = copy.copyAndReset(in, minReadLength, true);
     // 判断包头是否匹配
     byte[] head = getHead();
+    BytePattern pattern = head.length > 0 ? headPattern(head) : null;
+    if (pattern != null && defaultHeadMatch && getHeadValidator() == null) {
+      // 未自定义校验时，直接在全部可读数据中定位包头，一次丢弃包头之前的数据
+      int index = ByteBufPatterns.indexOf(pattern, in);
+      // 未找到时保留末尾可能是半个包头的数据
+      int discardSize = index >= 0 ? index - in.readerIndex() : in.readableBytes() - (head.length - 1);
+      if (discardSize > 0) {
+        attr.set(null);
+        discardBytes(ctx, in, this.copy.copy(in, discardSize, false, false));
+        return;
+      }
+    }
+
+    // 只读取包头的数据
+    byte[] segment = copy.copyAndReset(in, minReadLength, true);
     if (!isHead(head, segment, 0)) {
       int discardSize = 0;
       try {
@@ -223,6 +249,31 @@ public class MessageLengthDecoder extends ByteToMessageDecoder implements ByteBu
     return lengthKey;
   }
 
+  /**
+   * 获取包头的查找器，包头改变时重新编译
+   */
+  private BytePattern headPattern(byte[] head) {
+    CompiledHead ch = this.compiledHead;
+    if (ch == null || !Arrays.equals(ch.head, head)) {
+      this.compiledHead = ch = new CompiledHead(head.clone(), BytePattern.compile(head));
+    }
+    return ch.pattern;
+  }
+
+  private boolean isOverridden(String name) {
+    Method m = ReflectUtils.findFirstMethod(getClass(), name, new Class[]{byte[].class, byte[].class, int.class});
+    return m != null && m.getDeclaringClass() != MessageLengthDecoder.class;
+  }
+
+  static final class CompiledHead {
+    final byte[] head;
+    final BytePattern pattern;
+
+    CompiledHead(byte[] head, BytePattern pattern) {
+      this.head = head;
+      this.pattern = pattern;
+    }
+  }
 
   public interface HeadValidator {
     /**
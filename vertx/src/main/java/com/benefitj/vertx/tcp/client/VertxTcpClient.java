@@ -245,7 +245,7 @@ public class VertxTcpClient extends VertxVerticle<VertxTcpClient> implements Ver
     @Override
     public void onMessage(VertxTcpClient client, Buffer buf) {
       byte[] bufBytes = buf.getBytes();
-      log.trace("[tcp client] remote[{}] rcv <== data[{}]: {}", remoteAddress(), bufBytes.length, HexUtils.bytesToHex(bufBytes));
+      log.trace("[tcp client] remote[{}] rcv <== data[{}]: {}", remoteAddress(), bufBytes.length, HexDump.of(bufBytes));
       proxyListener.onMessage(self, buf);
     }
 